@@ -0,0 +1,508 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.async.processingframework.impl;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.impl.ResourceRequestById;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.resource.Resource;
+import ddf.catalog.resource.ResourceNotFoundException;
+import ddf.catalog.resource.ResourceNotSupportedException;
+import ddf.metrics.collector.Counter;
+import ddf.metrics.collector.Histogram;
+import ddf.metrics.collector.MetricsRegistry;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.catalog.async.data.api.internal.InaccessibleResourceException;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessCreateItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessDeleteItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessRequest;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessResource;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessResourceItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessUpdateItem;
+import org.codice.ddf.catalog.async.data.impl.LazyProcessResourceImpl;
+import org.codice.ddf.catalog.async.data.impl.ProcessCreateItemImpl;
+import org.codice.ddf.catalog.async.data.impl.ProcessDeleteItemImpl;
+import org.codice.ddf.catalog.async.data.impl.ProcessRequestImpl;
+import org.codice.ddf.catalog.async.data.impl.ProcessUpdateItemImpl;
+import org.codice.ddf.catalog.async.plugin.api.internal.PostProcessPlugin;
+import org.codice.ddf.catalog.async.processingframework.api.internal.ProcessingFramework;
+import org.codice.ddf.catalog.async.processingframework.impl.LoggedProcessRequest.Operation;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.codice.ddf.security.common.Security;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@code DurableProcessingFramework} processes requests like the {@link
+ * InMemoryProcessingFramework}, but appends every submitted request to a {@link ProcessRequestLog}
+ * first and only removes it from the log once its results were sent back to the {@link
+ * CatalogFramework}. Requests that were not completely processed when the system stopped are
+ * processed again when the framework is started.
+ *
+ * <p>Only a limited number of submitted requests are kept in memory. The others are read back from
+ * the log when a thread is available to process them, so a burst of ingests doesn't fill the heap.
+ * Requests read back from the log, and requests resumed after a restart, no longer have the
+ * resources that were submitted with them; their resources are retrieved again from the catalog.
+ * Resumed requests are processed as the system subject, since the subject that submitted them is
+ * gone.
+ *
+ * <p>The number of requests a {@link PostProcessPlugin} processes at once can be limited per
+ * plugin, and the metacard updates of processed requests are sent to the catalog in batches. A
+ * batch the catalog fails to store is retried a few times, after which its requests are left in the
+ * log until the framework is started again.
+ *
+ * <p>The number of pending requests, the number of processed requests and the time requests spend
+ * pending are recorded as the {@code asyncProcessingQueueDepth}, {@code asyncProcessingRequests}
+ * and {@code asyncProcessingLag} metrics.
+ */
+public class DurableProcessingFramework implements ProcessingFramework {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DurableProcessingFramework.class);
+
+  private static final String METRICS_PREFIX = "asyncProcessing";
+
+  private static final int MAX_STORE_ATTEMPTS = 5;
+
+  private final CatalogFramework catalogFramework;
+
+  private final ProcessRequestLog log;
+
+  private final ExecutorService threadPool;
+
+  private final ProcessRequestStorage storage;
+
+  private final Map<Long, Submission> submissions = new ConcurrentHashMap<>();
+
+  private final Map<Long, Subject> spilledSubjects = new ConcurrentHashMap<>();
+
+  private final Map<String, Semaphore> pluginPermits = new ConcurrentHashMap<>();
+
+  private final Histogram queueDepth;
+
+  private final Counter processed;
+
+  private final Histogram lag;
+
+  private List<PostProcessPlugin> postProcessPlugins;
+
+  private Map<String, Integer> pluginConcurrency = new HashMap<>();
+
+  private int maxRequestsInMemory = 1000;
+
+  private int batchSize = 100;
+
+  private long batchDelay = 1000;
+
+  private Supplier<Subject> systemSubjectSupplier = () -> Security.getInstance().getSystemSubject();
+
+  private MetacardUpdateBatcher batcher;
+
+  private ScheduledExecutorService scheduler;
+
+  public DurableProcessingFramework(
+      CatalogFramework catalogFramework,
+      ProcessRequestLog log,
+      ExecutorService threadPool,
+      MetricsRegistry metricsRegistry) {
+    notNull(catalogFramework, "The catalog framework must not be null");
+    notNull(log, "The log must not be null");
+    notNull(threadPool, "The threadPool must not be null");
+    notNull(metricsRegistry, "The metrics registry must not be null");
+
+    this.catalogFramework = catalogFramework;
+    this.log = log;
+    this.threadPool = threadPool;
+    this.storage = new ProcessRequestStorage(catalogFramework);
+    this.queueDepth = metricsRegistry.histogram(METRICS_PREFIX + "QueueDepth");
+    this.processed = metricsRegistry.counter(METRICS_PREFIX + "Requests");
+    this.lag = metricsRegistry.histogram(METRICS_PREFIX + "Lag");
+  }
+
+  /** Starts sending batched updates to the catalog and resumes the requests left in the log. */
+  public void init() {
+    batcher = new MetacardUpdateBatcher(storage, batchSize, MAX_STORE_ATTEMPTS);
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("catalogAsyncProcessingBatchThread"));
+    scheduler.scheduleWithFixedDelay(batcher::flush, batchDelay, batchDelay, TimeUnit.MILLISECONDS);
+
+    List<ProcessRequestLog.Entry> pending = log.getPending();
+    queueDepth.update(pending.size());
+    for (ProcessRequestLog.Entry entry : pending) {
+      threadPool.submit(() -> process(entry));
+    }
+  }
+
+  /**
+   * Stops processing. Requests that are still pending stay in the log and are resumed when the
+   * framework is started again, so running plugins are only given a short time to finish.
+   */
+  public void cleanUp() {
+    LOGGER.debug("Stopping PostProcessPlugin thread pool.");
+    threadPool.shutdownNow();
+    try {
+      if (!threadPool.awaitTermination(60, TimeUnit.SECONDS)) {
+        LOGGER.debug("DurableProcessingFramework asynchronous processing did not terminate.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.debug(
+          "Interrupted while shutting down DurableProcessingFramework asynchronous ThreadPool.");
+    }
+
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    if (batcher != null) {
+      batcher.flush();
+    }
+
+    try {
+      log.close();
+    } catch (IOException e) {
+      LOGGER.debug("Unable to close the processing request log.", e);
+    }
+  }
+
+  @Override
+  public void submitCreate(ProcessRequest<ProcessCreateItem> input) {
+    submit(Operation.CREATE, input);
+  }
+
+  @Override
+  public void submitUpdate(ProcessRequest<ProcessUpdateItem> input) {
+    submit(Operation.UPDATE, input);
+  }
+
+  @Override
+  public void submitDelete(ProcessRequest<ProcessDeleteItem> input) {
+    submit(Operation.DELETE, input);
+  }
+
+  private void submit(Operation operation, ProcessRequest<? extends ProcessItem> input) {
+    if (postProcessPlugins == null || postProcessPlugins.isEmpty()) {
+      LOGGER.debug("postProcessPlugins is empty. Not starting post process thread");
+      return;
+    }
+
+    ProcessRequestLog.Entry entry;
+    try {
+      entry = log.append(new LoggedProcessRequest(operation, input).toBytes());
+    } catch (IOException | RuntimeException e) {
+      LOGGER.info(
+          "Unable to add {} request to the processing request log. It will be processed, but will not be resumed after a restart.",
+          operation,
+          e);
+      threadPool.submit(() -> process(operation, input, () -> {}));
+      return;
+    }
+
+    if (submissions.size() < maxRequestsInMemory) {
+      submissions.put(entry.getSequence(), new Submission(operation, input));
+    } else {
+      Subject subject = getSubject(input.getProperties());
+      if (subject != null) {
+        spilledSubjects.put(entry.getSequence(), subject);
+      }
+    }
+
+    queueDepth.update(log.size());
+    threadPool.submit(() -> process(entry));
+  }
+
+  private void process(ProcessRequestLog.Entry entry) {
+    Submission submission = submissions.remove(entry.getSequence());
+    if (submission == null) {
+      submission = restore(entry);
+    }
+
+    if (submission == null) {
+      complete(entry);
+    } else {
+      process(submission.operation, submission.request, () -> complete(entry));
+    }
+  }
+
+  private void process(
+      Operation operation, ProcessRequest<? extends ProcessItem> input, Runnable onComplete) {
+    ProcessRequest<? extends ProcessItem> request = input;
+
+    try {
+      for (PostProcessPlugin plugin : postProcessPlugins) {
+        Semaphore permits = getPermits(plugin);
+        if (permits != null) {
+          permits.acquire();
+        }
+
+        try {
+          request = process(plugin, operation, request);
+        } catch (PluginExecutionException e) {
+          LOGGER.debug(
+              "Unable to process {} request through plugin: {}",
+              operation,
+              plugin.getClass().getCanonicalName(),
+              e);
+        } catch (InaccessibleResourceException e) {
+          LOGGER.debug(
+              "Unable to process {} request. The resource is not available. Failing the entire process request.",
+              operation,
+              e);
+        } finally {
+          if (permits != null) {
+            permits.release();
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.debug("Interrupted while processing {} request. It will be resumed.", operation);
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    try {
+      if (operation == Operation.DELETE) {
+        onComplete.run();
+      } else {
+        store(request, onComplete);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.info("Unable to store the results of a {} request.", operation, e);
+      onComplete.run();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private ProcessRequest<? extends ProcessItem> process(
+      PostProcessPlugin plugin, Operation operation, ProcessRequest request)
+      throws PluginExecutionException {
+    switch (operation) {
+      case CREATE:
+        return plugin.processCreate(request);
+      case UPDATE:
+        return plugin.processUpdate(request);
+      default:
+        return plugin.processDelete(request);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void store(ProcessRequest<? extends ProcessItem> request, Runnable onComplete) {
+    ProcessRequest<ProcessResourceItem> resourceRequest =
+        (ProcessRequest<ProcessResourceItem>) request;
+
+    Map<String, Metacard> metacardsToUpdate;
+    try {
+      metacardsToUpdate = storage.storeContentItemUpdates(resourceRequest);
+    } finally {
+      resourceRequest
+          .getProcessItems()
+          .stream()
+          .map(ProcessResourceItem::getProcessResource)
+          .filter(Objects::nonNull)
+          .forEach(ProcessResource::close);
+    }
+
+    if (metacardsToUpdate.isEmpty()) {
+      LOGGER.debug("No metacards to update");
+      onComplete.run();
+    } else {
+      batcher.add(metacardsToUpdate, request.getProperties(), onComplete);
+    }
+  }
+
+  private void complete(ProcessRequestLog.Entry entry) {
+    try {
+      log.acknowledge(entry);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to remove request {} from the log.", entry.getSequence(), e);
+    }
+
+    processed.increment();
+    lag.update(System.currentTimeMillis() - entry.getTimestamp());
+    queueDepth.update(log.size());
+  }
+
+  @Nullable
+  private Submission restore(ProcessRequestLog.Entry entry) {
+    LoggedProcessRequest logged;
+    try {
+      logged = LoggedProcessRequest.fromBytes(log.read(entry));
+    } catch (IOException e) {
+      LOGGER.info(
+          "Unable to read request {} from the log. It will be skipped.", entry.getSequence(), e);
+      return null;
+    }
+
+    Subject subject = spilledSubjects.remove(entry.getSequence());
+    if (subject == null) {
+      subject = systemSubjectSupplier.get();
+    }
+
+    Map<String, Serializable> properties = new HashMap<>(logged.getProperties());
+    properties.put(SecurityConstants.SECURITY_SUBJECT, subject);
+
+    List<ProcessItem> items = new ArrayList<>();
+    for (LoggedProcessRequest.Item item : logged.getItems()) {
+      ProcessResource resource = item.hasResource() ? restoreResource(item, subject) : null;
+      switch (logged.getOperation()) {
+        case CREATE:
+          items.add(new ProcessCreateItemImpl(resource, item.getMetacard(), false));
+          break;
+        case UPDATE:
+          items.add(
+              new ProcessUpdateItemImpl(
+                  resource, item.getMetacard(), item.getOldMetacard(), false));
+          break;
+        default:
+          items.add(new ProcessDeleteItemImpl(item.getMetacard()));
+      }
+    }
+
+    return new Submission(logged.getOperation(), new ProcessRequestImpl<>(items, properties));
+  }
+
+  @Nullable
+  private ProcessResource restoreResource(
+      LoggedProcessRequest.Item item, @Nullable Subject subject) {
+    if (subject == null) {
+      LOGGER.debug("No available subject to fetch metacard resource. Returning null");
+      return null;
+    }
+
+    Metacard metacard = item.getMetacard();
+    LazyProcessResourceImpl resource =
+        new LazyProcessResourceImpl(metacard.getId(), getResourceSupplier(metacard, subject));
+    resource.setSize(item.getResourceSize());
+    resource.setUri(item.getResourceUri());
+    return resource;
+  }
+
+  private Supplier<Resource> getResourceSupplier(Metacard metacard, Subject subject) {
+    return () ->
+        subject.execute(
+            () -> {
+              try {
+                return catalogFramework
+                    .getResource(new ResourceRequestById(metacard.getId()), metacard.getSourceId())
+                    .getResource();
+              } catch (IOException
+                  | ResourceNotFoundException
+                  | ResourceNotSupportedException
+                  | RuntimeException e) {
+                LOGGER.debug(
+                    "Unable to get resource id:{}, sourceId:{}. Returning null",
+                    metacard.getId(),
+                    metacard.getSourceId(),
+                    e);
+              }
+              return null;
+            });
+  }
+
+  @Nullable
+  private Semaphore getPermits(PostProcessPlugin plugin) {
+    String name = plugin.getClass().getName();
+    Integer concurrency = pluginConcurrency.get(name);
+    if (concurrency == null) {
+      return null;
+    }
+    return pluginPermits.computeIfAbsent(name, key -> new Semaphore(concurrency));
+  }
+
+  @Nullable
+  private static Subject getSubject(Map<String, Serializable> properties) {
+    return (Subject) properties.get(SecurityConstants.SECURITY_SUBJECT);
+  }
+
+  public void setPostProcessPlugins(List<PostProcessPlugin> postProcessPlugins) {
+    this.postProcessPlugins = postProcessPlugins;
+  }
+
+  /**
+   * Limits the number of requests some plugins process at once. Plugins that are not listed process
+   * as many requests at once as there are threads.
+   *
+   * @param pluginConcurrency comma separated {@code <plugin class name>=<number of requests>} pairs
+   */
+  public void setPluginConcurrency(String pluginConcurrency) {
+    Map<String, Integer> concurrency = new HashMap<>();
+    for (String pair : StringUtils.split(StringUtils.defaultString(pluginConcurrency), ',')) {
+      String name = StringUtils.substringBefore(pair, "=").trim();
+      String value = StringUtils.substringAfter(pair, "=").trim();
+      try {
+        int requests = Integer.parseInt(value);
+        isTrue(requests > 0, "The number of requests must be greater than 0");
+        concurrency.put(name, requests);
+      } catch (IllegalArgumentException e) {
+        LOGGER.info("Ignoring invalid plugin concurrency [{}].", pair);
+      }
+    }
+
+    this.pluginConcurrency = concurrency;
+    pluginPermits.clear();
+  }
+
+  /** @param maxRequestsInMemory the number of submitted requests kept in memory */
+  public void setMaxRequestsInMemory(int maxRequestsInMemory) {
+    this.maxRequestsInMemory = maxRequestsInMemory;
+  }
+
+  /** @param batchSize the number of metacard updates sent to the catalog at once */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /** @param batchDelay the longest time, in milliseconds, a metacard update waits for its batch */
+  public void setBatchDelay(long batchDelay) {
+    this.batchDelay = batchDelay;
+  }
+
+  void setSystemSubjectSupplier(Supplier<Subject> systemSubjectSupplier) {
+    this.systemSubjectSupplier = systemSubjectSupplier;
+  }
+
+  private static class Submission {
+
+    private final Operation operation;
+
+    private final ProcessRequest<? extends ProcessItem> request;
+
+    private Submission(Operation operation, ProcessRequest<? extends ProcessItem> request) {
+      this.operation = operation;
+      this.request = request;
+    }
+  }
+}
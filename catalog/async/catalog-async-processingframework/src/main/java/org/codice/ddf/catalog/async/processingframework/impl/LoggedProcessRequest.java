@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.async.processingframework.impl;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.security.SecurityConstants;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessRequest;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessResource;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessResourceItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessUpdateItem;
+
+/**
+ * The serialized form of a {@link ProcessRequest} in a {@link ProcessRequestLog}.
+ *
+ * <p>Only what is needed to submit the request again is kept: the metacards, the location of each
+ * item's resource and the request properties. The {@link ddf.security.Subject} of the request and
+ * the contents of the resources are not kept, they are retrieved again when the request is
+ * restored.
+ */
+class LoggedProcessRequest implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  enum Operation {
+    CREATE,
+    UPDATE,
+    DELETE
+  }
+
+  private final Operation operation;
+
+  private final ArrayList<Item> items = new ArrayList<>();
+
+  private final HashMap<String, Serializable> properties;
+
+  LoggedProcessRequest(Operation operation, ProcessRequest<? extends ProcessItem> request) {
+    this.operation = operation;
+    this.properties = new HashMap<>(request.getProperties());
+    this.properties.remove(SecurityConstants.SECURITY_SUBJECT);
+
+    for (ProcessItem processItem : request.getProcessItems()) {
+      Item item = new Item(processItem.getMetacard());
+      if (processItem instanceof ProcessUpdateItem) {
+        item.oldMetacard = new MetacardImpl(((ProcessUpdateItem) processItem).getOldMetacard());
+      }
+      if (processItem instanceof ProcessResourceItem) {
+        ProcessResource resource = ((ProcessResourceItem) processItem).getProcessResource();
+        if (resource != null) {
+          item.hasResource = true;
+          item.resourceSize = resource.getSize();
+          item.resourceUri = resource.getUri();
+        }
+      }
+      items.add(item);
+    }
+  }
+
+  static LoggedProcessRequest fromBytes(byte[] bytes) throws IOException {
+    try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (LoggedProcessRequest) input.readObject();
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IOException("Logged request could not be read", e);
+    }
+  }
+
+  byte[] toBytes() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+      output.writeObject(this);
+    }
+    return bytes.toByteArray();
+  }
+
+  Operation getOperation() {
+    return operation;
+  }
+
+  List<Item> getItems() {
+    return items;
+  }
+
+  /** @return the properties of the request, without its subject */
+  Map<String, Serializable> getProperties() {
+    return properties;
+  }
+
+  static class Item implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Copied so only serializable implementations are logged */
+    private final MetacardImpl metacard;
+
+    private MetacardImpl oldMetacard;
+
+    private boolean hasResource;
+
+    private long resourceSize;
+
+    private URI resourceUri;
+
+    private Item(Metacard metacard) {
+      this.metacard = new MetacardImpl(metacard);
+    }
+
+    Metacard getMetacard() {
+      return metacard;
+    }
+
+    Metacard getOldMetacard() {
+      return oldMetacard;
+    }
+
+    boolean hasResource() {
+      return hasResource;
+    }
+
+    long getResourceSize() {
+      return resourceSize;
+    }
+
+    URI getResourceUri() {
+      return resourceUri;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.async.processingframework.impl;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import ddf.catalog.data.Metacard;
+import ddf.security.SecurityConstants;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the metacard updates of processed requests and stores them together, so a burst of
+ * processed requests results in a few large catalog updates instead of one update per request.
+ *
+ * <p>Updates are grouped by the {@link ddf.security.Subject} they are stored as. A group is stored
+ * when it reaches the batch size, or when {@link #flush()} is called. The properties of the first
+ * request added to a group are used for the whole group.
+ *
+ * <p>A group that can't be stored is stored again on the following flushes, up to a maximum number
+ * of attempts. The requests of a group are only told about it once it was stored, so the requests
+ * of a group that is given up on are left pending.
+ */
+class MetacardUpdateBatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetacardUpdateBatcher.class);
+
+  private final ProcessRequestStorage storage;
+
+  private final int batchSize;
+
+  private final int maxAttempts;
+
+  private final Map<Object, Batch> batches = new IdentityHashMap<>();
+
+  private final List<Batch> failed = new ArrayList<>();
+
+  MetacardUpdateBatcher(ProcessRequestStorage storage, int batchSize, int maxAttempts) {
+    notNull(storage, "The storage must not be null");
+    isTrue(batchSize > 0, "The batch size must be greater than 0");
+    isTrue(maxAttempts > 0, "The maximum number of attempts must be greater than 0");
+
+    this.storage = storage;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+  }
+
+  /**
+   * Adds the metacard updates of a processed request.
+   *
+   * @param metacards the modified metacards, by id
+   * @param properties the properties of the request
+   * @param onStored called once the metacards were stored, and never if they could not be
+   */
+  void add(
+      Map<String, Metacard> metacards, Map<String, Serializable> properties, Runnable onStored) {
+    Batch full = null;
+    synchronized (this) {
+      Object subject = properties.get(SecurityConstants.SECURITY_SUBJECT);
+      Batch batch = batches.computeIfAbsent(subject, key -> new Batch(properties));
+      batch.metacards.putAll(metacards);
+      batch.callbacks.add(onStored);
+
+      if (batch.metacards.size() >= batchSize) {
+        full = batches.remove(subject);
+      }
+    }
+
+    if (full != null) {
+      store(full);
+    }
+  }
+
+  /** Stores every pending update, including the ones that could not be stored before. */
+  void flush() {
+    List<Batch> pending;
+    synchronized (this) {
+      pending = new ArrayList<>(failed);
+      pending.addAll(batches.values());
+      failed.clear();
+      batches.clear();
+    }
+
+    pending.forEach(this::store);
+  }
+
+  private void store(Batch batch) {
+    LOGGER.debug("Storing a batch of {} metacard updates.", batch.metacards.size());
+    boolean stored;
+    try {
+      stored = storage.storeMetacardUpdates(batch.metacards, batch.properties);
+    } catch (RuntimeException e) {
+      LOGGER.debug("Unable to store a batch of metacard updates.", e);
+      stored = false;
+    }
+
+    if (stored) {
+      batch.callbacks.forEach(Runnable::run);
+    } else if (++batch.attempts < maxAttempts) {
+      LOGGER.debug(
+          "Unable to store a batch of {} metacard updates. It will be retried.",
+          batch.metacards.size());
+      synchronized (this) {
+        failed.add(batch);
+      }
+    } else {
+      LOGGER.warn(
+          "Unable to store a batch of {} metacard updates after {} attempts. Its {} requests are left pending.",
+          batch.metacards.size(),
+          batch.attempts,
+          batch.callbacks.size());
+    }
+  }
+
+  private static class Batch {
+
+    private final Map<String, Serializable> properties;
+
+    private final Map<String, Metacard> metacards = new LinkedHashMap<>();
+
+    private final List<Runnable> callbacks = new ArrayList<>();
+
+    private int attempts;
+
+    private Batch(Map<String, Serializable> properties) {
+      this.properties = properties;
+    }
+  }
+}
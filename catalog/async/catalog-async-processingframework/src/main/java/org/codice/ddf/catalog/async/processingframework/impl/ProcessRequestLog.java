@@ -0,0 +1,373 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.async.processingframework.impl;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only log of pending requests, stored on disk as a sequence of segment files.
+ *
+ * <p>Every appended request is given a sequence number and stays pending until it is acknowledged.
+ * Acknowledgements are appended to the log as well, so nothing in a segment is ever rewritten. A
+ * segment is deleted once every request in it, and in every segment before it, was acknowledged.
+ * Requests that were pending when the log was closed are pending again when it is reopened.
+ *
+ * <p>Records are checksummed. A record that was only partially written, e.g., because the system
+ * stopped during the write, ends the segment it is in when the log is reopened.
+ */
+public class ProcessRequestLog implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProcessRequestLog.class);
+
+  private static final String SEGMENT_EXTENSION = ".log";
+
+  private static final byte APPEND = 1;
+
+  private static final byte ACKNOWLEDGE = 2;
+
+  /** Payload length, checksum, record type, sequence number and timestamp */
+  private static final int HEADER_SIZE = Integer.BYTES * 2 + 1 + Long.BYTES * 2;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final Path directory;
+
+  private final long segmentSize;
+
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+  private final Map<Long, Entry> pending = new HashMap<>();
+
+  private Segment active;
+
+  private FileChannel channel;
+
+  private long nextSequence = 1;
+
+  /**
+   * Opens the log stored in a directory, creating it if it doesn't exist.
+   *
+   * @param directory the directory the segments are stored in
+   * @param segmentSize the size, in bytes, after which a new segment is started
+   * @throws IOException if the log can't be read or a new segment can't be created
+   */
+  public ProcessRequestLog(String directory, long segmentSize) throws IOException {
+    notNull(directory, "The log directory must not be null");
+    isTrue(segmentSize > 0, "The segment size must be greater than 0");
+
+    this.directory = Paths.get(directory);
+    this.segmentSize = segmentSize;
+
+    Files.createDirectories(this.directory);
+    recover();
+    roll();
+  }
+
+  /**
+   * Appends a request to the log. The record is forced to the storage device before this returns.
+   *
+   * @param payload the serialized request
+   * @return the pending entry of the request
+   * @throws IOException if the request can't be written
+   */
+  public synchronized Entry append(byte[] payload) throws IOException {
+    notNull(payload, "The payload must not be null");
+
+    if (active.size >= segmentSize) {
+      roll();
+    }
+
+    long sequence = nextSequence++;
+    long timestamp = System.currentTimeMillis();
+    long position = write(APPEND, sequence, timestamp, payload);
+    channel.force(false);
+
+    Entry entry = new Entry(sequence, timestamp, active, position, payload.length);
+    pending.put(sequence, entry);
+    active.pending++;
+    return entry;
+  }
+
+  /**
+   * Reads the request of a pending entry back from the log.
+   *
+   * @param entry an entry of this log
+   * @return the serialized request
+   * @throws IOException if the request can't be read
+   */
+  public byte[] read(Entry entry) throws IOException {
+    ByteBuffer payload = ByteBuffer.allocate(entry.length);
+    try (FileChannel reader = FileChannel.open(entry.segment.path, StandardOpenOption.READ)) {
+      long position = entry.position + HEADER_SIZE;
+      while (payload.hasRemaining()) {
+        int read = reader.read(payload, position);
+        if (read < 0) {
+          throw new EOFException("Segment " + entry.segment.path + " is truncated");
+        }
+        position += read;
+      }
+    }
+    return payload.array();
+  }
+
+  /**
+   * Acknowledges that a request was processed, so it isn't pending anymore. Acknowledgements are
+   * not forced to the storage device; an acknowledgement lost when the system stops makes the
+   * request pending again.
+   *
+   * @param entry an entry of this log
+   * @throws IOException if the acknowledgement can't be written
+   */
+  public synchronized void acknowledge(Entry entry) throws IOException {
+    if (pending.remove(entry.sequence) == null) {
+      return;
+    }
+
+    write(ACKNOWLEDGE, entry.sequence, System.currentTimeMillis(), EMPTY);
+    entry.segment.pending--;
+    deleteCompletedSegments();
+  }
+
+  /** @return the pending entries, in the order they were appended */
+  public synchronized List<Entry> getPending() {
+    List<Entry> entries = new ArrayList<>(pending.values());
+    entries.sort(Comparator.comparingLong(Entry::getSequence));
+    return entries;
+  }
+
+  /** @return the number of pending entries */
+  public synchronized int size() {
+    return pending.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (channel != null && channel.isOpen()) {
+      channel.force(true);
+      channel.close();
+    }
+  }
+
+  private long write(byte type, long sequence, long timestamp, byte[] payload) throws IOException {
+    ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+    record.putInt(payload.length);
+    record.putInt(0);
+    record.put(type);
+    record.putLong(sequence);
+    record.putLong(timestamp);
+    record.put(payload);
+    record.putInt(Integer.BYTES, checksum(record.array()));
+    record.flip();
+
+    long position = active.size;
+    while (record.hasRemaining()) {
+      channel.write(record);
+    }
+    active.size += HEADER_SIZE + payload.length;
+    return position;
+  }
+
+  private void roll() throws IOException {
+    long id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+    Path path = directory.resolve(String.format("%020d%s", id, SEGMENT_EXTENSION));
+
+    FileChannel newChannel =
+        FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    close();
+
+    channel = newChannel;
+    active = new Segment(path);
+    segments.put(id, active);
+    LOGGER.debug("Started log segment [{}].", path);
+
+    deleteCompletedSegments();
+  }
+
+  private void deleteCompletedSegments() throws IOException {
+    Iterator<Segment> iterator = segments.values().iterator();
+    while (iterator.hasNext()) {
+      Segment segment = iterator.next();
+      if (segment == active || segment.pending > 0) {
+        return;
+      }
+
+      Files.deleteIfExists(segment.path);
+      iterator.remove();
+      LOGGER.debug("Deleted completed log segment [{}].", segment.path);
+    }
+  }
+
+  private void recover() throws IOException {
+    try (DirectoryStream<Path> stream =
+        Files.newDirectoryStream(directory, "*" + SEGMENT_EXTENSION)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        try {
+          segments.put(
+              Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length())),
+              new Segment(path));
+        } catch (NumberFormatException e) {
+          LOGGER.debug("Ignoring unknown file [{}] in the log directory.", path);
+        }
+      }
+    }
+
+    for (Segment segment : segments.values()) {
+      try (InputStream input = new BufferedInputStream(Files.newInputStream(segment.path))) {
+        recover(segment, input, Files.size(segment.path));
+      }
+    }
+
+    if (!pending.isEmpty()) {
+      LOGGER.info("Resuming {} pending requests from [{}].", pending.size(), directory);
+    }
+  }
+
+  private void recover(Segment segment, InputStream input, long fileSize) throws IOException {
+    while (true) {
+      byte[] header = new byte[HEADER_SIZE];
+      int read = readFully(input, header, 0, HEADER_SIZE);
+      if (read == 0) {
+        return;
+      }
+
+      ByteBuffer buffer = ByteBuffer.wrap(header);
+      int length = buffer.getInt();
+      int checksum = buffer.getInt();
+      byte type = buffer.get();
+      long sequence = buffer.getLong();
+      long timestamp = buffer.getLong();
+
+      if (read < HEADER_SIZE || length < 0 || length > fileSize - segment.size - HEADER_SIZE) {
+        LOGGER.warn("Log segment [{}] ends with an incomplete record.", segment.path);
+        return;
+      }
+
+      byte[] record = new byte[HEADER_SIZE + length];
+      System.arraycopy(header, 0, record, 0, HEADER_SIZE);
+      if (readFully(input, record, HEADER_SIZE, length) < length) {
+        LOGGER.warn("Log segment [{}] ends with an incomplete record.", segment.path);
+        return;
+      }
+      ByteBuffer.wrap(record).putInt(Integer.BYTES, 0);
+      if (checksum(record) != checksum) {
+        LOGGER.warn("Log segment [{}] ends with a corrupt record.", segment.path);
+        return;
+      }
+
+      if (type == APPEND) {
+        pending.put(sequence, new Entry(sequence, timestamp, segment, segment.size, length));
+        segment.pending++;
+      } else {
+        Entry entry = pending.remove(sequence);
+        if (entry != null) {
+          entry.segment.pending--;
+        }
+      }
+
+      segment.size += HEADER_SIZE + length;
+      nextSequence = Math.max(nextSequence, sequence + 1);
+    }
+  }
+
+  private static int readFully(InputStream input, byte[] buffer, int offset, int length)
+      throws IOException {
+    int total = 0;
+    while (total < length) {
+      int read = input.read(buffer, offset + total, length - total);
+      if (read < 0) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  private static int checksum(byte[] record) {
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    return (int) crc.getValue();
+  }
+
+  private static class Segment {
+
+    private final Path path;
+
+    private long size;
+
+    private int pending;
+
+    private Segment(Path path) {
+      this.path = path;
+    }
+  }
+
+  /** A request appended to a {@link ProcessRequestLog} */
+  public static final class Entry {
+
+    private final long sequence;
+
+    private final long timestamp;
+
+    private final Segment segment;
+
+    private final long position;
+
+    private final int length;
+
+    private Entry(long sequence, long timestamp, Segment segment, long position, int length) {
+      this.sequence = sequence;
+      this.timestamp = timestamp;
+      this.segment = segment;
+      this.position = position;
+      this.length = length;
+    }
+
+    /**
+     * @return the sequence number of the request, which orders requests by when they were appended
+     */
+    public long getSequence() {
+      return sequence;
+    }
+
+    /** @return the time the request was appended, in milliseconds since the epoch */
+    public long getTimestamp() {
+      return timestamp;
+    }
+  }
+}
@@ -0,0 +1,296 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.async.processingframework.impl
+
+import ddf.catalog.CatalogFramework
+import ddf.catalog.data.impl.MetacardImpl
+import ddf.catalog.operation.UpdateRequest
+import ddf.catalog.plugin.PluginExecutionException
+import ddf.catalog.source.IngestException
+import ddf.metrics.collector.Counter
+import ddf.metrics.collector.Histogram
+import ddf.metrics.collector.MetricsRegistry
+import ddf.security.Subject
+import org.codice.ddf.catalog.async.data.api.internal.ProcessRequest
+import org.codice.ddf.catalog.async.data.impl.ProcessCreateItemImpl
+import org.codice.ddf.catalog.async.data.impl.ProcessDeleteItemImpl
+import org.codice.ddf.catalog.async.data.impl.ProcessRequestImpl
+import org.codice.ddf.catalog.async.plugin.api.internal.PostProcessPlugin
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+
+class DurableProcessingFrameworkSpec extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    String logDirectory
+
+    ProcessRequestLog log
+
+    CatalogFramework catalogFramework = Mock(CatalogFramework)
+
+    ExecutorService threadPool = Mock(ExecutorService) {
+        submit(_ as Runnable) >> { Runnable runnable -> runnable.run() }
+    }
+
+    Counter processed = new Counter()
+
+    MetricsRegistry metricsRegistry = Mock(MetricsRegistry) {
+        counter(_ as String) >> processed
+        histogram(_ as String) >> { new Histogram() }
+    }
+
+    Subject subject = Mock(Subject) {
+        execute(_ as Callable) >> { Callable callable -> callable.call() }
+    }
+
+    PostProcessPlugin postProcessPlugin = Mock(PostProcessPlugin)
+
+    DurableProcessingFramework processingFramework
+
+    def setup() {
+        temporaryFolder.create()
+        logDirectory = temporaryFolder.newFolder("async-processing").path
+        log = new ProcessRequestLog(logDirectory, 1024)
+        processingFramework = createProcessingFramework(log, threadPool)
+    }
+
+    def cleanup() {
+        processingFramework.cleanUp()
+    }
+
+    def 'test construct with null arguments'(CatalogFramework catalogFramework, ExecutorService threadPool, MetricsRegistry metricsRegistry) {
+        when:
+        new DurableProcessingFramework(catalogFramework, log, threadPool, metricsRegistry)
+
+        then:
+        thrown(NullPointerException)
+
+        where:
+        catalogFramework       | threadPool            | metricsRegistry
+        null                   | Mock(ExecutorService) | Mock(MetricsRegistry)
+        Mock(CatalogFramework) | null                  | Mock(MetricsRegistry)
+        Mock(CatalogFramework) | Mock(ExecutorService) | null
+    }
+
+    def 'test submitCreate with no postProcessPlugins'(List<PostProcessPlugin> postProcessPlugins) {
+        given:
+        processingFramework.setPostProcessPlugins(postProcessPlugins)
+
+        when:
+        processingFramework.submitCreate(createRequest("1"))
+
+        then:
+        log.size() == 0
+        0 * catalogFramework._
+
+        where:
+        postProcessPlugins << [null, []]
+    }
+
+    def 'test submitCreate when the plugin does not modify the metacard'() {
+        given:
+        def request = createRequest("1")
+
+        when:
+        processingFramework.submitCreate(request)
+
+        then:
+        1 * postProcessPlugin.processCreate(request) >> request
+        0 * catalogFramework._
+        log.size() == 0
+        processed.count == 1
+    }
+
+    def 'test modified metacards are stored in batches'() {
+        given:
+        processingFramework.setBatchSize(3)
+        processingFramework.init()
+        def first = createRequest("1", "2")
+        def second = createRequest("3")
+
+        when:
+        processingFramework.submitCreate(first)
+
+        then:
+        1 * postProcessPlugin.processCreate(first) >> markMetacardsAsModified(first)
+        0 * catalogFramework._
+        log.size() == 1
+
+        when:
+        processingFramework.submitCreate(second)
+
+        then:
+        1 * postProcessPlugin.processCreate(second) >> markMetacardsAsModified(second)
+        1 * catalogFramework.update({ it instanceof UpdateRequest && it.updates*.key == ["1", "2", "3"] })
+        log.size() == 0
+        processed.count == 2
+    }
+
+    def 'test pending metacard updates are stored on clean up'() {
+        given:
+        processingFramework.init()
+        def request = createRequest("1")
+        postProcessPlugin.processCreate(request) >> markMetacardsAsModified(request)
+        processingFramework.submitCreate(request)
+
+        when:
+        processingFramework.cleanUp()
+
+        then:
+        1 * catalogFramework.update(_ as UpdateRequest)
+        1 * threadPool.shutdownNow()
+    }
+
+    def 'test metacard updates that fail to store stay pending and are retried'() {
+        given:
+        processingFramework.setBatchSize(1)
+        processingFramework.init()
+        def request = createRequest("1")
+        postProcessPlugin.processCreate(request) >> markMetacardsAsModified(request)
+
+        when:
+        processingFramework.submitCreate(request)
+
+        then:
+        1 * catalogFramework.update(_ as UpdateRequest) >> { throw new IngestException("unavailable") }
+        log.size() == 1
+        processed.count == 0
+
+        when:
+        processingFramework.cleanUp()
+
+        then:
+        1 * catalogFramework.update(_ as UpdateRequest)
+        processed.count == 1
+    }
+
+    def 'test a failing plugin does not stop the other plugins'() {
+        given:
+        def failingPlugin = Mock(PostProcessPlugin)
+        processingFramework.setPostProcessPlugins([failingPlugin, postProcessPlugin])
+        def request = createRequest("1")
+
+        when:
+        processingFramework.submitCreate(request)
+
+        then:
+        1 * failingPlugin.processCreate(request) >> { throw new PluginExecutionException() }
+        1 * postProcessPlugin.processCreate(request) >> request
+        log.size() == 0
+    }
+
+    def 'test submitDelete'() {
+        given:
+        def request = new ProcessRequestImpl([new ProcessDeleteItemImpl(metacard("1"))], [:])
+
+        when:
+        processingFramework.submitDelete(request)
+
+        then:
+        1 * postProcessPlugin.processDelete(request) >> request
+        0 * catalogFramework._
+        log.size() == 0
+    }
+
+    def 'test requests that are not kept in memory are read back from the log'() {
+        given:
+        processingFramework.setMaxRequestsInMemory(0)
+        ProcessRequest readBack = null
+
+        when:
+        processingFramework.submitCreate(createRequest("1"))
+
+        then:
+        1 * postProcessPlugin.processCreate(_ as ProcessRequest) >> { ProcessRequest request ->
+            readBack = request
+            return request
+        }
+        readBack.processItems*.metacard*.id == ["1"]
+        readBack.properties.'ddf.security.subject' == subject
+        readBack.properties.test == "value"
+        log.size() == 0
+    }
+
+    def 'test pending requests are resumed as the system subject'() {
+        given: 'a request that was submitted but never processed'
+        def stoppedPool = Mock(ExecutorService)
+        createProcessingFramework(log, stoppedPool).submitCreate(createRequest("1"))
+        log.close()
+
+        and: 'the framework is started again'
+        def systemSubject = Mock(Subject) {
+            execute(_ as Callable) >> { Callable callable -> callable.call() }
+        }
+        log = new ProcessRequestLog(logDirectory, 1024)
+        processingFramework = createProcessingFramework(log, threadPool)
+        processingFramework.setSystemSubjectSupplier({ systemSubject })
+        processingFramework.setBatchSize(1)
+        ProcessRequest resumed = null
+
+        when:
+        processingFramework.init()
+
+        then:
+        1 * postProcessPlugin.processCreate(_ as ProcessRequest) >> { ProcessRequest request ->
+            resumed = request
+            return markMetacardsAsModified(request)
+        }
+        1 * catalogFramework.update(_ as UpdateRequest)
+        resumed.processItems*.metacard*.id == ["1"]
+        resumed.properties.'ddf.security.subject' == systemSubject
+        log.size() == 0
+    }
+
+    def 'test plugin concurrency limits'() {
+        when:
+        processingFramework.setPluginConcurrency("${postProcessPlugin.class.name}=1, invalid, other=0")
+        def request = createRequest("1")
+        processingFramework.submitCreate(request)
+
+        then:
+        1 * postProcessPlugin.processCreate(request) >> request
+        log.size() == 0
+    }
+
+    private DurableProcessingFramework createProcessingFramework(ProcessRequestLog log, ExecutorService threadPool) {
+        def framework = new DurableProcessingFramework(catalogFramework, log, threadPool, metricsRegistry)
+        framework.setPostProcessPlugins([postProcessPlugin])
+        framework.setBatchDelay(TimeUnit.MINUTES.toMillis(1))
+        return framework
+    }
+
+    private ProcessRequest createRequest(String... ids) {
+        def items = ids.collect { new ProcessCreateItemImpl(null, metacard(it), false) }
+        return new ProcessRequestImpl(items, ['ddf.security.subject': subject, test: "value"])
+    }
+
+    private static MetacardImpl metacard(String id) {
+        def metacard = new MetacardImpl()
+        metacard.setId(id)
+        return metacard
+    }
+
+    private static ProcessRequest markMetacardsAsModified(ProcessRequest request) {
+        return new ProcessRequestImpl(
+                request.processItems.collect { new ProcessCreateItemImpl(null, it.metacard) },
+                request.properties)
+    }
+}
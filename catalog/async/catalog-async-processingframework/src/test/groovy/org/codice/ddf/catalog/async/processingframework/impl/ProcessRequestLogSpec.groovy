@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.async.processingframework.impl
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.StandardOpenOption
+
+class ProcessRequestLogSpec extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    File directory
+
+    ProcessRequestLog log
+
+    def setup() {
+        temporaryFolder.create()
+        directory = temporaryFolder.newFolder("async-processing")
+        log = new ProcessRequestLog(directory.path, 100)
+    }
+
+    def cleanup() {
+        log.close()
+    }
+
+    def 'test appended requests are pending'() {
+        when:
+        def first = log.append("first".bytes)
+        def second = log.append("second".bytes)
+
+        then:
+        log.size() == 2
+        log.getPending()*.sequence == [first.sequence, second.sequence]
+        new String(log.read(second)) == "second"
+    }
+
+    def 'test acknowledged requests are not pending'() {
+        given:
+        def first = log.append("first".bytes)
+        def second = log.append("second".bytes)
+
+        when:
+        log.acknowledge(first)
+        log.acknowledge(first)
+
+        then:
+        log.size() == 1
+        log.getPending() == [second]
+    }
+
+    def 'test pending requests are resumed when the log is reopened'() {
+        given:
+        def entries = (0..9).collect { log.append("request $it".bytes) }
+        log.acknowledge(entries[0])
+        log.acknowledge(entries[5])
+        log.close()
+
+        when:
+        log = new ProcessRequestLog(directory.path, 100)
+
+        then:
+        log.getPending().collect { new String(log.read(it)) } ==
+                [1, 2, 3, 4, 6, 7, 8, 9].collect { "request $it".toString() }
+        log.append("new".bytes).sequence == entries[9].sequence + 1
+    }
+
+    def 'test segments are deleted once every request in them is acknowledged'() {
+        given:
+        def entries = (0..9).collect { log.append("request $it".bytes) }
+        def segments = directory.list().length
+
+        when:
+        entries.take(5).each { log.acknowledge(it) }
+
+        then:
+        directory.list().length < segments
+
+        when:
+        entries.each { log.acknowledge(it) }
+        log.append("new".bytes)
+
+        then:
+        directory.list().length == 1
+    }
+
+    def 'test an incomplete record ends its segment'() {
+        given:
+        log.append("complete".bytes)
+        log.close()
+        def segment = directory.listFiles().sort().last()
+        Files.write(segment.toPath(), [0, 0, 0, 9, 1, 2] as byte[], StandardOpenOption.APPEND)
+
+        when:
+        log = new ProcessRequestLog(directory.path, 100)
+
+        then:
+        log.getPending().collect { new String(log.read(it)) } == ["complete"]
+    }
+
+    def 'test construct with invalid arguments'(String path, long segmentSize) {
+        when:
+        new ProcessRequestLog(path, segmentSize)
+
+        then:
+        thrown(RuntimeException)
+
+        where:
+        path               | segmentSize
+        null               | 100
+        "async-processing" | 0
+    }
+}
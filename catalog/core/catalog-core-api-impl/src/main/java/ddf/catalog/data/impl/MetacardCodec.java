@@ -0,0 +1,652 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact, versioned binary encoding of {@link Metacard}s and {@link MetacardType}s, used in place
+ * of Java serialization where metacards are persisted.
+ *
+ * <p>An encoded stream starts with a magic number and a format version, followed by any number of
+ * records written through a {@link Writer}. A metacard type is written in full only the first time
+ * it appears in a stream; later metacards of the same type refer to it by number and refer to their
+ * attributes by their position in the type, so attribute names aren't repeated. Decoded types are
+ * interned, so every metacard decoded from the same type definition shares one {@link MetacardType}
+ * instance. Integers are written as variable-length (zig-zag) values and the common attribute
+ * values are written with a one-byte tag rather than a class descriptor; any other {@link
+ * Serializable} value is written with Java serialization.
+ *
+ * <p>Only the attributes described by a metacard's type are encoded, the same as when a wrapping
+ * {@link MetacardImpl} is serialized.
+ *
+ * <p>Data written with Java serialization can still be read with {@link #decodeMetacard(byte[])},
+ * {@link #decodeMetacardType(byte[])} and {@link #readObject(InputStream)}, so existing persisted
+ * data remains readable.
+ */
+public final class MetacardCodec {
+
+  /** Version of the format written by this class. */
+  public static final int VERSION = 1;
+
+  private static final byte[] MAGIC = {'D', 'M', 'C'};
+
+  private static final int HEADER_LENGTH = MAGIC.length + 1;
+
+  private static final int JAVA_SERIALIZATION_MAGIC = 0xACED;
+
+  private static final int MAX_INTERNED_TYPES = 1024;
+
+  private static final Map<ByteBuffer, MetacardType> INTERNED_TYPES = new ConcurrentHashMap<>();
+
+  private static final int RECORD_METACARD = 1;
+
+  private static final int RECORD_METACARD_TYPE = 2;
+
+  private static final int TAG_NULL = 0;
+
+  private static final int TAG_STRING = 1;
+
+  private static final int TAG_DATE = 2;
+
+  private static final int TAG_LONG = 3;
+
+  private static final int TAG_INTEGER = 4;
+
+  private static final int TAG_SHORT = 5;
+
+  private static final int TAG_DOUBLE = 6;
+
+  private static final int TAG_FLOAT = 7;
+
+  private static final int TAG_BOOLEAN_FALSE = 8;
+
+  private static final int TAG_BOOLEAN_TRUE = 9;
+
+  private static final int TAG_BINARY = 10;
+
+  private static final int TAG_SERIALIZED = 11;
+
+  private static final int INDEXED = 1;
+
+  private static final int STORED = 1 << 1;
+
+  private static final int TOKENIZED = 1 << 2;
+
+  private static final int MULTI_VALUED = 1 << 3;
+
+  private static final AttributeFormat[] FORMATS = AttributeFormat.values();
+
+  private MetacardCodec() {}
+
+  /**
+   * @param bytes the bytes to check
+   * @return {@code true} if the bytes start with the header written by this codec
+   */
+  public static boolean isEncoded(byte[] bytes) {
+    if (bytes == null || bytes.length < HEADER_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (bytes[i] != MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static byte[] encode(Metacard metacard) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+    new Writer(bytes).writeMetacard(metacard);
+    return bytes.toByteArray();
+  }
+
+  public static byte[] encode(MetacardType metacardType) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+    new Writer(bytes).writeMetacardType(metacardType);
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes a metacard written by {@link #encode(Metacard)} or with Java serialization.
+   *
+   * @param bytes the encoded metacard
+   * @return the decoded metacard
+   * @throws IOException if the bytes don't contain a metacard
+   */
+  public static Metacard decodeMetacard(byte[] bytes) throws IOException {
+    Object decoded = readObject(new ByteArrayInputStream(bytes));
+    if (!(decoded instanceof Metacard)) {
+      throw new InvalidObjectException("Encoded object is not a metacard");
+    }
+    return (Metacard) decoded;
+  }
+
+  /**
+   * Decodes a metacard type written by {@link #encode(MetacardType)} or with Java serialization.
+   *
+   * @param bytes the encoded metacard type
+   * @return the decoded metacard type
+   * @throws IOException if the bytes don't contain a metacard type
+   */
+  public static MetacardType decodeMetacardType(byte[] bytes) throws IOException {
+    Object decoded = readObject(new ByteArrayInputStream(bytes));
+    if (!(decoded instanceof MetacardType)) {
+      throw new InvalidObjectException("Encoded object is not a metacard type");
+    }
+    return (MetacardType) decoded;
+  }
+
+  /**
+   * Reads the first record of a stream written by a {@link Writer}, or a single object written with
+   * Java serialization.
+   *
+   * @param in the stream to read from
+   * @return the {@link Metacard} or {@link MetacardType} read from the stream, or the object read
+   *     with Java serialization
+   * @throws IOException if the stream can't be read
+   */
+  public static Object readObject(InputStream in) throws IOException {
+    InputStream buffered = in.markSupported() ? in : new BufferedInputStream(in);
+    buffered.mark(2);
+    int magic = (buffered.read() << 8) | buffered.read();
+    buffered.reset();
+
+    if (magic == JAVA_SERIALIZATION_MAGIC) {
+      try {
+        return new ObjectInputStream(buffered).readObject();
+      } catch (ClassNotFoundException e) {
+        throw new InvalidObjectException(e.getMessage());
+      }
+    }
+
+    return new Reader(buffered).readRecord();
+  }
+
+  /**
+   * Writes metacards and metacard types to a stream. Metacard types are only written the first time
+   * they are used in the stream.
+   *
+   * <p>This class is not thread-safe.
+   */
+  public static class Writer {
+    private final OutputStream out;
+
+    private final Map<MetacardType, EncodedType> types = new IdentityHashMap<>();
+
+    private byte[] buffer = new byte[64];
+
+    /**
+     * Creates a writer and writes the stream header.
+     *
+     * @param out the stream to write to, buffering is left to the caller
+     * @throws IOException if the header can't be written
+     */
+    public Writer(OutputStream out) throws IOException {
+      this.out = out;
+      out.write(MAGIC);
+      out.write(VERSION);
+    }
+
+    public void writeMetacard(Metacard metacard) throws IOException {
+      EncodedType type = writeTypeReference(metacard.getMetacardType());
+      writeVarLong(RECORD_METACARD);
+      writeString(metacard.getSourceId());
+
+      List<Attribute> attributes = new ArrayList<>(type.names.length);
+      List<Integer> positions = new ArrayList<>(type.names.length);
+      for (int i = 0; i < type.names.length; i++) {
+        Attribute attribute = metacard.getAttribute(type.names[i]);
+        if (attribute != null) {
+          attributes.add(attribute);
+          positions.add(i);
+        }
+      }
+
+      writeVarLong(attributes.size());
+      for (int i = 0; i < attributes.size(); i++) {
+        writeVarLong(positions.get(i));
+        List<Serializable> values = attributes.get(i).getValues();
+        if (values == null) {
+          writeVarLong(0);
+          continue;
+        }
+        writeVarLong(values.size());
+        for (Serializable value : values) {
+          writeValue(value);
+        }
+      }
+    }
+
+    public void writeMetacardType(MetacardType metacardType) throws IOException {
+      writeTypeReference(metacardType);
+      writeVarLong(RECORD_METACARD_TYPE);
+    }
+
+    /**
+     * Writes a string, or {@code null}, as UTF-8.
+     *
+     * @param value the string to write
+     * @throws IOException if the string can't be written
+     */
+    public void writeString(String value) throws IOException {
+      if (value == null) {
+        writeVarLong(0);
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length + 1L);
+      out.write(bytes);
+    }
+
+    /**
+     * Writes a zig-zag encoded variable-length integer, using one byte for values between -64 and
+     * 63.
+     *
+     * @param value the value to write
+     * @throws IOException if the value can't be written
+     */
+    public void writeVarLong(long value) throws IOException {
+      long zigZag = (value << 1) ^ (value >> 63);
+      int length = 0;
+      while ((zigZag & ~0x7FL) != 0) {
+        buffer[length++] = (byte) ((zigZag & 0x7F) | 0x80);
+        zigZag >>>= 7;
+      }
+      buffer[length++] = (byte) zigZag;
+      out.write(buffer, 0, length);
+    }
+
+    private EncodedType writeTypeReference(MetacardType metacardType) throws IOException {
+      EncodedType type = types.get(metacardType);
+      if (type != null) {
+        writeVarLong(type.number);
+        return type;
+      }
+
+      type = new EncodedType(types.size(), metacardType);
+      types.put(metacardType, type);
+      writeVarLong(type.number);
+      writeVarLong(type.definition.length);
+      out.write(type.definition);
+      return type;
+    }
+
+    private void writeValue(Serializable value) throws IOException {
+      if (value == null) {
+        out.write(TAG_NULL);
+      } else if (value instanceof String) {
+        out.write(TAG_STRING);
+        writeString((String) value);
+      } else if (value instanceof Date) {
+        out.write(TAG_DATE);
+        writeVarLong(((Date) value).getTime());
+      } else if (value instanceof Long) {
+        out.write(TAG_LONG);
+        writeVarLong((Long) value);
+      } else if (value instanceof Integer) {
+        out.write(TAG_INTEGER);
+        writeVarLong((Integer) value);
+      } else if (value instanceof Short) {
+        out.write(TAG_SHORT);
+        writeVarLong((Short) value);
+      } else if (value instanceof Double) {
+        out.write(TAG_DOUBLE);
+        writeFixedLong(Double.doubleToRawLongBits((Double) value));
+      } else if (value instanceof Float) {
+        out.write(TAG_FLOAT);
+        writeVarLong(Float.floatToRawIntBits((Float) value));
+      } else if (value instanceof Boolean) {
+        out.write((Boolean) value ? TAG_BOOLEAN_TRUE : TAG_BOOLEAN_FALSE);
+      } else if (value instanceof byte[]) {
+        out.write(TAG_BINARY);
+        byte[] bytes = (byte[]) value;
+        writeVarLong(bytes.length);
+        out.write(bytes);
+      } else {
+        out.write(TAG_SERIALIZED);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+          objectOutput.writeObject(value);
+        }
+        writeVarLong(bytes.size());
+        bytes.writeTo(out);
+      }
+    }
+
+    private void writeFixedLong(long value) throws IOException {
+      for (int i = 0; i < 8; i++) {
+        buffer[i] = (byte) (value >>> (8 * i));
+      }
+      out.write(buffer, 0, 8);
+    }
+  }
+
+  /**
+   * Reads the records of a stream written by a {@link Writer}.
+   *
+   * <p>This class is not thread-safe.
+   */
+  public static class Reader {
+    private final InputStream in;
+
+    private final List<DecodedType> types = new ArrayList<>();
+
+    /**
+     * Creates a reader and reads the stream header.
+     *
+     * @param in the stream to read from, buffering is left to the caller
+     * @throws IOException if the stream doesn't start with a supported header
+     */
+    public Reader(InputStream in) throws IOException {
+      this.in = in;
+      byte[] header = readBytes(HEADER_LENGTH);
+      if (!isEncoded(header)) {
+        throw new StreamCorruptedException("Not an encoded metacard stream");
+      }
+      if (header[MAGIC.length] > VERSION) {
+        throw new StreamCorruptedException(
+            "Unsupported metacard encoding version " + header[MAGIC.length]);
+      }
+    }
+
+    public Metacard readMetacard() throws IOException {
+      Object record = readRecord();
+      if (!(record instanceof Metacard)) {
+        throw new InvalidObjectException("Expected a metacard record");
+      }
+      return (Metacard) record;
+    }
+
+    public MetacardType readMetacardType() throws IOException {
+      Object record = readRecord();
+      if (!(record instanceof MetacardType)) {
+        throw new InvalidObjectException("Expected a metacard type record");
+      }
+      return (MetacardType) record;
+    }
+
+    public String readString() throws IOException {
+      int length = readLength();
+      if (length == 0) {
+        return null;
+      }
+      return new String(readBytes(length - 1), StandardCharsets.UTF_8);
+    }
+
+    public long readVarLong() throws IOException {
+      long zigZag = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = readByte();
+        zigZag |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+      }
+      throw new StreamCorruptedException("Malformed variable-length integer");
+    }
+
+    private Object readRecord() throws IOException {
+      DecodedType type = readTypeReference();
+      int record = (int) readVarLong();
+      if (record == RECORD_METACARD_TYPE) {
+        return type.metacardType;
+      }
+      if (record != RECORD_METACARD) {
+        throw new StreamCorruptedException("Unknown record " + record);
+      }
+
+      MetacardImpl metacard = new MetacardImpl(type.metacardType);
+      metacard.setSourceId(readString());
+
+      int attributeCount = readLength();
+      for (int i = 0; i < attributeCount; i++) {
+        int position = readLength();
+        if (position >= type.names.length) {
+          throw new StreamCorruptedException("Unknown attribute " + position);
+        }
+        int valueCount = readLength();
+        List<Serializable> values = new ArrayList<>(valueCount);
+        for (int j = 0; j < valueCount; j++) {
+          values.add(readValue());
+        }
+        metacard.setAttribute(new AttributeImpl(type.names[position], values));
+      }
+      return metacard;
+    }
+
+    private DecodedType readTypeReference() throws IOException {
+      int number = readLength();
+      if (number < types.size()) {
+        return types.get(number);
+      }
+      if (number > types.size()) {
+        throw new StreamCorruptedException("Unknown metacard type " + number);
+      }
+
+      byte[] definition = readBytes(readLength());
+      DecodedType type = new DecodedType(internType(definition));
+      types.add(type);
+      return type;
+    }
+
+    private Serializable readValue() throws IOException {
+      int tag = readByte();
+      switch (tag) {
+        case TAG_NULL:
+          return null;
+        case TAG_STRING:
+          return readString();
+        case TAG_DATE:
+          return new Date(readVarLong());
+        case TAG_LONG:
+          return readVarLong();
+        case TAG_INTEGER:
+          return (int) readVarLong();
+        case TAG_SHORT:
+          return (short) readVarLong();
+        case TAG_DOUBLE:
+          return Double.longBitsToDouble(readFixedLong());
+        case TAG_FLOAT:
+          return Float.intBitsToFloat((int) readVarLong());
+        case TAG_BOOLEAN_FALSE:
+          return Boolean.FALSE;
+        case TAG_BOOLEAN_TRUE:
+          return Boolean.TRUE;
+        case TAG_BINARY:
+          return readBytes(readLength());
+        case TAG_SERIALIZED:
+          try (ObjectInputStream objectInput =
+              new ObjectInputStream(new ByteArrayInputStream(readBytes(readLength())))) {
+            return (Serializable) objectInput.readObject();
+          } catch (ClassNotFoundException e) {
+            throw new InvalidObjectException(e.getMessage());
+          }
+        default:
+          throw new StreamCorruptedException("Unknown value tag " + tag);
+      }
+    }
+
+    private long readFixedLong() throws IOException {
+      byte[] bytes = readBytes(8);
+      long value = 0;
+      for (int i = 7; i >= 0; i--) {
+        value = (value << 8) | (bytes[i] & 0xFF);
+      }
+      return value;
+    }
+
+    private int readLength() throws IOException {
+      long length = readVarLong();
+      if (length < 0 || length > Integer.MAX_VALUE) {
+        throw new StreamCorruptedException("Invalid length " + length);
+      }
+      return (int) length;
+    }
+
+    private int readByte() throws IOException {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException();
+      }
+      return b;
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+      byte[] bytes = new byte[length];
+      int read = 0;
+      while (read < length) {
+        int count = in.read(bytes, read, length - read);
+        if (count < 0) {
+          throw new EOFException();
+        }
+        read += count;
+      }
+      return bytes;
+    }
+  }
+
+  private static MetacardType internType(byte[] definition) throws IOException {
+    ByteBuffer key = ByteBuffer.wrap(definition);
+    MetacardType interned = INTERNED_TYPES.get(key);
+    if (interned != null) {
+      return interned;
+    }
+
+    MetacardType metacardType = decodeTypeDefinition(definition);
+    if (INTERNED_TYPES.size() >= MAX_INTERNED_TYPES) {
+      // Types are rarely redefined, so simply start over rather than track their use
+      INTERNED_TYPES.clear();
+    }
+    interned = INTERNED_TYPES.putIfAbsent(key, metacardType);
+    return interned != null ? interned : metacardType;
+  }
+
+  private static byte[] encodeTypeDefinition(MetacardType metacardType, String[] names)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(names.length * 24);
+    Writer writer = new Writer(bytes);
+    writer.writeString(metacardType.getName());
+    writer.writeVarLong(names.length);
+    for (String name : names) {
+      AttributeDescriptor descriptor = metacardType.getAttributeDescriptor(name);
+      writer.writeString(name);
+      writer.writeVarLong(descriptor.getType().getAttributeFormat().ordinal());
+      writer.writeVarLong(
+          (descriptor.isIndexed() ? INDEXED : 0)
+              | (descriptor.isStored() ? STORED : 0)
+              | (descriptor.isTokenized() ? TOKENIZED : 0)
+              | (descriptor.isMultiValued() ? MULTI_VALUED : 0));
+    }
+    byte[] definition = bytes.toByteArray();
+    // The definition is always embedded in a stream, which already has a header
+    return Arrays.copyOfRange(definition, HEADER_LENGTH, definition.length);
+  }
+
+  private static MetacardType decodeTypeDefinition(byte[] definition) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_LENGTH + definition.length);
+    bytes.write(MAGIC);
+    bytes.write(VERSION);
+    bytes.write(definition);
+    Reader reader = new Reader(new ByteArrayInputStream(bytes.toByteArray()));
+
+    String name = reader.readString();
+    int count = reader.readLength();
+    Set<AttributeDescriptor> descriptors = new LinkedHashSet<>();
+    for (int i = 0; i < count; i++) {
+      String attributeName = reader.readString();
+      int format = reader.readLength();
+      if (format >= FORMATS.length) {
+        throw new StreamCorruptedException("Unknown attribute format " + format);
+      }
+      int flags = reader.readLength();
+      AttributeType type = BasicTypes.getAttributeType(FORMATS[format].name());
+      descriptors.add(
+          new AttributeDescriptorImpl(
+              attributeName,
+              (flags & INDEXED) != 0,
+              (flags & STORED) != 0,
+              (flags & TOKENIZED) != 0,
+              (flags & MULTI_VALUED) != 0,
+              type));
+    }
+    return new MetacardTypeImpl(name, descriptors);
+  }
+
+  private static class EncodedType {
+    private final int number;
+
+    private final String[] names;
+
+    private final byte[] definition;
+
+    EncodedType(int number, MetacardType metacardType) throws IOException {
+      this.number = number;
+      this.names =
+          metacardType
+              .getAttributeDescriptors()
+              .stream()
+              .map(AttributeDescriptor::getName)
+              .sorted(Comparator.naturalOrder())
+              .toArray(String[]::new);
+      this.definition = encodeTypeDefinition(metacardType, names);
+    }
+  }
+
+  private static class DecodedType {
+    private final MetacardType metacardType;
+
+    private final String[] names;
+
+    DecodedType(MetacardType metacardType) {
+      this.metacardType = metacardType;
+      this.names =
+          metacardType
+              .getAttributeDescriptors()
+              .stream()
+              .map(AttributeDescriptor::getName)
+              .sorted(Comparator.naturalOrder())
+              .toArray(String[]::new);
+    }
+  }
+}
@@ -67,6 +67,9 @@ public abstract class AbstractFederationStrategy implements FederationStrategy {
 
   private int maxStartIndex;
 
+  private final SourceLatencyTracker sourceLatencyTracker =
+      new SourceLatencyTracker(getClass().getSimpleName());
+
   /**
    * Instantiates an {@code AbstractFederationStrategy} with the provided {@link ExecutorService}.
    *
@@ -174,7 +177,8 @@ public QueryResponse federate(List<Source> sources, final QueryRequest queryRequ
                   new CallableSourceResponse(
                       source,
                       modifiedQueryRequest.getQuery(),
-                      modifiedQueryRequest.getProperties())));
+                      modifiedQueryRequest.getProperties(),
+                      sourceLatencyTracker)));
         } else {
           LOGGER.info("Duplicate source found with name {}. Ignoring second one.", source.getId());
         }
@@ -286,6 +290,37 @@ public void setMaxStartIndex(int maxStartIndex) {
     }
   }
 
+  /**
+   * Enables shortening the deadline of sources that usually respond well within the query timeout.
+   *
+   * @see SourceLatencyTracker
+   */
+  public void setAdaptiveTimeouts(boolean adaptiveTimeouts) {
+    sourceLatencyTracker.setAdaptiveTimeouts(adaptiveTimeouts);
+  }
+
+  /**
+   * Enables sending a query to a source a second time when it is slower than usual.
+   *
+   * @see SourceLatencyTracker
+   */
+  public void setHedgedQueries(boolean hedgedQueries) {
+    sourceLatencyTracker.setHedgedQueries(hedgedQueries);
+  }
+
+  /** @return the latency statistics kept for each source queried by this strategy */
+  public SourceLatencyTracker getSourceLatencyTracker() {
+    return sourceLatencyTracker;
+  }
+
+  /**
+   * Stops the hedged queries still running and removes the source latencies from JMX. The query
+   * executor service is not shut down, since it is provided to the strategy.
+   */
+  public void shutdown() {
+    sourceLatencyTracker.shutdown();
+  }
+
   private static class CallableSourceResponse implements Callable<SourceResponse> {
 
     private Query query = null;
@@ -294,17 +329,24 @@ private static class CallableSourceResponse implements Callable<SourceResponse>
 
     private Map<String, Serializable> properties = null;
 
+    private final SourceLatencyTracker sourceLatencyTracker;
+
     public CallableSourceResponse(
-        Source source, Query query, Map<String, Serializable> properties) {
+        Source source,
+        Query query,
+        Map<String, Serializable> properties,
+        SourceLatencyTracker sourceLatencyTracker) {
       this.source = source;
       this.query = query;
       this.properties = properties;
+      this.sourceLatencyTracker = sourceLatencyTracker;
     }
 
     @Override
     public SourceResponse call() throws Exception {
       long startTime = System.currentTimeMillis();
-      SourceResponse sourceResponse = source.query(new QueryRequestImpl(query, properties));
+      SourceResponse sourceResponse =
+          sourceLatencyTracker.query(source, new QueryRequestImpl(query, properties));
       long ellapsedTime = System.currentTimeMillis() - startTime;
       LOGGER.debug(
           "The source {} responded to the query in {} milliseconds", source.getId(), ellapsedTime);
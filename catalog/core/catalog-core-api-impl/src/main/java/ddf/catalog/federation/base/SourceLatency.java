@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.base;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the latencies of the most recent queries sent to a source, from which the percentiles are
+ * computed. Older samples are overwritten, so the percentiles follow changes in the source's
+ * behavior.
+ */
+public class SourceLatency implements SourceLatencyMBean {
+
+  static final int WINDOW_SIZE = 512;
+
+  private final String sourceId;
+
+  private final long[] samples = new long[WINDOW_SIZE];
+
+  private final AtomicLong timeouts = new AtomicLong();
+
+  private final AtomicLong hedgedQueries = new AtomicLong();
+
+  private long count;
+
+  public SourceLatency(String sourceId) {
+    this.sourceId = sourceId;
+  }
+
+  /** @param millis the time the source took to respond to a query */
+  public synchronized void record(long millis) {
+    samples[(int) (count % WINDOW_SIZE)] = Math.max(millis, 0);
+    count++;
+  }
+
+  /**
+   * Records a query that was cut off by its deadline. The deadline is kept as a sample so that a
+   * source that keeps timing out raises its own percentiles instead of hiding behind them.
+   *
+   * @param deadlineMillis the time the query was allowed to take
+   */
+  public void recordTimeout(long deadlineMillis) {
+    timeouts.incrementAndGet();
+    record(deadlineMillis);
+  }
+
+  public void recordHedge() {
+    hedgedQueries.incrementAndGet();
+  }
+
+  /**
+   * @param percentile the percentile, between 0 and 100
+   * @return the latency in milliseconds below which that percentile of the recent queries
+   *     completed, or -1 if no query has completed yet
+   */
+  public long getPercentile(double percentile) {
+    long[] sorted;
+    synchronized (this) {
+      if (count == 0) {
+        return -1;
+      }
+      sorted = Arrays.copyOf(samples, (int) Math.min(count, WINDOW_SIZE));
+    }
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+    return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+  }
+
+  @Override
+  public String getSourceId() {
+    return sourceId;
+  }
+
+  @Override
+  public synchronized long getCount() {
+    return count;
+  }
+
+  @Override
+  public long getTimeouts() {
+    return timeouts.get();
+  }
+
+  @Override
+  public long getHedgedQueries() {
+    return hedgedQueries.get();
+  }
+
+  @Override
+  public long get50thPercentile() {
+    return getPercentile(50);
+  }
+
+  @Override
+  public long get95thPercentile() {
+    return getPercentile(95);
+  }
+
+  @Override
+  public long get99thPercentile() {
+    return getPercentile(99);
+  }
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.base;
+
+/** Query latency statistics of a single federated source, as seen by the federation strategy. */
+public interface SourceLatencyMBean {
+
+  /** Followed by the {@code strategy} and {@code source} keys of each source's MBean. */
+  String OBJECT_NAME_PREFIX = "ddf.catalog.federation:service=source-latency";
+
+  String getSourceId();
+
+  /** @return the number of queries that completed or timed out */
+  long getCount();
+
+  /** @return the number of queries that were cut off by their deadline */
+  long getTimeouts();
+
+  /** @return the number of queries that were sent to the source a second time */
+  long getHedgedQueries();
+
+  /** @return the median query latency in milliseconds over the recent queries */
+  long get50thPercentile();
+
+  long get95thPercentile();
+
+  long get99thPercentile();
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.base;
+
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.source.Source;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks how long each federated source takes to answer queries and uses it to run the queries.
+ *
+ * <p>The latency of every source is published through JMX as a {@link SourceLatencyMBean}. When
+ * adaptive timeouts are enabled, a source whose recent queries all completed well within the query
+ * timeout is given a shorter deadline of {@code adaptiveTimeoutMultiplier} times its 99th
+ * percentile, so one stalled source doesn't hold the whole federated response until the query
+ * timeout. When hedged queries are enabled, a query that is still running after the source's 95th
+ * percentile is sent to the source a second time and the first response wins.
+ *
+ * <p>Neither applies until a source has answered {@code minimumSamples} queries. Otherwise the
+ * source is queried on the calling thread, and the query timeout is left to the federation
+ * strategy.
+ */
+public class SourceLatencyTracker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SourceLatencyTracker.class);
+
+  private static final int DEFAULT_MINIMUM_SAMPLES = 20;
+
+  private static final double DEFAULT_ADAPTIVE_TIMEOUT_MULTIPLIER = 3.0;
+
+  private static final long DEFAULT_MINIMUM_TIMEOUT_MILLIS = 5000;
+
+  private final Map<String, SourceLatency> latencies = new ConcurrentHashMap<>();
+
+  private final String strategyName;
+
+  private final MBeanServer mbeanServer;
+
+  private ExecutorService executor;
+
+  private boolean adaptiveTimeouts = false;
+
+  private boolean hedgedQueries = false;
+
+  private double adaptiveTimeoutMultiplier = DEFAULT_ADAPTIVE_TIMEOUT_MULTIPLIER;
+
+  private long minimumTimeoutMillis = DEFAULT_MINIMUM_TIMEOUT_MILLIS;
+
+  private int minimumSamples = DEFAULT_MINIMUM_SAMPLES;
+
+  /** @param strategyName the name of the federation strategy the latencies are published under */
+  public SourceLatencyTracker(String strategyName) {
+    this(strategyName, ManagementFactory.getPlatformMBeanServer());
+  }
+
+  /**
+   * @param strategyName the name of the federation strategy the latencies are published under
+   * @param mbeanServer the server to publish the latencies to, or {@code null} not to publish
+   */
+  public SourceLatencyTracker(String strategyName, @Nullable MBeanServer mbeanServer) {
+    this.strategyName = strategyName;
+    this.mbeanServer = mbeanServer;
+  }
+
+  /**
+   * Queries the source, applying its adaptive deadline and hedging when enabled, and records how
+   * long it took.
+   *
+   * @throws TimeoutException if the source didn't respond before its deadline
+   */
+  public SourceResponse query(Source source, QueryRequest request)
+      throws UnsupportedQueryException, TimeoutException, InterruptedException {
+    if (source.getId() == null) {
+      return source.query(request);
+    }
+
+    SourceLatency latency = getLatency(source.getId());
+    long queryTimeout = request.getQuery().getTimeoutMillis();
+    long deadline = getDeadline(latency, queryTimeout);
+    long hedgeDelay = getHedgeDelay(latency, deadline);
+
+    if (hedgeDelay < 0 && (deadline < 1 || deadline == queryTimeout)) {
+      return timedQuery(source, request, latency);
+    }
+
+    long start = System.currentTimeMillis();
+    CompletionService<SourceResponse> attempts = new ExecutorCompletionService<>(getExecutor());
+    List<Future<SourceResponse>> futures = new ArrayList<>(2);
+    futures.add(attempts.submit(() -> timedQuery(source, copy(request), latency)));
+
+    try {
+      Future<SourceResponse> completed = null;
+      if (hedgeDelay >= 0) {
+        completed = attempts.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+        if (completed == null) {
+          LOGGER.debug(
+              "Source {} hasn't responded within {} ms, sending the query again",
+              source.getId(),
+              hedgeDelay);
+          latency.recordHedge();
+          futures.add(attempts.submit(() -> timedQuery(source, copy(request), latency)));
+        }
+      }
+
+      for (int remaining = futures.size(); remaining > 0; remaining--) {
+        if (completed == null) {
+          completed = awaitAttempt(attempts, start, deadline);
+        }
+        if (completed == null) {
+          latency.recordTimeout(deadline);
+          throw new TimeoutException(
+              String.format("Source %s didn't respond within %d ms", source.getId(), deadline));
+        }
+
+        try {
+          return completed.get();
+        } catch (ExecutionException e) {
+          if (remaining == 1) {
+            throw unwrap(e);
+          }
+          LOGGER.debug("Query to source {} failed, waiting for the hedged query", source.getId());
+          completed = null;
+        }
+      }
+      throw new IllegalStateException("No query was sent to source " + source.getId());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  /** @return the latency statistics of the source, created the first time it is queried */
+  public SourceLatency getLatency(String sourceId) {
+    return latencies.computeIfAbsent(sourceId, this::createLatency);
+  }
+
+  /**
+   * @param queryTimeoutMillis the timeout of the query, less than 1 for no timeout
+   * @return the time the source is given to respond, less than 1 for no deadline
+   */
+  long getDeadline(SourceLatency latency, long queryTimeoutMillis) {
+    if (!adaptiveTimeouts || latency.getCount() < minimumSamples) {
+      return queryTimeoutMillis;
+    }
+
+    long adaptive =
+        Math.max(
+            (long) (latency.get99thPercentile() * adaptiveTimeoutMultiplier), minimumTimeoutMillis);
+    return queryTimeoutMillis < 1 ? adaptive : Math.min(adaptive, queryTimeoutMillis);
+  }
+
+  /** @return how long to wait before sending the query again, -1 not to send it again */
+  long getHedgeDelay(SourceLatency latency, long deadline) {
+    if (!hedgedQueries || latency.getCount() < minimumSamples) {
+      return -1;
+    }
+
+    long delay = latency.get95thPercentile();
+    return deadline < 1 || delay < deadline ? delay : -1;
+  }
+
+  public void setAdaptiveTimeouts(boolean adaptiveTimeouts) {
+    this.adaptiveTimeouts = adaptiveTimeouts;
+  }
+
+  public void setHedgedQueries(boolean hedgedQueries) {
+    this.hedgedQueries = hedgedQueries;
+  }
+
+  public void setAdaptiveTimeoutMultiplier(double adaptiveTimeoutMultiplier) {
+    if (adaptiveTimeoutMultiplier >= 1) {
+      this.adaptiveTimeoutMultiplier = adaptiveTimeoutMultiplier;
+    } else {
+      LOGGER.debug(
+          "Invalid adaptive timeout multiplier {}. Using {}.",
+          adaptiveTimeoutMultiplier,
+          this.adaptiveTimeoutMultiplier);
+    }
+  }
+
+  public void setMinimumTimeoutMillis(long minimumTimeoutMillis) {
+    this.minimumTimeoutMillis = Math.max(minimumTimeoutMillis, 0);
+  }
+
+  public void setMinimumSamples(int minimumSamples) {
+    this.minimumSamples = Math.max(minimumSamples, 1);
+  }
+
+  /** Stops any hedged queries still running and removes the latencies from JMX. */
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    if (mbeanServer != null) {
+      for (String sourceId : latencies.keySet()) {
+        try {
+          ObjectName objectName = getObjectName(sourceId);
+          if (mbeanServer.isRegistered(objectName)) {
+            mbeanServer.unregisterMBean(objectName);
+          }
+        } catch (JMException e) {
+          LOGGER.debug("Could not unregister the latency MBean of source {}", sourceId, e);
+        }
+      }
+    }
+    latencies.clear();
+  }
+
+  private SourceLatency createLatency(String sourceId) {
+    SourceLatency latency = new SourceLatency(sourceId);
+    if (mbeanServer != null) {
+      try {
+        ObjectName objectName = getObjectName(sourceId);
+        if (mbeanServer.isRegistered(objectName)) {
+          LOGGER.debug("Re-registering the latency MBean of source {}", sourceId);
+          mbeanServer.unregisterMBean(objectName);
+        }
+        mbeanServer.registerMBean(new StandardMBean(latency, SourceLatencyMBean.class), objectName);
+      } catch (JMException e) {
+        LOGGER.debug("Could not register the latency MBean of source {}", sourceId, e);
+      }
+    }
+    return latency;
+  }
+
+  private ObjectName getObjectName(String sourceId) throws JMException {
+    return new ObjectName(
+        SourceLatencyMBean.OBJECT_NAME_PREFIX
+            + ",strategy="
+            + ObjectName.quote(strategyName)
+            + ",source="
+            + ObjectName.quote(sourceId));
+  }
+
+  private static SourceResponse timedQuery(
+      Source source, QueryRequest request, SourceLatency latency) throws UnsupportedQueryException {
+    long start = System.currentTimeMillis();
+    SourceResponse response = source.query(request);
+    latency.record(System.currentTimeMillis() - start);
+    return response;
+  }
+
+  private static Future<SourceResponse> awaitAttempt(
+      CompletionService<SourceResponse> attempts, long start, long deadline)
+      throws InterruptedException {
+    if (deadline < 1) {
+      return attempts.take();
+    }
+    long remaining = Math.max(start + deadline - System.currentTimeMillis(), 0);
+    return attempts.poll(remaining, TimeUnit.MILLISECONDS);
+  }
+
+  /** Each attempt gets its own properties, since sources are free to modify them. */
+  private static QueryRequest copy(QueryRequest request) {
+    return new QueryRequestImpl(
+        request.getQuery(),
+        request.isEnterprise(),
+        request.getSourceIds(),
+        request.getProperties() == null ? null : new HashMap<>(request.getProperties()));
+  }
+
+  private static UnsupportedQueryException unwrap(ExecutionException e) {
+    Throwable cause = e.getCause();
+    if (cause instanceof UnsupportedQueryException) {
+      return (UnsupportedQueryException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new UnsupportedQueryException(cause);
+  }
+
+  private synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor =
+          Executors.newCachedThreadPool(
+              StandardThreadFactoryBuilder.newThreadFactory("sourceQueryAttemptThread"));
+    }
+    return executor;
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.operation.impl;
+
+import ddf.catalog.operation.AttributeDelta;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang.Validate;
+
+/** Default implementation of {@link AttributeDelta} */
+public class AttributeDeltaImpl implements AttributeDelta {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String name;
+
+  private final Type type;
+
+  private final List<Serializable> values;
+
+  /**
+   * Create a new {@link AttributeDeltaImpl}
+   *
+   * @param name the name of the attribute to change
+   * @param type how the values change the attribute
+   * @param values the values to set, add or remove
+   */
+  public AttributeDeltaImpl(String name, Type type, List<Serializable> values) {
+    Validate.notEmpty(name, "argument {name} cannot be empty");
+    Validate.notNull(type, "argument {type} cannot be null");
+
+    this.name = name;
+    this.type = type;
+    this.values =
+        values == null
+            ? Collections.emptyList()
+            : Collections.unmodifiableList(new ArrayList<>(values));
+  }
+
+  /**
+   * Create a new {@link AttributeDeltaImpl}
+   *
+   * @param name the name of the attribute to change
+   * @param type how the values change the attribute
+   * @param values the values to set, add or remove
+   */
+  public AttributeDeltaImpl(String name, Type type, Serializable... values) {
+    this(name, type, Arrays.asList(values));
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Type getType() {
+    return type;
+  }
+
+  @Override
+  public List<Serializable> getValues() {
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return type + " " + name + " " + values;
+  }
+}
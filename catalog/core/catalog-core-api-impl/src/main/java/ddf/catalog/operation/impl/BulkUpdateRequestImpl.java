@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.operation.impl;
+
+import ddf.catalog.operation.AttributeDelta;
+import ddf.catalog.operation.BulkUpdateRequest;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import org.opengis.filter.Filter;
+
+/** The BulkUpdateRequestImpl represents a default implementation of a {@link BulkUpdateRequest} */
+public class BulkUpdateRequestImpl extends OperationImpl implements BulkUpdateRequest {
+
+  protected Filter filter;
+
+  protected List<AttributeDelta> deltas;
+
+  /**
+   * Instantiates a new BulkUpdateRequestImpl.
+   *
+   * @param filter the filter selecting the metacards to update
+   * @param deltas the changes to apply to each selected metacard
+   */
+  public BulkUpdateRequestImpl(Filter filter, List<AttributeDelta> deltas) {
+    this(filter, deltas, null);
+  }
+
+  /**
+   * Instantiates a new BulkUpdateRequestImpl.
+   *
+   * @param filter the filter selecting the metacards to update
+   * @param deltas the changes to apply to each selected metacard
+   * @param properties the properties associated with the operation
+   */
+  public BulkUpdateRequestImpl(
+      Filter filter, List<AttributeDelta> deltas, Map<String, Serializable> properties) {
+    super(properties);
+    this.filter = filter;
+    this.deltas = deltas;
+  }
+
+  @Override
+  public Filter getFilter() {
+    return filter;
+  }
+
+  @Override
+  public List<AttributeDelta> getDeltas() {
+    return deltas;
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.operation.impl;
+
+import ddf.catalog.operation.BulkUpdateRequest;
+import ddf.catalog.operation.BulkUpdateResponse;
+import ddf.catalog.operation.ProcessingDetails;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The BulkUpdateResponseImpl represents a default implementation of a {@link BulkUpdateResponse}
+ */
+public class BulkUpdateResponseImpl extends ResponseImpl<BulkUpdateRequest>
+    implements BulkUpdateResponse {
+
+  private final long updatedCount;
+
+  private final long unchangedCount;
+
+  private final long failedCount;
+
+  private final Set<ProcessingDetails> processingErrors;
+
+  /**
+   * Instantiates a new BulkUpdateResponseImpl.
+   *
+   * @param request the original request
+   * @param properties the properties associated with the operation
+   * @param updatedCount the number of metacards that were changed
+   * @param unchangedCount the number of metacards the changes didn't modify
+   * @param failedCount the number of metacards that couldn't be updated
+   * @param errors the processing errors
+   */
+  public BulkUpdateResponseImpl(
+      BulkUpdateRequest request,
+      Map<String, Serializable> properties,
+      long updatedCount,
+      long unchangedCount,
+      long failedCount,
+      Set<ProcessingDetails> errors) {
+    super(request, properties);
+    this.updatedCount = updatedCount;
+    this.unchangedCount = unchangedCount;
+    this.failedCount = failedCount;
+    this.processingErrors = errors == null ? new HashSet<>() : errors;
+  }
+
+  @Override
+  public long getUpdatedCount() {
+    return updatedCount;
+  }
+
+  @Override
+  public long getUnchangedCount() {
+    return unchangedCount;
+  }
+
+  @Override
+  public long getFailedCount() {
+    return failedCount;
+  }
+
+  @Override
+  public Set<ProcessingDetails> getProcessingErrors() {
+    return processingErrors;
+  }
+}
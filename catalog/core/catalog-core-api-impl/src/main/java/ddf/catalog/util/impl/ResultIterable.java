@@ -18,6 +18,7 @@
 import static org.apache.commons.lang.Validate.notNull;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.Constants;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.federation.FederationException;
@@ -28,11 +29,14 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
@@ -50,6 +54,12 @@
  *
  * <p>Since the class may use the page size provided in the {@link Query} to fetch the results, its
  * value should be carefully set to avoid any memory or performance issues.
+ *
+ * <p>If the {@link QueryRequest} has a {@link Constants#QUERY_CURSOR_MARK_KEY} property, pages are
+ * fetched with the cursor mark returned with each page instead of an increasing start index, which
+ * keeps the cost of fetching a page constant however deep into the results it is. Results aren't
+ * checked for duplicates in that case, since a cursor never returns a result twice. Paging falls
+ * back to start indexes if the results don't come with a cursor mark.
  */
 public class ResultIterable implements Iterable<Result> {
   public static final int DEFAULT_PAGE_SIZE = 64;
@@ -159,6 +169,7 @@ private static class ResultIterator implements Iterator<Result> {
     private int currentIndex;
     private QueryImpl queryCopy;
     private QueryRequestImpl queryRequestCopy;
+    private String cursorMark;
     private Iterator<Result> results = Collections.emptyIterator();
     private boolean finished = false;
 
@@ -168,6 +179,12 @@ private static class ResultIterator implements Iterator<Result> {
       copyQueryRequestAndQuery(queryRequest);
 
       this.currentIndex = queryCopy.getStartIndex();
+
+      Serializable initialCursorMark =
+          queryRequestCopy.getPropertyValue(Constants.QUERY_CURSOR_MARK_KEY);
+      if (initialCursorMark instanceof String) {
+        this.cursorMark = (String) initialCursorMark;
+      }
     }
 
     @Override
@@ -208,6 +225,9 @@ public Result next() {
     @SuppressWarnings("squid:CommentedOutCodeLine")
     private void fetchNextResults() {
       queryCopy.setStartIndex(currentIndex);
+      if (cursorMark != null) {
+        queryRequestCopy.getProperties().put(Constants.QUERY_CURSOR_MARK_KEY, cursorMark);
+      }
 
       try {
         SourceResponse response = queryFunction.query(queryRequestCopy);
@@ -236,6 +256,11 @@ private void fetchNextResults() {
           finished = true;
           return;
         }
+
+        if (cursorMark != null && fetchedWithCursor(response, resultList)) {
+          return;
+        }
+
         currentIndex += actualResultSize;
 
         List<Result> dedupedResults = new ArrayList<>(resultList.size());
@@ -259,6 +284,21 @@ private void fetchNextResults() {
       }
     }
 
+    private boolean fetchedWithCursor(SourceResponse response, List<Result> resultList) {
+      Serializable nextCursorMark = response.getPropertyValue(Constants.QUERY_NEXT_CURSOR_MARK_KEY);
+      if (!(nextCursorMark instanceof String)) {
+        // The source doesn't support cursors, so the next page is requested by start index
+        cursorMark = null;
+        queryRequestCopy.getProperties().remove(Constants.QUERY_CURSOR_MARK_KEY);
+        return false;
+      }
+
+      finished = nextCursorMark.equals(cursorMark);
+      cursorMark = (String) nextCursorMark;
+      this.results = resultList.iterator();
+      return true;
+    }
+
     private boolean isDistinctResult(@Nullable Result result) {
       return result != null
           && (result.getMetacard() == null
@@ -286,7 +326,12 @@ private void copyQueryRequestAndQuery(QueryRequest queryRequest) {
               queryCopy,
               queryRequest.isEnterprise(),
               queryRequest.getSourceIds(),
-              queryRequest.getProperties());
+              copyProperties(queryRequest.getProperties()));
+    }
+
+    private Map<String, Serializable> copyProperties(Map<String, Serializable> properties) {
+      // The cursor mark is updated for every page, so the caller's properties aren't shared
+      return properties == null ? new HashMap<>() : new HashMap<>(properties);
     }
   }
 }
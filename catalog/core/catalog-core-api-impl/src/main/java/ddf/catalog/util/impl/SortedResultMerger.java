@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import ddf.catalog.data.Result;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Merges the results of several sources into a single sorted sequence with a k-way heap merge
+ * instead of concatenating and sorting all of them.
+ *
+ * <p>Each source's results only need to be kept up to {@code maxResults}, since no result past that
+ * position in its own source can be among the first {@code maxResults} merged results. The results
+ * of a source are sorted before being merged unless they already are, which is the normal case for
+ * sources that honor the query's sort, so the order produced is the same as a stable sort of the
+ * concatenation of all sources' results in the order they were added.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class SortedResultMerger {
+
+  private final Comparator<? super Result> comparator;
+
+  private final int maxResults;
+
+  private final List<List<Result>> sources = new ArrayList<>();
+
+  private int size = 0;
+
+  /**
+   * @param comparator the comparator defining the merged order
+   * @param maxResults the maximum number of results to merge, non-positive for no limit
+   */
+  public SortedResultMerger(Comparator<? super Result> comparator, int maxResults) {
+    this.comparator = comparator;
+    this.maxResults = maxResults > 0 ? maxResults : Integer.MAX_VALUE;
+  }
+
+  /**
+   * Adds the results of a source to be merged.
+   *
+   * @param results the results of the source, may be {@code null}
+   */
+  public void add(List<Result> results) {
+    if (results == null || results.isEmpty()) {
+      return;
+    }
+
+    // All the results are checked, since a result past maxResults may belong among the first ones
+    List<Result> bounded = results;
+    if (!isSorted(results)) {
+      // The source didn't sort its results the same way, so its top results may be anywhere
+      bounded = new ArrayList<>(results);
+      bounded.sort(comparator);
+    }
+    if (bounded.size() > maxResults) {
+      // Copied, so the results past maxResults aren't kept reachable through the sublist
+      bounded = new ArrayList<>(bounded.subList(0, maxResults));
+    }
+
+    sources.add(bounded);
+    size += bounded.size();
+  }
+
+  /** @return the number of results that will be merged, at most {@code maxResults} */
+  public int size() {
+    return Math.min(size, maxResults);
+  }
+
+  /**
+   * Passes the merged results, in order, to the consumer as each one is determined.
+   *
+   * @param consumer the consumer of the merged results
+   * @return the number of results passed to the consumer
+   */
+  public int merge(Consumer<Result> consumer) {
+    PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, sources.size()));
+    for (int i = 0; i < sources.size(); i++) {
+      heap.add(new Cursor(sources.get(i), i));
+    }
+
+    int emitted = 0;
+    while (emitted < maxResults && !heap.isEmpty()) {
+      Cursor cursor = heap.poll();
+      consumer.accept(cursor.current());
+      emitted++;
+      if (cursor.advance()) {
+        heap.add(cursor);
+      }
+    }
+
+    sources.clear();
+    size = 0;
+    return emitted;
+  }
+
+  /**
+   * Merges the results into a list.
+   *
+   * @return the merged results
+   */
+  public List<Result> merge() {
+    List<Result> merged = new ArrayList<>(size());
+    merge(merged::add);
+    return merged;
+  }
+
+  private boolean isSorted(List<Result> results) {
+    for (int i = 1; i < results.size(); i++) {
+      if (comparator.compare(results.get(i - 1), results.get(i)) > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private class Cursor implements Comparable<Cursor> {
+    private final List<Result> results;
+
+    private final int sourceIndex;
+
+    private int position = 0;
+
+    Cursor(List<Result> results, int sourceIndex) {
+      this.results = results;
+      this.sourceIndex = sourceIndex;
+    }
+
+    Result current() {
+      return results.get(position);
+    }
+
+    boolean advance() {
+      return ++position < results.size();
+    }
+
+    @Override
+    public int compareTo(Cursor other) {
+      int result = comparator.compare(current(), other.current());
+      // Ties are broken by the order the sources were added in to keep the merge stable
+      return result != 0 ? result : Integer.compare(sourceIndex, other.sourceIndex);
+    }
+  }
+}
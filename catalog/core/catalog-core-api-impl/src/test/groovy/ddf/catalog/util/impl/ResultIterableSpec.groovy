@@ -14,6 +14,7 @@
 package ddf.catalog.util.impl
 
 import ddf.catalog.CatalogFramework
+import ddf.catalog.Constants
 import ddf.catalog.data.Metacard
 import ddf.catalog.data.Result
 import ddf.catalog.data.impl.ResultImpl
@@ -429,6 +430,63 @@ class ResultIterableSpec extends Specification {
         results == actualResults
     }
 
+    def "Pages with the cursor mark returned with each page"() {
+        setup:
+        def actualResults = (1..5).collect { new ResultImpl() }
+        def cursorMarks = []
+        3 * catalogFramework.query(_ as QueryRequest) >> {
+            QueryRequest queryRequest ->
+                cursorMarks << queryRequest.getPropertyValue(Constants.QUERY_CURSOR_MARK_KEY)
+                buildCursorQueryResponse(actualResults, 0..1, "a")
+        } >> {
+            QueryRequest queryRequest ->
+                cursorMarks << queryRequest.getPropertyValue(Constants.QUERY_CURSOR_MARK_KEY)
+                buildCursorQueryResponse(actualResults, 2..4, "b")
+        } >> {
+            QueryRequest queryRequest ->
+                cursorMarks << queryRequest.getPropertyValue(Constants.QUERY_CURSOR_MARK_KEY)
+                buildCursorQueryResponse([], 0..<0, "b")
+        }
+
+        Query queryMock = createQueryMock(1, 3)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+        queryRequestMock.getProperties() >> [(Constants.QUERY_CURSOR_MARK_KEY): Constants.QUERY_CURSOR_MARK_START]
+
+        when:
+        def results = resultIterable(catalogFramework, queryRequestMock).stream().collect(toList())
+
+        then:
+        results == actualResults
+        cursorMarks == [Constants.QUERY_CURSOR_MARK_START, "a", "b"]
+    }
+
+    def "Pages by start index when the results have no cursor mark"() {
+        setup:
+        def actualResults = (1..3).collect { new ResultImpl() }
+        def startIndexes = []
+        2 * catalogFramework.query(_ as QueryRequest) >> {
+            QueryRequest queryRequest ->
+                startIndexes << queryRequest.getQuery().getStartIndex()
+                buildQueryResponse(actualResults, 0..1)
+        } >> {
+            QueryRequest queryRequest ->
+                startIndexes << queryRequest.getQuery().getStartIndex()
+                assert queryRequest.getPropertyValue(Constants.QUERY_CURSOR_MARK_KEY) == null
+                buildQueryResponse(actualResults, 2)
+        }
+
+        Query queryMock = createQueryMock(1, 2)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+        queryRequestMock.getProperties() >> [(Constants.QUERY_CURSOR_MARK_KEY): Constants.QUERY_CURSOR_MARK_START]
+
+        when:
+        def results = resultIterable(catalogFramework, queryRequestMock).stream().collect(toList())
+
+        then:
+        results == actualResults
+        startIndexes == [1, 3]
+    }
+
     def "next() doesn't query the catalog after all the results have been retrieved"() {
         setup:
         1 * catalogFramework.query(_ as QueryRequest) >> {
@@ -603,6 +661,16 @@ class ResultIterableSpec extends Specification {
         return response
     }
 
+    private QueryResponse buildCursorQueryResponse(List<Result> resultList, Range resultRange,
+                                                   String nextCursorMark) {
+        return new QueryResponseImpl(new QueryRequestImpl(null),
+                resultList[resultRange],
+                true,
+                -1L,
+                ["actualResultSize"                    : resultRange.size(),
+                 (Constants.QUERY_NEXT_CURSOR_MARK_KEY): nextCursorMark])
+    }
+
     private QueryResponse buildQueryResponse(List<Result> resultList, int resultIndex) {
         return buildQueryResponse(resultList, resultIndex..resultIndex)
     }
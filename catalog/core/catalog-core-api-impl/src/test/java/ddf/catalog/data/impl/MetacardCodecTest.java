@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class MetacardCodecTest {
+
+  private static final MetacardType TYPE = createType();
+
+  @Test
+  public void testMetacardRoundTrip() throws Exception {
+    MetacardImpl metacard = createMetacard();
+
+    byte[] bytes = MetacardCodec.encode(metacard);
+    Metacard decoded = MetacardCodec.decodeMetacard(bytes);
+
+    assertMetacardsEqual(decoded, metacard);
+  }
+
+  @Test
+  public void testMetacardTypeRoundTrip() throws Exception {
+    MetacardType decoded = MetacardCodec.decodeMetacardType(MetacardCodec.encode(TYPE));
+
+    assertThat(decoded.getName(), is(TYPE.getName()));
+    assertThat(decoded.getAttributeDescriptors(), is(TYPE.getAttributeDescriptors()));
+  }
+
+  @Test
+  public void testDecodedTypesAreInterned() throws Exception {
+    Metacard first = MetacardCodec.decodeMetacard(MetacardCodec.encode(createMetacard()));
+    Metacard second = MetacardCodec.decodeMetacard(MetacardCodec.encode(createMetacard()));
+
+    assertThat(first.getMetacardType(), sameInstance(second.getMetacardType()));
+  }
+
+  @Test
+  public void testStreamWritesTypeOnce() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MetacardCodec.Writer writer = new MetacardCodec.Writer(out);
+    writer.writeMetacard(createMetacard());
+    int firstLength = out.size();
+    writer.writeMetacard(createMetacard());
+    writer.writeString("trailer");
+    writer.writeVarLong(-300L);
+
+    assertThat(out.size() - firstLength, lessThan(firstLength));
+
+    MetacardCodec.Reader reader =
+        new MetacardCodec.Reader(new ByteArrayInputStream(out.toByteArray()));
+    assertMetacardsEqual(reader.readMetacard(), createMetacard());
+    assertMetacardsEqual(reader.readMetacard(), createMetacard());
+    assertThat(reader.readString(), is("trailer"));
+    assertThat(reader.readVarLong(), is(-300L));
+  }
+
+  @Test
+  public void testSmallerThanJavaSerialization() throws Exception {
+    MetacardImpl metacard = createMetacard();
+
+    assertThat(MetacardCodec.encode(metacard).length, lessThan(javaSerialize(metacard).length));
+  }
+
+  @Test
+  public void testReadsJavaSerializedMetacard() throws Exception {
+    MetacardImpl metacard = createMetacard();
+
+    byte[] bytes = javaSerialize(metacard);
+
+    assertThat(MetacardCodec.isEncoded(bytes), is(false));
+    assertMetacardsEqual(MetacardCodec.decodeMetacard(bytes), metacard);
+  }
+
+  @Test
+  public void testVarLongExtremes() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MetacardCodec.Writer writer = new MetacardCodec.Writer(out);
+    long[] values = {0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE};
+    for (long value : values) {
+      writer.writeVarLong(value);
+    }
+    writer.writeString(null);
+
+    MetacardCodec.Reader reader =
+        new MetacardCodec.Reader(new ByteArrayInputStream(out.toByteArray()));
+    for (long value : values) {
+      assertThat(reader.readVarLong(), is(value));
+    }
+    assertThat(reader.readString(), nullValue());
+  }
+
+  @Test(expected = StreamCorruptedException.class)
+  public void testUnsupportedVersion() throws Exception {
+    byte[] bytes = MetacardCodec.encode(createMetacard());
+    bytes[3] = (byte) (MetacardCodec.VERSION + 1);
+
+    MetacardCodec.decodeMetacard(bytes);
+  }
+
+  private static void assertMetacardsEqual(Metacard actual, Metacard expected) {
+    assertThat(actual.getSourceId(), is(expected.getSourceId()));
+    assertThat(actual.getMetacardType().getName(), is(expected.getMetacardType().getName()));
+    for (AttributeDescriptor descriptor : expected.getMetacardType().getAttributeDescriptors()) {
+      String name = descriptor.getName();
+      if (expected.getAttribute(name) == null) {
+        assertThat(actual.getAttribute(name), nullValue());
+      } else {
+        assertThat(
+            name,
+            actual.getAttribute(name).getValues().toArray(),
+            is(expected.getAttribute(name).getValues().toArray()));
+      }
+    }
+  }
+
+  private static MetacardImpl createMetacard() {
+    MetacardImpl metacard = new MetacardImpl(TYPE);
+    metacard.setSourceId("source");
+    metacard.setId("1234");
+    metacard.setTitle("Title é中");
+    metacard.setCreatedDate(new Date(1234567890L));
+    metacard.setLocation("POINT (1 2)");
+    metacard.setThumbnail(new byte[] {1, 2, 3});
+    metacard.setAttribute("long", -42L);
+    metacard.setAttribute("integer", 42);
+    metacard.setAttribute("short", (short) 7);
+    metacard.setAttribute("double", 3.25);
+    metacard.setAttribute("float", -1.5f);
+    metacard.setAttribute("boolean", true);
+    metacard.setAttribute(new AttributeImpl("strings", Arrays.<Serializable>asList("a", "b", "c")));
+    metacard.setAttribute("object", new BigInteger("12345678901234567890"));
+    return metacard;
+  }
+
+  private static MetacardType createType() {
+    Set<AttributeDescriptor> descriptors =
+        new HashSet<>(MetacardImpl.BASIC_METACARD.getAttributeDescriptors());
+    descriptors.add(
+        new AttributeDescriptorImpl("long", true, true, false, false, BasicTypes.LONG_TYPE));
+    descriptors.add(
+        new AttributeDescriptorImpl("integer", true, true, false, false, BasicTypes.INTEGER_TYPE));
+    descriptors.add(
+        new AttributeDescriptorImpl("short", true, true, false, false, BasicTypes.SHORT_TYPE));
+    descriptors.add(
+        new AttributeDescriptorImpl("double", true, true, false, false, BasicTypes.DOUBLE_TYPE));
+    descriptors.add(
+        new AttributeDescriptorImpl("float", true, true, false, false, BasicTypes.FLOAT_TYPE));
+    descriptors.add(
+        new AttributeDescriptorImpl("boolean", true, true, false, false, BasicTypes.BOOLEAN_TYPE));
+    descriptors.add(
+        new AttributeDescriptorImpl("strings", true, true, true, true, BasicTypes.STRING_TYPE));
+    descriptors.add(
+        new AttributeDescriptorImpl("object", false, true, false, false, BasicTypes.OBJECT_TYPE));
+    return new MetacardTypeImpl("codec", descriptors);
+  }
+
+  private static byte[] javaSerialize(Object object) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.base;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.source.Source;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+
+public class SourceLatencyTrackerTest {
+
+  private static final String STRATEGY_NAME = "testStrategy";
+
+  private static final String SOURCE_ID = "slowSource";
+
+  private SourceLatencyTracker tracker;
+
+  private Source source;
+
+  private SourceResponse response;
+
+  @Before
+  public void setUp() {
+    tracker = new SourceLatencyTracker(STRATEGY_NAME, null);
+    tracker.setMinimumSamples(5);
+    tracker.setMinimumTimeoutMillis(0);
+    source = mock(Source.class);
+    when(source.getId()).thenReturn(SOURCE_ID);
+    response = mock(SourceResponse.class);
+  }
+
+  @After
+  public void tearDown() {
+    tracker.shutdown();
+  }
+
+  @Test
+  public void testPercentiles() {
+    SourceLatency latency = new SourceLatency(SOURCE_ID);
+    assertThat(latency.get50thPercentile(), is(-1L));
+
+    for (int i = 1; i <= 100; i++) {
+      latency.record(i);
+    }
+
+    assertThat(latency.getCount(), is(100L));
+    assertThat(latency.get50thPercentile(), is(50L));
+    assertThat(latency.get95thPercentile(), is(95L));
+    assertThat(latency.get99thPercentile(), is(99L));
+  }
+
+  @Test
+  public void testPercentilesFollowRecentQueries() {
+    SourceLatency latency = new SourceLatency(SOURCE_ID);
+    for (int i = 0; i < SourceLatency.WINDOW_SIZE; i++) {
+      latency.record(1000);
+    }
+    for (int i = 0; i < SourceLatency.WINDOW_SIZE; i++) {
+      latency.record(10);
+    }
+
+    assertThat(latency.get99thPercentile(), is(10L));
+  }
+
+  @Test
+  public void testDeadlineDefaultsToQueryTimeout() {
+    SourceLatency latency = tracker.getLatency(SOURCE_ID);
+    recordSamples(latency, 10, 100);
+
+    assertThat(tracker.getDeadline(latency, 60000), is(60000L));
+
+    tracker.setAdaptiveTimeouts(true);
+    assertThat(tracker.getDeadline(latency, 60000), is(30L));
+    assertThat(tracker.getDeadline(latency, 20), is(20L));
+    assertThat(tracker.getDeadline(latency, 0), is(30L));
+  }
+
+  @Test
+  public void testDeadlineNeedsMinimumSamples() {
+    tracker.setAdaptiveTimeouts(true);
+    SourceLatency latency = tracker.getLatency(SOURCE_ID);
+    recordSamples(latency, 10, 4);
+
+    assertThat(tracker.getDeadline(latency, 60000), is(60000L));
+  }
+
+  @Test(expected = TimeoutException.class)
+  public void testAdaptiveTimeout() throws Exception {
+    tracker.setAdaptiveTimeouts(true);
+    recordSamples(tracker.getLatency(SOURCE_ID), 10, 100);
+    when(source.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(5));
+              return response;
+            });
+
+    try {
+      tracker.query(source, request(60000));
+    } finally {
+      assertThat(tracker.getLatency(SOURCE_ID).getTimeouts(), is(1L));
+    }
+  }
+
+  @Test
+  public void testHedgedQuery() throws Exception {
+    tracker.setHedgedQueries(true);
+    recordSamples(tracker.getLatency(SOURCE_ID), 10, 100);
+    AtomicInteger attempts = new AtomicInteger();
+    when(source.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              if (attempts.incrementAndGet() == 1) {
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(5));
+              }
+              return response;
+            });
+
+    long start = System.currentTimeMillis();
+    assertThat(tracker.query(source, request(60000)), sameInstance(response));
+
+    assertThat(System.currentTimeMillis() - start < 5000, is(true));
+    assertThat(attempts.get(), is(2));
+    assertThat(tracker.getLatency(SOURCE_ID).getHedgedQueries(), is(1L));
+  }
+
+  @Test
+  public void testQueryIsRecorded() throws Exception {
+    when(source.query(any(QueryRequest.class))).thenReturn(response);
+
+    assertThat(tracker.query(source, request(0)), sameInstance(response));
+    assertThat(tracker.getLatency(SOURCE_ID).getCount(), is(1L));
+  }
+
+  @Test
+  public void testQueryRunsOnCallingThreadWithoutAdaptiveTimeoutOrHedging() throws Exception {
+    recordSamples(tracker.getLatency(SOURCE_ID), 10, 100);
+    Thread caller = Thread.currentThread();
+    when(source.query(any(QueryRequest.class)))
+        .thenAnswer(invocation -> Thread.currentThread() == caller ? response : null);
+
+    assertThat(tracker.query(source, request(60000)), sameInstance(response));
+  }
+
+  @Test
+  public void testLatencyIsPublished() throws Exception {
+    MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    SourceLatencyTracker publishing = new SourceLatencyTracker(STRATEGY_NAME, mbeanServer);
+    ObjectName objectName =
+        new ObjectName(
+            SourceLatencyMBean.OBJECT_NAME_PREFIX
+                + ",strategy="
+                + ObjectName.quote(STRATEGY_NAME)
+                + ",source="
+                + ObjectName.quote(SOURCE_ID));
+
+    publishing.getLatency(SOURCE_ID).record(42);
+
+    assertThat(mbeanServer.getAttribute(objectName, "50thPercentile"), is(42L));
+    publishing.shutdown();
+    assertThat(mbeanServer.isRegistered(objectName), is(false));
+  }
+
+  private static void recordSamples(SourceLatency latency, long millis, int count) {
+    for (int i = 0; i < count; i++) {
+      latency.record(millis);
+    }
+  }
+
+  private static QueryRequest request(long timeoutMillis) {
+    QueryImpl query = new QueryImpl(Filter.INCLUDE);
+    query.setTimeoutMillis(timeoutMillis);
+    return new QueryRequestImpl(query);
+  }
+}
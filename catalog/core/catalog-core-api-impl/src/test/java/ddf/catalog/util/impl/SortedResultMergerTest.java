@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.opengis.filter.sort.SortOrder;
+
+public class SortedResultMergerTest {
+
+  private static final RelevanceResultComparator COMPARATOR =
+      new RelevanceResultComparator(SortOrder.DESCENDING);
+
+  @Test
+  public void testMergeSortedSources() {
+    Result a9 = result(9.0);
+    Result a5 = result(5.0);
+    Result a1 = result(1.0);
+    Result b8 = result(8.0);
+    Result b2 = result(2.0);
+
+    SortedResultMerger merger = new SortedResultMerger(COMPARATOR, 0);
+    merger.add(Arrays.asList(a9, a5, a1));
+    merger.add(Arrays.asList(b8, b2));
+
+    assertThat(merger.merge(), contains(a9, b8, a5, b2, a1));
+  }
+
+  @Test
+  public void testMergeUnsortedSource() {
+    Result a1 = result(1.0);
+    Result a9 = result(9.0);
+    Result b5 = result(5.0);
+
+    SortedResultMerger merger = new SortedResultMerger(COMPARATOR, 2);
+    merger.add(Arrays.asList(a1, a9));
+    merger.add(Collections.singletonList(b5));
+
+    assertThat(merger.merge(), contains(a9, b5));
+  }
+
+  @Test
+  public void testMergeSourceUnsortedPastLimit() {
+    Result a9 = result(9.0);
+    Result a7 = result(7.0);
+    Result a8 = result(8.0);
+
+    SortedResultMerger merger = new SortedResultMerger(COMPARATOR, 2);
+    merger.add(Arrays.asList(a9, a7, result(6.0), a8));
+
+    assertThat(merger.merge(), contains(a9, a8));
+  }
+
+  @Test
+  public void testMergeIsLimited() {
+    SortedResultMerger merger = new SortedResultMerger(COMPARATOR, 3);
+    merger.add(Arrays.asList(result(9.0), result(8.0), result(7.0), result(6.0)));
+    merger.add(Arrays.asList(result(5.0), result(4.0)));
+    merger.add(null);
+
+    assertThat(merger.size(), is(3));
+    List<Result> merged = new ArrayList<>();
+    assertThat(merger.merge(merged::add), is(3));
+    assertThat(merged.size(), is(3));
+  }
+
+  @Test
+  public void testMergeIsStable() {
+    Result a = result(1.0);
+    Result b = result(1.0);
+    Result c = result(1.0);
+
+    SortedResultMerger merger = new SortedResultMerger(COMPARATOR, 0);
+    merger.add(Arrays.asList(a, b));
+    merger.add(Collections.singletonList(c));
+
+    assertThat(merger.merge(), contains(a, b, c));
+  }
+
+  @Test
+  public void testMergeMatchesFullSort() {
+    Random random = new Random(42);
+    List<Result> all = new ArrayList<>();
+    SortedResultMerger merger = new SortedResultMerger(COMPARATOR, 50);
+    for (int source = 0; source < 10; source++) {
+      List<Result> sourceResults = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        sourceResults.add(result((double) random.nextInt(100)));
+      }
+      sourceResults.sort(COMPARATOR);
+      all.addAll(sourceResults);
+      merger.add(sourceResults);
+    }
+    all.sort(COMPARATOR);
+
+    assertThat(merger.merge(), is(all.subList(0, 50)));
+  }
+
+  private static Result result(Double relevance) {
+    ResultImpl result = new ResultImpl();
+    result.setRelevanceScore(relevance);
+    return result;
+  }
+}
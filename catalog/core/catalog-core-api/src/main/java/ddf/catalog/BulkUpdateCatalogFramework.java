@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog;
+
+import ddf.catalog.operation.BulkUpdateRequest;
+import ddf.catalog.operation.BulkUpdateResponse;
+import ddf.catalog.source.IngestException;
+import ddf.catalog.source.SourceUnavailableException;
+
+/**
+ * <b> This code is experimental. While this interface is functional and tested, it may change or be
+ * removed in a future version of the library. </b>
+ *
+ * <p>Bulk operations offered by a {@link CatalogFramework} in addition to its own. They are kept
+ * out of {@link CatalogFramework} so its other implementations don't have to provide them.
+ */
+public interface BulkUpdateCatalogFramework {
+
+  /**
+   * Applies the {@link ddf.catalog.operation.AttributeDelta}s of the request to every Metacard in
+   * the local {@link ddf.catalog.source.CatalogProvider} matching its filter.
+   *
+   * <p>The Metacards are updated in batches, each of which is handled like a {@link
+   * CatalogFramework#update(ddf.catalog.operation.UpdateRequest)} of the Metacards of the batch,
+   * with the deltas applied to the current version of each Metacard. A batch that fails doesn't
+   * stop the other batches from being updated.
+   *
+   * @param bulkUpdateRequest the {@link BulkUpdateRequest}
+   * @return {@link BulkUpdateResponse}
+   * @throws IngestException if the request is invalid or the Metacards to update can't be queried
+   * @throws SourceUnavailableException if the local provider is unavailable
+   */
+  BulkUpdateResponse update(BulkUpdateRequest bulkUpdateRequest)
+      throws IngestException, SourceUnavailableException;
+}
@@ -154,4 +154,23 @@ public final class Constants {
   public static final String SUGGESTION_BUILD_KEY = "suggestion-build";
 
   public static final String ADDITIONAL_SORT_BYS = "additional-sort-bys";
+
+  /**
+   * {@link ddf.catalog.operation.QueryRequest} property requesting cursor based paging from sources
+   * that support it. The value is the cursor mark {@link String} returned in the {@link
+   * #QUERY_NEXT_CURSOR_MARK_KEY} property of the previous page's response, or {@link
+   * #QUERY_CURSOR_MARK_START} for the first page. The start index of the query is ignored when
+   * paging with a cursor.
+   */
+  public static final String QUERY_CURSOR_MARK_KEY = "cursor-mark";
+
+  /** Cursor mark value requesting the first page of a cursor based paging. */
+  public static final String QUERY_CURSOR_MARK_START = "*";
+
+  /**
+   * {@link ddf.catalog.operation.SourceResponse} property holding the cursor mark of the next page
+   * when a query was paged with a {@link #QUERY_CURSOR_MARK_KEY}. The last page has been reached
+   * when it is equal to the cursor mark of the request.
+   */
+  public static final String QUERY_NEXT_CURSOR_MARK_KEY = "next-cursor-mark";
 }
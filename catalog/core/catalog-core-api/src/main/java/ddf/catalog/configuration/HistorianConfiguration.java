@@ -17,4 +17,12 @@
 public interface HistorianConfiguration {
 
   boolean isHistoryEnabled();
+
+  /**
+   * Stores the history of a metacard that is still waiting to be written, so that queries for its
+   * history return all of its versions.
+   *
+   * @param metacardId the id of the metacard
+   */
+  default void flushHistory(String metacardId) {}
 }
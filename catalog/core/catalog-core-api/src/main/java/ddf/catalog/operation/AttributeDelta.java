@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.operation;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A change to the values of one {@link ddf.catalog.data.Attribute} of a {@link
+ * ddf.catalog.data.Metacard}, applied by a {@link BulkUpdateRequest}.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface AttributeDelta extends Serializable {
+
+  enum Type {
+    /** Replaces the values of the attribute, or removes it if there are no values. */
+    SET,
+
+    /** Adds the values the attribute doesn't already have. */
+    ADD,
+
+    /** Removes the values from the attribute, or the whole attribute if there are no values. */
+    REMOVE
+  }
+
+  /** @return the name of the attribute to change */
+  String getName();
+
+  /** @return how the values change the attribute */
+  Type getType();
+
+  /** @return the values to set, add or remove */
+  List<Serializable> getValues();
+}
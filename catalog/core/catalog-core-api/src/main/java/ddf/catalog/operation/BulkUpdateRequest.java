@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.operation;
+
+import java.util.List;
+import org.opengis.filter.Filter;
+
+/**
+ * A request to change the same attributes of every {@link ddf.catalog.data.Metacard} in the local
+ * catalog matching a {@link Filter}, without sending whole metacards.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ *
+ * @see ddf.catalog.CatalogFramework#update(BulkUpdateRequest)
+ */
+public interface BulkUpdateRequest extends Request {
+
+  /** @return the filter selecting the {@link ddf.catalog.data.Metacard}s to update */
+  Filter getFilter();
+
+  /** @return the changes to apply to each selected {@link ddf.catalog.data.Metacard}, in order */
+  List<AttributeDelta> getDeltas();
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.operation;
+
+/**
+ * The outcome of a {@link BulkUpdateRequest}. The updated {@link ddf.catalog.data.Metacard}s aren't
+ * returned, since there can be too many of them to hold at once. Batches that couldn't be updated
+ * are reported in {@link #getProcessingErrors()}.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface BulkUpdateResponse extends Response<BulkUpdateRequest> {
+
+  /** @return the number of {@link ddf.catalog.data.Metacard}s that were changed */
+  long getUpdatedCount();
+
+  /**
+   * @return the number of selected {@link ddf.catalog.data.Metacard}s the changes didn't modify,
+   *     and so weren't updated
+   */
+  long getUnchangedCount();
+
+  /** @return the number of selected {@link ddf.catalog.data.Metacard}s that couldn't be updated */
+  long getFailedCount();
+}
@@ -259,6 +259,8 @@ protected final Object executeWithSubject() throws Exception {
     Map<String, Serializable> props = new HashMap<>();
     // Avoid caching all results while dumping with native query mode
     props.put("mode", "native");
+    // Page with a cursor so deep pages don't have to skip over all the earlier results
+    props.put(Constants.QUERY_CURSOR_MARK_KEY, Constants.QUERY_CURSOR_MARK_START);
 
     final AtomicLong resultCount = new AtomicLong(0);
     long start = System.currentTimeMillis();
@@ -16,6 +16,7 @@
 import static ddf.catalog.util.impl.ResultIterable.resultIterable;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
@@ -44,6 +45,7 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
@@ -56,6 +58,7 @@
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -368,7 +371,9 @@ private List<ExportItem> doMetacardExport(
     List<ExportItem> exportedItems = new ArrayList<>();
 
     QueryImpl query = new QueryImpl(filter);
-    QueryRequest queryRequest = new QueryRequestImpl(query);
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.QUERY_CURSOR_MARK_KEY, Constants.QUERY_CURSOR_MARK_START);
+    QueryRequest queryRequest = new QueryRequestImpl(query, properties);
 
     query.setPageSize(PAGE_SIZE);
 
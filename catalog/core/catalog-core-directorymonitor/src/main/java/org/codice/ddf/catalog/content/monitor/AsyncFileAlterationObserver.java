@@ -13,11 +13,11 @@
  */
 package org.codice.ddf.catalog.content.monitor;
 
-import com.google.common.annotations.VisibleForTesting;
 import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.codice.ddf.catalog.content.monitor.synchronizations.CompletionSynchronization;
@@ -52,6 +52,8 @@ public class AsyncFileAlterationObserver {
   private static final Logger LOGGER = LoggerFactory.getLogger(AsyncFileAlterationObserver.class);
 
   private final AsyncFileEntry rootFile;
+  private final String storeKey;
+  private final Function<File, File[]> topLevelFiles;
   private AsyncFileAlterationListener listener = null;
   private final AtomicLong processing = new AtomicLong(0);
   private final Object listenerLock = new Object();
@@ -61,19 +63,50 @@ public class AsyncFileAlterationObserver {
   private boolean isProcessing = false;
 
   public AsyncFileAlterationObserver(File fileToObserve, ObjectPersistentStore serializer) {
-    if (fileToObserve == null || serializer == null) {
-      throw new IllegalArgumentException("Arguments can not be null");
-    }
-    this.serializer = serializer;
-    rootFile = new AsyncFileEntry(fileToObserve);
+    this(
+        fileToObserve,
+        fileToObserve == null ? null : fileToObserve.getName(),
+        AsyncFileAlterationObserver::listFiles,
+        serializer);
+  }
+
+  /**
+   * Creates an observer of part of a directory, used to split a directory between observers.
+   *
+   * @param fileToObserve the directory being monitored
+   * @param storeKey the key the observer's state is stored under
+   * @param topLevelFiles lists the observed files directly under the monitored directory, in sorted
+   *     order, or returns {@code null} if there is an error retrieving them
+   * @param serializer the store of the observer's state
+   */
+  AsyncFileAlterationObserver(
+      File fileToObserve,
+      String storeKey,
+      Function<File, File[]> topLevelFiles,
+      ObjectPersistentStore serializer) {
+    this(
+        fileToObserve == null ? null : new AsyncFileEntry(fileToObserve),
+        storeKey,
+        topLevelFiles,
+        serializer);
   }
 
-  private AsyncFileAlterationObserver(AsyncFileEntry entry, ObjectPersistentStore serializer) {
-    if (entry == null) {
+  /**
+   * Creates an observer from a previously observed {@link AsyncFileEntry}, such as one loaded from
+   * an {@link ObjectPersistentStore}.
+   */
+  AsyncFileAlterationObserver(
+      AsyncFileEntry entry,
+      String storeKey,
+      Function<File, File[]> topLevelFiles,
+      ObjectPersistentStore serializer) {
+    if (entry == null || storeKey == null || topLevelFiles == null || serializer == null) {
       throw new IllegalArgumentException("Arguments can not be null");
     }
     rootFile = entry;
     rootFile.initialize();
+    this.storeKey = storeKey;
+    this.topLevelFiles = topLevelFiles;
     this.serializer = serializer;
   }
 
@@ -88,11 +121,25 @@ private AsyncFileAlterationObserver(AsyncFileEntry entry, ObjectPersistentStore
     if (observedFile == null || store == null) {
       throw new IllegalArgumentException("Arguments can not be null");
     }
-    AsyncFileEntry temp = store.load(observedFile.getName(), AsyncFileEntry.class);
+    return load(
+        observedFile, observedFile.getName(), AsyncFileAlterationObserver::listFiles, store);
+  }
+
+  /**
+   * @return the observer of part of a directory stored under {@code storeKey}, or {@code null} if
+   *     there isn't one
+   * @see #AsyncFileAlterationObserver(File, String, Function, ObjectPersistentStore)
+   */
+  static @Nullable AsyncFileAlterationObserver load(
+      File observedFile,
+      String storeKey,
+      Function<File, File[]> topLevelFiles,
+      ObjectPersistentStore store) {
+    AsyncFileEntry temp = store.load(storeKey, AsyncFileEntry.class);
     if (temp == null) {
       return null;
     }
-    return new AsyncFileAlterationObserver(temp, store);
+    return new AsyncFileAlterationObserver(temp, storeKey, topLevelFiles, store);
   }
 
   /**
@@ -103,7 +150,7 @@ private AsyncFileAlterationObserver(AsyncFileEntry entry, ObjectPersistentStore
    */
   public void initialize() throws IllegalStateException {
     initChildEntries(rootFile);
-    serializer.store(rootFile.getName(), rootFile);
+    serializer.store(storeKey, rootFile);
   }
 
   public void destroy() {
@@ -153,7 +200,8 @@ public boolean checkAndNotify() {
 
     /* fire directory/file events */
     if (rootFile.checkNetwork()) {
-      checkAndNotify(rootFile, rootFile.getChildren(), listFiles(rootFile.getFile()), listenerCopy);
+      checkAndNotify(
+          rootFile, rootFile.getChildren(), topLevelFiles.apply(rootFile.getFile()), listenerCopy);
     } else {
       //  If we can't connect to the network then the file doesn't exist to us now.
       LOGGER.debug(
@@ -167,7 +215,11 @@ public boolean checkAndNotify() {
     return true;
   }
 
-  @VisibleForTesting
+  /** @return true if no files are observed, or all their deletes have been committed */
+  boolean isEmpty() {
+    return !rootFile.hasChildren();
+  }
+
   AsyncFileEntry getRootFile() {
     return rootFile;
   }
@@ -341,7 +393,7 @@ private void checkAndNotify(
    * @return A new sorted File Array if {@code file} is a directory, an empty Array if the file is
    *     not a directory, and null if there is an error retrieving the children files.
    */
-  private File[] listFiles(File file) {
+  static File[] listFiles(File file) {
     if (file.isDirectory()) {
       File[] temp = file.listFiles();
       if (temp != null) {
@@ -355,7 +407,8 @@ private File[] listFiles(File file) {
   }
 
   private void initChildEntries(AsyncFileEntry parent) throws IllegalStateException {
-    File[] children = listFiles(parent.getFile());
+    File[] children =
+        parent == rootFile ? topLevelFiles.apply(parent.getFile()) : listFiles(parent.getFile());
     if (children == null) {
       LOGGER.debug("Error while initializing children for [{}]", parent.getName());
       throw new IllegalStateException("Failed to initialize the FileObserver");
@@ -370,7 +423,7 @@ private void initChildEntries(AsyncFileEntry parent) throws IllegalStateExceptio
   private void onFinish() {
     synchronized (processingLock) {
       if (processing.decrementAndGet() == 0) {
-        serializer.store(rootFile.getName(), rootFile);
+        serializer.store(storeKey, rootFile);
         isProcessing = false;
       }
     }
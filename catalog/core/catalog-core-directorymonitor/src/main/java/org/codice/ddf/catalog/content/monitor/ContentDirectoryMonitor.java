@@ -91,6 +91,8 @@ public class ContentDirectoryMonitor implements DirectoryMonitor {
 
   private Integer readLockIntervalMilliseconds;
 
+  private boolean useFileSystemEvents = false;
+
   Processor systemSubjectBinder = new SystemSubjectBinder();
 
   /**
@@ -164,6 +166,20 @@ public Integer getReadLockIntervalMilliseconds() {
     return readLockIntervalMilliseconds;
   }
 
+  /**
+   * Sets whether a directory monitored in place only checks the sub-directories with file system
+   * events since the last poll, instead of walking the whole directory on every poll.
+   *
+   * @param useFileSystemEvents
+   */
+  public void setUseFileSystemEvents(boolean useFileSystemEvents) {
+    this.useFileSystemEvents = useFileSystemEvents;
+  }
+
+  public boolean getUseFileSystemEvents() {
+    return useFileSystemEvents;
+  }
+
   /**
    * Invoked after all of the setter methods have been called (for initial route creation), and also
    * called whenever an existing route is updated.
@@ -230,6 +246,7 @@ public void updateCallback(Map<String, Object> properties) {
       setProcessingMechanism((String) properties.get("processingMechanism"));
       setNumThreads((Integer) properties.get("numThreads"));
       setReadLockIntervalMilliseconds((Integer) properties.get("readLockIntervalMilliseconds"));
+      setUseFileSystemEvents(Boolean.TRUE.equals(properties.get("useFileSystemEvents")));
 
       String[] parameterArray = (String[]) properties.get(Constants.ATTRIBUTE_OVERRIDES_KEY);
       if (parameterArray != null) {
@@ -378,6 +395,8 @@ public void configure() throws Exception {
             stringBuilder = new StringBuilder("durable:" + monitoredDirectory);
             if (isDav) {
               stringBuilder.append("?isDav=true");
+            } else if (useFileSystemEvents) {
+              stringBuilder.append("?useFileSystemEvents=true");
             }
             break;
         }
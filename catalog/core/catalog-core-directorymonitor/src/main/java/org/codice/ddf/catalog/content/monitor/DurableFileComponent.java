@@ -42,13 +42,17 @@ protected GenericFileEndpoint<File> buildFileEndpoint(
     boolean isDav = Boolean.parseBoolean(davParam);
     parameters.remove("isDav");
 
+    boolean useFileSystemEvents =
+        Boolean.parseBoolean(String.valueOf(parameters.remove("useFileSystemEvents")));
+
     GenericFileConfiguration config = new GenericFileConfiguration();
     File file = new File(remaining);
     if (isDav) {
       file = new File("");
     }
     config.setDirectory(file.getCanonicalPath());
-    DurableFileEndpoint result = new DurableFileEndpoint(uri, remaining, isDav, this);
+    DurableFileEndpoint result =
+        new DurableFileEndpoint(uri, remaining, isDav, useFileSystemEvents, this);
     result.setFile(file);
     result.setConfiguration(config);
 
@@ -48,6 +48,8 @@ public class DurableFileEndpoint extends GenericFileEndpoint<File> {
 
   private final Boolean isDav;
 
+  private final boolean useFileSystemEvents;
+
   private String remaining;
 
   @UriPath(name = "directoryName")
@@ -55,10 +57,15 @@ public class DurableFileEndpoint extends GenericFileEndpoint<File> {
   private File file;
 
   DurableFileEndpoint(
-      String uri, String remaining, boolean isDav, DurableFileComponent durableFileComponent) {
+      String uri,
+      String remaining,
+      boolean isDav,
+      boolean useFileSystemEvents,
+      DurableFileComponent durableFileComponent) {
     super(uri, durableFileComponent);
     this.remaining = remaining;
     this.isDav = isDav;
+    this.useFileSystemEvents = useFileSystemEvents;
   }
 
   @Override
@@ -78,7 +85,8 @@ public GenericFileConsumer<File> createConsumer(Processor processor) throws Exce
           remaining,
           processor,
           new EventfulFileWrapperGenericFileOperations(),
-          new GenericFileNoOpProcessStrategy());
+          new GenericFileNoOpProcessStrategy(),
+          useFileSystemEvents);
     }
   }
 
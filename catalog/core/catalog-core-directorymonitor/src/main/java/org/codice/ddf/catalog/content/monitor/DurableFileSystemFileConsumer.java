@@ -14,12 +14,17 @@
 package org.codice.ddf.catalog.content.monitor;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.apache.camel.Processor;
 import org.apache.camel.component.file.GenericFileEndpoint;
 import org.apache.camel.component.file.GenericFileOperations;
 import org.apache.camel.component.file.GenericFileProcessStrategy;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.monitor.FileAlterationObserver;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,17 +32,27 @@ public class DurableFileSystemFileConsumer extends AbstractDurableFileConsumer {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DurableFileSystemFileConsumer.class);
 
+  private static final int DEFAULT_CHECK_THREADS = 4;
+
+  private static final String CDM_CHECK_THREADS_PROPERTY = "org.codice.ddf.cdm.checkThreads";
+
+  private final boolean useFileSystemEvents;
+
   private DurableFileAlterationListener listener;
 
-  private AsyncFileAlterationObserver observer;
+  private ShardedFileAlterationObserver observer;
+
+  private ExecutorService checkExecutor;
 
   DurableFileSystemFileConsumer(
       GenericFileEndpoint<File> endpoint,
       String remaining,
       Processor processor,
       GenericFileOperations<File> operations,
-      GenericFileProcessStrategy<File> processStrategy) {
+      GenericFileProcessStrategy<File> processStrategy,
+      boolean useFileSystemEvents) {
     super(endpoint, remaining, processor, operations, processStrategy);
+    this.useFileSystemEvents = useFileSystemEvents;
     listener = new DurableFileAlterationListener(this);
   }
 
@@ -62,15 +77,35 @@ protected void initialize(String fileName) {
       jsonSerializer = new JsonPersistantStore(getClass().getSimpleName());
     }
 
+    if (checkExecutor == null) {
+      checkExecutor =
+          Executors.newFixedThreadPool(
+              getCheckThreadsOrDefault(),
+              StandardThreadFactoryBuilder.newThreadFactory("cdmShardChecker"));
+    }
+
     if (observer == null && fileName != null) {
 
-      observer = AsyncFileAlterationObserver.load(new File(fileName), jsonSerializer);
+      observer =
+          ShardedFileAlterationObserver.load(new File(fileName), jsonSerializer, checkExecutor);
 
       //  Backwards Compatibility
       if (observer == null && isOldVersion(fileName)) {
         observer = backwardsCompatibility(fileName);
       } else if (observer == null) {
-        observer = new AsyncFileAlterationObserver(new File(fileName), jsonSerializer);
+        observer =
+            new ShardedFileAlterationObserver(new File(fileName), jsonSerializer, checkExecutor);
+      }
+
+      if (observer != null && useFileSystemEvents) {
+        try {
+          observer.useFileSystemEvents();
+        } catch (IOException e) {
+          LOGGER.info(
+              "Unable to watch [{}] for file system events. The whole directory will be checked on every poll.",
+              fileName,
+              e);
+        }
       }
     }
   }
@@ -80,11 +115,11 @@ private boolean isOldVersion(String fileName) {
     return fileSystemPersistenceProvider.loadAllKeys().contains(sha1);
   }
 
-  private AsyncFileAlterationObserver backwardsCompatibility(String fileName) {
+  private ShardedFileAlterationObserver backwardsCompatibility(String fileName) {
 
     String sha1 = DigestUtils.sha1Hex(fileName);
-    AsyncFileAlterationObserver newObserver =
-        new AsyncFileAlterationObserver(new File(fileName), jsonSerializer);
+    ShardedFileAlterationObserver newObserver =
+        new ShardedFileAlterationObserver(new File(fileName), jsonSerializer, checkExecutor);
     FileAlterationObserver oldObserver =
         (FileAlterationObserver) fileSystemPersistenceProvider.loadFromPersistence(sha1);
 
@@ -102,9 +137,32 @@ private AsyncFileAlterationObserver backwardsCompatibility(String fileName) {
     return newObserver;
   }
 
+  private int getCheckThreadsOrDefault() {
+    int checkThreads;
+    try {
+      checkThreads = Math.max(1, Integer.parseInt(System.getProperty(CDM_CHECK_THREADS_PROPERTY)));
+    } catch (NumberFormatException e) {
+      checkThreads = DEFAULT_CHECK_THREADS;
+      LOGGER.debug(
+          "Invalid or no [{}] property as int. Defaulting to [{}] threads",
+          CDM_CHECK_THREADS_PROPERTY,
+          DEFAULT_CHECK_THREADS);
+    }
+    return checkThreads;
+  }
+
   @Override
   public void shutdown() throws Exception {
     super.shutdown();
     listener.destroy();
+    if (observer != null) {
+      observer.destroy();
+    }
+    if (checkExecutor != null) {
+      checkExecutor.shutdown();
+      if (!checkExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+        checkExecutor.shutdownNow();
+      }
+    }
   }
 }
@@ -26,6 +26,7 @@
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import org.apache.commons.codec.digest.DigestUtils;
@@ -101,4 +102,14 @@ public <T> T load(String key, Class<T> objectClass) {
     }
     return null;
   }
+
+  @Override
+  public void delete(String key) {
+    String shaKey = getShaFor(key);
+    try {
+      Files.deleteIfExists(getPath().resolve(shaKey + PERSISTED_FILE_SUFFIX));
+    } catch (IOException e) {
+      LOGGER.debug("IOException deleting value in cache with key = " + key, e);
+    }
+  }
 }
@@ -42,4 +42,11 @@ public interface ObjectPersistentStore {
    */
   @Nullable
   <T> T load(String key, Class<T> objectClass);
+
+  /**
+   * Deletes the object stored with a given key, if there is one.
+   *
+   * @param key
+   */
+  void delete(String key);
 }
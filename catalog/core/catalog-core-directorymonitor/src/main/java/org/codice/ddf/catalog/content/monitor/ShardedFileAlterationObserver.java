@@ -0,0 +1,405 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.codice.ddf.catalog.content.monitor.watcher.DirectoryChangeWatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Observes a directory as a set of shards, each with its own {@link AsyncFileAlterationObserver}:
+ * one for every directory directly under the monitored directory, and one for the files directly
+ * under it.
+ *
+ * <p>Every time the ShardedFileAlterationObserver is polled by calling {@code checkAndNotify()},
+ * the shards are checked in parallel on the given executor. A shard with files still being
+ * processed is skipped until the next poll, without holding up the other shards. Each shard's state
+ * is stored on its own once its files are done processing, so a change only rewrites the state of
+ * the shard it happened in.
+ *
+ * <p>Once {@link #useFileSystemEvents()} is called, only the shards with file system events since
+ * the last poll, and the shards that were skipped, are checked. Since events can be lost, every
+ * shard is still checked at least every {@code org.codice.ddf.cdm.fullCheckPeriod} seconds.
+ *
+ * <p>This implementation only works with one AsyncFileAlterationListener.
+ *
+ * @see AsyncFileAlterationObserver
+ */
+public class ShardedFileAlterationObserver {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ShardedFileAlterationObserver.class);
+
+  private static final String ROOT_SHARD = DirectoryChangeWatcher.ROOT;
+
+  private static final long DEFAULT_FULL_CHECK_PERIOD_SEC = 3600;
+
+  private static final String CDM_FULL_CHECK_PERIOD_PROPERTY = "org.codice.ddf.cdm.fullCheckPeriod";
+
+  private final File rootFile;
+
+  private final ObjectPersistentStore serializer;
+
+  private final ExecutorService executor;
+
+  private final Map<String, AsyncFileAlterationObserver> shards = new ConcurrentSkipListMap<>();
+
+  /** Shards that were skipped, or discovered, and must be checked on the next poll */
+  private final Set<String> pendingShards = ConcurrentHashMap.newKeySet();
+
+  private final long fullCheckPeriodMillis =
+      TimeUnit.SECONDS.toMillis(getFullCheckPeriodOrDefault());
+
+  private final Object listenerLock = new Object();
+
+  private final Object checkLock = new Object();
+
+  private AsyncFileAlterationListener listener = null;
+
+  @Nullable private DirectoryChangeWatcher changeWatcher;
+
+  private long lastFullCheck = 0;
+
+  /**
+   * @param fileToObserve the directory being monitored
+   * @param serializer the store of the shards' state
+   * @param executor the executor the shards are checked on
+   */
+  public ShardedFileAlterationObserver(
+      File fileToObserve, ObjectPersistentStore serializer, ExecutorService executor) {
+    if (fileToObserve == null || serializer == null || executor == null) {
+      throw new IllegalArgumentException("Arguments can not be null");
+    }
+    this.rootFile = fileToObserve;
+    this.serializer = serializer;
+    this.executor = executor;
+  }
+
+  /**
+   * @return returns a ShardedFileAlterationObserver if its shards, or the state of an {@link
+   *     AsyncFileAlterationObserver} of the whole directory, were stored by the {@link
+   *     ObjectPersistentStore}. Otherwise returns {@code null}
+   */
+  public static @Nullable ShardedFileAlterationObserver load(
+      File observedFile, ObjectPersistentStore store, ExecutorService executor) {
+    ShardedFileAlterationObserver observer =
+        new ShardedFileAlterationObserver(observedFile, store, executor);
+
+    String[] shardNames = store.load(observer.getIndexKey(), String[].class);
+    if (shardNames != null) {
+      for (String shardName : shardNames) {
+        AsyncFileAlterationObserver shard =
+            AsyncFileAlterationObserver.load(
+                observedFile, observer.getShardKey(shardName), observer.lister(shardName), store);
+        if (shard == null) {
+          LOGGER.debug(
+              "No state was stored for shard [{}] of [{}]. Its files will be created again.",
+              shardName,
+              observedFile.getName());
+          shard = observer.newShard(shardName);
+        }
+        observer.shards.put(shardName, shard);
+      }
+      return observer;
+    }
+
+    //  Backwards Compatibility
+    AsyncFileAlterationObserver unsharded = AsyncFileAlterationObserver.load(observedFile, store);
+    if (unsharded == null) {
+      return null;
+    }
+    observer.split(unsharded.getRootFile());
+    store.delete(observedFile.getName());
+    return observer;
+  }
+
+  /**
+   * Initializes the object state of the Observer.
+   *
+   * @throws IllegalStateException when the observer fails to initialize and initialization should
+   *     be retried
+   */
+  public void initialize() throws IllegalStateException {
+    discoverShards();
+    for (AsyncFileAlterationObserver shard : shards.values()) {
+      shard.initialize();
+    }
+    pendingShards.clear();
+    storeIndex();
+  }
+
+  /**
+   * Checks only the shards with file system events since the last poll from now on, instead of
+   * every shard.
+   *
+   * @throws IOException if the file system doesn't support watching for events
+   */
+  public void useFileSystemEvents() throws IOException {
+    synchronized (checkLock) {
+      if (changeWatcher == null) {
+        changeWatcher = new DirectoryChangeWatcher(rootFile.toPath());
+        //  Check everything once, for the changes made before the directories were watched
+        lastFullCheck = 0;
+      }
+    }
+  }
+
+  /** Stops watching for file system events. The shards' state is left as it was last stored. */
+  public void destroy() {
+    synchronized (checkLock) {
+      if (changeWatcher != null) {
+        try {
+          changeWatcher.close();
+        } catch (IOException e) {
+          LOGGER.debug("Unable to stop watching [{}] for changes.", rootFile.getName(), e);
+        }
+        changeWatcher = null;
+      }
+    }
+  }
+
+  public void setListener(final AsyncFileAlterationListener listener) {
+    synchronized (listenerLock) {
+      this.listener = listener;
+    }
+  }
+
+  public void removeListener() {
+    synchronized (listenerLock) {
+      this.listener = null;
+    }
+  }
+
+  /**
+   * Called when the observer should compare the snapshot state of the shards to the actual state of
+   * the directory being monitored. Returns once every shard to check has been checked.
+   *
+   * @return false if there is no listener, or another thread is checking the shards
+   */
+  public boolean checkAndNotify() {
+    AsyncFileAlterationListener listenerCopy;
+    synchronized (listenerLock) {
+      if (listener == null) {
+        return false;
+      }
+      listenerCopy = listener;
+    }
+
+    synchronized (checkLock) {
+      Collection<String> toCheck = getShardsToCheck();
+
+      List<Callable<Boolean>> checks = new ArrayList<>(toCheck.size());
+      for (String shardName : toCheck) {
+        AsyncFileAlterationObserver shard = shards.get(shardName);
+        if (shard != null) {
+          checks.add(() -> checkShard(shardName, shard, listenerCopy));
+        }
+      }
+
+      try {
+        for (Future<Boolean> check : executor.invokeAll(checks)) {
+          check.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        pendingShards.addAll(toCheck);
+      } catch (ExecutionException e) {
+        LOGGER.debug("Error checking the shards of [{}].", rootFile.getName(), e);
+        pendingShards.addAll(toCheck);
+      }
+
+      removeDeletedShards();
+      return true;
+    }
+  }
+
+  @VisibleForTesting
+  Map<String, AsyncFileAlterationObserver> getShards() {
+    return shards;
+  }
+
+  private boolean checkShard(
+      String shardName,
+      AsyncFileAlterationObserver shard,
+      AsyncFileAlterationListener listenerCopy) {
+    shard.setListener(listenerCopy);
+    boolean checked = shard.checkAndNotify();
+    shard.removeListener();
+    if (!checked) {
+      LOGGER.trace("Shard [{}] is still processing, checking it on the next poll", shardName);
+      pendingShards.add(shardName);
+    }
+    return checked;
+  }
+
+  private Collection<String> getShardsToCheck() {
+    Set<String> changes = changeWatcher == null ? null : changeWatcher.takeChanges();
+    long now = System.currentTimeMillis();
+
+    if (changes == null || now - lastFullCheck >= fullCheckPeriodMillis) {
+      LOGGER.trace("Checking every shard of [{}]", rootFile.getName());
+      lastFullCheck = now;
+      pendingShards.clear();
+      discoverShards();
+      return new ArrayList<>(shards.keySet());
+    }
+
+    if (changes.contains(ROOT_SHARD)) {
+      discoverShards();
+    }
+    changes.addAll(pendingShards);
+    pendingShards.clear();
+    changes.retainAll(shards.keySet());
+    return changes;
+  }
+
+  /** Adds a shard for every new directory directly under the monitored directory. */
+  private void discoverShards() {
+    File[] directories = rootFile.listFiles(File::isDirectory);
+    if (directories == null) {
+      LOGGER.debug("Unable to list the directories in [{}].", rootFile.getName());
+      return;
+    }
+
+    boolean added = shards.putIfAbsent(ROOT_SHARD, newShard(ROOT_SHARD)) == null;
+    for (File directory : directories) {
+      String shardName = directory.getName();
+      if (!shards.containsKey(shardName)) {
+        LOGGER.debug("Observing [{}] in [{}].", shardName, rootFile.getName());
+        shards.put(shardName, newShard(shardName));
+        pendingShards.add(shardName);
+        added = true;
+      }
+    }
+    if (added) {
+      storeIndex();
+    }
+  }
+
+  /** Removes the shards of directories that were deleted, once all their deletes are committed. */
+  private void removeDeletedShards() {
+    boolean removed = false;
+    for (Map.Entry<String, AsyncFileAlterationObserver> shard : shards.entrySet()) {
+      String shardName = shard.getKey();
+      if (!ROOT_SHARD.equals(shardName)
+          && rootFile.exists()
+          && !new File(rootFile, shardName).isDirectory()
+          && shard.getValue().isEmpty()) {
+        LOGGER.debug("No longer observing [{}] in [{}].", shardName, rootFile.getName());
+        shards.remove(shardName);
+        removed = true;
+      }
+    }
+    if (removed) {
+      storeIndex();
+    }
+  }
+
+  /** Splits the state of an observer of the whole directory into shards. */
+  private void split(AsyncFileEntry unsharded) {
+    AsyncFileEntry rootShardEntry = new AsyncFileEntry(rootFile);
+    for (AsyncFileEntry child : unsharded.getChildren()) {
+      if (child.isDirectory()) {
+        AsyncFileEntry shardEntry = new AsyncFileEntry(rootFile);
+        shardEntry.addChild(child);
+        addShard(child.getName(), shardEntry);
+      } else {
+        rootShardEntry.addChild(child);
+      }
+    }
+    addShard(ROOT_SHARD, rootShardEntry);
+    storeIndex();
+  }
+
+  private void addShard(String shardName, AsyncFileEntry entry) {
+    shards.put(
+        shardName,
+        new AsyncFileAlterationObserver(
+            entry, getShardKey(shardName), lister(shardName), serializer));
+    serializer.store(getShardKey(shardName), entry);
+  }
+
+  private AsyncFileAlterationObserver newShard(String shardName) {
+    return new AsyncFileAlterationObserver(
+        rootFile, getShardKey(shardName), lister(shardName), serializer);
+  }
+
+  /** @return the function listing the files directly under the monitored directory in a shard */
+  private Function<File, File[]> lister(String shardName) {
+    if (ROOT_SHARD.equals(shardName)) {
+      return ShardedFileAlterationObserver::listRootFiles;
+    }
+    File shardDirectory = new File(rootFile, shardName);
+    return root -> {
+      if (!root.isDirectory()) {
+        return null;
+      }
+      return shardDirectory.isDirectory()
+          ? new File[] {shardDirectory}
+          : FileUtils.EMPTY_FILE_ARRAY;
+    };
+  }
+
+  private static File[] listRootFiles(File root) {
+    File[] files = AsyncFileAlterationObserver.listFiles(root);
+    if (files == null) {
+      return null;
+    }
+    return Arrays.stream(files).filter(file -> !file.isDirectory()).toArray(File[]::new);
+  }
+
+  private void storeIndex() {
+    serializer.store(getIndexKey(), shards.keySet().toArray(new String[0]));
+  }
+
+  private String getIndexKey() {
+    return rootFile.getAbsolutePath() + File.pathSeparator + "shards";
+  }
+
+  private String getShardKey(String shardName) {
+    return rootFile.getAbsolutePath() + File.pathSeparator + "shard" + File.separator + shardName;
+  }
+
+  private static long getFullCheckPeriodOrDefault() {
+    long period;
+    try {
+      period = Long.parseLong(System.getProperty(CDM_FULL_CHECK_PERIOD_PROPERTY));
+    } catch (NumberFormatException e) {
+      period = DEFAULT_FULL_CHECK_PERIOD_SEC;
+      LOGGER.debug(
+          "Invalid or no [{}] property as long. Defaulting to default period [{}]",
+          CDM_FULL_CHECK_PERIOD_PROPERTY,
+          DEFAULT_FULL_CHECK_PERIOD_SEC);
+    }
+    return period;
+  }
+}
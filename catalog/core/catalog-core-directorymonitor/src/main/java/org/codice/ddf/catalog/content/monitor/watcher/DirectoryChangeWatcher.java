@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor.watcher;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches every directory of a directory tree for file system events, and reports which top-level
+ * entries of the tree had changes under them. This lets the tree be checked one top-level entry at
+ * a time, only where something changed, instead of walking the whole tree.
+ *
+ * <p>Events can be lost: the file system may drop them when too many happen at once, some file
+ * systems (such as network file systems) don't report changes made by other machines, and the
+ * number of watched directories can be limited by the operating system. {@link #takeChanges()}
+ * reports when events were dropped, and top-level entries that could not be completely watched are
+ * always reported as changed.
+ */
+public class DirectoryChangeWatcher implements Closeable {
+
+  /** The name reported for changes directly under the root of the tree */
+  public static final String ROOT = "";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryChangeWatcher.class);
+
+  private final Path root;
+
+  private final WatchService watchService;
+
+  private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+
+  private final Set<String> unwatched = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Creates a watcher of the root and every directory under it.
+   *
+   * @param root the root of the tree to watch
+   * @throws IOException if the file system doesn't support watching, or the root can't be watched
+   */
+  public DirectoryChangeWatcher(Path root) throws IOException {
+    Validate.notNull(root, "argument {root} cannot be null");
+
+    this.root = root;
+    this.watchService = root.getFileSystem().newWatchService();
+    try {
+      register(root);
+    } catch (IOException e) {
+      watchService.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Takes the changes reported since the last call.
+   *
+   * @return the names of the top-level entries that had changes under them, including {@link #ROOT}
+   *     when entries were created, modified or deleted directly under the root, or {@code null} if
+   *     events were dropped and the whole tree must be checked
+   */
+  @Nullable
+  public Set<String> takeChanges() {
+    Set<String> changes = new HashSet<>(unwatched);
+    boolean overflow = false;
+
+    WatchKey key;
+    while ((key = watchService.poll()) != null) {
+      Path directory = directories.get(key);
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == OVERFLOW || directory == null) {
+          overflow = true;
+          continue;
+        }
+
+        Path changed = directory.resolve((Path) event.context());
+        if (directory.equals(root)) {
+          changes.add(ROOT);
+        }
+        changes.add(topLevelName(changed));
+
+        if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed)) {
+          watch(changed);
+        }
+      }
+
+      if (!key.reset()) {
+        directories.remove(key);
+      }
+    }
+
+    if (overflow) {
+      LOGGER.debug("File system events were dropped for [{}].", root);
+      return null;
+    }
+    return changes;
+  }
+
+  @Override
+  public void close() throws IOException {
+    directories.clear();
+    watchService.close();
+  }
+
+  /** Registers the directory and every directory under it. */
+  private void watch(Path directory) {
+    try {
+      register(directory);
+    } catch (IOException e) {
+      LOGGER.info(
+          "Unable to watch [{}] for changes. It will be checked on every poll instead.",
+          directory,
+          e);
+      unwatched.add(topLevelName(directory));
+    }
+  }
+
+  /**
+   * Registers the directory and every directory under it. Directories under it that can't be
+   * registered are left unwatched, along with their sub-trees.
+   *
+   * @throws IOException if the directory itself can't be registered
+   */
+  private void register(Path directory) throws IOException {
+    Files.walkFileTree(
+        directory,
+        EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+        Integer.MAX_VALUE,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+              throws IOException {
+            try {
+              directories.put(
+                  dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+            } catch (IOException e) {
+              if (dir.equals(directory)) {
+                throw e;
+              }
+              LOGGER.debug("Unable to watch [{}] for changes.", dir, e);
+              unwatched.add(topLevelName(dir));
+              return FileVisitResult.SKIP_SUBTREE;
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+            if (file.equals(directory)) {
+              throw e;
+            }
+            LOGGER.debug("Unable to watch [{}] for changes.", file, e);
+            unwatched.add(topLevelName(file));
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  private String topLevelName(Path path) {
+    Path relative = root.relativize(path);
+    return relative.getNameCount() == 0 || relative.toString().isEmpty()
+        ? ROOT
+        : relative.getName(0).toString();
+  }
+}
@@ -145,6 +145,23 @@ public void testRouteCreationWithKeepIngestedFiles() {
     testRouteCreationWithGivenCopyStatus(ContentDirectoryMonitor.IN_PLACE);
   }
 
+  @Test
+  public void testRouteCreationWithFileSystemEvents() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("monitoredDirectoryPath", monitoredDirectoryPath);
+    properties.put("processingMechanism", ContentDirectoryMonitor.IN_PLACE);
+    properties.put("numThreads", 1);
+    properties.put("readLockIntervalMilliseconds", 1000);
+    properties.put("useFileSystemEvents", true);
+    monitor.updateCallback(properties);
+
+    assertThat(monitor.getUseFileSystemEvents(), is(true));
+    assertThat(camelContext.getRouteDefinitions(), hasSize(1));
+    assertThat(
+        camelContext.getRouteDefinitions().get(0).getInputs().get(0).getUri(),
+        equalTo("durable:" + monitoredDirectoryPath + "?useFileSystemEvents=true"));
+  }
+
   private void testRouteCreationWithGivenCopyStatus(String processingMechanism) {
     submitConfigOptions(monitor, monitoredDirectoryPath, processingMechanism);
     assertThat(
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.camel.spi.Synchronization;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.invocation.InvocationOnMock;
+
+@RunWith(JUnit4.class)
+public class ShardedFileAlterationObserverTest {
+
+  private static final String DUMMY_DATA = "The duck may swim on the lake...";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Gson gson =
+      new GsonBuilder()
+          .registerTypeAdapter(new TypeToken<File>() {}.getType(), new FileTypeAdapter())
+          .create();
+
+  private final Map<String, String> stored = new HashMap<>();
+
+  private final List<String> storedKeys = new ArrayList<>();
+
+  /** Callbacks of files in this directory are held until the test completes them */
+  private File heldDirectory;
+
+  private final List<Synchronization> heldCallbacks = new ArrayList<>();
+
+  private ObjectPersistentStore store;
+
+  private AsyncFileAlterationListener listener;
+
+  private ExecutorService executor;
+
+  private File monitoredDirectory;
+
+  private ShardedFileAlterationObserver observer;
+
+  @Before
+  public void setup() throws IOException {
+    store = mock(ObjectPersistentStore.class);
+    doAnswer(this::store).when(store).store(any(), any());
+    doAnswer(this::load).when(store).load(any(), any());
+    doAnswer(this::delete).when(store).delete(any());
+
+    listener = mock(AsyncFileAlterationListener.class);
+    doAnswer(this::complete).when(listener).onFileCreate(any(File.class), any());
+    doAnswer(this::complete).when(listener).onFileChange(any(File.class), any());
+    doAnswer(this::complete).when(listener).onFileDelete(any(File.class), any());
+
+    executor = Executors.newFixedThreadPool(2);
+    monitoredDirectory = temporaryFolder.newFolder("inbox");
+    observer = new ShardedFileAlterationObserver(monitoredDirectory, store, executor);
+    observer.setListener(listener);
+  }
+
+  @After
+  public void tearDown() {
+    observer.destroy();
+    executor.shutdownNow();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullRoot() {
+    new ShardedFileAlterationObserver(null, store, executor);
+  }
+
+  @Test
+  public void testFilesInEveryShardAreCreated() throws Exception {
+    File a = createFile(monitoredDirectory, "a");
+    File x = createFile(new File(monitoredDirectory, "one"), "x");
+    File y = createFile(new File(monitoredDirectory, "one/nested"), "y");
+    File z = createFile(new File(monitoredDirectory, "two"), "z");
+
+    observer.checkAndNotify();
+
+    assertThat(observer.getShards().keySet(), containsInAnyOrder("", "one", "two"));
+    verify(listener).onFileCreate(eq(a), any());
+    verify(listener).onFileCreate(eq(x), any());
+    verify(listener).onFileCreate(eq(y), any());
+    verify(listener).onFileCreate(eq(z), any());
+
+    reset(listener);
+    observer.checkAndNotify();
+    verify(listener, never()).onFileCreate(any(File.class), any());
+    verify(listener, never()).onFileChange(any(File.class), any());
+    verify(listener, never()).onFileDelete(any(File.class), any());
+  }
+
+  @Test
+  public void testProcessingShardDoesNotHoldUpOtherShards() throws Exception {
+    heldDirectory = new File(monitoredDirectory, "slow");
+    createFile(heldDirectory, "x");
+    observer.checkAndNotify();
+    assertThat(heldCallbacks.size(), is(1));
+
+    File y = createFile(heldDirectory, "y");
+    File z = createFile(new File(monitoredDirectory, "fast"), "z");
+    observer.checkAndNotify();
+    verify(listener).onFileCreate(eq(z), any());
+    verify(listener, never()).onFileCreate(eq(y), any());
+
+    heldCallbacks.remove(0).onComplete(null);
+    observer.checkAndNotify();
+    verify(listener).onFileCreate(eq(y), any());
+  }
+
+  @Test
+  public void testShardStateIsStoredSeparately() throws Exception {
+    createFile(new File(monitoredDirectory, "one"), "x");
+    createFile(new File(monitoredDirectory, "two"), "y");
+    observer.checkAndNotify();
+
+    ShardedFileAlterationObserver loaded =
+        ShardedFileAlterationObserver.load(monitoredDirectory, store, executor);
+    assertThat(loaded, notNullValue());
+    assertThat(loaded.getShards().keySet(), containsInAnyOrder("", "one", "two"));
+
+    reset(listener);
+    doAnswer(this::complete).when(listener).onFileCreate(any(File.class), any());
+    File z = createFile(new File(monitoredDirectory, "two"), "z");
+    loaded.setListener(listener);
+    storedKeys.clear();
+    loaded.checkAndNotify();
+
+    verify(listener, times(1)).onFileCreate(any(File.class), any());
+    verify(listener).onFileCreate(eq(z), any());
+    assertThat(storedKeys, is(not(empty())));
+    assertThat(storedKeys, everyItem(endsWith(File.separator + "two")));
+  }
+
+  @Test
+  public void testUnshardedStateIsSplitIntoShards() throws Exception {
+    createFile(monitoredDirectory, "a");
+    createFile(new File(monitoredDirectory, "one"), "x");
+    new AsyncFileAlterationObserver(monitoredDirectory, store).initialize();
+
+    ShardedFileAlterationObserver loaded =
+        ShardedFileAlterationObserver.load(monitoredDirectory, store, executor);
+    assertThat(loaded, notNullValue());
+    assertThat(loaded.getShards().keySet(), containsInAnyOrder("", "one"));
+    verify(store).delete(monitoredDirectory.getName());
+    assertThat(stored.containsKey(monitoredDirectory.getName()), is(false));
+
+    File y = createFile(new File(monitoredDirectory, "one"), "y");
+    loaded.setListener(listener);
+    loaded.checkAndNotify();
+
+    verify(listener, times(1)).onFileCreate(any(File.class), any());
+    verify(listener).onFileCreate(eq(y), any());
+  }
+
+  @Test
+  public void testNothingIsLoadedWithoutStoredState() {
+    assertThat(
+        ShardedFileAlterationObserver.load(monitoredDirectory, store, executor) == null, is(true));
+  }
+
+  @Test
+  public void testDeletedDirectoryShardIsRemoved() throws Exception {
+    File x = createFile(new File(monitoredDirectory, "one"), "x");
+    createFile(new File(monitoredDirectory, "two"), "y");
+    observer.checkAndNotify();
+
+    FileUtils.deleteDirectory(new File(monitoredDirectory, "one"));
+    observer.checkAndNotify();
+
+    verify(listener).onFileDelete(eq(x), any());
+    assertThat(observer.getShards().keySet(), containsInAnyOrder("", "two"));
+  }
+
+  @Test
+  public void testInitializeDoesNotCreateExistingFiles() throws Exception {
+    createFile(monitoredDirectory, "a");
+    createFile(new File(monitoredDirectory, "one"), "x");
+    observer.initialize();
+
+    observer.checkAndNotify();
+
+    verify(listener, never()).onFileCreate(any(File.class), any());
+    assertThat(observer.getShards().keySet(), containsInAnyOrder("", "one"));
+  }
+
+  private File createFile(File directory, String name) throws IOException {
+    File file = new File(directory, name);
+    FileUtils.writeStringToFile(file, DUMMY_DATA, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private Object complete(InvocationOnMock invocation) {
+    File file = (File) invocation.getArguments()[0];
+    Synchronization callback = (Synchronization) invocation.getArguments()[1];
+    if (heldDirectory != null && file.getParentFile().equals(heldDirectory)) {
+      synchronized (heldCallbacks) {
+        heldCallbacks.add(callback);
+      }
+    } else {
+      callback.onComplete(null);
+    }
+    return null;
+  }
+
+  private Object store(InvocationOnMock invocation) {
+    synchronized (stored) {
+      String key = (String) invocation.getArguments()[0];
+      stored.put(key, gson.toJson(invocation.getArguments()[1]));
+      storedKeys.add(key);
+    }
+    return null;
+  }
+
+  private Object delete(InvocationOnMock invocation) {
+    synchronized (stored) {
+      stored.remove((String) invocation.getArguments()[0]);
+    }
+    return null;
+  }
+
+  private Object load(InvocationOnMock invocation) {
+    synchronized (stored) {
+      String json = stored.get((String) invocation.getArguments()[0]);
+      return json == null ? null : gson.fromJson(json, (Class<?>) invocation.getArguments()[1]);
+    }
+  }
+}
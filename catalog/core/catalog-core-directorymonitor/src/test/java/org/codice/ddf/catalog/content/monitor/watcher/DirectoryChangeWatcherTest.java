@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor.watcher;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DirectoryChangeWatcherTest {
+
+  private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File root;
+
+  private DirectoryChangeWatcher watcher;
+
+  @Before
+  public void setup() throws IOException {
+    root = temporaryFolder.newFolder("inbox");
+    new File(root, "one/nested").mkdirs();
+    new File(root, "two").mkdirs();
+    watcher = new DirectoryChangeWatcher(root.toPath());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    watcher.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullRootThrowsException() throws IOException {
+    new DirectoryChangeWatcher(null);
+  }
+
+  @Test
+  public void testNoChanges() {
+    assertThat(watcher.takeChanges(), is(empty()));
+  }
+
+  @Test
+  public void testChangeIsReportedForItsTopLevelDirectory() throws Exception {
+    write(new File(root, "one/nested/file"));
+
+    Set<String> changes = awaitChange("one");
+    assertThat(changes, not(hasItem("two")));
+    assertThat(changes, not(hasItem(DirectoryChangeWatcher.ROOT)));
+  }
+
+  @Test
+  public void testChangeDirectlyUnderTheRoot() throws Exception {
+    write(new File(root, "file"));
+
+    awaitChange(DirectoryChangeWatcher.ROOT);
+  }
+
+  @Test
+  public void testNewDirectoriesAreWatched() throws Exception {
+    new File(root, "two/new").mkdirs();
+    awaitChange("two");
+
+    write(new File(root, "two/new/file"));
+    awaitChange("two");
+  }
+
+  private void write(File file) throws IOException {
+    FileUtils.writeStringToFile(file, "The duck may swim on the lake...", StandardCharsets.UTF_8);
+  }
+
+  /** Some watch services poll the file system, so changes can take a few seconds to be reported */
+  private Set<String> awaitChange(String name) throws InterruptedException {
+    Set<String> changes = new HashSet<>();
+    long end = System.currentTimeMillis() + TIMEOUT;
+    while (!changes.contains(name) && System.currentTimeMillis() < end) {
+      Set<String> taken = watcher.takeChanges();
+      if (taken != null) {
+        changes.addAll(taken);
+      }
+      Thread.sleep(50);
+    }
+    assertThat(changes, hasItem(name));
+    return changes;
+  }
+}
@@ -29,10 +29,10 @@
 import ddf.catalog.source.Source;
 import ddf.catalog.util.impl.DistanceResultComparator;
 import ddf.catalog.util.impl.RelevanceResultComparator;
+import ddf.catalog.util.impl.SortedResultMerger;
 import ddf.catalog.util.impl.TemporalResultComparator;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -159,7 +159,9 @@ public void run() {
         }
       }
 
-      List<Result> resultList = new ArrayList<Result>();
+      // Each source's results are merged instead of concatenated and sorted, and only as many as
+      // the page requires are held on to
+      SortedResultMerger resultMerger = new SortedResultMerger(coreComparator, query.getPageSize());
       long totalHits = 0;
       Set<ProcessingDetails> processingDetails = returnResults.getProcessingDetails();
 
@@ -195,7 +197,7 @@ public void run() {
           }
           if (sourceResponse != null) {
             List<Result> sourceResults = sourceResponse.getResults();
-            resultList.addAll(sourceResults);
+            resultMerger.add(sourceResults);
             long sourceHits = sourceResponse.getHits();
 
             totalHits += sourceHits;
@@ -240,15 +242,14 @@ public void run() {
           Thread.currentThread().interrupt();
         }
       }
-      LOGGER.debug("all sites finished returning results: {}", resultList.size());
-
-      Collections.sort(resultList, coreComparator);
+      LOGGER.debug("all sites finished returning results: {}", resultMerger.size());
 
       returnResults.setHits(totalHits);
-      int maxResults = query.getPageSize() > 0 ? query.getPageSize() : Integer.MAX_VALUE;
 
-      returnResults.addResults(
-          resultList.size() > maxResults ? resultList.subList(0, maxResults) : resultList, true);
+      // The first result is only certain once every source has responded, from then on each
+      // merged result is made available to the consumers of the response as soon as it is found
+      resultMerger.merge(result -> returnResults.addResult(result, false));
+      returnResults.closeResultQueue();
     }
 
     private long getTimeRemaining(long deadline) {
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.filter.proxy.adapter;
+
+import ddf.catalog.filter.FilterDelegate;
+import java.util.Date;
+import org.geotools.temporal.object.DefaultPeriodDuration;
+import org.opengis.temporal.Instant;
+import org.opengis.temporal.Period;
+
+/**
+ * Picks the {@link FilterDelegate} method to call for a literal based on its type. The same binding
+ * can be reused for any literal of the same class, which is what lets a {@link FilterPlan} resolve
+ * it once per filter shape.
+ */
+final class DelegateBindings {
+
+  @FunctionalInterface
+  interface Binding {
+    Object bind(FilterDelegate<?> delegate, String propertyName, Object literal, boolean matchCase);
+  }
+
+  private DelegateBindings() {}
+
+  static Binding equalTo(Object literal) {
+    if (literal instanceof String) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, (String) l, m);
+    } else if (literal instanceof Date) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, (Date) l);
+    } else if (literal instanceof Instant) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, ((Instant) l).getPosition().getDate());
+    } else if (literal instanceof Period) {
+      return (d, p, l, m) ->
+          d.propertyIsEqualTo(
+              p,
+              ((Period) l).getBeginning().getPosition().getDate(),
+              ((Period) l).getEnding().getPosition().getDate());
+    } else if (literal instanceof Integer) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, ((Integer) l).intValue());
+    } else if (literal instanceof Short) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, ((Short) l).shortValue());
+    } else if (literal instanceof Long) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, ((Long) l).longValue());
+    } else if (literal instanceof Float) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, ((Float) l).floatValue());
+    } else if (literal instanceof Double) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, ((Double) l).doubleValue());
+    } else if (literal instanceof Boolean) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, ((Boolean) l).booleanValue());
+    } else if (literal instanceof byte[]) {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, (byte[]) l);
+    } else {
+      return (d, p, l, m) -> d.propertyIsEqualTo(p, l);
+    }
+  }
+
+  static Binding notEqualTo(Object literal) {
+    if (literal instanceof String) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, (String) l, m);
+    } else if (literal instanceof Date) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, (Date) l);
+    } else if (literal instanceof Instant) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, ((Instant) l).getPosition().getDate());
+    } else if (literal instanceof Period) {
+      return (d, p, l, m) ->
+          d.propertyIsNotEqualTo(
+              p,
+              ((Period) l).getBeginning().getPosition().getDate(),
+              ((Period) l).getEnding().getPosition().getDate());
+    } else if (literal instanceof Integer) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, ((Integer) l).intValue());
+    } else if (literal instanceof Short) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, ((Short) l).shortValue());
+    } else if (literal instanceof Long) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, ((Long) l).longValue());
+    } else if (literal instanceof Float) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, ((Float) l).floatValue());
+    } else if (literal instanceof Double) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, ((Double) l).doubleValue());
+    } else if (literal instanceof Boolean) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, ((Boolean) l).booleanValue());
+    } else if (literal instanceof byte[]) {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, (byte[]) l);
+    } else {
+      return (d, p, l, m) -> d.propertyIsNotEqualTo(p, l);
+    }
+  }
+
+  static Binding greaterThan(Object literal) {
+    if (literal instanceof String) {
+      return (d, p, l, m) -> d.propertyIsGreaterThan(p, (String) l);
+    } else if (literal instanceof Date) {
+      return (d, p, l, m) -> d.propertyIsGreaterThan(p, (Date) l);
+    } else if (literal instanceof Integer) {
+      return (d, p, l, m) -> d.propertyIsGreaterThan(p, ((Integer) l).intValue());
+    } else if (literal instanceof Short) {
+      return (d, p, l, m) -> d.propertyIsGreaterThan(p, ((Short) l).shortValue());
+    } else if (literal instanceof Long) {
+      return (d, p, l, m) -> d.propertyIsGreaterThan(p, ((Long) l).longValue());
+    } else if (literal instanceof Float) {
+      return (d, p, l, m) -> d.propertyIsGreaterThan(p, ((Float) l).floatValue());
+    } else if (literal instanceof Double) {
+      return (d, p, l, m) -> d.propertyIsGreaterThan(p, ((Double) l).doubleValue());
+    } else {
+      return (d, p, l, m) -> d.propertyIsGreaterThan(p, l);
+    }
+  }
+
+  static Binding greaterThanOrEqualTo(Object literal) {
+    if (literal instanceof String) {
+      return (d, p, l, m) -> d.propertyIsGreaterThanOrEqualTo(p, (String) l);
+    } else if (literal instanceof Date) {
+      return (d, p, l, m) -> d.propertyIsGreaterThanOrEqualTo(p, (Date) l);
+    } else if (literal instanceof Integer) {
+      return (d, p, l, m) -> d.propertyIsGreaterThanOrEqualTo(p, ((Integer) l).intValue());
+    } else if (literal instanceof Short) {
+      return (d, p, l, m) -> d.propertyIsGreaterThanOrEqualTo(p, ((Short) l).shortValue());
+    } else if (literal instanceof Long) {
+      return (d, p, l, m) -> d.propertyIsGreaterThanOrEqualTo(p, ((Long) l).longValue());
+    } else if (literal instanceof Float) {
+      return (d, p, l, m) -> d.propertyIsGreaterThanOrEqualTo(p, ((Float) l).floatValue());
+    } else if (literal instanceof Double) {
+      return (d, p, l, m) -> d.propertyIsGreaterThanOrEqualTo(p, ((Double) l).doubleValue());
+    } else {
+      return (d, p, l, m) -> d.propertyIsGreaterThanOrEqualTo(p, l);
+    }
+  }
+
+  static Binding lessThan(Object literal) {
+    if (literal instanceof String) {
+      return (d, p, l, m) -> d.propertyIsLessThan(p, (String) l);
+    } else if (literal instanceof Date) {
+      return (d, p, l, m) -> d.propertyIsLessThan(p, (Date) l);
+    } else if (literal instanceof Integer) {
+      return (d, p, l, m) -> d.propertyIsLessThan(p, ((Integer) l).intValue());
+    } else if (literal instanceof Short) {
+      return (d, p, l, m) -> d.propertyIsLessThan(p, ((Short) l).shortValue());
+    } else if (literal instanceof Long) {
+      return (d, p, l, m) -> d.propertyIsLessThan(p, ((Long) l).longValue());
+    } else if (literal instanceof Float) {
+      return (d, p, l, m) -> d.propertyIsLessThan(p, ((Float) l).floatValue());
+    } else if (literal instanceof Double) {
+      return (d, p, l, m) -> d.propertyIsLessThan(p, ((Double) l).doubleValue());
+    } else {
+      return (d, p, l, m) -> d.propertyIsLessThan(p, l);
+    }
+  }
+
+  static Binding lessThanOrEqualTo(Object literal) {
+    if (literal instanceof String) {
+      return (d, p, l, m) -> d.propertyIsLessThanOrEqualTo(p, (String) l);
+    } else if (literal instanceof Date) {
+      return (d, p, l, m) -> d.propertyIsLessThanOrEqualTo(p, (Date) l);
+    } else if (literal instanceof Integer) {
+      return (d, p, l, m) -> d.propertyIsLessThanOrEqualTo(p, ((Integer) l).intValue());
+    } else if (literal instanceof Short) {
+      return (d, p, l, m) -> d.propertyIsLessThanOrEqualTo(p, ((Short) l).shortValue());
+    } else if (literal instanceof Long) {
+      return (d, p, l, m) -> d.propertyIsLessThanOrEqualTo(p, ((Long) l).longValue());
+    } else if (literal instanceof Float) {
+      return (d, p, l, m) -> d.propertyIsLessThanOrEqualTo(p, ((Float) l).floatValue());
+    } else if (literal instanceof Double) {
+      return (d, p, l, m) -> d.propertyIsLessThanOrEqualTo(p, ((Double) l).doubleValue());
+    } else {
+      return (d, p, l, m) -> d.propertyIsLessThanOrEqualTo(p, l);
+    }
+  }
+
+  /** @return the binding, or {@code null} if the literal isn't a supported date/time */
+  static Binding after(Object literal) {
+    if (literal instanceof Date) {
+      return (d, p, l, m) -> d.after(p, (Date) l);
+    } else if (literal instanceof Instant) {
+      return (d, p, l, m) -> d.after(p, ((Instant) l).getPosition().getDate());
+    } else if (literal instanceof Period) {
+      return (d, p, l, m) -> d.after(p, ((Period) l).getEnding().getPosition().getDate());
+    }
+    return null;
+  }
+
+  /** @return the binding, or {@code null} if the literal isn't a supported date/time */
+  static Binding before(Object literal) {
+    if (literal instanceof Date) {
+      return (d, p, l, m) -> d.before(p, (Date) l);
+    } else if (literal instanceof Instant) {
+      return (d, p, l, m) -> d.before(p, ((Instant) l).getPosition().getDate());
+    } else if (literal instanceof Period) {
+      return (d, p, l, m) -> d.before(p, ((Period) l).getBeginning().getPosition().getDate());
+    }
+    return null;
+  }
+
+  /** @return the binding, or {@code null} if the literal isn't a period or a duration */
+  static Binding during(Object literal) {
+    if (literal instanceof Period) {
+      // Absolute
+      return (d, p, l, m) ->
+          d.during(
+              p,
+              ((Period) l).getBeginning().getPosition().getDate(),
+              ((Period) l).getEnding().getPosition().getDate());
+    } else if (literal instanceof DefaultPeriodDuration) {
+      // Relative
+      // TODO should support PeriodDuration and reconstruct the duration
+      // instead of using an implementation to get the milliseconds
+      return (d, p, l, m) -> d.relative(p, ((DefaultPeriodDuration) l).getTimeInMillis());
+    }
+    return null;
+  }
+}
@@ -0,0 +1,526 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.filter.proxy.adapter;
+
+import static java.lang.Math.abs;
+
+import ddf.catalog.filter.FilterDelegate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.opengis.filter.And;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.ExcludeFilter;
+import org.opengis.filter.Filter;
+import org.opengis.filter.IncludeFilter;
+import org.opengis.filter.Not;
+import org.opengis.filter.Or;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsGreaterThan;
+import org.opengis.filter.PropertyIsGreaterThanOrEqualTo;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.PropertyIsLessThanOrEqualTo;
+import org.opengis.filter.PropertyIsLike;
+import org.opengis.filter.PropertyIsNotEqualTo;
+import org.opengis.filter.PropertyIsNull;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.spatial.Beyond;
+import org.opengis.filter.spatial.BinarySpatialOperator;
+import org.opengis.filter.spatial.Contains;
+import org.opengis.filter.spatial.Crosses;
+import org.opengis.filter.spatial.DWithin;
+import org.opengis.filter.spatial.Disjoint;
+import org.opengis.filter.spatial.DistanceBufferOperator;
+import org.opengis.filter.spatial.Intersects;
+import org.opengis.filter.spatial.Overlaps;
+import org.opengis.filter.spatial.Touches;
+import org.opengis.filter.spatial.Within;
+import org.opengis.filter.temporal.After;
+import org.opengis.filter.temporal.Before;
+import org.opengis.filter.temporal.BinaryTemporalOperator;
+import org.opengis.filter.temporal.During;
+
+/**
+ * The calls a {@link GeotoolsFilterAdapterImpl} makes on a {@link FilterDelegate} for one filter
+ * shape, worked out once and reused for every filter with that shape.
+ *
+ * <p>Two filters have the same shape when they have the same operators, property names, literal
+ * types and operator options, and only differ in their literal values. The literals are collected
+ * into a parameter array by the same walk that computes the shape's signature, so adapting a filter
+ * whose shape has been seen before walks the filter once and then calls the delegate directly,
+ * without the visitor's validation and per-literal type dispatch.
+ *
+ * <p>Operators that aren't compiled, and operands in an order the plans don't handle, are bound as
+ * a whole sub-filter and adapted by the {@link GeotoolsFilterAdapterImpl} visitor as before, so a
+ * plan always makes the same delegate calls as the visitor.
+ */
+final class FilterPlan {
+
+  /** The UI only issues a handful of shapes, this only guards against unbounded growth. */
+  private static final int MAX_PLANS = 512;
+
+  private static final Map<String, FilterPlan> PLANS = new ConcurrentHashMap<>();
+
+  private static final double ERROR_THRESHOLD = .000001;
+
+  private final Step root;
+
+  private final int parameterCount;
+
+  @FunctionalInterface
+  private interface Step {
+    Object apply(GeotoolsFilterAdapterImpl adapter, FilterDelegate<?> delegate, Object[] params);
+  }
+
+  private FilterPlan(Step root, int parameterCount) {
+    this.root = root;
+    this.parameterCount = parameterCount;
+  }
+
+  /**
+   * Adapts the filter with the plan of its shape, compiling the plan the first time the shape is
+   * seen.
+   *
+   * @throws UnsupportedOperationException if the filter isn't supported by the adapter
+   */
+  static Object adapt(
+      Filter filter, FilterDelegate<?> delegate, GeotoolsFilterAdapterImpl adapter) {
+    Shape shape = new Shape(false);
+    shape.walk(filter);
+    String signature = shape.signature.toString();
+
+    FilterPlan plan = PLANS.get(signature);
+    if (plan == null) {
+      plan = compile(filter);
+      if (PLANS.size() < MAX_PLANS) {
+        PLANS.putIfAbsent(signature, plan);
+      }
+    }
+    return plan.execute(adapter, delegate, shape.params.toArray());
+  }
+
+  static FilterPlan compile(Filter filter) {
+    Shape shape = new Shape(true);
+    Step root = shape.walk(filter);
+    return new FilterPlan(root, shape.params.size());
+  }
+
+  /** @return the signature of the filter's shape */
+  static String signature(Filter filter) {
+    Shape shape = new Shape(false);
+    shape.walk(filter);
+    return shape.signature.toString();
+  }
+
+  static int size() {
+    return PLANS.size();
+  }
+
+  static void clear() {
+    PLANS.clear();
+  }
+
+  private Object execute(
+      GeotoolsFilterAdapterImpl adapter, FilterDelegate<?> delegate, Object[] params) {
+    if (params.length != parameterCount) {
+      throw new IllegalStateException("Filter does not match the shape of the plan.");
+    }
+    return root.apply(adapter, delegate, params);
+  }
+
+  /**
+   * Walks a filter, appending its shape to the signature and its literals to the parameters. When
+   * compiling, also returns the step that evaluates it, reading each literal from the position it
+   * was collected at.
+   */
+  private static class Shape {
+
+    private final StringBuilder signature = new StringBuilder(64);
+
+    private final List<Object> params = new ArrayList<>();
+
+    private final boolean compiling;
+
+    private Shape(boolean compiling) {
+      this.compiling = compiling;
+    }
+
+    private Step walk(Filter filter) {
+      if (filter instanceof IncludeFilter) {
+        signature.append('I');
+        return compiling ? (a, d, p) -> d.include() : null;
+      } else if (filter instanceof ExcludeFilter) {
+        signature.append('E');
+        return compiling ? (a, d, p) -> d.exclude() : null;
+      } else if (filter instanceof And) {
+        return and((And) filter);
+      } else if (filter instanceof Or) {
+        return or((Or) filter);
+      } else if (filter instanceof Not) {
+        return not((Not) filter);
+      } else if (filter instanceof BinaryComparisonOperator) {
+        return comparison((BinaryComparisonOperator) filter);
+      } else if (filter instanceof PropertyIsLike) {
+        return like((PropertyIsLike) filter);
+      } else if (filter instanceof PropertyIsNull) {
+        return isNull((PropertyIsNull) filter);
+      } else if (filter instanceof DistanceBufferOperator) {
+        return distance((DistanceBufferOperator) filter);
+      } else if (filter instanceof BinarySpatialOperator) {
+        return spatial((BinarySpatialOperator) filter);
+      } else if (filter instanceof BinaryTemporalOperator) {
+        return temporal((BinaryTemporalOperator) filter);
+      }
+      return visitor(filter);
+    }
+
+    /** Binds the whole filter as a parameter, to be adapted by the visitor. */
+    private Step visitor(Filter filter) {
+      signature.append('?');
+      int index = param(filter);
+      return compiling ? (a, d, p) -> ((Filter) p[index]).accept(a, d) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Step and(And filter) {
+      List<Filter> children = filter.getChildren();
+      if (children == null || children.isEmpty()) {
+        return visitor(filter);
+      }
+
+      List<Step> steps = children(children, "&(");
+      if (!compiling) {
+        return null;
+      }
+      return (a, d, p) -> {
+        List<Object> results = apply(steps, a, d, p);
+        // removing unused and
+        return results.size() == 1 ? results.get(0) : ((FilterDelegate<Object>) d).and(results);
+      };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Step or(Or filter) {
+      List<Filter> children = filter.getChildren();
+      if (children == null || children.isEmpty()) {
+        return visitor(filter);
+      }
+
+      List<Step> steps = children(children, "|(");
+      if (!compiling) {
+        return null;
+      }
+      return (a, d, p) -> ((FilterDelegate<Object>) d).or(apply(steps, a, d, p));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Step not(Not filter) {
+      signature.append("!(");
+      Step child = walk(filter.getFilter());
+      signature.append(')');
+      return compiling ? (a, d, p) -> ((FilterDelegate<Object>) d).not(child.apply(a, d, p)) : null;
+    }
+
+    private List<Step> children(List<Filter> children, String operator) {
+      signature.append(operator);
+      List<Step> steps = new ArrayList<>(children.size());
+      for (Filter child : children) {
+        steps.add(walk(child));
+        signature.append(',');
+      }
+      signature.append(')');
+      return steps;
+    }
+
+    private Step comparison(BinaryComparisonOperator filter) {
+      Operands operands = operands(filter.getExpression1(), filter.getExpression2());
+      DelegateBindings.Binding binding = operands == null ? null : comparison(filter, operands);
+      if (binding == null) {
+        return visitor(filter);
+      }
+
+      // Only equality honors the case of the filter, like the visitor
+      boolean matchCase =
+          (filter instanceof PropertyIsEqualTo || filter instanceof PropertyIsNotEqualTo)
+              && filter.isMatchingCase();
+      String propertyName = operands.propertyName;
+      append(
+          filter.getClass().getName(),
+          propertyName,
+          operands.literal.getClass().getName(),
+          matchCase);
+      int index = param(operands.literal);
+      if (!compiling) {
+        return null;
+      }
+
+      if (filter instanceof PropertyIsEqualTo && operands.literal instanceof String) {
+        return (a, d, p) -> {
+          String value = (String) p[index];
+          // Special case to handle relative temporal queries
+          if (GeotoolsFilterAdapterImpl.isRelativeTemporal(value)) {
+            return GeotoolsFilterAdapterImpl.relativeTemporal(d, propertyName, value);
+          }
+          return binding.bind(d, propertyName, value, matchCase);
+        };
+      }
+      return bind(binding, propertyName, index, matchCase);
+    }
+
+    private Step like(PropertyIsLike filter) {
+      String wildcard = filter.getWildCard();
+      String singleChar = filter.getSingleChar();
+      String escapeChar = filter.getEscape();
+      String pattern = filter.getLiteral();
+      if (!(filter.getExpression() instanceof PropertyName)
+          || pattern == null
+          || !isSingleChar(wildcard)
+          || !isSingleChar(singleChar)
+          || !isSingleChar(escapeChar)
+          || wildcard.equals(singleChar)
+          || wildcard.equals(escapeChar)
+          || singleChar.equals(escapeChar)) {
+        return visitor(filter);
+      }
+      String propertyName = ((PropertyName) filter.getExpression()).getPropertyName();
+      if (propertyName == null) {
+        return visitor(filter);
+      }
+
+      boolean matchCase = filter.isMatchingCase();
+      append("like", propertyName, wildcard + singleChar + escapeChar, matchCase);
+      int index = param(pattern);
+      if (!compiling) {
+        return null;
+      }
+
+      if (propertyName.indexOf('/') == -1 && propertyName.indexOf('@') == -1) {
+        return (a, d, p) ->
+            d.propertyIsLike(
+                propertyName,
+                GeotoolsFilterAdapterImpl.normalizePattern(
+                    (String) p[index], wildcard, singleChar, escapeChar),
+                matchCase);
+      }
+      return (a, d, p) -> {
+        String normalized =
+            GeotoolsFilterAdapterImpl.normalizePattern(
+                (String) p[index], wildcard, singleChar, escapeChar);
+        if (normalized.trim().isEmpty() || normalized.trim().equals(FilterDelegate.WILDCARD_CHAR)) {
+          return d.xpathExists(propertyName);
+        }
+        return d.xpathIsLike(propertyName, normalized, matchCase);
+      };
+    }
+
+    private Step isNull(PropertyIsNull filter) {
+      if (!(filter.getExpression() instanceof PropertyName)
+          || ((PropertyName) filter.getExpression()).getPropertyName() == null) {
+        return visitor(filter);
+      }
+
+      String propertyName = ((PropertyName) filter.getExpression()).getPropertyName();
+      append("null", propertyName, "", false);
+      return compiling ? (a, d, p) -> d.propertyIsNull(propertyName) : null;
+    }
+
+    private Step distance(DistanceBufferOperator filter) {
+      Operands operands = operands(filter.getExpression1(), filter.getExpression2());
+      if (operands == null || !(filter instanceof DWithin || filter instanceof Beyond)) {
+        return visitor(filter);
+      }
+
+      String units = filter.getDistanceUnits();
+      append(filter.getClass().getName(), operands.propertyName, String.valueOf(units), false);
+      int geometry = param(operands.literal);
+      int distance = param(filter.getDistance());
+      if (!compiling) {
+        return null;
+      }
+
+      String propertyName = operands.propertyName;
+      if (filter instanceof DWithin) {
+        return (a, d, p) -> {
+          double meters = GeotoolsFilterAdapterImpl.normalizeDistance((Double) p[distance], units);
+          return d.dwithin(
+              propertyName, GeotoolsFilterAdapterImpl.geometryToWkt(p[geometry]), meters);
+        };
+      }
+      return (a, d, p) -> {
+        double meters = GeotoolsFilterAdapterImpl.normalizeDistance((Double) p[distance], units);
+        String wkt = GeotoolsFilterAdapterImpl.geometryToWkt(p[geometry]);
+        if (abs(meters) > ERROR_THRESHOLD) {
+          return d.beyond(propertyName, wkt, meters);
+        }
+        return d.nearestNeighbor(propertyName, wkt);
+      };
+    }
+
+    private Step spatial(BinarySpatialOperator filter) {
+      Operands operands = operands(filter.getExpression1(), filter.getExpression2());
+      SpatialCall call = spatialCall(filter);
+      if (operands == null || call == null) {
+        return visitor(filter);
+      }
+
+      append(filter.getClass().getName(), operands.propertyName, "", false);
+      int index = param(operands.literal);
+      if (!compiling) {
+        return null;
+      }
+
+      String propertyName = operands.propertyName;
+      return (a, d, p) ->
+          call.apply(d, propertyName, GeotoolsFilterAdapterImpl.geometryToWkt(p[index]));
+    }
+
+    private Step temporal(BinaryTemporalOperator filter) {
+      Operands operands = operands(filter.getExpression1(), filter.getExpression2());
+      if (operands == null) {
+        return visitor(filter);
+      }
+
+      DelegateBindings.Binding binding;
+      if (filter instanceof After) {
+        binding = DelegateBindings.after(operands.literal);
+      } else if (filter instanceof Before) {
+        binding = DelegateBindings.before(operands.literal);
+      } else if (filter instanceof During) {
+        binding = DelegateBindings.during(operands.literal);
+      } else {
+        binding = null;
+      }
+      if (binding == null) {
+        return visitor(filter);
+      }
+
+      String literalType = operands.literal.getClass().getName();
+      append(filter.getClass().getName(), operands.propertyName, literalType, false);
+      int index = param(operands.literal);
+      return compiling ? bind(binding, operands.propertyName, index, false) : null;
+    }
+
+    private static DelegateBindings.Binding comparison(
+        BinaryComparisonOperator filter, Operands operands) {
+      Object literal = operands.literal;
+      if (filter instanceof PropertyIsEqualTo) {
+        return DelegateBindings.equalTo(literal);
+      } else if (filter instanceof PropertyIsNotEqualTo) {
+        return DelegateBindings.notEqualTo(literal);
+      } else if (filter instanceof PropertyIsGreaterThan) {
+        return DelegateBindings.greaterThan(literal);
+      } else if (filter instanceof PropertyIsGreaterThanOrEqualTo) {
+        return DelegateBindings.greaterThanOrEqualTo(literal);
+      } else if (filter instanceof PropertyIsLessThan) {
+        return DelegateBindings.lessThan(literal);
+      } else if (filter instanceof PropertyIsLessThanOrEqualTo) {
+        return DelegateBindings.lessThanOrEqualTo(literal);
+      }
+      return null;
+    }
+
+    private void append(String operator, String propertyName, String options, boolean matchCase) {
+      // Lengths keep names containing the separators from running into each other
+      signature
+          .append(operator)
+          .append('[')
+          .append(propertyName.length())
+          .append(':')
+          .append(propertyName)
+          .append(options.length())
+          .append(':')
+          .append(options)
+          .append(matchCase ? 'c' : 'i')
+          .append(']');
+    }
+
+    private int param(Object value) {
+      params.add(value);
+      return params.size() - 1;
+    }
+
+    private static Step bind(
+        DelegateBindings.Binding binding, String propertyName, int index, boolean matchCase) {
+      return (a, d, p) -> binding.bind(d, propertyName, p[index], matchCase);
+    }
+
+    private static List<Object> apply(
+        List<Step> steps,
+        GeotoolsFilterAdapterImpl adapter,
+        FilterDelegate<?> delegate,
+        Object[] params) {
+      List<Object> results = new ArrayList<>(steps.size());
+      for (Step step : steps) {
+        results.add(step.apply(adapter, delegate, params));
+      }
+      return results;
+    }
+
+    private static boolean isSingleChar(String value) {
+      return value != null && value.length() == 1;
+    }
+
+    /**
+     * @return the property name and literal value, or {@code null} unless the expressions are a
+     *     named property followed by a non-null literal
+     */
+    private static Operands operands(Expression expression1, Expression expression2) {
+      if (!(expression1 instanceof PropertyName) || !(expression2 instanceof Literal)) {
+        return null;
+      }
+      String propertyName = ((PropertyName) expression1).getPropertyName();
+      Object literal = ((Literal) expression2).getValue();
+      return propertyName == null || literal == null ? null : new Operands(propertyName, literal);
+    }
+
+    private static SpatialCall spatialCall(BinarySpatialOperator filter) {
+      if (filter instanceof Intersects) {
+        return FilterDelegate::intersects;
+      } else if (filter instanceof Within) {
+        return FilterDelegate::within;
+      } else if (filter instanceof Contains) {
+        return FilterDelegate::contains;
+      } else if (filter instanceof Crosses) {
+        return FilterDelegate::crosses;
+      } else if (filter instanceof Disjoint) {
+        return FilterDelegate::disjoint;
+      } else if (filter instanceof Overlaps) {
+        return FilterDelegate::overlaps;
+      } else if (filter instanceof Touches) {
+        return FilterDelegate::touches;
+      }
+      return null;
+    }
+  }
+
+  @FunctionalInterface
+  private interface SpatialCall {
+    Object apply(FilterDelegate<?> delegate, String propertyName, String wkt);
+  }
+
+  private static class Operands {
+
+    private final String propertyName;
+
+    private final Object literal;
+
+    private Operands(String propertyName, Object literal) {
+      this.propertyName = propertyName;
+      this.literal = literal;
+    }
+  }
+}
@@ -28,7 +28,6 @@
 import org.geotools.filter.FilterFactoryImpl;
 import org.geotools.geometry.jts.spatialschema.geometry.GeometryImpl;
 import org.geotools.styling.UomOgcMapping;
-import org.geotools.temporal.object.DefaultPeriodDuration;
 import org.geotools.util.Converters;
 import org.joda.time.DateTime;
 import org.opengis.filter.And;
@@ -129,7 +128,7 @@ public <T> T adapt(Filter filter, FilterDelegate<T> filterDelegate)
     }
     try {
       @SuppressWarnings("unchecked")
-      T result = (T) filter.accept(this, filterDelegate);
+      T result = (T) FilterPlan.adapt(filter, filterDelegate, this);
       return result;
     } catch (UnsupportedOperationException e) {
       throw new UnsupportedQueryException(e.getMessage(), e);
@@ -328,99 +327,42 @@ public Object visit(PropertyIsEqualTo filter, Object delegate) {
     List<Object> functionArgs = filterValues.functionArgs;
 
     // Special case to handle relative temporal queries
-    if (literal instanceof String && RELATIVE_TEMPORAL_REGEX.matcher((String) literal).matches()) {
-      DateTime currentDateTime = new DateTime();
-
-      org.joda.time.Period period = PeriodParser.parse((String) literal, RELATIVE_TEMPORAL_REGEX);
-      DateTime pastDateTime = currentDateTime.minus(period);
-
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsBetween(propertyName, pastDateTime.toDate(), currentDateTime.toDate());
+    if (literal instanceof String && isRelativeTemporal((String) literal)) {
+      return relativeTemporal((FilterDelegate<?>) delegate, propertyName, (String) literal);
     }
 
     if (functionName != null) {
       return ((FilterDelegate<?>) delegate).propertyIsEqualTo(functionName, functionArgs, literal);
-    } else if (literal instanceof String) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsEqualTo(propertyName, (String) literal, filter.isMatchingCase());
-    } else if (literal instanceof Date) {
-      return ((FilterDelegate<?>) delegate).propertyIsEqualTo(propertyName, (Date) literal);
-    } else if (literal instanceof Instant) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsEqualTo(propertyName, ((Instant) literal).getPosition().getDate());
-    } else if (literal instanceof Period) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsEqualTo(
-              propertyName,
-              ((Period) literal).getBeginning().getPosition().getDate(),
-              ((Period) literal).getEnding().getPosition().getDate());
-    } else if (literal instanceof Integer) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsEqualTo(propertyName, ((Integer) literal).intValue());
-    } else if (literal instanceof Short) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsEqualTo(propertyName, ((Short) literal).shortValue());
-    } else if (literal instanceof Long) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsEqualTo(propertyName, ((Long) literal).longValue());
-    } else if (literal instanceof Float) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsEqualTo(propertyName, ((Float) literal).floatValue());
-    } else if (literal instanceof Double) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsEqualTo(propertyName, ((Double) literal).doubleValue());
-    } else if (literal instanceof Boolean) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsEqualTo(propertyName, ((Boolean) literal).booleanValue());
-    } else if (literal instanceof byte[]) {
-      return ((FilterDelegate<?>) delegate).propertyIsEqualTo(propertyName, (byte[]) literal);
-    } else {
-      return ((FilterDelegate<?>) delegate).propertyIsEqualTo(propertyName, literal);
     }
+    return DelegateBindings.equalTo(literal)
+        .bind((FilterDelegate<?>) delegate, propertyName, literal, filter.isMatchingCase());
+  }
+
+  /** @return whether the literal is a relative time, such as {@code RELATIVE(PT1H)} */
+  static boolean isRelativeTemporal(String literal) {
+    return RELATIVE_TEMPORAL_REGEX.matcher(literal).matches();
+  }
+
+  /** Queries for the property being within the relative time before now. */
+  static Object relativeTemporal(FilterDelegate<?> delegate, String propertyName, String literal) {
+    DateTime currentDateTime = new DateTime();
+
+    org.joda.time.Period period = PeriodParser.parse(literal, RELATIVE_TEMPORAL_REGEX);
+    DateTime pastDateTime = currentDateTime.minus(period);
+
+    return delegate.propertyIsBetween(
+        propertyName, pastDateTime.toDate(), currentDateTime.toDate());
   }
 
   public Object visit(PropertyIsNotEqualTo filter, Object delegate) {
     ExpressionValues filterValues = getExpressions(filter, delegate);
-    String propertyName = filterValues.propertyName;
-    Object literal = filterValues.literal;
 
-    if (literal instanceof String) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsNotEqualTo(propertyName, (String) literal, filter.isMatchingCase());
-    } else if (literal instanceof Date) {
-      return ((FilterDelegate<?>) delegate).propertyIsNotEqualTo(propertyName, (Date) literal);
-    } else if (literal instanceof Instant) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsNotEqualTo(propertyName, ((Instant) literal).getPosition().getDate());
-    } else if (literal instanceof Period) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsNotEqualTo(
-              propertyName,
-              ((Period) literal).getBeginning().getPosition().getDate(),
-              ((Period) literal).getEnding().getPosition().getDate());
-    } else if (literal instanceof Integer) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsNotEqualTo(propertyName, ((Integer) literal).intValue());
-    } else if (literal instanceof Short) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsNotEqualTo(propertyName, ((Short) literal).shortValue());
-    } else if (literal instanceof Long) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsNotEqualTo(propertyName, ((Long) literal).longValue());
-    } else if (literal instanceof Float) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsNotEqualTo(propertyName, ((Float) literal).floatValue());
-    } else if (literal instanceof Double) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsNotEqualTo(propertyName, ((Double) literal).doubleValue());
-    } else if (literal instanceof Boolean) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsNotEqualTo(propertyName, ((Boolean) literal).booleanValue());
-    } else if (literal instanceof byte[]) {
-      return ((FilterDelegate<?>) delegate).propertyIsNotEqualTo(propertyName, (byte[]) literal);
-    } else {
-      return ((FilterDelegate<?>) delegate).propertyIsNotEqualTo(propertyName, literal);
-    }
+    return DelegateBindings.notEqualTo(filterValues.literal)
+        .bind(
+            (FilterDelegate<?>) delegate,
+            filterValues.propertyName,
+            filterValues.literal,
+            filter.isMatchingCase());
   }
 
   public Object visit(PropertyIsGreaterThan filter, Object delegate) {
@@ -435,32 +377,8 @@ public Object visit(PropertyIsGreaterThan filter, Object delegate) {
       return lessThan.accept(this, delegate);
     }
 
-    if (literal instanceof String) {
-      return ((FilterDelegate<?>) delegate).propertyIsGreaterThan(propertyName, (String) literal);
-    } else if (literal instanceof Date) {
-      return ((FilterDelegate<?>) delegate).propertyIsGreaterThan(propertyName, (Date) literal);
-    } else if (literal instanceof Integer) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThan(propertyName, ((Integer) literal).intValue());
-    } else if (literal instanceof Short) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThan(propertyName, ((Short) literal).shortValue());
-    } else if (literal instanceof Long) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThan(propertyName, ((Long) literal).longValue());
-    } else if (literal instanceof Float) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThan(propertyName, ((Float) literal).floatValue());
-    } else if (literal instanceof Double) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThan(propertyName, ((Double) literal).doubleValue());
-    } else if (literal instanceof Boolean) {
-      return ((FilterDelegate<?>) delegate).propertyIsGreaterThan(propertyName, literal);
-    } else if (literal instanceof byte[]) {
-      return ((FilterDelegate<?>) delegate).propertyIsGreaterThan(propertyName, literal);
-    } else {
-      return ((FilterDelegate<?>) delegate).propertyIsGreaterThan(propertyName, literal);
-    }
+    return DelegateBindings.greaterThan(literal)
+        .bind((FilterDelegate<?>) delegate, propertyName, literal, false);
   }
 
   public Object visit(PropertyIsGreaterThanOrEqualTo filter, Object delegate) {
@@ -475,34 +393,8 @@ public Object visit(PropertyIsGreaterThanOrEqualTo filter, Object delegate) {
       return lessThanOrEqual.accept(this, delegate);
     }
 
-    if (literal instanceof String) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThanOrEqualTo(propertyName, (String) literal);
-    } else if (literal instanceof Date) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThanOrEqualTo(propertyName, (Date) literal);
-    } else if (literal instanceof Integer) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThanOrEqualTo(propertyName, ((Integer) literal).intValue());
-    } else if (literal instanceof Short) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThanOrEqualTo(propertyName, ((Short) literal).shortValue());
-    } else if (literal instanceof Long) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThanOrEqualTo(propertyName, ((Long) literal).longValue());
-    } else if (literal instanceof Float) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThanOrEqualTo(propertyName, ((Float) literal).floatValue());
-    } else if (literal instanceof Double) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsGreaterThanOrEqualTo(propertyName, ((Double) literal).doubleValue());
-    } else if (literal instanceof Boolean) {
-      return ((FilterDelegate<?>) delegate).propertyIsGreaterThanOrEqualTo(propertyName, literal);
-    } else if (literal instanceof byte[]) {
-      return ((FilterDelegate<?>) delegate).propertyIsGreaterThanOrEqualTo(propertyName, literal);
-    } else {
-      return ((FilterDelegate<?>) delegate).propertyIsGreaterThanOrEqualTo(propertyName, literal);
-    }
+    return DelegateBindings.greaterThanOrEqualTo(literal)
+        .bind((FilterDelegate<?>) delegate, propertyName, literal, false);
   }
 
   public Object visit(PropertyIsLessThan filter, Object delegate) {
@@ -517,32 +409,8 @@ public Object visit(PropertyIsLessThan filter, Object delegate) {
       return greaterThan.accept(this, delegate);
     }
 
-    if (literal instanceof String) {
-      return ((FilterDelegate<?>) delegate).propertyIsLessThan(propertyName, (String) literal);
-    } else if (literal instanceof Date) {
-      return ((FilterDelegate<?>) delegate).propertyIsLessThan(propertyName, (Date) literal);
-    } else if (literal instanceof Integer) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThan(propertyName, ((Integer) literal).intValue());
-    } else if (literal instanceof Short) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThan(propertyName, ((Short) literal).shortValue());
-    } else if (literal instanceof Long) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThan(propertyName, ((Long) literal).longValue());
-    } else if (literal instanceof Float) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThan(propertyName, ((Float) literal).floatValue());
-    } else if (literal instanceof Double) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThan(propertyName, ((Double) literal).doubleValue());
-    } else if (literal instanceof Boolean) {
-      return ((FilterDelegate<?>) delegate).propertyIsLessThan(propertyName, literal);
-    } else if (literal instanceof byte[]) {
-      return ((FilterDelegate<?>) delegate).propertyIsLessThan(propertyName, literal);
-    } else {
-      return ((FilterDelegate<?>) delegate).propertyIsLessThan(propertyName, literal);
-    }
+    return DelegateBindings.lessThan(literal)
+        .bind((FilterDelegate<?>) delegate, propertyName, literal, false);
   }
 
   public Object visit(PropertyIsLessThanOrEqualTo filter, Object delegate) {
@@ -557,34 +425,8 @@ public Object visit(PropertyIsLessThanOrEqualTo filter, Object delegate) {
       return greaterThanOrEqual.accept(this, delegate);
     }
 
-    if (literal instanceof String) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThanOrEqualTo(propertyName, (String) literal);
-    } else if (literal instanceof Date) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThanOrEqualTo(propertyName, (Date) literal);
-    } else if (literal instanceof Integer) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThanOrEqualTo(propertyName, ((Integer) literal).intValue());
-    } else if (literal instanceof Short) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThanOrEqualTo(propertyName, ((Short) literal).shortValue());
-    } else if (literal instanceof Long) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThanOrEqualTo(propertyName, ((Long) literal).longValue());
-    } else if (literal instanceof Float) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThanOrEqualTo(propertyName, ((Float) literal).floatValue());
-    } else if (literal instanceof Double) {
-      return ((FilterDelegate<?>) delegate)
-          .propertyIsLessThanOrEqualTo(propertyName, ((Double) literal).doubleValue());
-    } else if (literal instanceof Boolean) {
-      return ((FilterDelegate<?>) delegate).propertyIsLessThanOrEqualTo(propertyName, literal);
-    } else if (literal instanceof byte[]) {
-      return ((FilterDelegate<?>) delegate).propertyIsLessThanOrEqualTo(propertyName, literal);
-    } else {
-      return ((FilterDelegate<?>) delegate).propertyIsLessThanOrEqualTo(propertyName, literal);
-    }
+    return DelegateBindings.lessThanOrEqualTo(literal)
+        .bind((FilterDelegate<?>) delegate, propertyName, literal, false);
   }
 
   public Object visit(PropertyIsLike filter, Object delegate) {
@@ -646,7 +488,7 @@ public Object visit(PropertyIsLike filter, Object delegate) {
     }
   }
 
-  private String normalizePattern(
+  static String normalizePattern(
       String pattern, String wildcard, String singleChar, String escapeChar) {
     StringBuilder sb = new StringBuilder(pattern.length());
     for (int i = 0; i < pattern.length(); i++) {
@@ -770,7 +612,7 @@ public Object visit(Touches filter, Object delegate) {
     return ((FilterDelegate<?>) delegate).touches(filterValues.propertyName, wkt);
   }
 
-  private double normalizeDistance(double distance, String distanceUnits) {
+  static double normalizeDistance(double distance, String distanceUnits) {
     if (UomOgcMapping.FOOT.name().equals(distanceUnits) || CQL_FEET.equals(distanceUnits)) {
       return new Distance(distance, LinearUnit.FOOT_U_S).getAs(LinearUnit.METER);
     } else if (UomOgcMapping.METRE.name().equals(distanceUnits)
@@ -787,7 +629,7 @@ private double normalizeDistance(double distance, String distanceUnits) {
     }
   }
 
-  private String geometryToWkt(Object literal) {
+  static String geometryToWkt(Object literal) {
     String wkt;
     // TODO should support OpenGIS Geometry interface and reconstruct the
     // WKT from the getBoundary method
@@ -813,64 +655,38 @@ public Object visit(Equals filter, Object delegate) {
 
   public Object visit(After after, Object delegate) {
     ExpressionValues filterValues = getExpressions(after, delegate);
-    String propertyName = filterValues.propertyName;
-    Object literal = filterValues.literal;
+    DelegateBindings.Binding binding = DelegateBindings.after(filterValues.literal);
 
-    if (literal instanceof Date) {
-      return ((FilterDelegate<?>) delegate).after(propertyName, (Date) literal);
-    } else if (literal instanceof Instant) {
-      return ((FilterDelegate<?>) delegate)
-          .after(propertyName, ((Instant) literal).getPosition().getDate());
-    } else if (literal instanceof Period) {
-      return ((FilterDelegate<?>) delegate)
-          .after(propertyName, ((Period) literal).getEnding().getPosition().getDate());
-    } else {
+    if (binding == null) {
       throw new UnsupportedOperationException(
           "Unsupported implementation of date/time for After filter.");
     }
+    return binding.bind(
+        (FilterDelegate<?>) delegate, filterValues.propertyName, filterValues.literal, false);
   }
 
   public Object visit(Before before, Object delegate) {
     ExpressionValues filterValues = getExpressions(before, delegate);
-    String propertyName = filterValues.propertyName;
-    Object literal = filterValues.literal;
+    DelegateBindings.Binding binding = DelegateBindings.before(filterValues.literal);
 
-    if (literal instanceof Date) {
-      return ((FilterDelegate<?>) delegate).before(propertyName, (Date) literal);
-    } else if (literal instanceof Instant) {
-      return ((FilterDelegate<?>) delegate)
-          .before(propertyName, ((Instant) literal).getPosition().getDate());
-    } else if (literal instanceof Period) {
-      return ((FilterDelegate<?>) delegate)
-          .before(propertyName, ((Period) literal).getBeginning().getPosition().getDate());
-    } else {
+    if (binding == null) {
       throw new UnsupportedOperationException(
           "Unsupported implementation of date/time for Before filter.");
     }
+    return binding.bind(
+        (FilterDelegate<?>) delegate, filterValues.propertyName, filterValues.literal, false);
   }
 
   public Object visit(During during, Object delegate) {
     ExpressionValues filterValues = getExpressions(during, delegate);
+    DelegateBindings.Binding binding = DelegateBindings.during(filterValues.literal);
 
-    // Absolute
-    if (filterValues.literal instanceof Period) {
-      Period period = (Period) filterValues.literal;
-      Date start = period.getBeginning().getPosition().getDate();
-      Date end = period.getEnding().getPosition().getDate();
-
-      return ((FilterDelegate<?>) delegate).during(filterValues.propertyName, start, end);
-      // Relative
-    } else if (filterValues.literal instanceof DefaultPeriodDuration) {
-      // TODO should support PeriodDuration and reconstruct the duration
-      // instead of using an implementation to get the milliseconds
-      DefaultPeriodDuration duration = (DefaultPeriodDuration) filterValues.literal;
-
-      return ((FilterDelegate<?>) delegate)
-          .relative(filterValues.propertyName, duration.getTimeInMillis());
-    } else {
+    if (binding == null) {
       throw new UnsupportedOperationException(
           "Unsupported implementation of Period or PeriodDuration for During filter.");
     }
+    return binding.bind(
+        (FilterDelegate<?>) delegate, filterValues.propertyName, filterValues.literal, false);
   }
 
   public Object visit(AnyInteracts anyInteracts, Object delegate) {
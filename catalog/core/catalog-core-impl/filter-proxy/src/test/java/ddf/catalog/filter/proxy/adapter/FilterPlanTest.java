@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.filter.proxy.adapter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import com.vividsolutions.jts.io.WKTReader;
+import ddf.catalog.filter.FilterDelegate;
+import ddf.catalog.filter.delegate.FilterToTextDelegate;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import org.geotools.filter.FilterFactoryImpl;
+import org.geotools.styling.UomOgcMapping;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory;
+
+public class FilterPlanTest {
+
+  private static final FilterFactory FF = new FilterFactoryImpl();
+
+  private static final String POLYGON_WKT = "POLYGON ((30 10, 10 20, 20 40, 40 40, 30 10))";
+
+  private static final String POINT_WKT = "POINT (1 2)";
+
+  private final GeotoolsFilterAdapterImpl adapter = new GeotoolsFilterAdapterImpl();
+
+  @Before
+  public void setUp() {
+    FilterPlan.clear();
+  }
+
+  @Test
+  public void testSameShapeSharesPlan() throws Exception {
+    assertThat(adapt(textAndCount("foo", 1)), is("and(title=foo,count>1i)"));
+    assertThat(adapt(textAndCount("bar", 5)), is("and(title=bar,count>5i)"));
+
+    assertThat(FilterPlan.size(), is(1));
+  }
+
+  @Test
+  public void testDifferentShapesHaveDifferentSignatures() {
+    assertThat(
+        FilterPlan.signature(FF.equals(FF.property("title"), FF.literal("foo"))),
+        not(FilterPlan.signature(FF.equals(FF.property("title"), FF.literal(1)))));
+    assertThat(
+        FilterPlan.signature(FF.equal(FF.property("title"), FF.literal("foo"), true)),
+        not(FilterPlan.signature(FF.equal(FF.property("title"), FF.literal("foo"), false))));
+    assertThat(
+        FilterPlan.signature(FF.like(FF.property("title"), "f*", "*", "?", "\\")),
+        not(FilterPlan.signature(FF.like(FF.property("title"), "f%", "%", "?", "\\"))));
+    assertThat(
+        FilterPlan.signature(FF.equals(FF.property("a"), FF.literal("b"))),
+        not(FilterPlan.signature(FF.equals(FF.property("ab"), FF.literal("")))));
+  }
+
+  @Test
+  public void testRelativeTemporalLiteral() throws Exception {
+    Filter text = FF.equals(FF.property("created"), FF.literal("foo"));
+    Filter relative = FF.equals(FF.property("created"), FF.literal("RELATIVE(PT1H)"));
+
+    assertThat(adapt(text), is("created=foo"));
+    assertThat(adapt(relative), containsString("<=created<="));
+    assertThat(FilterPlan.size(), is(1));
+  }
+
+  @Test
+  public void testMatchesVisitor() throws Exception {
+    Date date = new Date(0);
+    Filter filter =
+        FF.or(
+            Arrays.asList(
+                FF.not(FF.equal(FF.property("title"), FF.literal("foo"), false)),
+                FF.notEqual(FF.property("count"), FF.literal(3L)),
+                FF.lessOrEqual(FF.property("size"), FF.literal(2.5)),
+                FF.greaterOrEqual(FF.property("size"), FF.literal(1.5f)),
+                FF.less(FF.property("rank"), FF.literal((short) 4)),
+                FF.like(FF.property("title"), "f?o*", "*", "?", "\\"),
+                FF.like(FF.property("/a/@b"), "*", "*", "?", "\\"),
+                FF.isNull(FF.property("description")),
+                FF.after(FF.property("created"), FF.literal(date)),
+                FF.before(FF.property("created"), FF.literal(date)),
+                FF.intersects(FF.property("location"), FF.literal(geometry(POLYGON_WKT))),
+                FF.dwithin(
+                    FF.property("location"),
+                    FF.literal(geometry(POINT_WKT)),
+                    10,
+                    UomOgcMapping.METRE.name()),
+                FF.beyond(
+                    FF.property("location"),
+                    FF.literal(geometry(POINT_WKT)),
+                    0,
+                    UomOgcMapping.METRE.name()),
+                FF.and(Arrays.asList(Filter.INCLUDE)),
+                Filter.EXCLUDE));
+
+    assertMatchesVisitor(filter);
+    // again, from the cached plan
+    assertMatchesVisitor(filter);
+    assertThat(FilterPlan.size(), is(1));
+  }
+
+  @Test
+  public void testUnplannedFiltersUseVisitor() throws Exception {
+    Filter between = FF.between(FF.property("count"), FF.literal(1), FF.literal(5));
+    Filter reversed = FF.greater(FF.literal(1), FF.property("count"));
+    Filter filter = FF.and(between, reversed);
+
+    assertThat(FilterPlan.signature(filter), is("&(?,?,)"));
+    assertMatchesVisitor(filter);
+  }
+
+  @Test(expected = UnsupportedQueryException.class)
+  public void testUnsupportedFilter() throws Exception {
+    adapt(
+        FF.and(
+            FF.equals(FF.property("title"), FF.literal("foo")),
+            FF.id(Collections.singleton(FF.featureId("id")))));
+  }
+
+  private Filter textAndCount(String text, int count) {
+    return FF.and(
+        FF.equals(FF.property("title"), FF.literal(text)),
+        FF.greater(FF.property("count"), FF.literal(count)));
+  }
+
+  private String adapt(Filter filter) throws UnsupportedQueryException {
+    return adapter.adapt(filter, new FilterToTextDelegate());
+  }
+
+  private void assertMatchesVisitor(Filter filter) throws UnsupportedQueryException {
+    FilterDelegate<String> delegate = new FilterToTextDelegate();
+    assertThat(adapt(filter), is(filter.accept(adapter, delegate)));
+  }
+
+  private static com.vividsolutions.jts.geom.Geometry geometry(String wkt) throws Exception {
+    return new WKTReader().read(wkt);
+  }
+}
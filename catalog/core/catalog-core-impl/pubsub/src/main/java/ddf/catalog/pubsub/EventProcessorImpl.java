@@ -13,6 +13,8 @@
  */
 package ddf.catalog.pubsub;
 
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.types.Core;
@@ -33,6 +35,7 @@
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import ddf.catalog.pubsub.internal.PubSubThread;
 import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
 import ddf.catalog.pubsub.predicate.Predicate;
 import ddf.catalog.util.impl.Requests;
 import java.net.URI;
@@ -42,10 +45,13 @@
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import org.apache.commons.lang.StringUtils;
 import org.apache.lucene.store.Directory;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.geotools.geometry.jts.WKTReader2;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.event.Event;
@@ -76,6 +82,8 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
   private Map<String, ServiceRegistration> existingSubscriptions;
 
+  private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
+
   private final ExecutorService threadPool =
       Executors.newCachedThreadPool(
           StandardThreadFactoryBuilder.newThreadFactory("eventProcessorThread"));
@@ -123,6 +131,28 @@ public EventProcessorImpl(
    * @param eventAdmin - OSGi EventAdmin service used post events
    */
   public static void processEntry(Metacard metacard, String operation, EventAdmin eventAdmin) {
+    processEntry(metacard, operation, eventAdmin, null);
+  }
+
+  /**
+   * Processes an entry by adding properties from the metacard to the event. Then the eventAdmin is
+   * used to post the metacard properties as a single event.
+   *
+   * <p>The entry's location is parsed and its metadata indexed once, and these are shared by all
+   * subscriptions evaluating the event. If a {@link SubscriptionIndex} is provided, the IDs of the
+   * subscriptions that could match the entry are also added to the event so that all other
+   * subscriptions can skip it without evaluating their predicates.
+   *
+   * @param metacard - the metacard to process
+   * @param operation - The type of event {@link ddf.catalog.pubsub.internal.PubSubConstants}
+   * @param eventAdmin - OSGi EventAdmin service used post events
+   * @param subscriptionIndex - index of the existing subscriptions, may be null
+   */
+  public static void processEntry(
+      Metacard metacard,
+      String operation,
+      EventAdmin eventAdmin,
+      SubscriptionIndex subscriptionIndex) {
     String methodName = "processEntry";
     LOGGER.trace(ENTERING, methodName);
 
@@ -131,84 +161,125 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
       LOGGER.debug("catalog ID = {}", metacard.getId());
       LOGGER.debug("operation = {}", operation);
 
-      HashMap<String, Object> properties = new HashMap<>(3, 1);
+      Event event = createEvent(metacard, operation, subscriptionIndex);
 
-      // Common headers
-      properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
-      properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+      if (eventAdmin != null) {
+        eventAdmin.postEvent(event);
+      } else {
+        LOGGER.debug("Unable to post event since eventAdmin is null.");
+      }
+    } else {
+      LOGGER.debug("Unable to post null metacard.");
+    }
 
-      // ENTRY ID INFORMATION
-      // TODO: probably don't need to pass this through since they can get the metacard
-      properties.put(PubSubConstants.HEADER_ID_KEY, metacard.getId());
+    LOGGER.trace(EXITING, methodName);
+  }
 
-      try {
-        URI uri = metacard.getResourceURI();
-        if (uri != null) {
-          String productUri = uri.toString();
-          LOGGER.debug(
-              "Processing incoming entry.  Adding DAD URI to event properties: {}", productUri);
-          // TODO: probably just get this info from the Metacard, Probably don't need to
-          // create new property for this
-          properties.put(PubSubConstants.HEADER_DAD_KEY, productUri);
-        }
-      } catch (Exception e) {
-        LOGGER.debug("Unable to obtain resource URL, will not be considered in subscription", e);
-      }
+  /**
+   * Creates the event published for an entry, with the properties of the metacard that subscription
+   * predicates are evaluated against.
+   *
+   * @param metacard - the metacard to process
+   * @param operation - The type of event {@link ddf.catalog.pubsub.internal.PubSubConstants}
+   * @param subscriptionIndex - index of the existing subscriptions, may be null
+   * @return the event to publish
+   */
+  static Event createEvent(
+      Metacard metacard, String operation, SubscriptionIndex subscriptionIndex) {
+    HashMap<String, Object> properties = new HashMap<>();
 
-      // CONTENT TYPE INFORMATION
-      String type = metacard.getContentTypeName();
-      String contentType = "UNKNOWN";
-      if (type != null) {
-        contentType = type;
-      } else {
-        LOGGER.debug("contentType is null");
+    // Common headers
+    properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
+    properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+
+    // ENTRY ID INFORMATION
+    // TODO: probably don't need to pass this through since they can get the metacard
+    properties.put(PubSubConstants.HEADER_ID_KEY, metacard.getId());
+
+    try {
+      URI uri = metacard.getResourceURI();
+      if (uri != null) {
+        String productUri = uri.toString();
+        LOGGER.debug(
+            "Processing incoming entry.  Adding DAD URI to event properties: {}", productUri);
+        // TODO: probably just get this info from the Metacard, Probably don't need to
+        // create new property for this
+        properties.put(PubSubConstants.HEADER_DAD_KEY, productUri);
       }
+    } catch (Exception e) {
+      LOGGER.debug("Unable to obtain resource URL, will not be considered in subscription", e);
+    }
 
-      String version = metacard.getContentTypeVersion();
-
-      contentType = contentType + "," + (version == null ? "" : version);
-
-      LOGGER.debug("contentType = {}", contentType);
-
-      properties.put(PubSubConstants.HEADER_CONTENT_TYPE_KEY, contentType);
-
-      // CONTEXTUAL INFORMATION
-      if (metacard.getMetadata() != null) {
-        try {
-          // Build Lucene search index on entry's entire metadata using
-          // default XPaths (specified
-          // in ContextualEvaluator) - this index will be used by all
-          // contextual predicates that do
-          // *NOT* specify any textPaths. (Building index here optimizes
-          // code so that this index is
-          // not built for every contextual subscription that has no
-          // textPaths.)
-          Directory index = ContextualEvaluator.buildIndex(metacard.getMetadata());
-
-          // Build contextual info to be sent in event for this entry.
-          // Include the default Lucene search
-          // index and the entry's metadata (in case subscription has
-          // textPaths, then it can create Lucene
-          // search indices on the metadata using its textPaths)
-          Map<String, Object> contextualMap = new HashMap<>(2, 1);
-          contextualMap.put("DEFAULT_INDEX", index);
-          contextualMap.put("METADATA", metacard.getMetadata());
-          properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
-        } catch (Exception e) {
-          LOGGER.info("Exception updating context map", e);
-        }
+    // CONTENT TYPE INFORMATION
+    String type = metacard.getContentTypeName();
+    String contentType = "UNKNOWN";
+    if (type != null) {
+      contentType = type;
+    } else {
+      LOGGER.debug("contentType is null");
+    }
+
+    String version = metacard.getContentTypeVersion();
+
+    contentType = contentType + "," + (version == null ? "" : version);
+
+    LOGGER.debug("contentType = {}", contentType);
+
+    properties.put(PubSubConstants.HEADER_CONTENT_TYPE_KEY, contentType);
+
+    // GEOSPATIAL INFORMATION
+    // Parse the entry's location once instead of once per geospatial subscription
+    Geometry location = null;
+    if (StringUtils.isNotBlank(metacard.getLocation())) {
+      try {
+        location = new WKTReader2().read(metacard.getLocation());
+        properties.put(PubSubConstants.HEADER_GEOSPATIAL_KEY, location);
+      } catch (ParseException e) {
+        LOGGER.debug("Unable to parse location of entry {}", metacard.getId(), e);
       }
+    }
 
-      if (eventAdmin != null) {
-        eventAdmin.postEvent(new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties));
-      } else {
-        LOGGER.debug("Unable to post event since eventAdmin is null.");
+    // CONTEXTUAL INFORMATION
+    if (metacard.getMetadata() != null) {
+      try {
+        // Build Lucene search index on entry's entire metadata using
+        // default XPaths (specified
+        // in ContextualEvaluator) - this index will be used by all
+        // contextual predicates that do
+        // *NOT* specify any textPaths. (Building index here optimizes
+        // code so that this index is
+        // not built for every contextual subscription that has no
+        // textPaths.)
+        Directory index = ContextualEvaluator.buildIndex(metacard.getMetadata());
+
+        // Build contextual info to be sent in event for this entry.
+        // Include the default Lucene search
+        // index and the entry's metadata (in case subscription has
+        // textPaths, then it can create Lucene
+        // search indices on the metadata using its textPaths)
+        Map<String, Object> contextualMap = new HashMap<>(3, 1);
+        contextualMap.put("DEFAULT_INDEX", index);
+        contextualMap.put("METADATA", metacard.getMetadata());
+
+        // Lucene search indices built for contextual predicates that *DO* specify textPaths,
+        // keyed by their textPaths, so that subscriptions with the same textPaths share them
+        contextualMap.put("TEXT_PATH_INDEXES", new ConcurrentHashMap<List<String>, Directory>());
+        properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
+      } catch (Exception e) {
+        LOGGER.info("Exception updating context map", e);
       }
-    } else {
-      LOGGER.debug("Unable to post null metacard.");
     }
 
-    LOGGER.trace(EXITING, methodName);
+    if (subscriptionIndex != null) {
+      boolean prune =
+          !(PubSubConstants.DELETE.equals(operation)
+              && PubSubConstants.METADATA_DELETED.equals(metacard.getMetadata()));
+      properties.put(
+          PubSubConstants.HEADER_SUBSCRIPTION_CANDIDATES_KEY,
+          subscriptionIndex.getCandidates(metacard, location, prune));
+    }
+
+    return new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties);
   }
 
   public void init() {
@@ -242,7 +313,7 @@ public void handleEvent(Event event) {
       Metacard entry = (Metacard) event.getProperty(EventProcessor.EVENT_METACARD);
       LOGGER.debug("metacard ID = {}", entry.getId());
 
-      new PubSubThread(entry, topic, eventAdmin).start();
+      new PubSubThread(entry, topic, eventAdmin, subscriptionIndex).start();
     } else {
       LOGGER.debug(
           "No existing subscriptions, so no need to handle event since there is no one listening ...");
@@ -292,10 +363,11 @@ public void createSubscription(Subscription subscription, String subscriptionId)
           bundleContext.registerService(
               EventHandler.class.getName(),
               new PublishedEventHandler(
-                  finalPredicate, subscription, preDelivery, catalog, threadPool),
+                  subscriptionId, finalPredicate, subscription, preDelivery, catalog, threadPool),
               props);
 
       existingSubscriptions.put(subscriptionId, serviceRegistration);
+      subscriptionIndex.add(subscriptionId, finalPredicate);
 
       LOGGER.debug("Subscription {} created.", subscriptionId);
     } catch (Exception e) {
@@ -338,6 +410,7 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
         sr.unregister();
         LOGGER.debug("Removal complete");
         existingSubscriptions.remove(subscriptionId);
+        subscriptionIndex.remove(subscriptionId);
       } else {
         LOGGER.debug(
             "Unable to find existing subscription: {}.  May already be deleted.", subscriptionId);
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.predicate.Predicate;
+import org.geotools.filter.visitor.DefaultFilterVisitor;
+import org.opengis.filter.Filter;
+import org.opengis.filter.Not;
+import org.opengis.filter.Or;
+import org.opengis.filter.PropertyIsLike;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.PropertyName;
+import org.osgi.service.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides whether a metacard could match a {@link Filter}, using the same predicates that decide
+ * whether a published entry matches a subscription.
+ *
+ * <p>Geospatial criteria are matched against the location of the metacard, and temporal, ID and
+ * content type criteria against the corresponding attributes. Text criteria match every metacard,
+ * because subscriptions only match text against the metadata while queries also match it against
+ * the other attributes. Criteria the predicates don't support are ignored, which can only make more
+ * metacards match. Filters the predicates can't represent without excluding metacards that could
+ * match, such as negations, match every metacard.
+ */
+public class FilterEventMatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FilterEventMatcher.class);
+
+  private static final FilterEventMatcher MATCH_ALL = new FilterEventMatcher(null);
+
+  private final Predicate predicate;
+
+  private FilterEventMatcher(Predicate predicate) {
+    this.predicate = predicate;
+  }
+
+  /**
+   * Creates the matcher of a filter.
+   *
+   * @param filter the filter to match metacards against
+   * @return the matcher of the filter
+   */
+  public static FilterEventMatcher forFilter(Filter filter) {
+    if (filter == null || containsNot(filter)) {
+      return MATCH_ALL;
+    }
+
+    try {
+      Object predicate = filter.accept(new MatcherFilterVisitor(), null);
+      return predicate instanceof Predicate
+          ? new FilterEventMatcher((Predicate) predicate)
+          : MATCH_ALL;
+    } catch (RuntimeException e) {
+      LOGGER.debug(
+          "Unable to create the predicate of filter {}. It will match every metacard.", filter, e);
+      return MATCH_ALL;
+    }
+  }
+
+  /**
+   * Creates the event to match against matchers for a metacard. Creating the event indexes the
+   * metadata of the metacard, so an event should be shared by all the matchers evaluating the same
+   * metacard.
+   *
+   * @param metacard the metacard to match
+   * @return the event of the metacard
+   */
+  public static Event createEvent(Metacard metacard) {
+    return EventProcessorImpl.createEvent(metacard, PubSubConstants.UPDATE, null);
+  }
+
+  /** @return {@code true} if this matcher matches every metacard without evaluating it */
+  public boolean matchesAll() {
+    return predicate == null;
+  }
+
+  /**
+   * @param event the event of a metacard, created by {@link #createEvent(Metacard)}
+   * @return {@code true} if the metacard could match the filter
+   */
+  public boolean matches(Event event) {
+    if (predicate == null) {
+      return true;
+    }
+
+    try {
+      return predicate.matches(event);
+    } catch (RuntimeException e) {
+      LOGGER.debug(
+          "Unable to evaluate predicate {}. The metacard is considered a match.", predicate, e);
+      return true;
+    }
+  }
+
+  /**
+   * Leaves out the text criteria, which subscriptions evaluate differently than queries, and the
+   * disjunctions with a criterion that has no predicate, which could match any metacard.
+   */
+  private static class MatcherFilterVisitor extends SubscriptionFilterVisitor {
+
+    @Override
+    public Object visit(Or filter, Object data) {
+      Predicate predicate = null;
+      for (Filter child : filter.getChildren()) {
+        if (child == null) {
+          continue;
+        }
+
+        Object childPredicate = child.accept(this, data);
+        if (!(childPredicate instanceof Predicate)) {
+          return null;
+        }
+        predicate =
+            predicate == null
+                ? (Predicate) childPredicate
+                : or(predicate, (Predicate) childPredicate);
+      }
+      return predicate;
+    }
+
+    @Override
+    public Object visit(PropertyIsLike filter, Object data) {
+      Expression expression = filter.getExpression();
+      if (expression instanceof PropertyName) {
+        String name = ((PropertyName) expression).getPropertyName();
+        if (Metacard.CONTENT_TYPE.equals(name) || Metacard.CONTENT_TYPE_VERSION.equals(name)) {
+          return super.visit(filter, data);
+        }
+      }
+      return null;
+    }
+  }
+
+  private static boolean containsNot(Filter filter) {
+    boolean[] found = {false};
+    filter.accept(
+        new DefaultFilterVisitor() {
+          @Override
+          public Object visit(Not filter, Object data) {
+            found[0] = true;
+            return data;
+          }
+        },
+        null);
+    return found[0];
+  }
+}
@@ -35,6 +35,8 @@ public class PublishedEventHandler implements EventHandler {
 
   private final ExecutorService threadPool;
 
+  private String subscriptionId;
+
   private Predicate predicate;
 
   private Subscription subscription;
@@ -49,6 +51,17 @@ public PublishedEventHandler(
       List<PreDeliveryPlugin> preDelivery,
       CatalogFramework catalog,
       ExecutorService threadPool) {
+    this(null, finalPredicate, subscription, preDelivery, catalog, threadPool);
+  }
+
+  public PublishedEventHandler(
+      String subscriptionId,
+      Predicate finalPredicate,
+      Subscription subscription,
+      List<PreDeliveryPlugin> preDelivery,
+      CatalogFramework catalog,
+      ExecutorService threadPool) {
+    this.subscriptionId = subscriptionId;
     this.predicate = finalPredicate;
     this.subscription = subscription;
     this.preDelivery = preDelivery;
@@ -57,6 +70,13 @@ public PublishedEventHandler(
   }
 
   public void handleEvent(Event event) {
+    Set<String> candidates =
+        (Set<String>) event.getProperty(PubSubConstants.HEADER_SUBSCRIPTION_CANDIDATES_KEY);
+    if (subscriptionId != null && candidates != null && !candidates.contains(subscriptionId)) {
+      LOGGER.trace("Subscription {} can not match event, skipping it", subscriptionId);
+      return;
+    }
+
     threadPool.submit(new EventProcessor(event));
   }
 
@@ -34,6 +34,8 @@ public class PubSubConstants {
 
   public static final String HEADER_DAD_KEY = "dad";
 
+  public static final String HEADER_SUBSCRIPTION_CANDIDATES_KEY = "subscription_candidates";
+
   public static final String CREATE = "CREATE";
 
   public static final String DELETE = "DELETE";
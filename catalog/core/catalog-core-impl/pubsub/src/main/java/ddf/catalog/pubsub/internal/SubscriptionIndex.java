@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.index.bintree.Bintree;
+import com.vividsolutions.jts.index.bintree.Interval;
+import com.vividsolutions.jts.index.quadtree.Quadtree;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index over the standing subscriptions of an {@link ddf.catalog.pubsub.EventProcessorImpl} that
+ * determines, for a single published entry, which subscriptions could possibly match it.
+ *
+ * <p>Each subscription is indexed on at most one of its top-level (AND-ed) constraints:
+ *
+ * <ul>
+ *   <li>a {@link GeospatialPredicate}, whose criteria envelope (grown by the predicate's distance)
+ *       is stored in a {@link Quadtree}, or otherwise
+ *   <li>an absolute {@link TemporalPredicate}, whose time window is stored in a {@link Bintree} per
+ *       {@link DateType}.
+ * </ul>
+ *
+ * Subscriptions without such a constraint are always candidates. A subscription is only excluded
+ * when its indexed constraint can not be satisfied by the entry, so the full predicate still has to
+ * be evaluated for every candidate returned.
+ */
+public class SubscriptionIndex {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndex.class);
+
+  /** Bounds of the indexed time line, in ms. Entry dates outside of it are never pruned. */
+  private static final double MIN_INDEXED_TIME = -(double) (1L << 52);
+
+  private static final double MAX_INDEXED_TIME = (double) (1L << 52);
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, IndexedSubscription> subscriptions = new HashMap<>();
+
+  private final Set<String> unindexed = new HashSet<>();
+
+  private final Set<String> spatial = new HashSet<>();
+
+  private final Quadtree spatialIndex = new Quadtree();
+
+  private final Map<DateType, Set<String>> temporal = new EnumMap<>(DateType.class);
+
+  private final Map<DateType, Bintree> temporalIndex = new EnumMap<>(DateType.class);
+
+  /**
+   * Adds a subscription to the index, replacing any subscription previously added with the same ID.
+   *
+   * @param subscriptionId the ID of the subscription
+   * @param predicate the predicate of the subscription, {@code null} for a filterless subscription
+   */
+  public void add(String subscriptionId, Predicate predicate) {
+    IndexedSubscription indexed = createIndexedSubscription(subscriptionId, predicate);
+
+    lock.writeLock().lock();
+    try {
+      removeInternal(subscriptionId);
+      subscriptions.put(subscriptionId, indexed);
+
+      if (indexed.envelope != null) {
+        spatial.add(subscriptionId);
+        spatialIndex.insert(indexed.envelope, indexed);
+      } else if (indexed.interval != null) {
+        temporal.computeIfAbsent(indexed.dateType, type -> new HashSet<>()).add(subscriptionId);
+        temporalIndex
+            .computeIfAbsent(indexed.dateType, type -> new Bintree())
+            .insert(indexed.interval, indexed);
+      } else {
+        unindexed.add(subscriptionId);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    LOGGER.debug("Indexed subscription {}", indexed);
+  }
+
+  /**
+   * Removes a subscription from the index. Removing an unknown subscription has no effect.
+   *
+   * @param subscriptionId the ID of the subscription
+   */
+  public void remove(String subscriptionId) {
+    lock.writeLock().lock();
+    try {
+      removeInternal(subscriptionId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return subscriptions.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the IDs of all subscriptions whose predicates could match the given entry.
+   *
+   * @param entry the published entry
+   * @param location the parsed location of the entry, {@code null} if it has none or it could not
+   *     be parsed
+   * @param prune {@code false} if every subscription must be considered a candidate, e.g. for a
+   *     delete event that carries no metadata
+   * @return the IDs of the candidate subscriptions
+   */
+  public Set<String> getCandidates(Metacard entry, Geometry location, boolean prune) {
+    lock.readLock().lock();
+    try {
+      if (!prune || entry == null) {
+        return new HashSet<>(subscriptions.keySet());
+      }
+
+      Set<String> candidates = new HashSet<>(unindexed);
+      addSpatialCandidates(location, candidates);
+      for (Map.Entry<DateType, Bintree> index : temporalIndex.entrySet()) {
+        addTemporalCandidates(entry, index.getKey(), index.getValue(), candidates);
+      }
+
+      LOGGER.debug(
+          "{} of {} subscriptions are candidates for entry {}",
+          candidates.size(),
+          subscriptions.size(),
+          entry.getId());
+      return candidates;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void addSpatialCandidates(Geometry location, Set<String> candidates) {
+    if (spatial.isEmpty()) {
+      return;
+    }
+
+    if (location == null || location.isEmpty()) {
+      candidates.addAll(spatial);
+      return;
+    }
+
+    Envelope envelope = location.getEnvelopeInternal();
+    for (Object item : spatialIndex.query(envelope)) {
+      IndexedSubscription indexed = (IndexedSubscription) item;
+      if (indexed.envelope.intersects(envelope)) {
+        candidates.add(indexed.subscriptionId);
+      }
+    }
+  }
+
+  private void addTemporalCandidates(
+      Metacard entry, DateType dateType, Bintree index, Set<String> candidates) {
+    Set<String> ids = temporal.get(dateType);
+    if (ids == null || ids.isEmpty()) {
+      return;
+    }
+
+    Date date = getDate(entry, dateType);
+    if (date == null || date.getTime() < MIN_INDEXED_TIME || date.getTime() > MAX_INDEXED_TIME) {
+      candidates.addAll(ids);
+      return;
+    }
+
+    double time = date.getTime();
+    for (Object item : index.query(time)) {
+      IndexedSubscription indexed = (IndexedSubscription) item;
+      if (indexed.interval.getMin() <= time && time <= indexed.interval.getMax()) {
+        candidates.add(indexed.subscriptionId);
+      }
+    }
+  }
+
+  private void removeInternal(String subscriptionId) {
+    IndexedSubscription indexed = subscriptions.remove(subscriptionId);
+    if (indexed == null) {
+      return;
+    }
+
+    if (indexed.envelope != null) {
+      spatial.remove(subscriptionId);
+      spatialIndex.remove(indexed.envelope, indexed);
+    } else if (indexed.interval != null) {
+      temporal.get(indexed.dateType).remove(subscriptionId);
+      temporalIndex.get(indexed.dateType).remove(indexed.interval, indexed);
+    } else {
+      unindexed.remove(subscriptionId);
+    }
+  }
+
+  private static IndexedSubscription createIndexedSubscription(
+      String subscriptionId, Predicate predicate) {
+    List<Predicate> conjuncts = AndPredicate.conjuncts(predicate);
+
+    for (Predicate conjunct : conjuncts) {
+      if (conjunct instanceof GeospatialPredicate) {
+        GeospatialPredicate geospatial = (GeospatialPredicate) conjunct;
+        if (geospatial.getGeoCriteria() != null && !geospatial.getGeoCriteria().isEmpty()) {
+          Envelope envelope = new Envelope(geospatial.getGeoCriteria().getEnvelopeInternal());
+          envelope.expandBy(Math.abs(geospatial.getDistance()));
+          return new IndexedSubscription(subscriptionId, envelope, null, null);
+        }
+      }
+    }
+
+    for (Predicate conjunct : conjuncts) {
+      if (conjunct instanceof TemporalPredicate) {
+        TemporalPredicate temporal = (TemporalPredicate) conjunct;
+        if (temporal.getOffset() == 0
+            && temporal.getType() != null
+            && (temporal.getStart() != null || temporal.getEnd() != null)) {
+          double min =
+              temporal.getStart() == null
+                  ? MIN_INDEXED_TIME
+                  : Math.max(MIN_INDEXED_TIME, temporal.getStart().getTime());
+          double max =
+              temporal.getEnd() == null
+                  ? MAX_INDEXED_TIME
+                  : Math.min(MAX_INDEXED_TIME, temporal.getEnd().getTime());
+          if (min <= max) {
+            return new IndexedSubscription(
+                subscriptionId, null, new Interval(min, max), temporal.getType());
+          }
+        }
+      }
+    }
+
+    return new IndexedSubscription(subscriptionId, null, null, null);
+  }
+
+  private static Date getDate(Metacard entry, DateType dateType) {
+    switch (dateType) {
+      case MODIFIED:
+        return entry.getModifiedDate();
+      case EFFECTIVE:
+        return entry.getEffectiveDate();
+      case CREATED:
+        return entry.getCreatedDate();
+      case EXPIRATION:
+        return entry.getExpirationDate();
+      default:
+        Attribute attribute = entry.getAttribute(dateType.getAttributeName());
+        if (attribute != null && attribute.getValue() instanceof Date) {
+          return (Date) attribute.getValue();
+        }
+        return null;
+    }
+  }
+
+  private static class IndexedSubscription {
+    private final String subscriptionId;
+
+    private final Envelope envelope;
+
+    private final Interval interval;
+
+    private final DateType dateType;
+
+    IndexedSubscription(
+        String subscriptionId, Envelope envelope, Interval interval, DateType dateType) {
+      this.subscriptionId = subscriptionId;
+      this.envelope = envelope;
+      this.interval = interval;
+      this.dateType = dateType;
+    }
+
+    @Override
+    public String toString() {
+      return "IndexedSubscription{id="
+          + subscriptionId
+          + ", envelope="
+          + envelope
+          + ", interval="
+          + interval
+          + ", dateType="
+          + dateType
+          + "}";
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.osgi.service.event.Event;
+
+/**
+ * Logical AND of two predicates. Unlike the other boolean combinators this is a named type so that
+ * the conjuncts of a subscription can be inspected when the subscription is indexed.
+ */
+public class AndPredicate implements Predicate {
+  private final Predicate left;
+
+  private final Predicate right;
+
+  public AndPredicate(Predicate left, Predicate right) {
+    this.left = left;
+    this.right = right;
+  }
+
+  public boolean matches(Event properties) {
+    return left.matches(properties) && right.matches(properties);
+  }
+
+  public Predicate getLeft() {
+    return left;
+  }
+
+  public Predicate getRight() {
+    return right;
+  }
+
+  /**
+   * Flattens a tree of nested {@link AndPredicate}s into the list of its conjuncts.
+   *
+   * @param predicate the predicate to flatten, may be {@code null}
+   * @return the conjuncts of the predicate, or a list containing only the predicate itself if it is
+   *     not an {@link AndPredicate}
+   */
+  public static List<Predicate> conjuncts(Predicate predicate) {
+    List<Predicate> conjuncts = new ArrayList<>();
+    addConjuncts(predicate, conjuncts);
+    return conjuncts;
+  }
+
+  private static void addConjuncts(Predicate predicate, List<Predicate> conjuncts) {
+    if (predicate instanceof AndPredicate) {
+      addConjuncts(((AndPredicate) predicate).getLeft(), conjuncts);
+      addConjuncts(((AndPredicate) predicate).getRight(), conjuncts);
+    } else if (predicate != null) {
+      conjuncts.add(predicate);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "(" + left + ") AND (" + right + ")";
+  }
+}
@@ -21,6 +21,7 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 import org.apache.commons.lang.StringUtils;
@@ -240,15 +241,28 @@ public boolean matches(Event properties) {
     // on the metadata using the
     // text paths)
     if (this.textPaths != null && !this.textPaths.isEmpty()) {
+      Map<List<String>, Directory> textPathIndexes =
+          (Map<List<String>, Directory>) contextualMap.get("TEXT_PATH_INDEXES");
       LOGGER.debug("creating criteria with textPaths and metadata document");
       try {
-        cec =
-            new ContextualEvaluationCriteriaImpl(
-                searchPhrase,
-                fuzzy,
-                caseSensitiveSearch,
-                this.textPaths.toArray(new String[this.textPaths.size()]),
-                (String) contextualMap.get("METADATA"));
+        if (textPathIndexes != null && StringUtils.isNotEmpty(searchPhrase)) {
+          // Share the Lucene index built on the metadata using these text paths with all other
+          // predicates evaluating the same event that specify the same text paths
+          cec =
+              new ContextualEvaluationCriteriaImpl(
+                  searchPhrase,
+                  fuzzy,
+                  caseSensitiveSearch,
+                  getTextPathIndex(textPathIndexes, (String) contextualMap.get("METADATA")));
+        } else {
+          cec =
+              new ContextualEvaluationCriteriaImpl(
+                  searchPhrase,
+                  fuzzy,
+                  caseSensitiveSearch,
+                  this.textPaths.toArray(new String[this.textPaths.size()]),
+                  (String) contextualMap.get("METADATA"));
+        }
       } catch (IOException e) {
         LOGGER.debug("IO exception during context evaluation", e);
         return false;
@@ -281,6 +295,22 @@ public boolean matches(Event properties) {
     return false;
   }
 
+  private Directory getTextPathIndex(Map<List<String>, Directory> textPathIndexes, String metadata)
+      throws IOException {
+    List<String> key = new ArrayList<>(this.textPaths);
+    Directory index = textPathIndexes.get(key);
+    if (index == null) {
+      index =
+          ContextualEvaluator.buildIndex(
+              metadata, this.textPaths.toArray(new String[this.textPaths.size()]));
+      Directory existing = textPathIndexes.putIfAbsent(key, index);
+      if (existing != null) {
+        index = existing;
+      }
+    }
+    return index;
+  }
+
   public String getSearchPhrase() {
     return searchPhrase;
   }
@@ -102,9 +102,17 @@ public boolean matches(Event properties) {
 
     GeospatialEvaluationCriteria gec;
     try {
-      gec =
-          new GeospatialEvaluationCriteriaImpl(
-              geoCriteria, geoOperation, entry.getLocation(), distance);
+      // Use the entry's location if it was already parsed when the event was published
+      Object location = properties.getProperty(PubSubConstants.HEADER_GEOSPATIAL_KEY);
+      if (location instanceof Geometry) {
+        gec =
+            new GeospatialEvaluationCriteriaImpl(
+                geoCriteria, geoOperation, (Geometry) location, distance);
+      } else {
+        gec =
+            new GeospatialEvaluationCriteriaImpl(
+                geoCriteria, geoOperation, entry.getLocation(), distance);
+      }
       return GeospatialEvaluator.evaluate(gec);
     } catch (ParseException e) {
       LOGGER.debug("Error parsing WKT string.  Unable to compare geos.  Returning false.");
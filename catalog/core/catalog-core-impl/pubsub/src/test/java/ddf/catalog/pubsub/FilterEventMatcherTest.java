@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import org.geotools.filter.FilterFactoryImpl;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory;
+import org.osgi.service.event.Event;
+
+public class FilterEventMatcherTest {
+
+  private static final FilterFactory FILTER_FACTORY = new FilterFactoryImpl();
+
+  @Test
+  public void testTextFilterMatchesAll() {
+    assertThat(FilterEventMatcher.forFilter(like(Metacard.ANY_TEXT, "dog")).matchesAll(), is(true));
+  }
+
+  @Test
+  public void testAttributeTextCriteriaAreNotMatchedAgainstMetadata() {
+    Filter filter =
+        FILTER_FACTORY.and(
+            like(Metacard.TITLE, "dog"),
+            FILTER_FACTORY.equals(
+                FILTER_FACTORY.property(Metacard.CONTENT_TYPE), FILTER_FACTORY.literal("nitf")));
+    FilterEventMatcher matcher = FilterEventMatcher.forFilter(filter);
+
+    MetacardImpl metacard = metacard("<entry>Nothing to see here</entry>", "nitf");
+    metacard.setTitle("dog");
+    assertThat(matcher.matches(FilterEventMatcher.createEvent(metacard)), is(true));
+    assertThat(matcher.matches(event("<entry>Nothing to see here</entry>", "pdf")), is(false));
+  }
+
+  @Test
+  public void testUnsupportedCriteriaAreIgnored() {
+    Filter filter =
+        FILTER_FACTORY.and(
+            FILTER_FACTORY.equals(
+                FILTER_FACTORY.property(Metacard.CONTENT_TYPE), FILTER_FACTORY.literal("nitf")),
+            FILTER_FACTORY.greater(
+                FILTER_FACTORY.property("resource-size"), FILTER_FACTORY.literal(10)));
+    FilterEventMatcher matcher = FilterEventMatcher.forFilter(filter);
+
+    assertThat(matcher.matchesAll(), is(false));
+    assertThat(matcher.matches(event(TestDataLibrary.getDogEntry(), "nitf")), is(true));
+    assertThat(matcher.matches(event(TestDataLibrary.getDogEntry(), "pdf")), is(false));
+  }
+
+  @Test
+  public void testDisjunctionWithTextCriteriaMatchesAll() {
+    Filter filter =
+        FILTER_FACTORY.or(
+            like(Metacard.TITLE, "dog"),
+            FILTER_FACTORY.equals(
+                FILTER_FACTORY.property(Metacard.CONTENT_TYPE), FILTER_FACTORY.literal("nitf")));
+    FilterEventMatcher matcher = FilterEventMatcher.forFilter(filter);
+
+    MetacardImpl metacard = metacard("<entry>Nothing to see here</entry>", "pdf");
+    metacard.setTitle("dog");
+    assertThat(matcher.matchesAll(), is(true));
+    assertThat(matcher.matches(FilterEventMatcher.createEvent(metacard)), is(true));
+  }
+
+  @Test
+  public void testDisjunctionWithUnsupportedCriteriaMatchesAll() {
+    Filter filter =
+        FILTER_FACTORY.and(
+            FILTER_FACTORY.equals(
+                FILTER_FACTORY.property(Metacard.ID), FILTER_FACTORY.literal("1")),
+            FILTER_FACTORY.or(
+                FILTER_FACTORY.equals(
+                    FILTER_FACTORY.property(Metacard.CONTENT_TYPE), FILTER_FACTORY.literal("nitf")),
+                FILTER_FACTORY.greater(
+                    FILTER_FACTORY.property("resource-size"), FILTER_FACTORY.literal(10))));
+    FilterEventMatcher matcher = FilterEventMatcher.forFilter(filter);
+
+    assertThat(matcher.matches(event(TestDataLibrary.getDogEntry(), "pdf")), is(true));
+  }
+
+  @Test
+  public void testNegatedFilterMatchesAll() {
+    FilterEventMatcher matcher =
+        FilterEventMatcher.forFilter(FILTER_FACTORY.not(like(Metacard.ANY_TEXT, "dog")));
+
+    assertThat(matcher.matchesAll(), is(true));
+    assertThat(matcher.matches(event(TestDataLibrary.getDogEntry(), null)), is(true));
+  }
+
+  @Test
+  public void testUnsupportedFilterMatchesAll() {
+    assertThat(FilterEventMatcher.forFilter(Filter.INCLUDE).matchesAll(), is(true));
+    assertThat(
+        FilterEventMatcher.forFilter(
+                FILTER_FACTORY.or(
+                    like(Metacard.ANY_TEXT, "dog"),
+                    FILTER_FACTORY.greater(
+                        FILTER_FACTORY.property("resource-size"), FILTER_FACTORY.literal(10))))
+            .matchesAll(),
+        is(true));
+  }
+
+  private static Filter like(String attribute, String searchPhrase) {
+    return FILTER_FACTORY.like(
+        FILTER_FACTORY.property(attribute),
+        searchPhrase,
+        SubscriptionFilterVisitor.LUCENE_WILDCARD_CHAR,
+        SubscriptionFilterVisitor.LUCENE_SINGLE_CHAR,
+        SubscriptionFilterVisitor.LUCENE_ESCAPE_CHAR,
+        false);
+  }
+
+  private static Event event(String metadata, String contentType) {
+    return FilterEventMatcher.createEvent(metacard(metadata, contentType));
+  }
+
+  private static MetacardImpl metacard(String metadata, String contentType) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("1");
+    metacard.setMetadata(metadata);
+    metacard.setContentTypeName(contentType);
+    return metacard;
+  }
+}
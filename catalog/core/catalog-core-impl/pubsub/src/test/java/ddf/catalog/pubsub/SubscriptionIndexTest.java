@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKTReader;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.geospatial.SpatialOperator;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.util.Date;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SubscriptionIndexTest {
+
+  private static final String AOI = "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))";
+
+  private static final long DAY = 24L * 60 * 60 * 1000;
+
+  private SubscriptionIndex index;
+
+  @Before
+  public void setUp() {
+    index = new SubscriptionIndex();
+  }
+
+  @Test
+  public void testFilterlessSubscriptionIsAlwaysCandidate() throws Exception {
+    index.add("all", null);
+    index.add("type", new ContentTypePredicate("nitf", null));
+
+    assertThat(
+        index.getCandidates(new MetacardImpl(), null, true), containsInAnyOrder("all", "type"));
+  }
+
+  @Test
+  public void testSpatialCandidates() throws Exception {
+    index.add("inside", new GeospatialPredicate(AOI, SpatialOperator.OVERLAPS.name(), 0.0));
+    index.add(
+        "elsewhere",
+        new GeospatialPredicate(
+            "POLYGON ((50 50, 60 50, 60 60, 50 60, 50 50))", SpatialOperator.CONTAINS.name(), 0.0));
+    index.add("near", new GeospatialPredicate("POINT (12 5)", null, 3.0));
+
+    assertThat(
+        index.getCandidates(new MetacardImpl(), geometry("POINT (9 5)"), true),
+        containsInAnyOrder("inside", "near"));
+    assertThat(
+        index.getCandidates(new MetacardImpl(), geometry("POINT (-20 -20)"), true), is(empty()));
+  }
+
+  @Test
+  public void testEntryWithoutLocationIsNotPruned() throws Exception {
+    index.add("inside", new GeospatialPredicate(AOI, SpatialOperator.OVERLAPS.name(), 0.0));
+
+    assertThat(index.getCandidates(new MetacardImpl(), null, true), containsInAnyOrder("inside"));
+  }
+
+  @Test
+  public void testTemporalCandidates() throws Exception {
+    index.add("past", new TemporalPredicate(new Date(0), new Date(10 * DAY), DateType.MODIFIED));
+    index.add(
+        "future",
+        new TemporalPredicate(new Date(100 * DAY), new Date(110 * DAY), DateType.MODIFIED));
+    index.add("openEnded", new TemporalPredicate(new Date(5 * DAY), null, DateType.MODIFIED));
+    index.add("relative", new TemporalPredicate(DAY, DateType.MODIFIED));
+
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setModifiedDate(new Date(7 * DAY));
+
+    assertThat(
+        index.getCandidates(metacard, null, true),
+        containsInAnyOrder("past", "openEnded", "relative"));
+
+    metacard.setModifiedDate(new Date(105 * DAY));
+    assertThat(
+        index.getCandidates(metacard, null, true),
+        containsInAnyOrder("future", "openEnded", "relative"));
+  }
+
+  @Test
+  public void testConjunctionIsIndexed() throws Exception {
+    index.add(
+        "combined",
+        new AndPredicate(
+            new ContentTypePredicate("nitf", null),
+            new GeospatialPredicate(AOI, SpatialOperator.OVERLAPS.name(), 0.0)));
+
+    assertThat(
+        index.getCandidates(new MetacardImpl(), geometry("POINT (5 5)"), true),
+        containsInAnyOrder("combined"));
+    assertThat(
+        index.getCandidates(new MetacardImpl(), geometry("POINT (50 50)"), true), is(empty()));
+  }
+
+  @Test
+  public void testNoPruning() throws Exception {
+    index.add("inside", new GeospatialPredicate(AOI, SpatialOperator.OVERLAPS.name(), 0.0));
+
+    assertThat(
+        index.getCandidates(new MetacardImpl(), geometry("POINT (50 50)"), false),
+        containsInAnyOrder("inside"));
+  }
+
+  @Test
+  public void testRemove() throws Exception {
+    index.add("inside", new GeospatialPredicate(AOI, SpatialOperator.OVERLAPS.name(), 0.0));
+    index.add("past", new TemporalPredicate(new Date(0), new Date(DAY), DateType.MODIFIED));
+    index.remove("inside");
+    index.remove("past");
+    index.remove("unknown");
+
+    assertThat(index.size(), is(0));
+    assertThat(index.getCandidates(new MetacardImpl(), geometry("POINT (5 5)"), true), is(empty()));
+  }
+
+  private static Geometry geometry(String wkt) throws Exception {
+    return new WKTReader().read(wkt);
+  }
+}
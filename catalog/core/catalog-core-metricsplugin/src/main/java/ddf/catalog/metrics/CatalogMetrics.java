@@ -13,11 +13,6 @@
  */
 package ddf.catalog.metrics;
 
-import com.codahale.metrics.Histogram;
-import com.codahale.metrics.JmxReporter;
-import com.codahale.metrics.Meter;
-import com.codahale.metrics.MetricRegistry;
-import com.codahale.metrics.SlidingTimeWindowReservoir;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.operation.CreateResponse;
@@ -36,101 +31,106 @@
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.util.impl.Requests;
+import ddf.metrics.collector.Counter;
+import ddf.metrics.collector.Histogram;
+import ddf.metrics.collector.MetricsRegistry;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.configuration.SystemInfo;
 
 /**
  * Catalog plug-in to capture metrics on catalog operations.
  *
+ * <p>The metrics are recorded into the {@link MetricsRegistry}, which samples and stores them for
+ * the Metrics tab of the Admin console.
+ *
  * @author Phillip Klinefelter
  */
 public final class CatalogMetrics
     implements PreQueryPlugin, PostQueryPlugin, PostIngestPlugin, PostResourcePlugin {
 
-  protected static final String EXCEPTIONS_SCOPE = "Exceptions";
-
-  protected static final String QUERIES_SCOPE = "Queries";
+  protected static final String EXCEPTIONS_SCOPE = "catalogExceptions";
 
-  protected static final String INGEST_SCOPE = "Ingest";
+  protected static final String QUERIES_SCOPE = "catalogQueries";
 
-  protected static final String RESOURCE_SCOPE = "Resource";
+  protected static final String INGEST_SCOPE = "catalogIngest";
 
-  protected final MetricRegistry metrics = new MetricRegistry();
-
-  protected final JmxReporter reporter =
-      JmxReporter.forRegistry(metrics).inDomain("ddf.metrics.catalog").build();
+  protected static final String RESOURCE_SCOPE = "catalogResource";
 
   protected final Histogram resultCount;
 
-  protected final Meter exceptions;
+  protected final Counter exceptions;
 
-  protected final Meter unsupportedQueryExceptions;
+  protected final Counter unsupportedQueryExceptions;
 
-  protected final Meter sourceUnavailableExceptions;
+  protected final Counter sourceUnavailableExceptions;
 
-  protected final Meter federationExceptions;
+  protected final Counter federationExceptions;
 
-  protected final Meter queries;
+  protected final Counter queries;
 
-  protected final Meter federatedQueries;
+  protected final Counter federatedQueries;
 
-  protected final Meter comparisonQueries;
+  protected final Counter comparisonQueries;
 
-  protected final Meter spatialQueries;
+  protected final Counter spatialQueries;
 
-  protected final Meter xpathQueries;
+  protected final Counter xpathQueries;
 
-  protected final Meter fuzzyQueries;
+  protected final Counter fuzzyQueries;
 
-  protected final Meter functionQueries;
+  protected final Counter functionQueries;
 
-  protected final Meter temporalQueries;
+  protected final Counter temporalQueries;
 
-  protected final Meter createdMetacards;
+  protected final Counter createdMetacards;
 
-  protected final Meter updatedMetacards;
+  protected final Counter updatedMetacards;
 
-  protected final Meter deletedMetacards;
+  protected final Counter deletedMetacards;
 
-  protected final Meter resourceRetrival;
+  protected final Counter resourceRetrival;
 
   private final FilterAdapter filterAdapter;
 
-  public CatalogMetrics(FilterAdapter filterAdapter) {
+  private final MetricsRegistry metricsRegistry;
+
+  private final List<String> metricNames = new ArrayList<>();
+
+  public CatalogMetrics(FilterAdapter filterAdapter, MetricsRegistry metricsRegistry) {
 
     this.filterAdapter = filterAdapter;
+    this.metricsRegistry = metricsRegistry;
+
+    resultCount = histogram(QUERIES_SCOPE + "TotalResults");
+
+    queries = counter(QUERIES_SCOPE);
+    federatedQueries = counter(QUERIES_SCOPE + "Federated");
+    comparisonQueries = counter(QUERIES_SCOPE + "Comparison");
+    spatialQueries = counter(QUERIES_SCOPE + "Spatial");
+    xpathQueries = counter(QUERIES_SCOPE + "Xpath");
+    fuzzyQueries = counter(QUERIES_SCOPE + "Fuzzy");
+    temporalQueries = counter(QUERIES_SCOPE + "Temporal");
+    functionQueries = counter(QUERIES_SCOPE + "Function");
+
+    exceptions = counter(EXCEPTIONS_SCOPE);
+    unsupportedQueryExceptions = counter(EXCEPTIONS_SCOPE + "UnsupportedQuery");
+    sourceUnavailableExceptions = counter(EXCEPTIONS_SCOPE + "SourceUnavailable");
+    federationExceptions = counter(EXCEPTIONS_SCOPE + "Federation");
 
-    resultCount =
-        metrics.register(
-            MetricRegistry.name(QUERIES_SCOPE, "TotalResults"),
-            new Histogram(new SlidingTimeWindowReservoir(1, TimeUnit.MINUTES)));
-
-    queries = metrics.meter(MetricRegistry.name(QUERIES_SCOPE));
-    federatedQueries = metrics.meter(MetricRegistry.name(QUERIES_SCOPE, "Federated"));
-    comparisonQueries = metrics.meter(MetricRegistry.name(QUERIES_SCOPE, "Comparison"));
-    spatialQueries = metrics.meter(MetricRegistry.name(QUERIES_SCOPE, "Spatial"));
-    xpathQueries = metrics.meter(MetricRegistry.name(QUERIES_SCOPE, "Xpath"));
-    fuzzyQueries = metrics.meter(MetricRegistry.name(QUERIES_SCOPE, "Fuzzy"));
-    temporalQueries = metrics.meter(MetricRegistry.name(QUERIES_SCOPE, "Temporal"));
-    functionQueries = metrics.meter(MetricRegistry.name(QUERIES_SCOPE, "Function"));
-
-    exceptions = metrics.meter(MetricRegistry.name(EXCEPTIONS_SCOPE));
-    unsupportedQueryExceptions =
-        metrics.meter(MetricRegistry.name(EXCEPTIONS_SCOPE, "UnsupportedQuery"));
-    sourceUnavailableExceptions =
-        metrics.meter(MetricRegistry.name(EXCEPTIONS_SCOPE, "SourceUnavailable"));
-    federationExceptions = metrics.meter(MetricRegistry.name(EXCEPTIONS_SCOPE, "Federation"));
-
-    createdMetacards = metrics.meter(MetricRegistry.name(INGEST_SCOPE, "Created"));
-    updatedMetacards = metrics.meter(MetricRegistry.name(INGEST_SCOPE, "Updated"));
-    deletedMetacards = metrics.meter(MetricRegistry.name(INGEST_SCOPE, "Deleted"));
-
-    resourceRetrival = metrics.meter(MetricRegistry.name(RESOURCE_SCOPE));
-
-    reporter.start();
+    createdMetacards = counter(INGEST_SCOPE + "Created");
+    updatedMetacards = counter(INGEST_SCOPE + "Updated");
+    deletedMetacards = counter(INGEST_SCOPE + "Deleted");
+
+    resourceRetrival = counter(RESOURCE_SCOPE + "Retrieval");
+  }
+
+  /** Stops sampling the catalog metrics. Called by blueprint. */
+  public void destroy() {
+    metricNames.forEach(metricsRegistry::remove);
   }
 
   // PostQuery
@@ -148,30 +148,30 @@ public QueryResponse process(QueryResponse input)
   public QueryRequest process(QueryRequest input)
       throws PluginExecutionException, StopProcessingException {
     if (isFederated(input)) {
-      federatedQueries.mark();
+      federatedQueries.increment();
     }
-    queries.mark();
+    queries.increment();
 
     QueryTypeFilterDelegate queryType = new QueryTypeFilterDelegate();
     try {
       filterAdapter.adapt(input.getQuery(), queryType);
       if (queryType.isComparison()) {
-        comparisonQueries.mark();
+        comparisonQueries.increment();
       }
       if (queryType.isSpatial()) {
-        spatialQueries.mark();
+        spatialQueries.increment();
       }
       if (queryType.isFuzzy()) {
-        fuzzyQueries.mark();
+        fuzzyQueries.increment();
       }
       if (queryType.isXpath()) {
-        xpathQueries.mark();
+        xpathQueries.increment();
       }
       if (queryType.isTemporal()) {
-        temporalQueries.mark();
+        temporalQueries.increment();
       }
       if (queryType.isFunction()) {
-        functionQueries.mark();
+        functionQueries.increment();
       }
     } catch (UnsupportedQueryException e) {
       // ignore filters not supported by the QueryTypeFilterDelegate
@@ -184,7 +184,7 @@ public QueryRequest process(QueryRequest input)
   @Override
   public CreateResponse process(CreateResponse input) throws PluginExecutionException {
     if (Requests.isLocal(input.getRequest())) {
-      createdMetacards.mark(input.getCreatedMetacards().size());
+      createdMetacards.increment(input.getCreatedMetacards().size());
     }
     return input;
   }
@@ -193,7 +193,7 @@ public CreateResponse process(CreateResponse input) throws PluginExecutionExcept
   @Override
   public UpdateResponse process(UpdateResponse input) throws PluginExecutionException {
     if (Requests.isLocal(input.getRequest())) {
-      updatedMetacards.mark(input.getUpdatedMetacards().size());
+      updatedMetacards.increment(input.getUpdatedMetacards().size());
     }
     return input;
   }
@@ -202,7 +202,7 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
   @Override
   public DeleteResponse process(DeleteResponse input) throws PluginExecutionException {
     if (Requests.isLocal(input.getRequest())) {
-      deletedMetacards.mark(input.getDeletedMetacards().size());
+      deletedMetacards.increment(input.getDeletedMetacards().size());
     }
     return input;
   }
@@ -211,7 +211,7 @@ public DeleteResponse process(DeleteResponse input) throws PluginExecutionExcept
   @Override
   public ResourceResponse process(ResourceResponse input)
       throws PluginExecutionException, StopProcessingException {
-    resourceRetrival.mark();
+    resourceRetrival.increment();
     return input;
   }
 
@@ -228,19 +228,29 @@ private void recordSourceQueryExceptions(QueryResponse response) {
       ProcessingDetails next = iterator.next();
       if (next != null && next.getException() != null) {
         if (next.getException() instanceof UnsupportedQueryException) {
-          unsupportedQueryExceptions.mark();
+          unsupportedQueryExceptions.increment();
         } else if (next.getException() instanceof SourceUnavailableException) {
-          sourceUnavailableExceptions.mark();
+          sourceUnavailableExceptions.increment();
         } else if (next.getException() instanceof FederationException) {
-          federationExceptions.mark();
+          federationExceptions.increment();
         }
-        exceptions.mark();
+        exceptions.increment();
       }
     }
 
     return;
   }
 
+  private Counter counter(String metricName) {
+    metricNames.add(metricName);
+    return metricsRegistry.counter(metricName);
+  }
+
+  private Histogram histogram(String metricName) {
+    metricNames.add(metricName);
+    return metricsRegistry.histogram(metricName);
+  }
+
   private boolean isFederated(QueryRequest queryRequest) {
     Set<String> sourceIds = queryRequest.getSourceIds();
 
@@ -15,10 +15,12 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.codahale.metrics.MetricRegistry;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.federation.FederationException;
@@ -43,6 +45,9 @@
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import ddf.metrics.collector.Counter;
+import ddf.metrics.collector.Histogram;
+import ddf.metrics.collector.MetricsRegistry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -50,7 +55,6 @@
 import java.util.List;
 import java.util.Set;
 import org.codice.ddf.configuration.SystemInfo;
-import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.opengis.filter.Filter;
@@ -71,44 +75,26 @@ public class CatalogMetricsTest {
 
   private CatalogMetrics underTest;
 
+  private MetricsRegistry metricsRegistry;
+
   @Before
   public void setup() {
-    underTest = new CatalogMetrics(filterAdapter);
+    metricsRegistry = mock(MetricsRegistry.class);
+    when(metricsRegistry.counter(anyString())).thenAnswer(invocation -> new Counter());
+    when(metricsRegistry.histogram(anyString())).thenAnswer(invocation -> new Histogram());
+
+    underTest = new CatalogMetrics(filterAdapter, metricsRegistry);
     System.setProperty(SystemInfo.SITE_NAME, "testSite");
   }
 
-  @After
-  public void tearDown() {
-
-    // Remove the metrics created when setup() instantiated CatalogMetrics -
-    // otherwise get lots of exceptions that metric already exists which fill
-    // up the log to point of Travis CI build failing
-
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.QUERIES_SCOPE, "TotalResults"));
-
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.QUERIES_SCOPE));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.QUERIES_SCOPE, "Federated"));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.QUERIES_SCOPE, "Comparison"));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.QUERIES_SCOPE, "Spatial"));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.QUERIES_SCOPE, "Xpath"));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.QUERIES_SCOPE, "Fuzzy"));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.QUERIES_SCOPE, "Temporal"));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.QUERIES_SCOPE, "Function"));
-
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.EXCEPTIONS_SCOPE));
-    underTest.metrics.remove(
-        MetricRegistry.name(CatalogMetrics.EXCEPTIONS_SCOPE, "UnsupportedQuery"));
-    underTest.metrics.remove(
-        MetricRegistry.name(CatalogMetrics.EXCEPTIONS_SCOPE, "SourceUnavailable"));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.EXCEPTIONS_SCOPE, "Federation"));
-
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.INGEST_SCOPE, "Created"));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.INGEST_SCOPE, "Updated"));
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.INGEST_SCOPE, "Deleted"));
-
-    underTest.metrics.remove(MetricRegistry.name(CatalogMetrics.RESOURCE_SCOPE));
+  @Test
+  public void catalogMetricsAreRemovedOnDestroy() {
+    underTest.destroy();
 
-    underTest.reporter.stop();
+    verify(metricsRegistry).remove("catalogQueries");
+    verify(metricsRegistry).remove("catalogQueriesTotalResults");
+    verify(metricsRegistry).remove("catalogResourceRetrieval");
+    verify(metricsRegistry, times(17)).remove(anyString());
   }
 
   @Test
@@ -217,7 +203,7 @@ public void catalogResultCountMetric() throws Exception {
     underTest.process(response);
 
     assertThat(underTest.resultCount.getCount(), is(1L));
-    assertThat(underTest.resultCount.getSnapshot().getMean(), is(50.0));
+    assertThat(underTest.resultCount.getMean(), is(50.0));
   }
 
   @Test
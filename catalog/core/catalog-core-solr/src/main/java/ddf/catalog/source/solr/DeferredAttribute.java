@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.impl.AttributeImpl;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An {@link Attribute} whose values are decoded from their Solr representation the first time they
+ * are accessed, so results whose costly attributes are never read don't pay for decoding them.
+ *
+ * <p>It is serialized as an {@link AttributeImpl}.
+ */
+class DeferredAttribute implements Attribute {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String name;
+
+  private transient Collection<Object> fieldValues;
+
+  private transient Function<Object, Serializable> decoder;
+
+  private transient List<Serializable> values;
+
+  DeferredAttribute(
+      String name, Collection<Object> fieldValues, Function<Object, Serializable> decoder) {
+    this.name = name;
+    this.fieldValues = fieldValues;
+    this.decoder = decoder;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Serializable getValue() {
+    List<Serializable> decoded = getValues();
+    return decoded.isEmpty() ? null : decoded.get(0);
+  }
+
+  @Override
+  public synchronized List<Serializable> getValues() {
+    if (values == null) {
+      values = new ArrayList<>(fieldValues.size());
+      for (Object fieldValue : fieldValues) {
+        values.add(decoder.apply(fieldValue));
+      }
+      fieldValues = null;
+      decoder = null;
+    }
+    return values;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof Attribute)) {
+      return false;
+    }
+
+    Attribute attribute = (Attribute) o;
+
+    return Objects.equals(name, attribute.getName())
+        && Objects.equals(getValues(), attribute.getValues());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, getValues());
+  }
+
+  private Object writeReplace() {
+    return new AttributeImpl(name, getValues());
+  }
+}
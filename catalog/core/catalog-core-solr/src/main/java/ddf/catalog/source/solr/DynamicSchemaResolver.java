@@ -13,7 +13,6 @@
  */
 package ddf.catalog.source.solr;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
@@ -32,6 +31,7 @@
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.types.Validation;
@@ -57,6 +57,7 @@
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -164,9 +165,10 @@ public class DynamicSchemaResolver {
     }
   }
 
-  protected Set<String> fieldsCache = new HashSet<>();
+  /** Updated by the threads converting metacards while queries read it */
+  protected Set<String> fieldsCache = ConcurrentHashMap.newKeySet();
 
-  protected Set<String> anyTextFieldsCache = new HashSet<>();
+  protected Set<String> anyTextFieldsCache = ConcurrentHashMap.newKeySet();
 
   protected SchemaFields schemaFields;
 
@@ -661,7 +663,11 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
 
     byte[] bytes = (byte[]) doc.getFirstValue(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
     try {
-      cachedMetacardType = METACARD_TYPE_MAPPER.readValue(bytes, MetacardType.class);
+      // Types indexed before the binary codec was introduced were written as JSON
+      cachedMetacardType =
+          MetacardCodec.isEncoded(bytes)
+              ? MetacardCodec.decodeMetacardType(bytes)
+              : METACARD_TYPE_MAPPER.readValue(bytes, MetacardType.class);
     } catch (IOException e) {
       LOGGER.info("IO exception loading cached metacard type", e);
       throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE);
@@ -755,8 +761,8 @@ private void addToFieldsCache(Set<AttributeDescriptor> descriptors) {
 
   private byte[] serialize(MetacardType anywhereMType) throws MetacardCreationException {
     try {
-      return METACARD_TYPE_MAPPER.writeValueAsBytes(anywhereMType);
-    } catch (JsonProcessingException e) {
+      return MetacardCodec.encode(anywhereMType);
+    } catch (IOException e) {
       throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE, e);
     }
   }
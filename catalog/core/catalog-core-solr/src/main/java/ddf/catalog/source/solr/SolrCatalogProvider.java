@@ -214,6 +214,7 @@ public CreateResponse create(CreateRequest request) throws IngestException {
 
     List<Metacard> metacards = request.getMetacards();
     List<Metacard> output = new ArrayList<>();
+    boolean idsGenerated = true;
 
     if (metacards == null) {
       return new CreateResponseImpl(request, null, output);
@@ -231,6 +232,8 @@ public CreateResponse create(CreateRequest request) throws IngestException {
           throw new IngestException("Metacard from a separate distribution must have ID");
         }
         metacard.setAttribute(new AttributeImpl(Metacard.ID, generatePrimaryKey()));
+      } else {
+        idsGenerated = false;
       }
 
       if (!isSourceIdSet) {
@@ -240,7 +243,12 @@ public CreateResponse create(CreateRequest request) throws IngestException {
     }
 
     try {
-      client.add(output, isForcedAutoCommit());
+      // Supplied IDs can replace existing documents, which a failed add could not restore
+      if (idsGenerated) {
+        client.addNew(output, isForcedAutoCommit());
+      } else {
+        client.add(output, isForcedAutoCommit());
+      }
     } catch (SolrServerException | SolrException | IOException | MetacardCreationException e) {
       LOGGER.info("Solr could not ingest metacard(s) during create.", e);
       throw new IngestException("Could not ingest metacard(s).");
@@ -320,7 +328,7 @@ public UpdateResponse update(UpdateRequest updateRequest) throws IngestException
     List<Metacard> newMetacards = computeMetacardsToUpdate(updates, idToMetacardMap, updateList);
 
     try {
-      client.add(newMetacards, isForcedAutoCommit());
+      client.update(newMetacards, isForcedAutoCommit());
     } catch (SolrServerException | SolrException | IOException | MetacardCreationException e) {
       LOGGER.info("Failed to update metacard(s) with Solr.", e);
       throw new IngestException("Failed to update metacard(s).");
@@ -517,6 +525,7 @@ public boolean isForcedAutoCommit() {
 
   public void shutdown() {
     LOGGER.debug("Closing down Solr client.");
+    client.close();
     try {
       solr.close();
     } catch (IOException e) {
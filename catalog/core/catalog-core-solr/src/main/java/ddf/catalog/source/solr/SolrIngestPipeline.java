@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardCreationException;
+import java.io.IOException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrInputDocument;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts metacards to {@link SolrInputDocument}s on a bounded pool of worker threads and hands
+ * them to a {@link BatchSender} in sub-batches, so that earlier sub-batches are sent to Solr while
+ * later ones are still being converted.
+ *
+ * <p>At most {@code maxPendingBatches} sub-batches are converted ahead of the one being sent, which
+ * bounds the memory held by converted documents and makes the conversion wait for Solr when Solr is
+ * the slower stage. Sub-batches are sent in order on the calling thread.
+ *
+ * <p>The time spent converting each document, sending each sub-batch and waiting for conversions is
+ * reported through JMX in the {@code ddf.metrics.catalog.solr} domain, under the name of the
+ * pipeline, until the pipeline is closed.
+ */
+public class SolrIngestPipeline {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SolrIngestPipeline.class);
+
+  private static final String THREADS_PROPERTY = "solr.ingest.threads";
+
+  private static final String BATCH_SIZE_PROPERTY = "solr.ingest.batchSize";
+
+  private static final String MAX_PENDING_BATCHES_PROPERTY = "solr.ingest.maxPendingBatches";
+
+  private static final String INGEST_SCOPE = "Ingest";
+
+  private static final long WORKER_KEEP_ALIVE_SECONDS = 60;
+
+  private static final String METRICS_DOMAIN = "ddf.metrics.catalog.solr";
+
+  private final int threads;
+
+  private final int batchSize;
+
+  private final int maxPendingBatches;
+
+  private final Timer convertTimer;
+
+  private final Timer sendTimer;
+
+  private final Timer waitTimer;
+
+  private final JmxReporter reporter;
+
+  private ExecutorService executor;
+
+  /** Converts a single metacard. Called concurrently from the worker threads. */
+  @FunctionalInterface
+  public interface DocumentConverter {
+    SolrInputDocument convert(Metacard metacard) throws MetacardCreationException;
+  }
+
+  /** Sends a converted sub-batch. Always called from the thread running the pipeline. */
+  @FunctionalInterface
+  public interface BatchSender {
+    void send(List<SolrInputDocument> batch) throws IOException, SolrServerException;
+  }
+
+  /**
+   * @param name the name the metrics of the pipeline are reported under
+   * @param threads the number of worker threads converting documents, 1 or less to convert on the
+   *     calling thread
+   * @param batchSize the number of documents sent to Solr at once
+   * @param maxPendingBatches the maximum number of sub-batches converted ahead of the one being
+   *     sent
+   */
+  public SolrIngestPipeline(String name, int threads, int batchSize, int maxPendingBatches) {
+    this.threads = Math.max(threads, 1);
+    this.batchSize = Math.max(batchSize, 1);
+    this.maxPendingBatches = Math.max(maxPendingBatches, 1);
+
+    MetricRegistry metrics = new MetricRegistry();
+    convertTimer = metrics.timer(MetricRegistry.name(INGEST_SCOPE, name, "Convert"));
+    sendTimer = metrics.timer(MetricRegistry.name(INGEST_SCOPE, name, "Send"));
+    waitTimer = metrics.timer(MetricRegistry.name(INGEST_SCOPE, name, "Wait"));
+    reporter = JmxReporter.forRegistry(metrics).inDomain(METRICS_DOMAIN).build();
+    reporter.start();
+  }
+
+  /**
+   * Creates a pipeline configured by the {@code solr.ingest.threads}, {@code solr.ingest.batchSize}
+   * and {@code solr.ingest.maxPendingBatches} system properties.
+   *
+   * @param name the name the metrics of the pipeline are reported under
+   */
+  public static SolrIngestPipeline fromSystemProperties(String name) {
+    int defaultThreads = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    int threads = NumberUtils.toInt(accessProperty(THREADS_PROPERTY), defaultThreads);
+    return new SolrIngestPipeline(
+        name,
+        threads,
+        NumberUtils.toInt(accessProperty(BATCH_SIZE_PROPERTY), 500),
+        NumberUtils.toInt(accessProperty(MAX_PENDING_BATCHES_PROPERTY), 2 * Math.max(threads, 1)));
+  }
+
+  /**
+   * @param count the number of metacards being added
+   * @return {@code true} if adding that many metacards is worth splitting into sub-batches
+   *     converted on the worker threads
+   */
+  public boolean isPipelined(int count) {
+    return threads > 1 && count > batchSize;
+  }
+
+  /**
+   * Converts the metacards and sends them in sub-batches, in order.
+   *
+   * <p>If a conversion or a send fails, the remaining conversions are cancelled. Sub-batches that
+   * were already sent are left to the caller to undo. Sub-batches are not kept once sent, so a
+   * caller that needs all the documents collects them in its sender.
+   *
+   * @param metacards the metacards to convert
+   * @param converter converts each metacard
+   * @param sender sends each sub-batch
+   */
+  public void process(List<Metacard> metacards, DocumentConverter converter, BatchSender sender)
+      throws IOException, SolrServerException, MetacardCreationException {
+    int sent = 0;
+    Iterator<List<Metacard>> batches = Lists.partition(metacards, batchSize).iterator();
+    Deque<Future<List<SolrInputDocument>>> pending = new ArrayDeque<>(maxPendingBatches);
+
+    try {
+      while (pending.size() < maxPendingBatches && batches.hasNext()) {
+        pending.add(submit(batches.next(), converter));
+      }
+
+      while (!pending.isEmpty()) {
+        List<SolrInputDocument> batch = awaitConversion(pending.remove());
+        if (batches.hasNext()) {
+          pending.add(submit(batches.next(), converter));
+        }
+
+        try (Timer.Context ignored = sendTimer.time()) {
+          sender.send(batch);
+        }
+        sent += batch.size();
+      }
+    } finally {
+      pending.forEach(future -> future.cancel(true));
+    }
+
+    LOGGER.debug("Sent {} documents in batches of {}", sent, batchSize);
+  }
+
+  private Future<List<SolrInputDocument>> submit(
+      List<Metacard> metacards, DocumentConverter converter) {
+    return getExecutor().submit(() -> convert(metacards, converter));
+  }
+
+  private List<SolrInputDocument> awaitConversion(Future<List<SolrInputDocument>> future)
+      throws MetacardCreationException {
+    try (Timer.Context ignored = waitTimer.time()) {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MetacardCreationException("Interrupted while converting metacards");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof MetacardCreationException) {
+        throw (MetacardCreationException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new MetacardCreationException(e.getCause().getMessage());
+    }
+  }
+
+  private List<SolrInputDocument> convert(List<Metacard> metacards, DocumentConverter converter)
+      throws MetacardCreationException {
+    List<SolrInputDocument> batch = new ArrayList<>(metacards.size());
+    for (Metacard metacard : metacards) {
+      long start = System.nanoTime();
+      batch.add(converter.convert(metacard));
+      convertTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    return batch;
+  }
+
+  /** Stops reporting the metrics of the pipeline and stops its worker threads. */
+  public synchronized void close() {
+    reporter.stop();
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  private synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      // Idle workers time out, so a pipeline that isn't used doesn't hold any threads
+      ThreadPoolExecutor pool =
+          new ThreadPoolExecutor(
+              threads,
+              threads,
+              WORKER_KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              StandardThreadFactoryBuilder.newThreadFactory("solrIngestThread"));
+      pool.allowCoreThreadTimeOut(true);
+      executor = pool;
+    }
+    return executor;
+  }
+
+  private static String accessProperty(String key) {
+    return AccessController.doPrivileged((PrivilegedAction<String>) () -> System.getProperty(key));
+  }
+}
@@ -54,7 +54,8 @@ public interface SolrMetacardClient {
   Set<ContentType> getContentTypes();
 
   /**
-   * Adds a list of {@link Metacard} objects to Solr.
+   * Adds a list of {@link Metacard} objects to Solr. All the metacards are converted before any is
+   * sent, so a metacard that can't be converted adds none of them.
    *
    * @param metacards list of {@link Metacard} objects to add
    * @param forceAutoCommit force an auto-commit after the addition
@@ -67,6 +68,41 @@ public interface SolrMetacardClient {
   List<SolrInputDocument> add(@Nullable List<Metacard> metacards, boolean forceAutoCommit)
       throws IOException, SolrServerException, MetacardCreationException;
 
+  /**
+   * Adds a list of new {@link Metacard} objects to Solr, whose IDs were all generated for them.
+   * Large lists are converted and sent in sub-batches, unless a document with one of the IDs
+   * already exists, in which case they are added the same as by {@link #add(List, boolean)}.
+   *
+   * <p>If adding sub-batches fails, the sub-batches that were already sent are deleted again. They
+   * can be visible to queries until then, so the add is not atomic.
+   *
+   * <p>The documents are not kept once sent, so callers build their response from the metacards.
+   *
+   * @param metacards list of {@link Metacard} objects to add
+   * @param forceAutoCommit force an auto-commit after the addition
+   * @throws IOException if there is a communication error with the server
+   * @throws SolrServerException if there is an error on the server
+   * @throws MetacardCreationException if a {@link Metacard} could not be created
+   */
+  void addNew(@Nullable List<Metacard> metacards, boolean forceAutoCommit)
+      throws IOException, SolrServerException, MetacardCreationException;
+
+  /**
+   * Replaces {@link Metacard} objects that already exist in Solr. All the metacards are converted
+   * before any is sent, so a metacard that can't be converted leaves the existing documents as they
+   * were.
+   *
+   * @param metacards list of {@link Metacard} objects to update
+   * @param forceAutoCommit force an auto-commit after the update
+   * @return list of documents updated
+   * @throws IOException if there is a communication error with the server
+   * @throws SolrServerException if there is an error on the server
+   * @throws MetacardCreationException if a {@link Metacard} could not be created
+   */
+  @Nullable
+  List<SolrInputDocument> update(@Nullable List<Metacard> metacards, boolean forceAutoCommit)
+      throws IOException, SolrServerException, MetacardCreationException;
+
   /**
    * Deletes Solr documents by ID.
    *
@@ -87,4 +123,10 @@ void deleteByIds(String fieldName, List<? extends Serializable> identifiers, boo
    * @throws SolrServerException if there is an error on the server
    */
   void deleteByQuery(String query) throws IOException, SolrServerException;
+
+  /**
+   * Releases the resources held by this client, such as the threads converting metacards. The
+   * underlying Solr client is not closed.
+   */
+  void close();
 }
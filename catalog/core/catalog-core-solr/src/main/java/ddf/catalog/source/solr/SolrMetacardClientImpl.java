@@ -16,6 +16,8 @@
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.QUERY_CURSOR_MARK_KEY;
+import static ddf.catalog.Constants.QUERY_NEXT_CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.SUGGESTION_BUILD_KEY;
 import static ddf.catalog.Constants.SUGGESTION_CONTEXT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_DICT_KEY;
@@ -29,14 +31,11 @@
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeType;
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
-import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
-import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.ContentTypeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
@@ -67,6 +66,7 @@
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.math.NumberUtils;
 import org.apache.solr.client.solrj.SolrQuery;
@@ -83,6 +83,8 @@
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
 import org.codice.solr.client.solrj.SolrClient;
 import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
@@ -124,8 +126,19 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   public static final String EXCLUDE_ATTRIBUTES = "excludeAttributes";
 
+  /**
+   * Query request property holding the {@link Set} of the only attribute names to return. Result
+   * metacards will not have any other attributes.
+   */
+  public static final String INCLUDE_ATTRIBUTES = "includeAttributes";
+
+  private static final String FILTER_ATTRIBUTES_DISABLE_PROPERTY =
+      "solr.client.filterAttributes.disable";
+
   private static final String RESOURCE_ATTRIBUTE = "resource";
 
+  private static final String UNIQUE_KEY_FIELD = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+
   private final SolrClient client;
 
   private final SolrFilterDelegateFactory filterDelegateFactory;
@@ -134,6 +147,10 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   private final DynamicSchemaResolver resolver;
 
+  private final SolrMetacardMaterializer materializer;
+
+  private final SolrIngestPipeline ingestPipeline;
+
   private static final Supplier<Boolean> ZERO_PAGESIZE_COMPATIBILTY =
       () -> Boolean.valueOf(System.getProperty(ZERO_PAGESIZE_COMPATIBILITY_PROPERTY));
 
@@ -152,10 +169,29 @@ public SolrMetacardClientImpl(
       FilterAdapter catalogFilterAdapter,
       SolrFilterDelegateFactory solrFilterDelegateFactory,
       DynamicSchemaResolver dynamicSchemaResolver) {
+    this(client, catalogFilterAdapter, solrFilterDelegateFactory, dynamicSchemaResolver, null);
+  }
+
+  SolrMetacardClientImpl(
+      SolrClient client,
+      FilterAdapter catalogFilterAdapter,
+      SolrFilterDelegateFactory solrFilterDelegateFactory,
+      DynamicSchemaResolver dynamicSchemaResolver,
+      @Nullable SolrIngestPipeline ingestPipeline) {
     this.client = client;
     filterDelegateFactory = solrFilterDelegateFactory;
     filterAdapter = catalogFilterAdapter;
     resolver = dynamicSchemaResolver;
+    materializer = new SolrMetacardMaterializer(dynamicSchemaResolver);
+    this.ingestPipeline =
+        ingestPipeline != null
+            ? ingestPipeline
+            : SolrIngestPipeline.fromSystemProperties(getClass().getSimpleName());
+  }
+
+  @Override
+  public void close() {
+    ingestPipeline.close();
   }
 
   public SolrClient getClient() {
@@ -171,6 +207,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     SolrFilterDelegate solrFilterDelegate =
         filterDelegateFactory.newInstance(resolver, request.getProperties());
     SolrQuery query = getSolrQuery(request, solrFilterDelegate);
+    Set<String> includedAttributes = getIncludedAttributes(request);
 
     Map<String, Serializable> responseProps = new HashMap<>();
 
@@ -233,6 +270,10 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         solrResponse = client.query(query, METHOD.POST);
       }
 
+      if (solrResponse.getNextCursorMark() != null) {
+        responseProps.put(QUERY_NEXT_CURSOR_MARK_KEY, solrResponse.getNextCursorMark());
+      }
+
       SuggesterResponse suggesterResponse = solrResponse.getSuggesterResponse();
 
       if (suggesterResponse != null) {
@@ -257,7 +298,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
       if (docs != null) {
         originalQueryResultsSize = docs.size();
         totalHits = docs.getNumFound();
-        addDocsToResults(docs, results);
+        addDocsToResults(docs, results, includedAttributes);
 
         if (userSpellcheckIsOn && solrSpellcheckHasResults(solrResponse)) {
           query.set("q", findQueryToResend(query, solrResponse));
@@ -266,7 +307,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
           if (docs != null && docs.size() > originalQueryResultsSize) {
             results = new ArrayList<>();
             totalHits = docs.getNumFound();
-            addDocsToResults(docs, results);
+            addDocsToResults(docs, results, includedAttributes);
 
             responseProps.put(
                 DID_YOU_MEAN_KEY, (Serializable) getSearchTermFieldValues(solrResponse));
@@ -329,7 +370,8 @@ private String findQueryToResend(SolrQuery query, QueryResponse solrResponse) {
     return queryToResend;
   }
 
-  private void addDocsToResults(SolrDocumentList docs, List<Result> results)
+  private void addDocsToResults(
+      SolrDocumentList docs, List<Result> results, @Nullable Set<String> includedAttributes)
       throws UnsupportedQueryException {
     for (SolrDocument doc : docs) {
       if (LOGGER.isDebugEnabled()) {
@@ -337,7 +379,7 @@ private void addDocsToResults(SolrDocumentList docs, List<Result> results)
       }
       ResultImpl tmpResult;
       try {
-        tmpResult = createResult(doc);
+        tmpResult = createResult(doc, includedAttributes);
       } catch (MetacardCreationException e) {
         throw new UnsupportedQueryException("Could not create result metacard(s).", e);
       }
@@ -532,6 +574,10 @@ private SolrQuery getRealTimeQuery(SolrQuery originalQuery, Collection<String> i
     }
     SolrQuery realTimeQuery = new SolrQuery();
     for (Map.Entry<String, String[]> entry : originalQuery.getMap().entrySet()) {
+      if (CursorMarkParams.CURSOR_MARK_PARAM.equals(entry.getKey())) {
+        // Real time gets aren't paged
+        continue;
+      }
       if (CommonParams.Q.equals(entry.getKey())) {
         realTimeQuery.set(CommonParams.FQ, entry.getValue());
       } else {
@@ -573,8 +619,10 @@ protected SolrQuery postAdapt(
       throw new UnsupportedQueryException("Start index must be greater than 0");
     }
 
-    // Solr is 0-based
-    query.setStart(request.getQuery().getStartIndex() - 1);
+    String cursorMark = getCursorMark(request);
+
+    // Solr is 0-based, and cursors can only be used from the start
+    query.setStart(cursorMark == null ? request.getQuery().getStartIndex() - 1 : 0);
 
     if (queryingForAllRecords(request)) {
       try {
@@ -588,11 +636,73 @@ protected SolrQuery postAdapt(
 
     setSortProperty(request, query, filterDelegate);
 
-    filterAttributes(request, query);
+    if (cursorMark != null) {
+      // A cursor requires the sort to be total, so ties are broken on the unique key
+      if (query.getSorts().stream().noneMatch(sort -> UNIQUE_KEY_FIELD.equals(sort.getItem()))) {
+        query.addSort(UNIQUE_KEY_FIELD, SolrQuery.ORDER.asc);
+      }
+      query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+    }
+
+    Set<String> includedAttributes = getIncludedAttributes(request);
+    if (includedAttributes != null) {
+      projectAttributes(includedAttributes, query);
+    } else {
+      filterAttributes(request, query);
+    }
 
     return query;
   }
 
+  private String getCursorMark(QueryRequest request) {
+    Serializable cursorMark = request.getPropertyValue(QUERY_CURSOR_MARK_KEY);
+    return cursorMark instanceof String ? (String) cursorMark : null;
+  }
+
+  /**
+   * @return the attributes to return for the request, or {@code null} if every attribute that isn't
+   *     excluded is returned
+   */
+  @Nullable
+  private Set<String> getIncludedAttributes(QueryRequest request) {
+    Serializable included = request.getPropertyValue(INCLUDE_ATTRIBUTES);
+    if (!(included instanceof Set)
+        || ((Set) included).isEmpty()
+        || "true".equals(System.getProperty(FILTER_ATTRIBUTES_DISABLE_PROPERTY))) {
+      return null;
+    }
+
+    Set<String> attributes = new HashSet<>((Set<String>) included);
+    Serializable excluded = request.getPropertyValue(EXCLUDE_ATTRIBUTES);
+    if (excluded instanceof Set) {
+      attributes.removeAll((Set<String>) excluded);
+    }
+    return attributes;
+  }
+
+  /**
+   * Limits the fields returned by Solr to those of the attributes, plus the fields needed to create
+   * the metacards and results.
+   */
+  private void projectAttributes(Set<String> attributes, SolrQuery query) {
+    Set<String> fields = new HashSet<>();
+    fields.add(UNIQUE_KEY_FIELD);
+    fields.add(SchemaFields.METACARD_TYPE_FIELD_NAME);
+    fields.add(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
+
+    if (query.getFields() != null) {
+      Arrays.stream(query.getFields().split(","))
+          .filter(field -> !"*".equals(field))
+          .forEach(fields::add);
+    }
+
+    for (String attribute : attributes) {
+      fields.add(attribute + "_*");
+    }
+
+    query.setFields(fields.toArray(new String[fields.size()]));
+  }
+
   private void filterAttributes(QueryRequest request, SolrQuery query) {
     if (skipFilteredAttributes(request)) {
       return;
@@ -647,7 +757,7 @@ private boolean skipFilteredAttributes(QueryRequest request) {
         || !request.containsPropertyName(EXCLUDE_ATTRIBUTES)
         || !(request.getPropertyValue(EXCLUDE_ATTRIBUTES) instanceof Set)
         || ((Set) request.getPropertyValue(EXCLUDE_ATTRIBUTES)).isEmpty()
-        || "true".equals(System.getProperty("solr.client.filterAttributes.disable"));
+        || "true".equals(System.getProperty(FILTER_ATTRIBUTES_DISABLE_PROPERTY));
   }
 
   private boolean queryingForAllRecords(QueryRequest request) {
@@ -742,8 +852,9 @@ protected String setSortProperty(
     return resolver.getSortKey(sortProperty);
   }
 
-  private ResultImpl createResult(SolrDocument doc) throws MetacardCreationException {
-    ResultImpl result = new ResultImpl(createMetacard(doc));
+  private ResultImpl createResult(SolrDocument doc, @Nullable Set<String> includedAttributes)
+      throws MetacardCreationException {
+    ResultImpl result = new ResultImpl(materializer.createMetacard(doc, includedAttributes));
 
     if (doc.get(RELEVANCE_SORT_FIELD) != null) {
       result.setRelevanceScore(((Float) (doc.get(RELEVANCE_SORT_FIELD))).doubleValue());
@@ -766,39 +877,70 @@ private ResultImpl createResult(SolrDocument doc) throws MetacardCreationExcepti
   }
 
   public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationException {
-    MetacardType metacardType = resolver.getMetacardType(doc);
-    MetacardImpl metacard = new MetacardImpl(metacardType);
-
-    for (String solrFieldName : doc.getFieldNames()) {
-      if (!resolver.isPrivateField(solrFieldName)) {
-        Collection<Object> fieldValues = doc.getFieldValues(solrFieldName);
-        Attribute attr =
-            new AttributeImpl(
-                resolver.resolveFieldName(solrFieldName),
-                resolver.getDocValues(solrFieldName, fieldValues));
-        metacard.setAttribute(attr);
-      }
+    return materializer.createMetacard(doc, null);
+  }
+
+  @Override
+  public List<SolrInputDocument> add(List<Metacard> metacards, boolean forceAutoCommit)
+      throws IOException, SolrServerException, MetacardCreationException {
+    if (CollectionUtils.isEmpty(metacards)) {
+      return Collections.emptyList();
     }
 
-    return metacard;
+    return convertAndSend(metacards, forceAutoCommit);
   }
 
   @Override
-  public List<SolrInputDocument> add(List<Metacard> metacards, boolean forceAutoCommit)
+  public void addNew(List<Metacard> metacards, boolean forceAutoCommit)
+      throws IOException, SolrServerException, MetacardCreationException {
+    if (CollectionUtils.isEmpty(metacards)) {
+      return;
+    }
+
+    if (ingestPipeline.isPipelined(metacards.size()) && !anyExists(metacards)) {
+      addPipelined(metacards, forceAutoCommit);
+    } else {
+      convertAndSend(metacards, forceAutoCommit);
+    }
+  }
+
+  @Override
+  public List<SolrInputDocument> update(List<Metacard> metacards, boolean forceAutoCommit)
       throws IOException, SolrServerException, MetacardCreationException {
     if (CollectionUtils.isEmpty(metacards)) {
       return Collections.emptyList();
     }
 
-    boolean isNrtCommit = false;
-    List<SolrInputDocument> docs = new ArrayList<>();
-    for (Metacard metacard : metacards) {
-      docs.add(getSolrInputDocument(metacard));
-      if (commitNrtMetacardType.contains(metacard.getMetacardType().getName())) {
-        isNrtCommit = true;
+    return convertAndSend(metacards, forceAutoCommit);
+  }
+
+  /**
+   * Converts every metacard before sending any. Sub-batches sent before a metacard fails to convert
+   * could not be undone for metacards that already exist, so the pipeline only converts them.
+   */
+  private List<SolrInputDocument> convertAndSend(List<Metacard> metacards, boolean forceAutoCommit)
+      throws IOException, SolrServerException, MetacardCreationException {
+    List<SolrInputDocument> docs = new ArrayList<>(metacards.size());
+    if (ingestPipeline.isPipelined(metacards.size())) {
+      ingestPipeline.process(metacards, this::getSolrInputDocument, docs::addAll);
+    } else {
+      for (Metacard metacard : metacards) {
+        docs.add(getSolrInputDocument(metacard));
       }
     }
+    send(docs, isNrtCommit(metacards), forceAutoCommit);
 
+    return docs;
+  }
+
+  private boolean isNrtCommit(List<Metacard> metacards) {
+    return metacards
+        .stream()
+        .anyMatch(metacard -> commitNrtMetacardType.contains(metacard.getMetacardType().getName()));
+  }
+
+  private void send(List<SolrInputDocument> docs, boolean isNrtCommit, boolean forceAutoCommit)
+      throws IOException, SolrServerException {
     if (!forceAutoCommit) {
       if (isNrtCommit) {
         client.add(docs, commitNrtCommitWithinMs);
@@ -808,8 +950,69 @@ public List<SolrInputDocument> add(List<Metacard> metacards, boolean forceAutoCo
     } else {
       softCommit(docs);
     }
+  }
 
-    return docs;
+  /** @return {@code true} if a document with the ID of one of the metacards already exists */
+  private boolean anyExists(List<Metacard> metacards) throws IOException, SolrServerException {
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(CommonParams.FL, UNIQUE_KEY_FIELD);
+    for (List<Metacard> partition : Lists.partition(metacards, GET_BY_ID_LIMIT)) {
+      List<String> ids = partition.stream().map(Metacard::getId).collect(Collectors.toList());
+      if (!client.getById(ids, params).isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds a large batch of new metacards through the {@link SolrIngestPipeline}, sending sub-batches
+   * to Solr while the rest of the metacards are still being converted. When a metacard can't be
+   * converted or a sub-batch can't be sent, the sub-batches that were already sent are deleted
+   * again. Since none of the metacards existed before, this leaves Solr as it was, although the
+   * sub-batches can be visible to queries until they are deleted.
+   */
+  private void addPipelined(List<Metacard> metacards, boolean forceAutoCommit)
+      throws IOException, SolrServerException, MetacardCreationException {
+    boolean isNrtCommit = isNrtCommit(metacards);
+    List<String> sentIds = new ArrayList<>();
+
+    try {
+      ingestPipeline.process(
+          metacards,
+          this::getSolrInputDocument,
+          batch -> {
+            // Recorded before sending, since a failed send may still have added some of them
+            for (int i = sentIds.size(), end = i + batch.size(); i < end; i++) {
+              sentIds.add(metacards.get(i).getId());
+            }
+            if (isNrtCommit && !forceAutoCommit) {
+              client.add(batch, commitNrtCommitWithinMs);
+            } else {
+              client.add(batch);
+            }
+          });
+    } catch (IOException | SolrServerException | MetacardCreationException | RuntimeException e) {
+      deleteSent(sentIds, e);
+      throw e;
+    }
+
+    if (forceAutoCommit) {
+      softCommit(Collections.emptyList());
+    }
+  }
+
+  private void deleteSent(List<String> sentIds, Exception cause) {
+    if (sentIds.isEmpty()) {
+      return;
+    }
+
+    LOGGER.debug("Deleting {} documents already sent to Solr", sentIds.size());
+    try {
+      client.deleteById(sentIds);
+    } catch (IOException | SolrServerException | RuntimeException e) {
+      cause.addSuppressed(e);
+    }
   }
 
   protected SolrInputDocument getSolrInputDocument(Metacard metacard)
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.solr.common.SolrDocument;
+
+/**
+ * Creates {@link MetacardImpl}s from {@link SolrDocument}s.
+ *
+ * <p>How each Solr field maps to an attribute is worked out once per {@link MetacardType} and
+ * field, then reused for every document of that type. Attributes stored as serialized objects are
+ * only deserialized when their values are accessed.
+ */
+class SolrMetacardMaterializer {
+
+  private final DynamicSchemaResolver resolver;
+
+  /** Keyed by identity, so a type replaced in the resolver gets a new plan */
+  private final Cache<MetacardType, Plan> plans =
+      CacheBuilder.newBuilder().weakKeys().maximumSize(4096).build();
+
+  SolrMetacardMaterializer(DynamicSchemaResolver resolver) {
+    this.resolver = resolver;
+  }
+
+  /**
+   * @param doc the document to create a metacard from
+   * @param attributes the names of the attributes to create, or {@code null} to create every
+   *     attribute in the document
+   * @return the metacard
+   * @throws MetacardCreationException if the type of the metacard can't be read
+   */
+  MetacardImpl createMetacard(SolrDocument doc, @Nullable Set<String> attributes)
+      throws MetacardCreationException {
+    MetacardType metacardType = resolver.getMetacardType(doc);
+    Plan plan = getPlan(metacardType);
+    MetacardImpl metacard = new MetacardImpl(metacardType);
+
+    for (String solrFieldName : doc.getFieldNames()) {
+      FieldMapping mapping = plan.getMapping(solrFieldName);
+      if (mapping.attributeName != null
+          && (attributes == null || attributes.contains(mapping.attributeName))) {
+        metacard.setAttribute(
+            createAttribute(solrFieldName, mapping, doc.getFieldValues(solrFieldName)));
+      }
+    }
+
+    return metacard;
+  }
+
+  private Attribute createAttribute(
+      String solrFieldName, FieldMapping mapping, Collection<Object> fieldValues) {
+    if (mapping.deferred) {
+      return new DeferredAttribute(
+          mapping.attributeName,
+          fieldValues,
+          fieldValue -> resolver.getDocValue(solrFieldName, fieldValue));
+    }
+    return new AttributeImpl(
+        mapping.attributeName, resolver.getDocValues(solrFieldName, fieldValues));
+  }
+
+  private Plan getPlan(MetacardType metacardType) {
+    return plans.asMap().computeIfAbsent(metacardType, key -> new Plan());
+  }
+
+  private class Plan {
+
+    private final Map<String, FieldMapping> mappings = new ConcurrentHashMap<>();
+
+    FieldMapping getMapping(String solrFieldName) {
+      return mappings.computeIfAbsent(solrFieldName, this::map);
+    }
+
+    private FieldMapping map(String solrFieldName) {
+      if (resolver.isPrivateField(solrFieldName)) {
+        return new FieldMapping(null, false);
+      }
+      return new FieldMapping(
+          resolver.resolveFieldName(solrFieldName),
+          AttributeFormat.OBJECT.equals(resolver.getType(solrFieldName)));
+    }
+  }
+
+  private static class FieldMapping {
+
+    /** {@code null} for fields that aren't attributes */
+    private final String attributeName;
+
+    private final boolean deferred;
+
+    private FieldMapping(String attributeName, boolean deferred) {
+      this.attributeName = attributeName;
+      this.deferred = deferred;
+    }
+  }
+}
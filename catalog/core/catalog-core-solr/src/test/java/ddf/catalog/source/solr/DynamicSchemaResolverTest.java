@@ -36,6 +36,8 @@
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardCodec;
+import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.impl.types.CoreAttributes;
 import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
 import java.io.IOException;
@@ -48,6 +50,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrInputDocument;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -269,8 +272,27 @@ public void testAdditionalFieldConstructor() throws Exception {
     assertThat(resolver.fieldsCache, hasItem(anotherExtraField));
   }
 
+  /** Verify that metacard types indexed as JSON, before the binary codec, can still be read. */
+  @Test
+  public void testGetMetacardTypeReadsJson() throws Exception {
+    Set<AttributeDescriptor> attributeDescriptors = new HashSet<>();
+    attributeDescriptors.add(
+        new AttributeDescriptorImpl("title", true, true, true, false, BasicTypes.STRING_TYPE));
+    MetacardType expected = new MetacardTypeImpl("legacy", attributeDescriptors);
+    SolrDocument document = new SolrDocument();
+    document.addField(SchemaFields.METACARD_TYPE_FIELD_NAME, "legacy#1");
+    document.addField(
+        SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
+        METACARD_TYPE_MAPPER.writeValueAsBytes(expected));
+
+    MetacardType metacardType = new DynamicSchemaResolver().getMetacardType(document);
+
+    assertThat(metacardType.getName(), is("legacy"));
+    assertThat(metacardType.getAttributeDescriptors(), is(expected.getAttributeDescriptors()));
+  }
+
   private MetacardType deserializeMetacardType(byte[] serializedMetacardType) throws IOException {
-    return METACARD_TYPE_MAPPER.readValue(serializedMetacardType, MetacardType.class);
+    return MetacardCodec.decodeMetacardType(serializedMetacardType);
   }
 
   @Test
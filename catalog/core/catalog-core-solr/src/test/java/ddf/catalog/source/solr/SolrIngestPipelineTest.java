@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.After;
+import org.junit.Test;
+
+public class SolrIngestPipelineTest {
+
+  private final List<SolrIngestPipeline> pipelines = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    pipelines.forEach(SolrIngestPipeline::close);
+  }
+
+  @Test
+  public void testIsPipelined() {
+    SolrIngestPipeline pipeline = pipeline(4, 10, 2);
+
+    assertThat(pipeline.isPipelined(10), is(false));
+    assertThat(pipeline.isPipelined(11), is(true));
+    assertThat(pipeline(1, 10, 2).isPipelined(100), is(false));
+  }
+
+  @Test
+  public void testBatchesAreSentInOrder() throws Exception {
+    SolrIngestPipeline pipeline = pipeline(4, 10, 3);
+    List<Metacard> metacards = metacards(95);
+    List<Integer> batchSizes = new ArrayList<>();
+    List<Object> sentIds = new ArrayList<>();
+
+    pipeline.process(
+        metacards,
+        SolrIngestPipelineTest::convert,
+        batch -> {
+          batchSizes.add(batch.size());
+          batch.forEach(doc -> sentIds.add(doc.getFieldValue("id")));
+        });
+
+    assertThat(sentIds.size(), is(95));
+    assertThat(batchSizes.size(), is(10));
+    assertThat(batchSizes.get(9), is(5));
+    for (int i = 0; i < metacards.size(); i++) {
+      assertThat(sentIds.get(i), is(metacards.get(i).getId()));
+    }
+  }
+
+  @Test
+  public void testConversionIsBounded() throws Exception {
+    SolrIngestPipeline pipeline = pipeline(4, 10, 2);
+    AtomicInteger converted = new AtomicInteger();
+    AtomicInteger sent = new AtomicInteger();
+    AtomicInteger maxAhead = new AtomicInteger();
+
+    pipeline.process(
+        metacards(200),
+        metacard -> {
+          int ahead = converted.incrementAndGet() - sent.get();
+          maxAhead.accumulateAndGet(ahead, Math::max);
+          return convert(metacard);
+        },
+        batch -> {
+          LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+          sent.addAndGet(batch.size());
+        });
+
+    // The batch being sent plus the batches converted ahead of it
+    assertThat(maxAhead.get(), lessThanOrEqualTo(30));
+  }
+
+  @Test(expected = MetacardCreationException.class)
+  public void testConversionFailure() throws Exception {
+    SolrIngestPipeline pipeline = pipeline(4, 10, 2);
+
+    pipeline.process(
+        metacards(100),
+        metacard -> {
+          if ("55".equals(metacard.getId())) {
+            throw new MetacardCreationException("failed");
+          }
+          return convert(metacard);
+        },
+        batch -> {});
+  }
+
+  private SolrIngestPipeline pipeline(int threads, int batchSize, int maxPendingBatches) {
+    SolrIngestPipeline pipeline =
+        new SolrIngestPipeline("Test" + pipelines.size(), threads, batchSize, maxPendingBatches);
+    pipelines.add(pipeline);
+    return pipeline;
+  }
+
+  private static SolrInputDocument convert(Metacard metacard) {
+    SolrInputDocument doc = new SolrInputDocument();
+    doc.addField("id", metacard.getId());
+    return doc;
+  }
+
+  private static List<Metacard> metacards(int count) {
+    List<Metacard> metacards = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId(String.valueOf(i));
+      metacards.add(metacard);
+    }
+    return metacards;
+  }
+}
@@ -13,20 +13,36 @@
  */
 package ddf.catalog.source.solr;
 
+import static com.google.common.collect.Sets.newHashSet;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.filter.FilterBuilder;
@@ -47,6 +63,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
@@ -55,7 +72,10 @@
 import org.apache.solr.client.solrj.response.SpellCheckResponse.Collation;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.SolrParams;
 import org.codice.solr.client.solrj.SolrClient;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -74,6 +94,7 @@ public class SolrMetacardClientImplTest {
   private DynamicSchemaResolver dynamicSchemaResolver;
   private SolrQuery solrQuery;
   private QueryResponse queryResponse;
+  private SolrIngestPipeline ingestPipeline;
 
   class TestSolrMetacardClientImpl extends SolrMetacardClientImpl {
     public TestSolrMetacardClientImpl(
@@ -120,6 +141,14 @@ public Object answer(InvocationOnMock invocation) {
     when(client.query(solrQuery, SolrRequest.METHOD.POST)).thenReturn(queryResponse);
   }
 
+  @After
+  public void tearDown() {
+    clientImpl.close();
+    if (ingestPipeline != null) {
+      ingestPipeline.close();
+    }
+  }
+
   @Test
   public void testQueryOneResults() throws Exception {
     QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
@@ -204,6 +233,172 @@ public void testQuerySpellCheckOn() throws Exception {
     verify(queryResponse, times(2)).getResults();
   }
 
+  @Test
+  public void testQueryIncludedAttributes() throws Exception {
+    useSolrQuery();
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request.getProperties().put(SolrMetacardClientImpl.INCLUDE_ATTRIBUTES, newHashSet("title"));
+
+    Map<String, String> attributes =
+        createAttributes(Arrays.asList("title", "title2"), Arrays.asList("normal", "normal2"));
+    SolrDocument doc = new SolrDocument();
+    attributes.forEach(doc::addField);
+    SolrDocumentList docs = new SolrDocumentList();
+    docs.add(doc);
+
+    when(queryResponse.getResults()).thenReturn(docs);
+    mockDynamicSchemsolverCalls(
+        createAttributeDescriptor(Arrays.asList("title", "title2")), attributes);
+
+    List<Result> results = clientImpl.query(request).getResults();
+    assertThat(results.size(), is(1));
+    assertThat(results.get(0).getMetacard().getAttribute("title").getValue(), is("normal"));
+    assertThat(results.get(0).getMetacard().getAttribute("title2"), is(nullValue()));
+
+    List<String> fields = Arrays.asList(solrQuery.getFields().split(","));
+    assertThat(fields, hasItems("title_*", "id_txt", "score"));
+    assertThat(fields, not(hasItem("*")));
+  }
+
+  @Test
+  public void testQueryExcludedAttributesAreNotIncluded() throws Exception {
+    useSolrQuery();
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request
+        .getProperties()
+        .put(SolrMetacardClientImpl.INCLUDE_ATTRIBUTES, newHashSet("title", "metadata"));
+    request.getProperties().put(SolrMetacardClientImpl.EXCLUDE_ATTRIBUTES, newHashSet("metadata"));
+    when(queryResponse.getResults()).thenReturn(null);
+
+    clientImpl.query(request);
+
+    List<String> fields = Arrays.asList(solrQuery.getFields().split(","));
+    assertThat(fields, hasItem("title_*"));
+    assertThat(fields, not(hasItem("metadata_*")));
+  }
+
+  @Test
+  public void testObjectAttributesAreDecodedWhenAccessed() throws Exception {
+    byte[] encoded = new byte[] {1, 2, 3};
+    SolrDocument doc = new SolrDocument();
+    doc.addField("blob_obj", encoded);
+
+    when(dynamicSchemaResolver.getMetacardType(any()))
+        .thenReturn(new MetacardTypeImpl(DDF_METACARD_TYPE, Collections.emptySet()));
+    when(dynamicSchemaResolver.resolveFieldName("blob_obj")).thenReturn("blob");
+    when(dynamicSchemaResolver.getType("blob_obj")).thenReturn(AttributeFormat.OBJECT);
+    when(dynamicSchemaResolver.getDocValue("blob_obj", encoded)).thenReturn("decoded");
+
+    Attribute blob = clientImpl.createMetacard(doc).getAttribute("blob");
+    verify(dynamicSchemaResolver, never()).getDocValue(any(), any());
+
+    assertThat(blob.getValue(), is("decoded"));
+    assertThat(blob.getValues(), contains("decoded"));
+    verify(dynamicSchemaResolver, times(1)).getDocValue("blob_obj", encoded);
+  }
+
+  @Test
+  public void testUpdateSendsNothingWhenAMetacardCannotBeConverted() throws Exception {
+    List<Metacard> metacards = createMetacards(25);
+    doThrow(new MetacardCreationException("invalid"))
+        .when(dynamicSchemaResolver)
+        .addFields(eq(metacards.get(15)), any(SolrInputDocument.class));
+
+    try {
+      pipelinedClient().update(metacards, false);
+      fail("Expected the update to fail");
+    } catch (MetacardCreationException e) {
+      verify(client, never()).add(anyCollection());
+      verify(client, never()).deleteById(anyListOf(String.class));
+    }
+  }
+
+  @Test
+  public void testUpdateSendsAllDocumentsAtOnce() throws Exception {
+    List<SolrInputDocument> docs = pipelinedClient().update(createMetacards(25), false);
+
+    assertThat(docs.size(), is(25));
+    verify(client, times(1)).add(docs);
+  }
+
+  @Test
+  public void testPipelinedAddDeletesSentDocumentsWhenSolrFails() throws Exception {
+    List<Metacard> metacards = createMetacards(25);
+    when(client.add(anyCollection()))
+        .thenReturn(null)
+        .thenThrow(new SolrServerException("unavailable"));
+
+    when(client.getById(anyCollection(), any(SolrParams.class))).thenReturn(new SolrDocumentList());
+
+    try {
+      pipelinedClient().addNew(metacards, false);
+      fail("Expected the add to fail");
+    } catch (SolrServerException e) {
+      List<String> sentIds =
+          metacards.subList(0, 20).stream().map(Metacard::getId).collect(Collectors.toList());
+      verify(client).deleteById(sentIds);
+    }
+  }
+
+  @Test
+  public void testAddOfExistingIdsIsNotPipelined() throws Exception {
+    SolrDocumentList existing = new SolrDocumentList();
+    existing.add(new SolrDocument());
+    when(client.getById(anyCollection(), any(SolrParams.class))).thenReturn(existing);
+    when(client.add(anyCollection())).thenThrow(new SolrServerException("unavailable"));
+
+    try {
+      pipelinedClient().addNew(createMetacards(25), false);
+      fail("Expected the add to fail");
+    } catch (SolrServerException e) {
+      verify(client, times(1)).add(anyCollection());
+      verify(client, never()).deleteById(anyListOf(String.class));
+    }
+  }
+
+  @Test
+  public void testAddSendsNothingWhenAMetacardCannotBeConverted() throws Exception {
+    List<Metacard> metacards = createMetacards(25);
+    doThrow(new MetacardCreationException("invalid"))
+        .when(dynamicSchemaResolver)
+        .addFields(eq(metacards.get(15)), any(SolrInputDocument.class));
+
+    try {
+      pipelinedClient().add(metacards, false);
+      fail("Expected the add to fail");
+    } catch (MetacardCreationException e) {
+      verify(client, never()).add(anyCollection());
+      verify(client, never()).getById(anyCollection(), any(SolrParams.class));
+    }
+  }
+
+  /** Creates a client that sends more than 10 metacards in sub-batches of 10 */
+  private SolrMetacardClientImpl pipelinedClient() {
+    ingestPipeline = new SolrIngestPipeline("test", 4, 10, 2);
+    return new SolrMetacardClientImpl(
+        client,
+        catalogFilterAdapter,
+        solrFilterDelegateFactory,
+        dynamicSchemaResolver,
+        ingestPipeline);
+  }
+
+  private List<Metacard> createMetacards(int count) {
+    List<Metacard> metacards = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId("id" + i);
+      metacards.add(metacard);
+    }
+    return metacards;
+  }
+
+  /** Uses a real query instead of a mock, so the fields set on it can be checked */
+  private void useSolrQuery() throws IOException, SolrServerException {
+    solrQuery = new SolrQuery();
+    when(client.query(solrQuery, SolrRequest.METHOD.POST)).thenReturn(queryResponse);
+  }
+
   private void mockDynamicSchemsolverCalls(
       Set<AttributeDescriptor> descriptors, Map<String, String> attributes)
       throws MetacardCreationException {
@@ -13,11 +13,6 @@
  */
 package ddf.catalog.metrics.source;
 
-import com.codahale.metrics.Histogram;
-import com.codahale.metrics.JmxReporter;
-import com.codahale.metrics.Meter;
-import com.codahale.metrics.Metric;
-import com.codahale.metrics.MetricRegistry;
 import ddf.catalog.data.Result;
 import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.operation.QueryRequest;
@@ -29,17 +24,17 @@
 import ddf.catalog.source.CatalogProvider;
 import ddf.catalog.source.FederatedSource;
 import ddf.catalog.source.Source;
-import ddf.metrics.collector.rrd4j.RrdJmxCollector;
+import ddf.metrics.collector.Counter;
+import ddf.metrics.collector.Histogram;
+import ddf.metrics.collector.MetricsRegistry;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang.StringUtils;
-import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,61 +43,46 @@
  * {@link Source}s. These metrics currently include the count of queries, results per query, and
  * exceptions per {@link Source}.
  *
- * <p>The metrics and their associated {@link ddf.metrics.collector.JmxCollector}s are created when
- * the {@link Source} is created and deleted when the {@link Source} is deleted. (The associated RRD
- * file remains available indefinitely and accessible from the Metrics tab in the Web Admin console
- * unless an administrator manually deletes it).
+ * <p>The metrics are created in the {@link MetricsRegistry} when the {@link Source} is created and
+ * removed when the {@link Source} is deleted. (The metric's stored data remains available
+ * indefinitely and accessible from the Metrics tab in the Web Admin console unless an administrator
+ * manually deletes it).
  *
  * <p>If a {@link Source} is renamed, i.e., its ID changed, then the {@link Source}'s existing
- * metrics' MBeans and {@link ddf.metrics.collector.JmxCollector}s are deleted and new metrics
- * created using the new {@link Source} 's ID. However, the RRD file for the {@link Source}'s
- * previous source ID remains available and accessible from the Metrics tab in the Web Admin console
- * unless an administrator manually deletes it.
+ * metrics are removed and new metrics created using the new {@link Source} 's ID. However, the data
+ * stored for the {@link Source}'s previous source ID remains available and accessible from the
+ * Metrics tab in the Web Admin console unless an administrator manually deletes it.
  *
  * @author rodgersh
  */
 public class SourceMetricsImpl implements PreFederatedQueryPlugin, PostFederatedQueryPlugin {
 
-  /** Package name for the JMX MBean where metrics for {@link Source}s are stored. */
-  public static final String MBEAN_PACKAGE_NAME = "ddf.metrics.catalog.source";
-
   /**
-   * Name of the JMX MBean scope for source-level metrics tracking exceptions while querying a
-   * specific {@link Source}
+   * Name of the scope for source-level metrics tracking exceptions while querying a specific {@link
+   * Source}
    */
   public static final String EXCEPTIONS_SCOPE = "Exceptions";
 
   /**
-   * Name of the JMX MBean scope for source-level metrics tracking query count while querying a
-   * specific {@link Source}
+   * Name of the scope for source-level metrics tracking query count while querying a specific
+   * {@link Source}
    */
   public static final String QUERIES_SCOPE = "Queries";
 
   /**
-   * Name of the JMX MBean scope for source-level metrics tracking total results returned while
-   * querying a specific {@link Source}
+   * Name of the scope for source-level metrics tracking total results returned while querying a
+   * specific {@link Source}
    */
   public static final String QUERIES_TOTAL_RESULTS_SCOPE = "Queries.TotalResults";
 
-  public static final String DERIVE_DATA_SOURCE_TYPE = "DERIVE";
-
-  public static final String GAUGE_DATA_SOURCE_TYPE = "GAUGE";
-
-  public static final String COUNT_MBEAN_ATTRIBUTE_NAME = "Count";
-
-  public static final String MEAN_MBEAN_ATTRIBUTE_NAME = "Mean";
-
   private static final Logger LOGGER = LoggerFactory.getLogger(SourceMetricsImpl.class);
 
   private static final String ALPHA_NUMERIC_REGEX = "[^a-zA-Z0-9]";
 
-  private final MetricRegistry metricsRegistry = new MetricRegistry();
-
-  private final JmxReporter reporter =
-      JmxReporter.forRegistry(metricsRegistry).inDomain(MBEAN_PACKAGE_NAME).build();
+  private final MetricsRegistry metricsRegistry;
 
   // Map of sourceId to Source's metric data
-  protected Map<String, SourceMetric> metrics = new HashMap<String, SourceMetric>();
+  protected Map<String, SourceMetric> metrics = new ConcurrentHashMap<>();
 
   // Injected list of CatalogProviders and FederatedSources
   // that is kept updated by container, e.g., with latest sourceIds
@@ -112,9 +92,11 @@ public class SourceMetricsImpl implements PreFederatedQueryPlugin, PostFederated
 
   // Map of Source to sourceId - used to detect if sourceId has been changed since last metric
   // update
-  private Map<Source, String> sourceToSourceIdMap = new HashMap<Source, String>();
+  private Map<Source, String> sourceToSourceIdMap = new ConcurrentHashMap<>();
 
-  private ExecutorService executorPool;
+  public SourceMetricsImpl(MetricsRegistry metricsRegistry) {
+    this.metricsRegistry = metricsRegistry;
+  }
 
   public List<CatalogProvider> getCatalogProviders() {
     return catalogProviders;
@@ -132,16 +114,11 @@ public void setFederatedSources(List<FederatedSource> federatedSources) {
     this.federatedSources = federatedSources;
   }
 
-  public void init() {
-    LOGGER.trace("INSIDE: init");
-
-    reporter.start();
-  }
-
   public void destroy() {
     LOGGER.trace("INSIDE: destroy");
 
-    reporter.stop();
+    metrics.values().forEach(sourceMetric -> metricsRegistry.remove(sourceMetric.getMetricName()));
+    metrics.clear();
   }
 
   // PreFederatedQuery
@@ -230,13 +207,11 @@ public void updateMetric(String sourceId, String name, int incrementAmount) {
     if (sourceMetric != null) {
       LOGGER.debug("CASE 1: Metric already exists for {}", mapKey);
       if (sourceMetric.isHistogram()) {
-        Histogram metric = (Histogram) sourceMetric.getMetric();
         LOGGER.debug("Updating histogram metric {} by amount of {}", name, incrementAmount);
-        metric.update(incrementAmount);
+        sourceMetric.getHistogram().update(incrementAmount);
       } else {
-        Meter metric = (Meter) sourceMetric.getMetric();
         LOGGER.debug("Updating metric {} by amount of {}", name, incrementAmount);
-        metric.mark(incrementAmount);
+        sourceMetric.getCounter().increment(incrementAmount);
       }
       return;
     }
@@ -258,8 +233,8 @@ private boolean createMetric(List<? extends Source> sources, String sourceId) {
 
           // Create metrics for Source with new sourceId
           createMetric(sourceId, QUERIES_TOTAL_RESULTS_SCOPE, MetricType.HISTOGRAM);
-          createMetric(sourceId, QUERIES_SCOPE, MetricType.METER);
-          createMetric(sourceId, EXCEPTIONS_SCOPE, MetricType.METER);
+          createMetric(sourceId, QUERIES_SCOPE, MetricType.COUNTER);
+          createMetric(sourceId, EXCEPTIONS_SCOPE, MetricType.COUNTER);
 
           // Add Source to map with its new sourceId
           sourceToSourceIdMap.put(source, sourceId);
@@ -272,8 +247,8 @@ private boolean createMetric(List<? extends Source> sources, String sourceId) {
           // Source exists.)
           LOGGER.debug("CASE 3: New source {} detected - creating metrics", sourceId);
           createMetric(sourceId, QUERIES_TOTAL_RESULTS_SCOPE, MetricType.HISTOGRAM);
-          createMetric(sourceId, QUERIES_SCOPE, MetricType.METER);
-          createMetric(sourceId, EXCEPTIONS_SCOPE, MetricType.METER);
+          createMetric(sourceId, QUERIES_SCOPE, MetricType.COUNTER);
+          createMetric(sourceId, EXCEPTIONS_SCOPE, MetricType.COUNTER);
 
           sourceToSourceIdMap.put(source, sourceId);
         }
@@ -288,7 +263,6 @@ private boolean createMetric(List<? extends Source> sources, String sourceId) {
 
   /**
    * Creates metrics for new CatalogProvider or FederatedSource when they are initially created.
-   * Metrics creation includes the JMX MBeans and associated ddf.metrics.collector.JmxCollector.
    *
    * @param source
    * @param props
@@ -296,30 +270,13 @@ private boolean createMetric(List<? extends Source> sources, String sourceId) {
   public void addingSource(final Source source, Map props) {
     LOGGER.trace("ENTERING: addingSource");
 
-    if (executorPool == null) {
-      executorPool =
-          Executors.newCachedThreadPool(
-              StandardThreadFactoryBuilder.newThreadFactory("sourceMetricThread"));
-    }
-
-    // Creating JmxCollectors for all of the source metrics can be time consuming,
-    // so do this in a separate thread to prevent blacklisting by EventAdmin
-    final Runnable metricsCreator =
-        new Runnable() {
-          public void run() {
-            createSourceMetrics(source);
-          }
-        };
-
-    LOGGER.debug("Start metricsCreator thread for Source {}", source.getId());
-    executorPool.execute(metricsCreator);
+    createSourceMetrics(source);
 
     LOGGER.trace("EXITING: addingSource");
   }
 
   /**
-   * Deletes metrics for existing CatalogProvider or FederatedSource when they are deleted. Metrics
-   * deletion includes the JMX MBeans and associated ddf.metrics.collector.JmxCollector.
+   * Deletes metrics for existing CatalogProvider or FederatedSource when they are deleted.
    *
    * @param source
    * @param props
@@ -359,32 +316,26 @@ void createSourceMetrics(final Source source) {
     LOGGER.debug("sourceId = {}", sourceId);
 
     createMetric(sourceId, QUERIES_TOTAL_RESULTS_SCOPE, MetricType.HISTOGRAM);
-    createMetric(sourceId, QUERIES_SCOPE, MetricType.METER);
-    createMetric(sourceId, EXCEPTIONS_SCOPE, MetricType.METER);
+    createMetric(sourceId, QUERIES_SCOPE, MetricType.COUNTER);
+    createMetric(sourceId, EXCEPTIONS_SCOPE, MetricType.COUNTER);
 
     // Add new source to internal map used when updating metrics by sourceId
     sourceToSourceIdMap.put(source, sourceId);
   }
 
-  private void createMetric(String sourceId, String mbeanName, MetricType type) {
+  private void createMetric(String sourceId, String scope, MetricType type) {
 
-    // Create source-specific metrics for this source
-    // (Must be done prior to creating metrics collector so that
-    // JMX MBean exists for collector to detect).
-    String key = sourceId + "." + mbeanName;
+    String key = sourceId + "." + scope;
 
-    // Do not create metric and collector if they already exist for this source.
+    // Do not create metric if it already exists for this source.
     // (This can happen for ConnectedSources because they have the same sourceId
     // as the local catalog provider).
     if (!metrics.containsKey(key)) {
+      String metricName = getMetricName(sourceId, scope);
       if (type == MetricType.HISTOGRAM) {
-        Histogram histogram = metricsRegistry.histogram(MetricRegistry.name(sourceId, mbeanName));
-        RrdJmxCollector collector = createGaugeMetricsCollector(sourceId, mbeanName);
-        metrics.put(key, new SourceMetric(histogram, collector, true));
-      } else if (type == MetricType.METER) {
-        Meter meter = metricsRegistry.meter(MetricRegistry.name(sourceId, mbeanName));
-        RrdJmxCollector collector = createCounterMetricsCollector(sourceId, mbeanName);
-        metrics.put(key, new SourceMetric(meter, collector));
+        metrics.put(key, new SourceMetric(metricName, metricsRegistry.histogram(metricName)));
+      } else if (type == MetricType.COUNTER) {
+        metrics.put(key, new SourceMetric(metricName, metricsRegistry.counter(metricName)));
       } else {
         LOGGER.debug("Metric {} not created because unknown metric type {} specified.", key, type);
       }
@@ -393,127 +344,53 @@ private void createMetric(String sourceId, String mbeanName, MetricType type) {
     }
   }
 
-  /**
-   * Creates the Counter JMX Collector for an associated metric's JMX MBean.
-   *
-   * @param sourceId
-   * @param collectorName
-   * @return the ddf.metrics.collector.JmxCollector created
-   */
-  private RrdJmxCollector createCounterMetricsCollector(String sourceId, String collectorName) {
-    return createMetricsCollector(
-        sourceId, collectorName, COUNT_MBEAN_ATTRIBUTE_NAME, DERIVE_DATA_SOURCE_TYPE);
-  }
+  protected String getMetricName(String sourceId, String scope) {
 
-  /**
-   * Creates the Gauge JMX Collector for an associated metric's JMX MBean.
-   *
-   * @param sourceId
-   * @param collectorName
-   * @return the ddf.metrics.collector.JmxCollector created
-   */
-  private RrdJmxCollector createGaugeMetricsCollector(String sourceId, String collectorName) {
-    return createMetricsCollector(
-        sourceId, collectorName, MEAN_MBEAN_ATTRIBUTE_NAME, GAUGE_DATA_SOURCE_TYPE);
-  }
-
-  /**
-   * Creates the JMX Collector for an associated metric's JMX MBean.
-   *
-   * @param sourceId
-   * @param collectorName
-   * @param mbeanAttributeName usually "Count" or "Mean"
-   * @param dataSourceType only "DERIVE", "COUNTER" or "GAUGE" are supported
-   * @return the ddf.metrics.collector.JmxCollector created
-   */
-  private RrdJmxCollector createMetricsCollector(
-      String sourceId, String collectorName, String mbeanAttributeName, String dataSourceType) {
-
-    LOGGER.trace(
-        "ENTERING: createMetricsCollector - sourceId = {},   collectorName = {},   mbeanAttributeName = {},   dataSourceType = {}",
-        sourceId,
-        collectorName,
-        mbeanAttributeName,
-        dataSourceType);
-
-    String rrdPath = getRrdFilename(sourceId, collectorName);
-
-    RrdJmxCollector collector =
-        new RrdJmxCollector(
-            MBEAN_PACKAGE_NAME + ":name=" + sourceId + "." + collectorName,
-            mbeanAttributeName,
-            rrdPath,
-            dataSourceType);
-    collector.init();
-
-    LOGGER.trace("EXITING: createMetricsCollector - sourceId = {}", sourceId);
-
-    return collector;
-  }
-
-  protected String getRrdFilename(String sourceId, String collectorName) {
-
-    // Based on the sourceId and collectorName, generate the name of the RRD file.
-    // This RRD file will be of the form "source<sourceId><collectorName>.rrd" with
+    // Based on the sourceId and scope, generate the name of the metric.
+    // This name will be of the form "source<sourceId><scope>" with
     // the non-alphanumeric characters stripped out and the next character after any
     // non-alphanumeric capitalized.
     // Example:
-    // Given sourceId = dib30rhel-58 and collectorName = Queries.TotalResults
-    // The resulting RRD filename would be: sourceDib30rhel58QueriesTotalResults
+    // Given sourceId = dib30rhel-58 and scope = Queries.TotalResults
+    // The resulting metric name would be: sourceDib30rhel58QueriesTotalResults
     String[] sourceIdParts = sourceId.split(ALPHA_NUMERIC_REGEX);
     StringBuilder newSourceIdBuilder = new StringBuilder("");
     for (String part : sourceIdParts) {
       newSourceIdBuilder.append(StringUtils.capitalize(part));
     }
-    String rrdPath = "source" + newSourceIdBuilder.toString() + collectorName;
-    LOGGER.debug("BEFORE: rrdPath = {}", rrdPath);
+    String metricName = "source" + newSourceIdBuilder.toString() + scope;
+    LOGGER.debug("BEFORE: metricName = {}", metricName);
 
-    // Sterilize RRD path name by removing any non-alphanumeric characters - this would confuse
-    // the
-    // URL being generated for this RRD path in the Metrics tab of Admin console.
-    rrdPath = rrdPath.replaceAll(ALPHA_NUMERIC_REGEX, "");
-    LOGGER.debug("AFTER: rrdPath = {}", rrdPath);
+    // Sterilize metric name by removing any non-alphanumeric characters - this would confuse
+    // the URL being generated for this metric in the Metrics tab of Admin console.
+    metricName = metricName.replaceAll(ALPHA_NUMERIC_REGEX, "");
+    LOGGER.debug("AFTER: metricName = {}", metricName);
 
-    return rrdPath;
+    return metricName;
   }
 
   /**
-   * Delete the metric's MBean for the specified Source.
+   * Delete the metric for the specified Source.
    *
    * @param sourceId
-   * @param mbeanName
+   * @param scope
    */
-  private void deleteMetric(String sourceId, String mbeanName) {
+  private void deleteMetric(String sourceId, String scope) {
 
-    String key = sourceId + "." + mbeanName;
-    if (metrics.containsKey(key)) {
-      metricsRegistry.remove(MetricRegistry.name(sourceId, mbeanName));
-      deleteCollector(sourceId, mbeanName);
-      metrics.remove(key);
+    String key = sourceId + "." + scope;
+    SourceMetric sourceMetric = metrics.remove(key);
+    if (sourceMetric != null) {
+      LOGGER.debug("Deleting {} metric for source {}", scope, sourceId);
+      metricsRegistry.remove(sourceMetric.getMetricName());
     } else {
       LOGGER.debug("Did not remove metric {} because it was not in metrics map", key);
     }
   }
 
-  /**
-   * Delete the ddf.metrics.collector.JmxCollector for the specified Source and MBean.
-   *
-   * @param sourceId
-   * @param metricName
-   */
-  private void deleteCollector(String sourceId, String metricName) {
-    String mapKey = sourceId + "." + metricName;
-    SourceMetric sourceMetric = metrics.get(mapKey);
-    LOGGER.debug(
-        "Deleting {} ddf.metrics.collector.JmxCollector for source {}", metricName, sourceId);
-    sourceMetric.getCollector().destroy();
-    metrics.remove(mapKey);
-  }
-
-  // The types of Yammer Metrics supported
+  // The types of metrics supported
   private enum MetricType {
     HISTOGRAM,
-    METER
+    COUNTER
   }
 
   /**
@@ -523,35 +400,39 @@ private enum MetricType {
    */
   public static class SourceMetric {
 
-    // The Yammer Metric
-    private Metric metric;
+    // The name of the metric in the MetricsRegistry
+    private final String metricName;
+
+    private final Counter counter;
 
-    // The ddf.metrics.collector.JmxCollector polling this metric's MBean
-    private RrdJmxCollector collector;
+    private final Histogram histogram;
 
-    // Whether this metric is a Histogram or Meter
-    private boolean isHistogram = false;
+    public SourceMetric(String metricName, Counter counter) {
+      this.metricName = metricName;
+      this.counter = counter;
+      this.histogram = null;
+    }
 
-    public SourceMetric(Metric metric, RrdJmxCollector collector) {
-      this(metric, collector, false);
+    public SourceMetric(String metricName, Histogram histogram) {
+      this.metricName = metricName;
+      this.counter = null;
+      this.histogram = histogram;
     }
 
-    public SourceMetric(Metric metric, RrdJmxCollector collector, boolean isHistogram) {
-      this.metric = metric;
-      this.collector = collector;
-      this.isHistogram = isHistogram;
+    public String getMetricName() {
+      return metricName;
     }
 
-    public Metric getMetric() {
-      return metric;
+    public Counter getCounter() {
+      return counter;
     }
 
-    public RrdJmxCollector getCollector() {
-      return collector;
+    public Histogram getHistogram() {
+      return histogram;
     }
 
     public boolean isHistogram() {
-      return isHistogram;
+      return histogram != null;
     }
   }
 }
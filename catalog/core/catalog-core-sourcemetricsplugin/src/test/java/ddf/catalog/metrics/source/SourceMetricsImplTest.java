@@ -18,15 +18,18 @@
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.codahale.metrics.Histogram;
-import com.codahale.metrics.Meter;
 import ddf.catalog.metrics.source.SourceMetricsImpl.SourceMetric;
 import ddf.catalog.source.CatalogProvider;
 import ddf.catalog.source.FederatedSource;
 import ddf.catalog.source.SourceMetrics;
+import ddf.metrics.collector.Counter;
+import ddf.metrics.collector.Histogram;
+import ddf.metrics.collector.MetricsRegistry;
 import java.util.Collections;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -42,6 +45,8 @@ public class SourceMetricsImplTest {
 
   private FederatedSource fedSource;
 
+  private MetricsRegistry metricsRegistry;
+
   @Test
   public void testAddDeleteSource() throws Exception {
     String sourceId = "cp-1";
@@ -57,6 +62,24 @@ public void testAddDeleteSource() throws Exception {
     sourceMetrics.deletingSource(catalogProvider, null);
     sourceMetric = sourceMetrics.metrics.get(key);
     assertThat(sourceMetric, is(nullValue()));
+    verify(metricsRegistry).remove("sourceCp1Queries");
+    verify(metricsRegistry).remove("sourceCp1QueriesTotalResults");
+    verify(metricsRegistry).remove("sourceCp1Exceptions");
+  }
+
+  @Test
+  public void testSourceIdChangedRemovesOldMetrics() throws Exception {
+    sourceMetrics = configureSourceMetrics("cp-1");
+    addSource();
+
+    when(catalogProvider.getId()).thenReturn("cp-new");
+    sourceMetrics.updateMetric("cp-new", SourceMetrics.QUERIES_SCOPE, 1);
+
+    verify(metricsRegistry).remove("sourceCp1Queries");
+    assertThat(sourceMetrics.metrics.get("cp-1." + SourceMetrics.QUERIES_SCOPE), is(nullValue()));
+    assertThat(
+        sourceMetrics.metrics.get("cp-new." + SourceMetrics.QUERIES_SCOPE).getMetricName(),
+        is("sourceCpNewQueries"));
   }
 
   @Test
@@ -206,39 +229,39 @@ public void testDeleteSourceBlankSourceId() throws Exception {
   }
 
   @Test
-  public void testGetRrdFilename() throws Exception {
+  public void testGetMetricName() throws Exception {
     String sourceId = "cp1";
-    String collectorName = SourceMetrics.QUERIES_TOTAL_RESULTS_SCOPE;
+    String scope = SourceMetrics.QUERIES_TOTAL_RESULTS_SCOPE;
 
     sourceMetrics = configureSourceMetrics(sourceId);
 
-    String rrdFilename = sourceMetrics.getRrdFilename(sourceId, collectorName);
+    String metricName = sourceMetrics.getMetricName(sourceId, scope);
 
-    assertThat(rrdFilename, equalTo("sourceCp1QueriesTotalResults"));
+    assertThat(metricName, equalTo("sourceCp1QueriesTotalResults"));
   }
 
   @Test
-  public void testGetRrdFilenameDashesNumbers() throws Exception {
+  public void testGetMetricNameDashesNumbers() throws Exception {
     String sourceId = "fedSrc30rhel-58";
-    String collectorName = SourceMetrics.QUERIES_TOTAL_RESULTS_SCOPE;
+    String scope = SourceMetrics.QUERIES_TOTAL_RESULTS_SCOPE;
 
     sourceMetrics = configureSourceMetrics(sourceId);
 
-    String rrdFilename = sourceMetrics.getRrdFilename(sourceId, collectorName);
+    String metricName = sourceMetrics.getMetricName(sourceId, scope);
 
-    assertThat(rrdFilename, equalTo("sourceFedSrc30rhel58QueriesTotalResults"));
+    assertThat(metricName, equalTo("sourceFedSrc30rhel58QueriesTotalResults"));
   }
 
   @Test
-  public void testGetRrdFilenameNonAlphanumerics() throws Exception {
+  public void testGetMetricNameNonAlphanumerics() throws Exception {
     String sourceId = "fedSrc30rh%^&*()$e#@!l-58";
-    String collectorName = SourceMetrics.QUERIES_TOTAL_RESULTS_SCOPE;
+    String scope = SourceMetrics.QUERIES_TOTAL_RESULTS_SCOPE;
 
     sourceMetrics = configureSourceMetrics(sourceId);
 
-    String rrdFilename = sourceMetrics.getRrdFilename(sourceId, collectorName);
+    String metricName = sourceMetrics.getMetricName(sourceId, scope);
 
-    assertThat(rrdFilename, equalTo("sourceFedSrc30rhEL58QueriesTotalResults"));
+    assertThat(metricName, equalTo("sourceFedSrc30rhEL58QueriesTotalResults"));
   }
 
   /** ********************************************************************************* */
@@ -250,7 +273,11 @@ private SourceMetricsImpl configureSourceMetrics(String sourceId) throws Excepti
     fedSource = mock(FederatedSource.class);
     when(fedSource.getId()).thenReturn("fs-1");
 
-    sourceMetrics = new SourceMetricsImpl();
+    metricsRegistry = mock(MetricsRegistry.class);
+    when(metricsRegistry.counter(anyString())).thenAnswer(invocation -> new Counter());
+    when(metricsRegistry.histogram(anyString())).thenAnswer(invocation -> new Histogram());
+
+    sourceMetrics = new SourceMetricsImpl(metricsRegistry);
     sourceMetrics.setCatalogProviders(Collections.singletonList(catalogProvider));
     sourceMetrics.setFederatedSources(Collections.singletonList(fedSource));
 
@@ -260,11 +287,7 @@ private SourceMetricsImpl configureSourceMetrics(String sourceId) throws Excepti
   }
 
   private void addSource() throws Exception {
-    // Do not call addingSource() because it starts createSourceMetrics()
-    // in a separate thread hence predictable results are not assured
-    // sourceMetrics.addingSource(catalogProvider, null);
-
-    sourceMetrics.createSourceMetrics(catalogProvider);
+    sourceMetrics.addingSource(catalogProvider, null);
   }
 
   private void assertMetricCount(String sourceId, String metricName, int expectedCount) {
@@ -272,11 +295,9 @@ private void assertMetricCount(String sourceId, String metricName, int expectedC
     SourceMetric sourceMetric = sourceMetrics.metrics.get(key);
 
     if (sourceMetric.isHistogram()) {
-      Histogram histogram = (Histogram) sourceMetric.getMetric();
-      assertThat(histogram.getCount(), is((long) expectedCount));
+      assertThat(sourceMetric.getHistogram().getCount(), is((long) expectedCount));
     } else {
-      Meter meter = (Meter) sourceMetric.getMetric();
-      assertThat(meter.getCount(), is((long) expectedCount));
+      assertThat(sourceMetric.getCounter().getCount(), is((long) expectedCount));
     }
   }
 }
@@ -79,4 +79,15 @@ public interface ResourceCacheInterface {
    * @param reliableResource
    */
   void addPendingCacheEntry(ReliableResource reliableResource);
+
+  /** @return the directory the products are cached in */
+  String getProductCacheDirectory();
+
+  /**
+   * Changes the directory the products are cached in. Products cached in the previous directory are
+   * no longer available.
+   *
+   * @param productCacheDirectory the new directory, which may contain system properties
+   */
+  void setProductCacheDirectory(String productCacheDirectory);
 }
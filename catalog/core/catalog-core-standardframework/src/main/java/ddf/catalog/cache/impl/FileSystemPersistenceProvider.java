@@ -15,16 +15,20 @@
 
 import com.hazelcast.core.MapLoader;
 import com.hazelcast.core.MapStore;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardCodec;
+import ddf.catalog.resource.data.ReliableResource;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInput;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
@@ -35,13 +39,20 @@
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.activation.MimeType;
+import javax.activation.MimeTypeParseException;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Hazelcast persistence provider implementation of @MapLoader and @MapStore to serialize and
  * persist Java objects stored in Hazelcast cache to disk.
+ *
+ * <p>{@link ReliableResource}s are written with the {@link MetacardCodec}, any other object with
+ * Java serialization. Files are read based on their header, so entries persisted with Java
+ * serialization by earlier versions are still loaded.
  */
 public class FileSystemPersistenceProvider
     implements MapLoader<String, Object>, MapStore<String, Object> {
@@ -53,6 +64,9 @@
   private static final String EXT_REGEX = "\\.ser";
 
   private static final String EXT_PATH_MATCH = "glob:**.ser";
+
+  private static final int HEADER_PEEK_LENGTH = 4;
+
   private File persistencePath;
 
   FileSystemPersistenceProvider(String mapName, String persistencePath) {
@@ -64,11 +78,16 @@
   @Override
   public void store(String key, Object value) {
     LOGGER.trace("Entering: store - key: {}", key);
-    try (ObjectOutput output =
-        new ObjectOutputStream(
-            new BufferedOutputStream(new FileOutputStream(getMapStoreFile(key))))) {
+    try (OutputStream output =
+        new BufferedOutputStream(new FileOutputStream(getMapStoreFile(key)))) {
       LOGGER.debug("file name: {}/{}{}", persistencePath, key, EXT);
-      output.writeObject(value);
+      if (value instanceof ReliableResource) {
+        writeReliableResource((ReliableResource) value, output);
+      } else {
+        ObjectOutput objectOutput = new ObjectOutputStream(output);
+        objectOutput.writeObject(value);
+        objectOutput.flush();
+      }
     } catch (IOException e) {
       LOGGER.debug("IOException storing value in cache with key = " + key, e);
     }
@@ -153,9 +172,11 @@ private Object loadFromPersistence(String key) {
       return null;
     }
 
-    try (ObjectInput input =
-        new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
-      return input.readObject();
+    try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+      if (isCodecEncoded(input)) {
+        return readReliableResource(input);
+      }
+      return new ObjectInputStream(input).readObject();
     } catch (IOException e) {
       LOGGER.info("Unable to read object.", e);
     } catch (ClassNotFoundException e) {
@@ -166,6 +187,55 @@ private Object loadFromPersistence(String key) {
     return null;
   }
 
+  static void writeReliableResource(ReliableResource resource, OutputStream output)
+      throws IOException {
+    MetacardCodec.Writer writer = new MetacardCodec.Writer(output);
+    writer.writeString(resource.getKey());
+    writer.writeString(resource.getFilePath());
+    writer.writeString(resource.getMimeType() != null ? resource.getMimeType().toString() : null);
+    writer.writeString(resource.getName());
+    writer.writeVarLong(resource.getSize());
+    writer.writeVarLong(resource.getLastTouchedMillis());
+    writer.writeMetacard(resource.getMetacard());
+  }
+
+  static ReliableResource readReliableResource(InputStream input) throws IOException {
+    MetacardCodec.Reader reader = new MetacardCodec.Reader(input);
+    String key = reader.readString();
+    String filePath = reader.readString();
+    String mimeType = reader.readString();
+    String name = reader.readString();
+    long size = reader.readVarLong();
+    long lastTouchedMillis = reader.readVarLong();
+    Metacard metacard = reader.readMetacard();
+
+    ReliableResource resource =
+        new ReliableResource(key, filePath, parseMimeType(mimeType), name, metacard);
+    resource.setSize(size);
+    resource.setLastTouchedMillis(lastTouchedMillis);
+    return resource;
+  }
+
+  private static MimeType parseMimeType(String mimeType) {
+    if (mimeType == null) {
+      return null;
+    }
+    try {
+      return new MimeType(mimeType);
+    } catch (MimeTypeParseException e) {
+      LOGGER.debug("Unable to parse persisted mime type {}", mimeType, e);
+      return null;
+    }
+  }
+
+  private boolean isCodecEncoded(InputStream input) throws IOException {
+    byte[] header = new byte[HEADER_PEEK_LENGTH];
+    input.mark(header.length);
+    int read = IOUtils.read(input, header);
+    input.reset();
+    return read == header.length && MetacardCodec.isEncoded(header);
+  }
+
   private File getMapStoreFile(String key) {
     return persistencePath.toPath().resolve(key + EXT).toFile();
   }
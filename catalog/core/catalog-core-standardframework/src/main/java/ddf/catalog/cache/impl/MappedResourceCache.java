@@ -0,0 +1,605 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import static ddf.catalog.cache.impl.CachedResourceMetacardComparator.isSame;
+
+import ddf.catalog.cache.ResourceCacheInterface;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardCodec;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.resource.Resource;
+import ddf.catalog.resource.data.ReliableResource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.commons.io.FileUtils;
+import org.codice.ddf.configuration.PropertyResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Product cache for single node deployments that doesn't need an embedded Hazelcast instance.
+ *
+ * <p>The cached {@link ReliableResource}s, including their metacards, are kept in an append-only
+ * index file in the product cache directory that is memory-mapped, so they stay off the heap and
+ * are only decoded when a product is requested. The heap only holds the key, file, size and usage
+ * of each product, which is what eviction needs. The index is compacted when most of it is made of
+ * replaced or removed entries, and is read back when the cache is started, so the cached products
+ * survive restarts.
+ *
+ * <p>When the products in the cache directory grow over the maximum size, the least recently used
+ * products or the least frequently used ones, depending on the {@link EvictionPolicy}, are removed
+ * until the cache fits again.
+ */
+public class MappedResourceCache implements ResourceCacheInterface {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MappedResourceCache.class);
+
+  static final String INDEX_FILE_NAME = "product-cache.idx";
+
+  private static final int INITIAL_INDEX_CAPACITY = 1024 * 1024;
+
+  private static final int MIN_COMPACTION_BYTES = 1024 * 1024;
+
+  private static final int RECORD_HEADER_LENGTH = Integer.BYTES + 1;
+
+  private static final byte PUT = 1;
+
+  private static final byte REMOVE = 2;
+
+  private static final long BYTES_IN_MEGABYTES = FileUtils.ONE_MB;
+
+  private static final long DEFAULT_MAX_CACHE_DIR_SIZE_BYTES = 10737418240L; // 10 GB
+
+  /** The order in which products are evicted when the cache is full. */
+  public enum EvictionPolicy {
+    /** Evict the products that haven't been requested for the longest time first. */
+    LRU,
+    /** Evict the products that have been requested the least first. */
+    LFU
+  }
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private final Set<String> pendingCache = ConcurrentHashMap.newKeySet();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Directory for products cached to file system */
+  private String productCacheDirectory;
+
+  private FileChannel indexChannel;
+
+  private MappedByteBuffer index;
+
+  /** Position after the last record of the index */
+  private int indexEnd;
+
+  /** Length of the index records of the entries still in the cache */
+  private long liveIndexBytes;
+
+  private long cacheDirSize;
+
+  private volatile long maxDirSizeBytes = DEFAULT_MAX_CACHE_DIR_SIZE_BYTES;
+
+  private volatile EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+  public MappedResourceCache(String productCacheDirectory) {
+    this.productCacheDirectory = productCacheDirectory;
+    initCache();
+  }
+
+  /** Opens the index in the product cache directory, closing the previous one. */
+  public void initCache() {
+    lock.writeLock().lock();
+    try {
+      closeIndex();
+      entries.clear();
+      cacheDirSize = 0;
+      liveIndexBytes = 0;
+
+      File directory = new File(productCacheDirectory);
+      FileUtils.forceMkdir(directory);
+      Path indexPath = directory.toPath().resolve(INDEX_FILE_NAME);
+      indexChannel =
+          FileChannel.open(
+              indexPath,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      index = map(Math.max(indexChannel.size(), INITIAL_INDEX_CAPACITY));
+      loadIndex();
+      LOGGER.debug(
+          "Loaded {} cached products ({} bytes) from {}", entries.size(), cacheDirSize, indexPath);
+      compactIfNeeded();
+    } catch (IOException e) {
+      LOGGER.info(
+          "Unable to open the product cache index in {}. Products will not be cached.",
+          productCacheDirectory,
+          e);
+      closeIndex();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void teardownCache() {
+    lock.writeLock().lock();
+    try {
+      closeIndex();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public long getCacheDirMaxSizeMegabytes() {
+    LOGGER.debug("Getting max size for cache directory.");
+    return maxDirSizeBytes / BYTES_IN_MEGABYTES;
+  }
+
+  public void setCacheDirMaxSizeMegabytes(long cacheDirMaxSizeMegabytes) {
+    LOGGER.debug("Setting max size for cache directory: {}", cacheDirMaxSizeMegabytes);
+    maxDirSizeBytes = cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES;
+  }
+
+  public EvictionPolicy getEvictionPolicy() {
+    return evictionPolicy;
+  }
+
+  public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+    this.evictionPolicy = evictionPolicy;
+  }
+
+  @Override
+  public String getProductCacheDirectory() {
+    return productCacheDirectory;
+  }
+
+  @Override
+  public void setProductCacheDirectory(String productCacheDirectory) {
+    this.productCacheDirectory = new PropertyResolver(productCacheDirectory).getResolvedString();
+    initCache();
+  }
+
+  @Override
+  public boolean isPending(String key) {
+    return pendingCache.contains(key);
+  }
+
+  /**
+   * Called by ReliableResourceDownloadManager when resource has completed being cached to disk and
+   * is ready to be added to the cache index.
+   *
+   * @param reliableResource the resource to add to the cache index
+   */
+  @Override
+  public void put(ReliableResource reliableResource) {
+    LOGGER.trace("ENTERING: put(ReliableResource)");
+    reliableResource.setLastTouchedMillis(System.currentTimeMillis());
+    String key = reliableResource.getKey();
+
+    lock.writeLock().lock();
+    try {
+      if (index != null) {
+        byte[] record = encode(reliableResource);
+        int offset = append(PUT, record);
+        Entry entry = new Entry(reliableResource, offset, record.length);
+        remove(entries.put(key, entry));
+        liveIndexBytes += entry.getRecordLength();
+        cacheDirSize += entry.size;
+        evictIfNeeded(entry);
+        compactIfNeeded();
+      }
+    } catch (IOException e) {
+      LOGGER.info("Unable to add product {} to the cache index", key, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    removePendingCacheEntry(key);
+    LOGGER.trace("EXITING: put(ReliableResource)");
+  }
+
+  @Override
+  public void removePendingCacheEntry(String cacheKey) {
+    if (!pendingCache.remove(cacheKey)) {
+      LOGGER.debug("Did not find pending cache entry with key = {}", cacheKey);
+    } else {
+      LOGGER.debug("Removed pending cache entry with key = {}", cacheKey);
+    }
+  }
+
+  @Override
+  public void addPendingCacheEntry(ReliableResource reliableResource) {
+    String cacheKey = reliableResource.getKey();
+    if (isPending(cacheKey)) {
+      LOGGER.debug("Cache entry with key = {} is already pending", cacheKey);
+    } else if (containsValid(cacheKey, reliableResource.getMetacard())) {
+      LOGGER.debug("Cache entry with key = {} is already in cache", cacheKey);
+    } else {
+      pendingCache.add(cacheKey);
+    }
+  }
+
+  /**
+   * @param key
+   * @return Resource, {@code null} if not found.
+   */
+  @Override
+  public Resource getValid(String key, Metacard latestMetacard) {
+    LOGGER.trace("ENTERING: get()");
+    if (key == null) {
+      throw new IllegalArgumentException("Must specify non-null key");
+    }
+    if (latestMetacard == null) {
+      throw new IllegalArgumentException("Must specify non-null metacard");
+    }
+    LOGGER.debug("key {}", key);
+
+    ReliableResource cachedResource = read(key);
+    if (cachedResource == null) {
+      LOGGER.debug("No product found in cache for key = {}", key);
+      return null;
+    }
+
+    if (!validateCacheEntry(cachedResource, latestMetacard)) {
+      LOGGER.debug(
+          "Entry found in cache was out-of-date or otherwise invalid.  Will need to be re-cached.  Entry key: {}",
+          key);
+      return null;
+    }
+
+    // Check that the entry actually maps to a file (product) in the product cache directory.
+    // This check handles the case if the product cache directory has had files deleted from it.
+    if (!cachedResource.hasProduct()) {
+      remove(key, false);
+      LOGGER.debug(
+          "Entry found in the cache, but no product found in cache directory for key = {}", key);
+      return null;
+    }
+
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      entry.touch();
+    }
+    LOGGER.trace("EXITING: get() for key {}", key);
+    return cachedResource;
+  }
+
+  @Override
+  public boolean containsValid(String key, Metacard latestMetacard) {
+    if (key == null) {
+      return false;
+    }
+    ReliableResource cachedResource = read(key);
+    return (cachedResource != null) && (validateCacheEntry(cachedResource, latestMetacard));
+  }
+
+  /** @return the total size of the products in the cache, in bytes */
+  public long getCacheDirSize() {
+    lock.readLock().lock();
+    try {
+      return cacheDirSize;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Compares the {@link Metacard} in a {@link ReliableResource} pulled from cache with a Metacard
+   * obtained directly from the Catalog to ensure they are the same, removing the product from the
+   * cache if it isn't.
+   *
+   * @see ResourceCacheImpl#validateCacheEntry(ReliableResource, Metacard)
+   */
+  protected boolean validateCacheEntry(ReliableResource cachedResource, Metacard latestMetacard) {
+    if (cachedResource == null || latestMetacard == null) {
+      throw new IllegalArgumentException(
+          "Neither the cachedResource nor the metacard retrieved from the catalog can be null.");
+    }
+
+    if (isSame(cachedResource.getMetacard(), new MetacardImpl(latestMetacard))) {
+      LOGGER.debug("Metacard has not changed");
+      return true;
+    }
+
+    LOGGER.debug("Metacard has changed");
+    remove(cachedResource.getKey(), true);
+    return false;
+  }
+
+  private ReliableResource read(String key) {
+    lock.readLock().lock();
+    try {
+      Entry entry = entries.get(key);
+      if (entry == null || index == null) {
+        return null;
+      }
+
+      byte[] record = new byte[entry.length];
+      ByteBuffer view = index.duplicate();
+      view.position(entry.offset);
+      view.get(record);
+      return FileSystemPersistenceProvider.readReliableResource(new ByteArrayInputStream(record));
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read product {} from the cache index", key, e);
+      return null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void remove(String key, boolean deleteProduct) {
+    lock.writeLock().lock();
+    try {
+      Entry entry = entries.remove(key);
+      if (entry == null) {
+        return;
+      }
+      remove(entry);
+      if (index != null) {
+        append(REMOVE, key.getBytes(StandardCharsets.UTF_8));
+      }
+      if (deleteProduct && !FileUtils.deleteQuietly(new File(entry.filePath))) {
+        LOGGER.debug("File was not removed from cache directory.  File Path: {}", entry.filePath);
+      }
+    } catch (IOException e) {
+      LOGGER.debug("Unable to remove product {} from the cache index", key, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Accounts for an entry that was replaced or removed. */
+  private void remove(Entry entry) {
+    if (entry != null) {
+      liveIndexBytes -= entry.getRecordLength();
+      cacheDirSize -= entry.size;
+    }
+  }
+
+  /** Evicts products until the cache fits, keeping the product that was just added. */
+  private void evictIfNeeded(Entry added) throws IOException {
+    if (maxDirSizeBytes <= 0 || cacheDirSize <= maxDirSizeBytes) {
+      return;
+    }
+
+    Comparator<Entry> order = Comparator.comparingLong(Entry::getLastTouchedMillis);
+    if (evictionPolicy == EvictionPolicy.LFU) {
+      order = Comparator.comparingLong(Entry::getHits).thenComparing(order);
+    }
+    List<Entry> candidates = new ArrayList<>(entries.values());
+    candidates.remove(added);
+    candidates.sort(order);
+
+    for (Entry entry : candidates) {
+      if (cacheDirSize <= maxDirSizeBytes) {
+        break;
+      }
+      LOGGER.debug("entry being evicted: {}", entry.key);
+      entries.remove(entry.key);
+      remove(entry);
+      append(REMOVE, entry.key.getBytes(StandardCharsets.UTF_8));
+      if (!FileUtils.deleteQuietly(new File(entry.filePath))) {
+        LOGGER.info("Could not delete file {}", entry.filePath);
+      }
+    }
+  }
+
+  /** Appends a record to the index, growing it when needed. */
+  private int append(byte type, byte[] payload) throws IOException {
+    int recordLength = RECORD_HEADER_LENGTH + payload.length;
+    // Keep room for the zero length that marks the end of the index
+    long required = (long) indexEnd + recordLength + Integer.BYTES;
+    if (required > Integer.MAX_VALUE) {
+      throw new IOException("The product cache index is full");
+    }
+    if (required > index.capacity()) {
+      index = map(Math.max(required, Math.min((long) index.capacity() * 2, Integer.MAX_VALUE)));
+    }
+
+    int offset = indexEnd + RECORD_HEADER_LENGTH;
+    index.position(indexEnd);
+    index.putInt(recordLength);
+    index.put(type);
+    index.put(payload);
+    index.putInt(0);
+    indexEnd += recordLength;
+    return offset;
+  }
+
+  private void loadIndex() throws IOException {
+    int position = 0;
+    while (position + RECORD_HEADER_LENGTH <= index.capacity()) {
+      int recordLength = index.getInt(position);
+      if (recordLength < RECORD_HEADER_LENGTH || position + recordLength > index.capacity()) {
+        break;
+      }
+
+      byte type = index.get(position + Integer.BYTES);
+      int offset = position + RECORD_HEADER_LENGTH;
+      byte[] payload = new byte[recordLength - RECORD_HEADER_LENGTH];
+      ByteBuffer view = index.duplicate();
+      view.position(offset);
+      view.get(payload);
+
+      if (type == PUT) {
+        Entry entry = readEntry(payload, offset);
+        remove(entries.put(entry.key, entry));
+        liveIndexBytes += entry.getRecordLength();
+        cacheDirSize += entry.size;
+      } else if (type == REMOVE) {
+        remove(entries.remove(new String(payload, StandardCharsets.UTF_8)));
+      } else {
+        LOGGER.debug(
+            "Unknown record in the product cache index at {}, ignoring the rest", position);
+        break;
+      }
+      position += recordLength;
+    }
+    indexEnd = position;
+  }
+
+  /** Rewrites the index without the replaced and removed entries once they make up most of it. */
+  private void compactIfNeeded() throws IOException {
+    long garbage = indexEnd - liveIndexBytes;
+    if (garbage < MIN_COMPACTION_BYTES || garbage < liveIndexBytes) {
+      return;
+    }
+
+    LOGGER.debug("Compacting the product cache index, {} of {} bytes unused", garbage, indexEnd);
+    List<Entry> live = new ArrayList<>(entries.values());
+    List<byte[]> records = new ArrayList<>(live.size());
+    for (Entry entry : live) {
+      byte[] record = new byte[entry.length];
+      ByteBuffer view = index.duplicate();
+      view.position(entry.offset);
+      view.get(record);
+      records.add(record);
+    }
+
+    indexEnd = 0;
+    for (int i = 0; i < live.size(); i++) {
+      Entry entry = live.get(i);
+      entries.put(entry.key, entry.moveTo(append(PUT, records.get(i))));
+    }
+    // the end of index marker written after the last record hides the old records
+    index.force();
+  }
+
+  private MappedByteBuffer map(long capacity) throws IOException {
+    return indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+  }
+
+  private void closeIndex() {
+    if (index != null) {
+      index.force();
+      index = null;
+    }
+    if (indexChannel != null) {
+      try {
+        indexChannel.close();
+      } catch (IOException e) {
+        LOGGER.debug("Unable to close the product cache index", e);
+      }
+      indexChannel = null;
+    }
+    indexEnd = 0;
+  }
+
+  private static byte[] encode(ReliableResource reliableResource) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    FileSystemPersistenceProvider.writeReliableResource(reliableResource, output);
+    return output.toByteArray();
+  }
+
+  /** Reads the fields eviction needs, without decoding the metacard. */
+  private static Entry readEntry(byte[] record, int offset) throws IOException {
+    MetacardCodec.Reader reader = new MetacardCodec.Reader(new ByteArrayInputStream(record));
+    String key = reader.readString();
+    String filePath = reader.readString();
+    reader.readString(); // mime type
+    reader.readString(); // name
+    long size = reader.readVarLong();
+    long lastTouchedMillis = reader.readVarLong();
+    return new Entry(key, filePath, size, lastTouchedMillis, offset, record.length);
+  }
+
+  /** What the heap keeps of a cached product, the rest is in the index. */
+  private static class Entry {
+
+    private final String key;
+
+    private final String filePath;
+
+    private final long size;
+
+    private final int offset;
+
+    private final int length;
+
+    private final AtomicLong hits;
+
+    private volatile long lastTouchedMillis;
+
+    private Entry(ReliableResource resource, int offset, int length) {
+      this(
+          resource.getKey(),
+          resource.getFilePath(),
+          resource.getSize(),
+          resource.getLastTouchedMillis(),
+          offset,
+          length);
+    }
+
+    private Entry(
+        String key, String filePath, long size, long lastTouchedMillis, int offset, int length) {
+      this(key, filePath, size, lastTouchedMillis, offset, length, new AtomicLong());
+    }
+
+    private Entry(
+        String key,
+        String filePath,
+        long size,
+        long lastTouchedMillis,
+        int offset,
+        int length,
+        AtomicLong hits) {
+      this.key = key;
+      this.filePath = filePath;
+      this.size = Math.max(size, 0);
+      this.lastTouchedMillis = lastTouchedMillis;
+      this.offset = offset;
+      this.length = length;
+      this.hits = hits;
+    }
+
+    private Entry moveTo(int newOffset) {
+      return new Entry(key, filePath, size, lastTouchedMillis, newOffset, length, hits);
+    }
+
+    private void touch() {
+      lastTouchedMillis = System.currentTimeMillis();
+      hits.incrementAndGet();
+    }
+
+    private long getLastTouchedMillis() {
+      return lastTouchedMillis;
+    }
+
+    private long getHits() {
+      return hits.get();
+    }
+
+    private int getRecordLength() {
+      return RECORD_HEADER_LENGTH + length;
+    }
+  }
+}
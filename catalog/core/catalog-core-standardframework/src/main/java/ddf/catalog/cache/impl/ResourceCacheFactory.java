@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import ddf.catalog.cache.ResourceCacheInterface;
+import ddf.catalog.cache.impl.MappedResourceCache.EvictionPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the product cache selected by the {@code
+ * org.codice.ddf.catalog.resource.cache.implementation} system property.
+ */
+public class ResourceCacheFactory {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResourceCacheFactory.class);
+
+  /** Products are indexed in an embedded Hazelcast map, see {@link ResourceCacheImpl} */
+  public static final String HAZELCAST = "hazelcast";
+
+  /** Products are indexed in a memory-mapped file, see {@link MappedResourceCache} */
+  public static final String MAPPED = "mapped";
+
+  private ResourceCacheFactory() {}
+
+  /**
+   * @param implementation {@link #HAZELCAST} or {@link #MAPPED}
+   * @param evictionPolicy the name of the {@link EvictionPolicy} of the {@link #MAPPED} cache
+   * @param productCacheDirectory directory for products cached to file system
+   */
+  public static ResourceCacheInterface createResourceCache(
+      String implementation, String evictionPolicy, String productCacheDirectory) {
+    if (MAPPED.equalsIgnoreCase(implementation)) {
+      MappedResourceCache cache = new MappedResourceCache(productCacheDirectory);
+      cache.setEvictionPolicy(getEvictionPolicy(evictionPolicy));
+      return cache;
+    }
+
+    if (!HAZELCAST.equalsIgnoreCase(implementation)) {
+      LOGGER.warn(
+          "Unknown product cache implementation [{}], using [{}].", implementation, HAZELCAST);
+    }
+    return new ResourceCacheImpl(productCacheDirectory);
+  }
+
+  private static EvictionPolicy getEvictionPolicy(String evictionPolicy) {
+    for (EvictionPolicy policy : EvictionPolicy.values()) {
+      if (policy.name().equalsIgnoreCase(evictionPolicy)) {
+        return policy;
+      }
+    }
+    LOGGER.warn(
+        "Unknown product cache eviction policy [{}], using [{}].",
+        evictionPolicy,
+        EvictionPolicy.LRU);
+    return EvictionPolicy.LRU;
+  }
+}
@@ -108,10 +108,12 @@ public void setCacheDirMaxSizeMegabytes(long cacheDirMaxSizeMegabytes) {
     cacheListener.setMaxDirSizeBytes(cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES);
   }
 
+  @Override
   public String getProductCacheDirectory() {
     return productCacheDirectory;
   }
 
+  @Override
   public void setProductCacheDirectory(String productCacheDirectory) {
     this.productCacheDirectory = new PropertyResolver(productCacheDirectory).getResolvedString();
     initCache();
@@ -20,6 +20,7 @@
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.federation.FederationStrategy;
+import ddf.catalog.federation.base.SourceLatencyTracker;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.DeleteResponse;
 import ddf.catalog.operation.Query;
@@ -53,6 +54,7 @@
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.Validate;
 import org.opengis.filter.sort.SortOrder;
@@ -141,6 +143,9 @@ public class CachingFederationStrategy implements FederationStrategy, PostIngest
 
   private CacheQueryFactory cacheQueryFactory;
 
+  private final SourceLatencyTracker sourceLatencyTracker =
+      new SourceLatencyTracker(getClass().getSimpleName());
+
   /**
    * Instantiates an {@code AbstractFederationStrategy} with the provided {@link ExecutorService}.
    *
@@ -442,9 +447,32 @@ public void setCacheRemoteIngests(boolean cacheRemoteIngests) {
     this.cacheRemoteIngests = cacheRemoteIngests;
   }
 
+  /** @see SourceLatencyTracker */
+  public void setAdaptiveTimeouts(boolean adaptiveTimeouts) {
+    sourceLatencyTracker.setAdaptiveTimeouts(adaptiveTimeouts);
+  }
+
+  public void setAdaptiveTimeoutMultiplier(double adaptiveTimeoutMultiplier) {
+    sourceLatencyTracker.setAdaptiveTimeoutMultiplier(adaptiveTimeoutMultiplier);
+  }
+
+  public void setMinimumSourceTimeoutMillis(long minimumSourceTimeoutMillis) {
+    sourceLatencyTracker.setMinimumTimeoutMillis(minimumSourceTimeoutMillis);
+  }
+
+  /** @see SourceLatencyTracker */
+  public void setHedgedQueries(boolean hedgedQueries) {
+    sourceLatencyTracker.setHedgedQueries(hedgedQueries);
+  }
+
+  SourceLatencyTracker getSourceLatencyTracker() {
+    return sourceLatencyTracker;
+  }
+
   public void shutdown() {
     cacheCommitPhaser.shutdown();
     cacheBulkProcessor.shutdown();
+    sourceLatencyTracker.shutdown();
   }
 
   static class OffsetResultHandler implements Runnable {
@@ -509,8 +537,8 @@ public SourceResponse call() throws Exception {
 
     @SuppressWarnings("squid:S1181" /*Catching throwable intentionally*/)
     private SourceResponse getSourceResponse(QueryRequest queryRequest)
-        throws UnsupportedQueryException {
-      final SourceResponse sourceResponse = source.query(queryRequest);
+        throws UnsupportedQueryException, TimeoutException, InterruptedException {
+      final SourceResponse sourceResponse = sourceLatencyTracker.query(source, queryRequest);
       final SourceResponse clonedSourceResponse = cloneResponse(sourceResponse);
 
       if (INDEX_QUERY_MODE.equals(request.getPropertyValue(QUERY_MODE))) {
@@ -158,7 +158,8 @@ public void create(Collection<Metacard> metacards) {
     }
 
     try {
-      metacardClient.add(updatedMetacards, false);
+      // Results that are already cached are replaced, so nothing may be rolled back on failure
+      metacardClient.update(updatedMetacards, false);
       dirty.set(true);
     } catch (SolrServerException | SolrException | IOException | MetacardCreationException e) {
       LOGGER.info("Solr client exception caching metacard(s)", e);
@@ -275,6 +276,7 @@ public void shutdown() {
     LOGGER.debug("Shutting down cache expiration scheduler.");
     shutdownCacheExpirationScheduler();
     LOGGER.debug("Shutting down Solr client.");
+    metacardClient.close();
     try {
       client.close();
     } catch (IOException e) {
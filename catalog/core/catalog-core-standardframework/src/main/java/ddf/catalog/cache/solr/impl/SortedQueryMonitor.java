@@ -202,10 +202,17 @@ public void run() {
         Thread.currentThread().interrupt();
         break;
       } catch (ExecutionException e) {
-        LOGGER.info(
-            "Couldn't get results from completed federated query for sourceId = {}", sourceId, e);
-        executePostFederationQueryPluginsWithSourceError(
-            queryRequest, sourceId, e, processingDetails);
+        if (e.getCause() instanceof TimeoutException) {
+          // The source was cut off by its own deadline before the query timeout
+          LOGGER.info("Search timed out for {}", sourceId);
+          executePostFederationQueryPluginsWithSourceError(
+              queryRequest, sourceId, (TimeoutException) e.getCause(), processingDetails);
+        } else {
+          LOGGER.info(
+              "Couldn't get results from completed federated query for sourceId = {}", sourceId, e);
+          executePostFederationQueryPluginsWithSourceError(
+              queryRequest, sourceId, e, processingDetails);
+        }
       }
     }
     returnProperties.put("hitsPerSource", hitsPerSource);
@@ -37,6 +37,7 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.DeleteResponse;
 import ddf.catalog.operation.Operation;
@@ -44,6 +45,7 @@
 import ddf.catalog.operation.Update;
 import ddf.catalog.operation.UpdateResponse;
 import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.operation.impl.CreateResponseImpl;
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.CatalogProvider;
@@ -56,6 +58,7 @@
 import ddf.security.common.audit.SecurityLogger;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -75,6 +78,7 @@
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.configuration.PropertyResolver;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.codice.ddf.security.common.Security;
 import org.opengis.filter.Filter;
@@ -87,6 +91,15 @@
 /**
  * Class utilizing {@link StorageProvider} and {@link CatalogProvider} to version {@link Metacard}s
  * and associated {@link ContentItem}s.
+ *
+ * <p>When delta versions are enabled, the version of an updated metacard only holds the attributes
+ * that differ from the metacard that replaced it, and is rebuilt with {@link
+ * MetacardVersionImpl#toMetacard(Metacard, Collection, Metacard)}. When asynchronous writes are
+ * enabled, version and deletion metacards are journaled by a {@link HistoryWriter} and stored in
+ * batches, so the operation that created them doesn't wait for the catalog provider. Versioned
+ * content is always stored before the operation returns. Since rebuilding a delta version reads the
+ * later versions, {@link #flushHistory(String)} stores the journaled history of a metacard before
+ * it is read.
  */
 public class Historian {
   private static final Logger LOGGER = LoggerFactory.getLogger(Historian.class);
@@ -94,8 +107,26 @@ public class Historian {
   private static final Collector<CharSequence, ?, String> TO_A_STRING =
       Collectors.joining(", ", "[", "]");
 
+  private static final String DEFAULT_JOURNAL_DIRECTORY = "${ddf.home}/data/history";
+
   private boolean historyEnabled = true;
 
+  private boolean deltaVersions = false;
+
+  private boolean asynchronousWrites = false;
+
+  private int batchSize = 500;
+
+  private long flushIntervalMillis = 1000;
+
+  private int writerShards = 4;
+
+  private int maxStoreAttempts = 60;
+
+  private String journalDirectory = DEFAULT_JOURNAL_DIRECTORY;
+
+  private HistoryWriter historyWriter;
+
   private final Predicate<Metacard> isNotVersionNorDeleted =
       ((Predicate<Metacard>) MetacardVersionImpl::isVersion)
           .or(DeletedMetacardImpl::isDeleted)
@@ -136,6 +167,11 @@ public void init() {
     }
   }
 
+  /** Stores the queued history metacards and stops the history writer. */
+  public void destroy() {
+    closeHistoryWriter();
+  }
+
   /**
    * Versions metacards being updated based off of the {@link Update#getOldMetacard} method on
    * {@link UpdateResponse}
@@ -169,6 +205,7 @@ public UpdateResponse version(UpdateResponse updateResponse) {
     final Map<String, Metacard> versionedMetacards =
         getVersionMetacards(
             inputMetacards,
+            getNewMetacards(updateResponse),
             id -> Action.VERSIONED,
             (Subject)
                 updateResponse
@@ -264,6 +301,7 @@ public UpdateStorageResponse version(
     Map<String, Metacard> versionMetacards =
         getVersionMetacards(
             originalMetacards.values(),
+            getNewMetacards(updateResponse),
             getAction,
             (Subject) updateResponse.getProperties().get(SecurityConstants.SECURITY_SUBJECT));
 
@@ -351,6 +389,7 @@ public DeleteResponse version(DeleteResponse deleteResponse)
     Map<String, Metacard> versionedMap =
         getVersionMetacards(
             originalMetacards,
+            Collections.emptyMap(),
             getAction,
             (Subject)
                 deleteResponse
@@ -382,10 +421,7 @@ public DeleteResponse version(DeleteResponse deleteResponse)
       }
     }
 
-    executeAsSystem(
-        () ->
-            catalogProvider()
-                .create(new CreateRequestImpl(new ArrayList<>(versionedMap.values()))));
+    storeVersionMetacards(versionedMap);
     if (LOGGER.isTraceEnabled()) {
       LOGGER.trace(
           "Successfully created versioned metacards under ids: {}",
@@ -409,11 +445,7 @@ public DeleteResponse version(DeleteResponse deleteResponse)
                         originalMetacardsMap.get(s.getKey())))
             .collect(Collectors.toList());
 
-    CreateResponse deletionMetacardsCreateResponse =
-        executeAsSystem(
-            () ->
-                catalogProvider()
-                    .create(new CreateRequestImpl(deletionMetacards, new HashMap<>())));
+    CreateResponse deletionMetacardsCreateResponse = storeHistoryMetacards(deletionMetacards);
 
     if (LOGGER.isTraceEnabled()) {
       LOGGER.trace(
@@ -436,6 +468,50 @@ public void setHistoryEnabled(boolean historyEnabled) {
     this.historyEnabled = historyEnabled;
   }
 
+  public boolean isDeltaVersions() {
+    return deltaVersions;
+  }
+
+  public void setDeltaVersions(boolean deltaVersions) {
+    this.deltaVersions = deltaVersions;
+    closeHistoryWriter();
+  }
+
+  public boolean isAsynchronousWrites() {
+    return asynchronousWrites;
+  }
+
+  public void setAsynchronousWrites(boolean asynchronousWrites) {
+    this.asynchronousWrites = asynchronousWrites;
+    closeHistoryWriter();
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+    closeHistoryWriter();
+  }
+
+  public void setFlushIntervalMillis(long flushIntervalMillis) {
+    this.flushIntervalMillis = flushIntervalMillis;
+    closeHistoryWriter();
+  }
+
+  public void setWriterShards(int writerShards) {
+    this.writerShards = writerShards;
+    closeHistoryWriter();
+  }
+
+  public void setMaxStoreAttempts(int maxStoreAttempts) {
+    this.maxStoreAttempts = maxStoreAttempts;
+    closeHistoryWriter();
+  }
+
+  public void setJournalDirectory(String journalDirectory) {
+    this.journalDirectory =
+        StringUtils.isBlank(journalDirectory) ? DEFAULT_JOURNAL_DIRECTORY : journalDirectory;
+    closeHistoryWriter();
+  }
+
   public List<StorageProvider> getStorageProviders() {
     return storageProviders;
   }
@@ -603,20 +679,45 @@ private ContentItemImpl createContentItem(
         versionedMetacards.get(content.getId()));
   }
 
+  /*Map<Metacard.ID -> new Metacard>*/
+  private Map<String, Metacard> getNewMetacards(UpdateResponse updateResponse) {
+    if (!deltaVersions) {
+      return Collections.emptyMap();
+    }
+    return updateResponse
+        .getUpdatedMetacards()
+        .stream()
+        .map(Update::getNewMetacard)
+        .filter(Objects::nonNull)
+        .collect(
+            Collectors.toMap(Metacard::getId, Function.identity(), Historian::firstInWinsMerge));
+  }
+
   /*Map<MetacardVersion.VERSION_OF_ID -> MetacardVersion>*/
   private Map<String, Metacard> getVersionMetacards(
-      Collection<Metacard> metacards, Function<String, Action> action, Subject subject) {
+      Collection<Metacard> metacards,
+      Map<String, Metacard> newMetacards,
+      Function<String, Action> action,
+      Subject subject) {
     return metacards
         .stream()
         .filter(MetacardVersionImpl::isNotVersion)
         .filter(DeletedMetacardImpl::isNotDeleted)
         .map(
             metacard ->
-                new MetacardVersionImpl(
-                    uuidGenerator.generateUuid(),
-                    metacard,
-                    action.apply(metacard.getId()),
-                    subject))
+                newMetacards.containsKey(metacard.getId())
+                    ? new MetacardVersionImpl(
+                        uuidGenerator.generateUuid(),
+                        metacard,
+                        newMetacards.get(metacard.getId()),
+                        action.apply(metacard.getId()),
+                        subject,
+                        metacardTypes)
+                    : new MetacardVersionImpl(
+                        uuidGenerator.generateUuid(),
+                        metacard,
+                        action.apply(metacard.getId()),
+                        subject))
         .collect(
             Collectors.toMap(
                 MetacardVersionImpl::getVersionOfId,
@@ -658,10 +759,73 @@ private boolean doSkip(@Nullable Operation op) {
   }
 
   private CreateResponse storeVersionMetacards(Map<String, Metacard> versionMetacards) {
-    return executeAsSystem(
-        () ->
-            catalogProvider()
-                .create(new CreateRequestImpl(new ArrayList<>(versionMetacards.values()))));
+    return storeHistoryMetacards(new ArrayList<>(versionMetacards.values()));
+  }
+
+  private CreateResponse storeHistoryMetacards(List<Metacard> metacards) {
+    CreateRequest createRequest = new CreateRequestImpl(metacards, new HashMap<>());
+    HistoryWriter writer = historyWriter();
+    if (writer != null) {
+      try {
+        writer.write(metacards);
+        return new CreateResponseImpl(createRequest, new HashMap<>(), metacards);
+      } catch (IOException e) {
+        LOGGER.debug("Could not journal history metacards, storing them synchronously", e);
+      }
+    }
+    return executeAsSystem(() -> catalogProvider().create(createRequest));
+  }
+
+  @Nullable
+  private synchronized HistoryWriter historyWriter() {
+    if (!asynchronousWrites) {
+      return null;
+    }
+    if (historyWriter == null) {
+      try {
+        historyWriter =
+            new HistoryWriter(
+                Paths.get(new PropertyResolver(journalDirectory).getResolvedString()),
+                writerShards,
+                batchSize,
+                flushIntervalMillis,
+                maxStoreAttempts,
+                metacards ->
+                    executeAsSystem(
+                        () ->
+                            catalogProvider()
+                                .create(new CreateRequestImpl(metacards, new HashMap<>()))));
+      } catch (IOException e) {
+        LOGGER.info(
+            "Could not open the history journal in {}, storing history synchronously",
+            journalDirectory,
+            e);
+      }
+    }
+    return historyWriter;
+  }
+
+  /**
+   * Stores the journaled versions and deletions of a metacard, so that queries for its history
+   * return all of them.
+   *
+   * @param metacardId the id of the metacard
+   */
+  public void flushHistory(String metacardId) {
+    HistoryWriter writer;
+    synchronized (this) {
+      writer = historyWriter;
+    }
+    if (writer != null) {
+      writer.flush(metacardId);
+    }
+  }
+
+  private synchronized void closeHistoryWriter() {
+    if (historyWriter != null) {
+      historyWriter.close();
+      historyWriter = null;
+    }
   }
 
   private void setResourceUriForContent(
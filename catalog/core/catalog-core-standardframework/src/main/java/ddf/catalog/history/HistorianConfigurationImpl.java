@@ -15,7 +15,10 @@
 
 import ddf.catalog.configuration.HistorianConfiguration;
 
-/** This implementation gets the history enabled status from a {@link Historian}. */
+/**
+ * This implementation gets the history enabled status from a {@link Historian}, and flushes the
+ * history it journals.
+ */
 public class HistorianConfigurationImpl implements HistorianConfiguration {
 
   private Historian historian;
@@ -25,6 +28,11 @@ public boolean isHistoryEnabled() {
     return historian.isHistoryEnabled();
   }
 
+  @Override
+  public void flushHistory(String metacardId) {
+    historian.flushHistory(metacardId);
+  }
+
   public void setHistorian(Historian historian) {
     this.historian = historian;
   }
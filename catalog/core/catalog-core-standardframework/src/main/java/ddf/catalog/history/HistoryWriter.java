@@ -0,0 +1,440 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.history;
+
+import ddf.catalog.core.versioning.DeletedMetacard;
+import ddf.catalog.core.versioning.MetacardVersion;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardCodec;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes history metacards to the catalog in batches, off of the thread that created them.
+ *
+ * <p>Metacards are spread over a number of shards by the id of the metacard they are the history
+ * of, so that {@link #flush(String)} can store the history of one metacard before it is read.
+ * {@link #write(List)} appends them to the current journal segment of their shard and forces it to
+ * disk before returning, so a queued metacard survives a restart. Each shard is flushed by a
+ * background thread once it holds {@code batchSize} metacards or every {@code flushIntervalMillis};
+ * the segment is rolled, its metacards are stored in a single batch, and the segment is deleted. A
+ * segment whose batch can't be stored is kept and retried on the next flush, holding back the later
+ * segments of its shard. After {@code maxAttempts} failed attempts it is moved to the {@value
+ * #DEAD_LETTER_DIRECTORY} directory of the journal so the shard can move on; moving it back replays
+ * it on the next start. Segments left behind by a previous run are replayed when the writer is
+ * created.
+ */
+class HistoryWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HistoryWriter.class);
+
+  static final String SEGMENT_SUFFIX = ".journal";
+
+  static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+
+  private static final String SEGMENT_PREFIX = "shard-";
+
+  /** Stores a batch of history metacards. */
+  @FunctionalInterface
+  interface BatchStore {
+    void store(List<Metacard> metacards) throws Exception;
+  }
+
+  private final Path journalDirectory;
+
+  private final int batchSize;
+
+  private final int maxAttempts;
+
+  private final BatchStore batchStore;
+
+  private final Shard[] shards;
+
+  private final AtomicLong segmentSequence = new AtomicLong(System.currentTimeMillis());
+
+  private final ScheduledExecutorService executor;
+
+  /**
+   * @param journalDirectory the directory the journal segments are written to
+   * @param shardCount the number of shards, each with its own segment and flush thread
+   * @param batchSize the number of queued metacards that triggers a flush of a shard
+   * @param flushIntervalMillis the longest time a metacard stays queued before it is stored
+   * @param maxAttempts the number of times storing a segment is attempted before it is moved to the
+   *     dead letter directory
+   * @param batchStore stores each batch of metacards
+   * @throws IOException if the journal directory can't be created or read
+   */
+  HistoryWriter(
+      Path journalDirectory,
+      int shardCount,
+      int batchSize,
+      long flushIntervalMillis,
+      int maxAttempts,
+      BatchStore batchStore)
+      throws IOException {
+    this.journalDirectory = journalDirectory;
+    this.batchSize = Math.max(1, batchSize);
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.batchStore = batchStore;
+
+    Files.createDirectories(journalDirectory);
+    shards = new Shard[Math.max(1, shardCount)];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard(i);
+    }
+    replaySegments();
+
+    executor =
+        Executors.newScheduledThreadPool(
+            shards.length, StandardThreadFactoryBuilder.newThreadFactory("historyWriterThread"));
+    for (Shard shard : shards) {
+      executor.scheduleWithFixedDelay(
+          () -> flush(shard),
+          flushIntervalMillis,
+          Math.max(1, flushIntervalMillis),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Journals the metacards and queues them to be stored. Metacards written after the writer is
+   * closed are stored before returning.
+   *
+   * @param metacards the history metacards to store
+   * @throws IOException if the metacards can't be journaled, in which case none of the metacards of
+   *     a failed shard are queued
+   */
+  void write(List<Metacard> metacards) throws IOException {
+    List<List<Metacard>> sharded = new ArrayList<>(shards.length);
+    for (int i = 0; i < shards.length; i++) {
+      sharded.add(new ArrayList<>());
+    }
+    for (Metacard metacard : metacards) {
+      sharded.get(shardOf(metacard)).add(metacard);
+    }
+
+    for (int i = 0; i < shards.length; i++) {
+      if (sharded.get(i).isEmpty()) {
+        continue;
+      }
+      Shard shard = shards[i];
+      int queued = shard.append(sharded.get(i));
+      if (executor.isShutdown()) {
+        // No flush thread is left to store them
+        flush(shard);
+      } else if (queued >= batchSize) {
+        try {
+          executor.execute(() -> flush(shard));
+        } catch (RejectedExecutionException e) {
+          flush(shard);
+        }
+      }
+    }
+  }
+
+  /** @return the number of metacards journaled but not stored yet */
+  int getBacklog() {
+    int backlog = 0;
+    for (Shard shard : shards) {
+      backlog += shard.backlog();
+    }
+    return backlog;
+  }
+
+  /** Stores the metacards queued on every shard, and retries any failed batches. */
+  void flush() {
+    for (Shard shard : shards) {
+      flush(shard);
+    }
+  }
+
+  /**
+   * Stores the metacards queued on the shard of a metacard's history.
+   *
+   * @param metacardId the id of the metacard whose versions and deletions are stored
+   */
+  void flush(String metacardId) {
+    flush(shards[shardOf(metacardId)]);
+  }
+
+  /**
+   * Stops the flush threads and makes a last attempt to store the queued metacards. Metacards that
+   * still can't be stored are left in the journal for the next writer.
+   */
+  void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    for (Shard shard : shards) {
+      shard.close();
+    }
+  }
+
+  private int shardOf(Metacard metacard) {
+    Attribute historyOf = metacard.getAttribute(MetacardVersion.VERSION_OF_ID);
+    if (historyOf == null) {
+      historyOf = metacard.getAttribute(DeletedMetacard.DELETION_OF_ID);
+    }
+    Serializable id = historyOf == null ? metacard.getId() : historyOf.getValue();
+    return id == null ? 0 : shardOf(id.toString());
+  }
+
+  private int shardOf(String id) {
+    return Math.floorMod(id.hashCode(), shards.length);
+  }
+
+  private void flush(Shard shard) {
+    // Only one thread stores the segments of a shard, so that none is stored twice
+    synchronized (shard.flushLock) {
+      shard.roll();
+      Segment segment;
+      while ((segment = shard.peekSegment()) != null) {
+        try {
+          batchStore.store(segment.metacards);
+        } catch (Exception e) {
+          if (++segment.attempts < maxAttempts) {
+            LOGGER.warn(
+                "Could not store {} history metacards from {} (attempt {} of {}), will retry. {} history metacards are waiting to be stored.",
+                segment.metacards.size(),
+                segment.path,
+                segment.attempts,
+                maxAttempts,
+                getBacklog(),
+                e);
+            return;
+          }
+          shard.removeSegment(segment);
+          deadLetter(segment, e);
+          continue;
+        }
+        shard.removeSegment(segment);
+        try {
+          Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+          LOGGER.debug("Could not delete history journal segment {}", segment.path, e);
+        }
+      }
+    }
+  }
+
+  private void deadLetter(Segment segment, Exception cause) {
+    Path deadLetterDirectory = journalDirectory.resolve(DEAD_LETTER_DIRECTORY);
+    try {
+      Files.createDirectories(deadLetterDirectory);
+      Path path = Files.move(segment.path, deadLetterDirectory.resolve(segment.path.getFileName()));
+      LOGGER.warn(
+          "Could not store {} history metacards after {} attempts, moved them to {}. {} history metacards are waiting to be stored.",
+          segment.metacards.size(),
+          segment.attempts,
+          path,
+          getBacklog(),
+          cause);
+    } catch (IOException e) {
+      // Left in the journal, the segment is replayed on the next start
+      LOGGER.warn(
+          "Could not store {} history metacards after {} attempts, nor move {} to {}. It will be retried on the next start.",
+          segment.metacards.size(),
+          segment.attempts,
+          segment.path,
+          deadLetterDirectory,
+          cause);
+      LOGGER.debug("Could not move history journal segment {}", segment.path, e);
+    }
+  }
+
+  private Path newSegmentPath(int shard) {
+    return journalDirectory.resolve(
+        SEGMENT_PREFIX + shard + "-" + segmentSequence.incrementAndGet() + SEGMENT_SUFFIX);
+  }
+
+  private void replaySegments() throws IOException {
+    List<Path> segments = new ArrayList<>();
+    try (DirectoryStream<Path> stream =
+        Files.newDirectoryStream(journalDirectory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      stream.forEach(segments::add);
+    }
+    segments.sort(null);
+
+    for (Path path : segments) {
+      List<Metacard> metacards = readSegment(path);
+      if (metacards.isEmpty()) {
+        Files.deleteIfExists(path);
+        continue;
+      }
+      LOGGER.debug("Replaying {} history metacards from {}", metacards.size(), path);
+      shards[shardOf(metacards.get(0))].addSegment(new Segment(path, metacards));
+    }
+  }
+
+  private static List<Metacard> readSegment(Path path) throws IOException {
+    List<Metacard> metacards = new ArrayList<>();
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(path));
+        DataInputStream data = new DataInputStream(in)) {
+      while (true) {
+        byte[] record;
+        try {
+          record = new byte[data.readInt()];
+          data.readFully(record);
+        } catch (EOFException e) {
+          // A record cut short by a crash was never acknowledged to the caller
+          break;
+        }
+        metacards.add(MetacardCodec.decodeMetacard(record));
+      }
+    }
+    return metacards;
+  }
+
+  private static class Segment {
+    private final Path path;
+
+    private final List<Metacard> metacards;
+
+    private int attempts;
+
+    private Segment(Path path, List<Metacard> metacards) {
+      this.path = path;
+      this.metacards = metacards;
+    }
+  }
+
+  private class Shard {
+    private final int index;
+
+    private final Object flushLock = new Object();
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private Path currentPath;
+
+    private FileChannel current;
+
+    private List<Metacard> queued = new ArrayList<>();
+
+    private Shard(int index) {
+      this.index = index;
+    }
+
+    /** @return the number of metacards queued on the current segment */
+    private synchronized int append(List<Metacard> metacards) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream records = new DataOutputStream(bytes);
+      for (Metacard metacard : metacards) {
+        byte[] record = MetacardCodec.encode(metacard);
+        records.writeInt(record.length);
+        records.write(record);
+      }
+
+      if (current == null) {
+        currentPath = newSegmentPath(index);
+        current =
+            FileChannel.open(
+                currentPath,
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+      }
+      long size = current.size();
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      try {
+        while (buffer.hasRemaining()) {
+          current.write(buffer);
+        }
+        current.force(false);
+      } catch (IOException e) {
+        // Drop the partial records, the caller stores these metacards itself
+        current.truncate(size);
+        throw e;
+      }
+
+      queued.addAll(metacards);
+      return queued.size();
+    }
+
+    /** Closes the current segment so that its metacards can be stored. */
+    private synchronized void roll() {
+      if (current == null) {
+        return;
+      }
+      close();
+      segments.addLast(new Segment(currentPath, queued));
+      queued = new ArrayList<>();
+      currentPath = null;
+    }
+
+    private synchronized void addSegment(Segment segment) {
+      segments.addLast(segment);
+    }
+
+    private synchronized Segment peekSegment() {
+      return segments.peekFirst();
+    }
+
+    private synchronized void removeSegment(Segment segment) {
+      segments.remove(segment);
+    }
+
+    private synchronized int backlog() {
+      int backlog = queued.size();
+      for (Segment segment : segments) {
+        backlog += segment.metacards.size();
+      }
+      return backlog;
+    }
+
+    private synchronized void close() {
+      if (current == null) {
+        return;
+      }
+      try {
+        current.close();
+      } catch (IOException e) {
+        LOGGER.debug("Could not close history journal segment {}", currentPath, e);
+      }
+      current = null;
+    }
+  }
+}
@@ -13,6 +13,7 @@
  */
 package ddf.catalog.impl;
 
+import ddf.catalog.BulkUpdateCatalogFramework;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
@@ -30,6 +31,8 @@
 import ddf.catalog.impl.operations.SourceOperations;
 import ddf.catalog.impl.operations.TransformOperations;
 import ddf.catalog.impl.operations.UpdateOperations;
+import ddf.catalog.operation.BulkUpdateRequest;
+import ddf.catalog.operation.BulkUpdateResponse;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.DeleteRequest;
@@ -74,7 +77,8 @@
  * resource retrieval operations.
  */
 @SuppressWarnings("deprecation")
-public class CatalogFrameworkImpl extends DescribableImpl implements CatalogFramework {
+public class CatalogFrameworkImpl extends DescribableImpl
+    implements CatalogFramework, BulkUpdateCatalogFramework {
   private static final Logger LOGGER = LoggerFactory.getLogger(CatalogFrameworkImpl.class);
 
   private static final String FANOUT_MESSAGE =
@@ -267,6 +271,16 @@ public UpdateResponse update(UpdateRequest updateRequest)
     return updateOperations.update(updateRequest);
   }
 
+  @Override
+  public BulkUpdateResponse update(BulkUpdateRequest bulkUpdateRequest)
+      throws IngestException, SourceUnavailableException {
+    if (fanoutEnabled) {
+      throw new IngestException(FANOUT_MESSAGE);
+    }
+
+    return updateOperations.update(bulkUpdateRequest);
+  }
+
   @Override
   public DeleteResponse delete(DeleteRequest deleteRequest)
       throws IngestException, SourceUnavailableException {
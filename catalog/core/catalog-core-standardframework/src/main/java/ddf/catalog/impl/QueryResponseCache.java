@@ -0,0 +1,391 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.federation.FederationStrategy;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.pubsub.FilterEventMatcher;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+import ddf.security.SubjectUtils;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.apache.commons.collections.CollectionUtils;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.osgi.service.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the responses of the catalog framework's queries, so that identical queries, such as the
+ * saved queries of dashboards polling for results, are not executed against every source each time.
+ *
+ * <p>Queries are identical when they have the same filter, sort, paging, sources and properties,
+ * and are made by subjects with the same security attributes. Responses expire a fixed time after
+ * they are cached, and the cache holds a maximum number of results in total.
+ *
+ * <p>A cached response is invalidated when a metacard it contains is created, updated or deleted,
+ * or when a created, updated or deleted metacard could match its filter, as decided by a {@link
+ * FilterEventMatcher}. Changes to federated sources aren't reported to the catalog framework, so
+ * their results are only refreshed when the response expires.
+ */
+public class QueryResponseCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryResponseCache.class);
+
+  /**
+   * Matching a metacard against the cached filters requires indexing its metadata, so larger
+   * changes invalidate every cached response instead.
+   */
+  private static final int MAX_MATCHED_METACARDS = 100;
+
+  private static final Object UNCACHEABLE = new Object();
+
+  private final boolean enabled;
+
+  private final Cache<Key, CachedResponse> responses;
+
+  /** Incremented for every change, so responses of queries made during a change aren't cached */
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * @param maxResults maximum number of results held by all the cached responses, or 0 to disable
+   *     the cache
+   * @param expirationSeconds number of seconds a response is cached, or 0 to disable the cache
+   */
+  public QueryResponseCache(long maxResults, long expirationSeconds) {
+    this.enabled = maxResults > 0 && expirationSeconds > 0;
+    this.responses =
+        CacheBuilder.newBuilder()
+            .maximumWeight(Math.max(maxResults, 0))
+            .weigher((Key key, CachedResponse response) -> response.results.size() + 1)
+            .expireAfterWrite(Math.max(expirationSeconds, 0), TimeUnit.SECONDS)
+            .build();
+
+    LOGGER.debug(
+        "Query response cache enabled: {}, max results: {}, expiration: {} seconds",
+        enabled,
+        maxResults,
+        expirationSeconds);
+  }
+
+  /**
+   * Creates the key of a query.
+   *
+   * @param request the query request, before it is processed by the catalog framework
+   * @param subject the subject making the query
+   * @param strategy the federation strategy the query is executed with, or {@code null} for the
+   *     default strategy
+   * @param overrideFanoutRename whether the source IDs of the results are kept in fanout mode
+   * @param fanoutEnabled whether the catalog framework is in fanout mode
+   * @return the key, or {@code null} if the response of the query can't be cached
+   */
+  @Nullable
+  public Key createKey(
+      QueryRequest request,
+      @Nullable Subject subject,
+      @Nullable FederationStrategy strategy,
+      boolean overrideFanoutRename,
+      boolean fanoutEnabled) {
+    if (!enabled || request == null || !(request.getQuery() instanceof QueryImpl)) {
+      return null;
+    }
+
+    // Results are only shared by subjects whose security attributes are known to be the same
+    Map<String, SortedSet<String>> attributes = SubjectUtils.getSubjectAttributes(subject);
+    if (attributes.isEmpty()) {
+      return null;
+    }
+
+    QueryImpl query = (QueryImpl) request.getQuery();
+    Object sortBy = normalize(query.getSortBy());
+    Object properties = normalizeProperties(request.getProperties());
+    if (sortBy == UNCACHEABLE || properties == UNCACHEABLE) {
+      return null;
+    }
+
+    return new Key(
+        query.getFilter(),
+        Arrays.asList(
+            query.getFilter(),
+            query.getStartIndex(),
+            query.getPageSize(),
+            sortBy,
+            query.requestsTotalResultsCount(),
+            request.isEnterprise(),
+            request.getSourceIds() == null ? null : new HashSet<>(request.getSourceIds()),
+            properties,
+            new TreeMap<>(attributes),
+            strategy,
+            overrideFanoutRename,
+            fanoutEnabled));
+  }
+
+  /**
+   * @param key the key of the query
+   * @param request the request the response is returned for
+   * @return a copy of the cached response, or {@code null} if the response isn't cached
+   */
+  @Nullable
+  public QueryResponse get(Key key, QueryRequest request) {
+    CachedResponse cached = responses.getIfPresent(key);
+    if (cached == null) {
+      return null;
+    }
+
+    LOGGER.trace("Returning cached response of query {}", request);
+    return cached.toResponse(request);
+  }
+
+  /**
+   * @return the current generation of the cache, to pass to {@link #put(Key, QueryResponse, long)}
+   *     once the query is executed
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Caches the response of a query, unless the catalog changed while the query was executed or some
+   * sources reported processing details.
+   *
+   * @param key the key of the query
+   * @param response the response of the query
+   * @param generation the generation of the cache before the query was executed
+   */
+  public void put(Key key, QueryResponse response, long generation) {
+    if (this.generation.get() != generation
+        || CollectionUtils.isNotEmpty(response.getProcessingDetails())) {
+      return;
+    }
+
+    CachedResponse cached = new CachedResponse(response, FilterEventMatcher.forFilter(key.filter));
+    responses.put(key, cached);
+
+    // A change made while the response was being cached may have missed it
+    if (this.generation.get() != generation) {
+      responses.asMap().remove(key, cached);
+    }
+  }
+
+  /**
+   * Invalidates the cached responses that contain or could match any of the metacards.
+   *
+   * @param metacards the created, updated or deleted metacards
+   */
+  public void invalidate(Collection<Metacard> metacards) {
+    if (!enabled || CollectionUtils.isEmpty(metacards)) {
+      return;
+    }
+
+    generation.incrementAndGet();
+    if (responses.size() == 0) {
+      return;
+    }
+
+    if (metacards.size() > MAX_MATCHED_METACARDS) {
+      LOGGER.debug("{} metacards changed, invalidating every cached response.", metacards.size());
+      responses.invalidateAll();
+      return;
+    }
+
+    Set<String> ids =
+        metacards
+            .stream()
+            .filter(Objects::nonNull)
+            .map(Metacard::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    List<Event> events = null;
+
+    Iterator<CachedResponse> iterator = responses.asMap().values().iterator();
+    while (iterator.hasNext()) {
+      CachedResponse cached = iterator.next();
+      if (cached.matcher.matchesAll() || !Collections.disjoint(cached.ids, ids)) {
+        iterator.remove();
+        continue;
+      }
+
+      if (events == null) {
+        events =
+            metacards
+                .stream()
+                .filter(Objects::nonNull)
+                .map(FilterEventMatcher::createEvent)
+                .collect(Collectors.toList());
+      }
+
+      if (events.stream().anyMatch(cached.matcher::matches)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  @Nullable
+  private static Object normalizeProperties(Map<String, Serializable> properties) {
+    Map<String, Object> normalized = new TreeMap<>();
+    for (Map.Entry<String, Serializable> property : properties.entrySet()) {
+      if (SecurityConstants.SECURITY_SUBJECT.equals(property.getKey())) {
+        continue;
+      }
+
+      Object value = normalize(property.getValue());
+      if (value == UNCACHEABLE) {
+        return UNCACHEABLE;
+      }
+      normalized.put(property.getKey(), value);
+    }
+    return normalized;
+  }
+
+  /**
+   * @return a value that is equal to the normalized value of equivalent objects, or {@link
+   *     #UNCACHEABLE} if the object isn't known to be comparable
+   */
+  @Nullable
+  private static Object normalize(@Nullable Object value) {
+    if (value == null
+        || value instanceof String
+        || value instanceof Number
+        || value instanceof Boolean
+        || value instanceof Enum) {
+      return value;
+    }
+
+    if (value instanceof SortBy) {
+      SortBy sortBy = (SortBy) value;
+      return Arrays.asList(
+          sortBy.getPropertyName() == null ? null : sortBy.getPropertyName().getPropertyName(),
+          String.valueOf(sortBy.getSortOrder()));
+    }
+
+    Collection<?> values;
+    if (value instanceof Object[]) {
+      values = Arrays.asList((Object[]) value);
+    } else if (value instanceof Collection) {
+      values = (Collection<?>) value;
+    } else {
+      return UNCACHEABLE;
+    }
+
+    List<Object> normalized = new ArrayList<>(values.size());
+    for (Object element : values) {
+      Object normalizedElement = normalize(element);
+      if (normalizedElement == UNCACHEABLE) {
+        return UNCACHEABLE;
+      }
+      normalized.add(normalizedElement);
+    }
+    return normalized;
+  }
+
+  /** Copies the results, so that callers can't modify the cached metacards */
+  private static List<Result> copy(List<Result> results) {
+    List<Result> copies = new ArrayList<>(results.size());
+    for (Result result : results) {
+      Metacard metacard = result.getMetacard();
+      ResultImpl copy = new ResultImpl();
+      copy.setMetacard(
+          metacard == null ? null : new MetacardImpl(metacard, metacard.getMetacardType()));
+      copy.setRelevanceScore(result.getRelevanceScore());
+      copy.setDistanceInMeters(result.getDistanceInMeters());
+      copies.add(copy);
+    }
+    return copies;
+  }
+
+  /** The key of a cached query. */
+  public static final class Key {
+
+    private final Filter filter;
+
+    private final List<Object> values;
+
+    private Key(Filter filter, List<Object> values) {
+      this.filter = filter;
+      this.values = values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return this == o || (o instanceof Key && values.equals(((Key) o).values));
+    }
+
+    @Override
+    public int hashCode() {
+      return values.hashCode();
+    }
+  }
+
+  private static class CachedResponse {
+
+    private final List<Result> results;
+
+    private final long hits;
+
+    private final Map<String, Serializable> properties;
+
+    private final Set<String> ids;
+
+    private final FilterEventMatcher matcher;
+
+    private CachedResponse(QueryResponse response, FilterEventMatcher matcher) {
+      this.results = copy(response.getResults());
+      this.hits = response.getHits();
+      this.properties =
+          response.getProperties() == null
+              ? new HashMap<>()
+              : new HashMap<>(response.getProperties());
+      this.ids =
+          results
+              .stream()
+              .map(Result::getMetacard)
+              .filter(Objects::nonNull)
+              .map(Metacard::getId)
+              .filter(Objects::nonNull)
+              .collect(Collectors.toSet());
+      this.matcher = matcher;
+    }
+
+    private QueryResponse toResponse(QueryRequest request) {
+      return new QueryResponseImpl(request, copy(results), true, hits, new HashMap<>(properties));
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.operation.AttributeDelta;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Applies {@link AttributeDelta}s to {@link Metacard}s. */
+public class AttributeDeltaSupport {
+  private AttributeDeltaSupport() {}
+
+  /**
+   * Applies the deltas to the metacard, in order.
+   *
+   * @param metacard the metacard to change
+   * @param deltas the changes to apply
+   * @return {@code true} if the metacard was changed
+   */
+  public static boolean applyDeltas(Metacard metacard, List<AttributeDelta> deltas) {
+    boolean changed = false;
+    for (AttributeDelta delta : deltas) {
+      changed |= applyDelta(metacard, delta);
+    }
+    return changed;
+  }
+
+  private static boolean applyDelta(Metacard metacard, AttributeDelta delta) {
+    Attribute attribute = metacard.getAttribute(delta.getName());
+    List<Serializable> currentValues =
+        attribute == null || attribute.getValues() == null
+            ? Collections.emptyList()
+            : attribute.getValues();
+
+    List<Serializable> values;
+    switch (delta.getType()) {
+      case SET:
+        values = new ArrayList<>(delta.getValues());
+        break;
+      case ADD:
+        values = new ArrayList<>(currentValues);
+        for (Serializable value : delta.getValues()) {
+          if (!values.contains(value)) {
+            values.add(value);
+          }
+        }
+        break;
+      case REMOVE:
+        values = new ArrayList<>(currentValues);
+        if (delta.getValues().isEmpty()) {
+          values.clear();
+        } else {
+          values.removeAll(delta.getValues());
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown attribute delta type: " + delta.getType());
+    }
+
+    if (values.equals(currentValues)) {
+      return false;
+    }
+
+    metacard.setAttribute(
+        values.isEmpty()
+            ? new AttributeImpl(delta.getName(), (Serializable) null)
+            : new AttributeImpl(delta.getName(), values));
+    return true;
+  }
+}
@@ -27,6 +27,7 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.impl.QueryResponseCache;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.OperationTransaction;
@@ -95,6 +96,8 @@ public class CreateOperations {
 
   private final OperationsStorageSupport opsStorageSupport;
 
+  private QueryResponseCache queryResponseCache;
+
   public CreateOperations(
       FrameworkProperties frameworkProperties,
       QueryOperations queryOperations,
@@ -112,6 +115,10 @@ public CreateOperations(
     this.opsStorageSupport = opsStorageSupport;
   }
 
+  public void setQueryResponseCache(QueryResponseCache queryResponseCache) {
+    this.queryResponseCache = queryResponseCache;
+  }
+
   //
   // Delegate methods
   //
@@ -280,6 +287,10 @@ private CreateResponse doCreate(CreateRequest createRequest)
   }
 
   private CreateResponse doPostIngest(CreateResponse currentCreateResponse) {
+    if (queryResponseCache != null) {
+      queryResponseCache.invalidate(currentCreateResponse.getCreatedMetacards());
+    }
+
     CreateResponse createResponse = currentCreateResponse;
     try {
       createResponse = processPostIngestPlugins(currentCreateResponse);
@@ -25,6 +25,7 @@
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.history.Historian;
 import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.impl.QueryResponseCache;
 import ddf.catalog.operation.DeleteRequest;
 import ddf.catalog.operation.DeleteResponse;
 import ddf.catalog.operation.Operation;
@@ -96,6 +97,8 @@ public class DeleteOperations {
 
   private RemoteDeleteOperations remoteDeleteOperations;
 
+  private QueryResponseCache queryResponseCache;
+
   public DeleteOperations(
       FrameworkProperties frameworkProperties,
       QueryOperations queryOperations,
@@ -113,6 +116,10 @@ public void setHistorian(Historian historian) {
     this.historian = historian;
   }
 
+  public void setQueryResponseCache(QueryResponseCache queryResponseCache) {
+    this.queryResponseCache = queryResponseCache;
+  }
+
   //
   // Delegate methods
   //
@@ -204,6 +211,10 @@ public DeleteResponse doDelete(DeleteRequest deleteRequest, List<String> fanoutT
   }
 
   private DeleteResponse doPostIngest(DeleteResponse currentDeleteResponse) {
+    if (queryResponseCache != null) {
+      queryResponseCache.invalidate(currentDeleteResponse.getDeletedMetacards());
+    }
+
     DeleteResponse deleteResponse = currentDeleteResponse;
     try {
       deleteResponse = processPostIngestPlugins(currentDeleteResponse);
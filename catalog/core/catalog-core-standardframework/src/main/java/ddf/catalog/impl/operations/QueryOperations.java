@@ -29,6 +29,7 @@
 import ddf.catalog.filter.FilterDelegate;
 import ddf.catalog.filter.delegate.TagsFilterDelegate;
 import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.impl.QueryResponseCache;
 import ddf.catalog.operation.Operation;
 import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.operation.Query;
@@ -123,6 +124,8 @@ public class QueryOperations extends DescribableImpl {
 
   private long queryTimeoutMillis = 300000;
 
+  private QueryResponseCache queryResponseCache;
+
   public QueryOperations(
       FrameworkProperties frameworkProperties,
       SourceOperations sourceOperations,
@@ -150,6 +153,10 @@ public void setQueryTimeoutMillis(long queryTimeoutMillis) {
     this.queryTimeoutMillis = queryTimeoutMillis;
   }
 
+  public void setQueryResponseCache(QueryResponseCache queryResponseCache) {
+    this.queryResponseCache = queryResponseCache;
+  }
+
   //
   // Delegate methods
   //
@@ -177,6 +184,25 @@ QueryResponse query(
     FederationStrategy fedStrategy = strategy;
     QueryResponse queryResponse;
 
+    QueryResponseCache.Key cacheKey = null;
+    long cacheGeneration = 0;
+    if (queryResponseCache != null && queryRequest != null) {
+      cacheKey =
+          queryResponseCache.createKey(
+              queryRequest,
+              opsSecuritySupport.getSubject(queryRequest),
+              strategy,
+              overrideFanoutRename,
+              fanoutEnabled);
+      if (cacheKey != null) {
+        QueryResponse cachedResponse = queryResponseCache.get(cacheKey, queryRequest);
+        if (cachedResponse != null) {
+          return cachedResponse;
+        }
+        cacheGeneration = queryResponseCache.getGeneration();
+      }
+    }
+
     queryRequest = setFlagsOnRequest(queryRequest);
 
     try {
@@ -216,6 +242,10 @@ QueryResponse query(
       LOGGER.trace("AfterPostQueryFilter result size: {}", queryResponse.getResults().size());
       LOGGER.trace("Total Hit count: {}", queryResponse.getHits());
 
+      if (cacheKey != null) {
+        queryResponseCache.put(cacheKey, queryResponse, cacheGeneration);
+      }
+
     } catch (RuntimeException re) {
       throw new UnsupportedQueryException("Exception during runtime while performing query", re);
     }
@@ -16,6 +16,7 @@
 import static ddf.catalog.Constants.CONTENT_PATHS;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.data.ContentItem;
@@ -28,17 +29,24 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.history.Historian;
 import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.impl.QueryResponseCache;
+import ddf.catalog.operation.AttributeDelta;
+import ddf.catalog.operation.BulkUpdateRequest;
+import ddf.catalog.operation.BulkUpdateResponse;
 import ddf.catalog.operation.Operation;
 import ddf.catalog.operation.OperationTransaction;
 import ddf.catalog.operation.ProcessingDetails;
+import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.Update;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.operation.impl.BulkUpdateResponseImpl;
 import ddf.catalog.operation.impl.OperationTransactionImpl;
 import ddf.catalog.operation.impl.ProcessingDetailsImpl;
 import ddf.catalog.operation.impl.QueryImpl;
@@ -57,8 +65,11 @@
 import ddf.catalog.source.IngestException;
 import ddf.catalog.source.InternalIngestException;
 import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.util.impl.CatalogQueryException;
 import ddf.catalog.util.impl.Requests;
+import ddf.catalog.util.impl.ResultIterable;
 import ddf.security.SecurityConstants;
+import ddf.security.Subject;
 import java.io.Serializable;
 import java.nio.file.Path;
 import java.util.AbstractMap;
@@ -71,8 +82,14 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.opengis.filter.Filter;
@@ -82,7 +99,7 @@
 /**
  * Support class for update delegate operations for the {@code CatalogFrameworkImpl}.
  *
- * <p>This class contains two delegated update methods and methods to support them. No
+ * <p>This class contains three delegated update methods and methods to support them. No
  * operations/support methods should be added to this class except in support of CFI update
  * operations.
  */
@@ -93,6 +110,8 @@ public class UpdateOperations {
 
   private static final String PRE_INGEST_ERROR = "Error during pre-ingest:\n\n";
 
+  private static final int DEFAULT_BULK_UPDATE_BATCH_SIZE = 500;
+
   // Inject properties
   private final FrameworkProperties frameworkProperties;
 
@@ -110,6 +129,12 @@ public class UpdateOperations {
 
   private Historian historian;
 
+  private int bulkUpdateBatchSize = DEFAULT_BULK_UPDATE_BATCH_SIZE;
+
+  private ExecutorService bulkUpdateExecutor;
+
+  private QueryResponseCache queryResponseCache;
+
   public UpdateOperations(
       FrameworkProperties frameworkProperties,
       QueryOperations queryOperations,
@@ -131,6 +156,18 @@ public void setHistorian(Historian historian) {
     this.historian = historian;
   }
 
+  public void setBulkUpdateBatchSize(int bulkUpdateBatchSize) {
+    this.bulkUpdateBatchSize = Math.max(bulkUpdateBatchSize, 1);
+  }
+
+  public void setBulkUpdateExecutor(ExecutorService bulkUpdateExecutor) {
+    this.bulkUpdateExecutor = bulkUpdateExecutor;
+  }
+
+  public void setQueryResponseCache(QueryResponseCache queryResponseCache) {
+    this.queryResponseCache = queryResponseCache;
+  }
+
   //
   // Delegate methods
   //
@@ -238,20 +275,99 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
     return updateResponse;
   }
 
+  public BulkUpdateResponse update(BulkUpdateRequest bulkUpdateRequest)
+      throws IngestException, SourceUnavailableException {
+    validateBulkUpdateRequest(bulkUpdateRequest);
+    if (!sourceOperations.isSourceAvailable(sourceOperations.getCatalog())) {
+      throw new SourceUnavailableException(
+          "Local provider is not available, cannot perform update operation.");
+    }
+
+    Subject subject = opsSecuritySupport.getSubject(bulkUpdateRequest);
+    List<List<String>> batches =
+        Lists.partition(queryBulkUpdateIds(bulkUpdateRequest, subject), bulkUpdateBatchSize);
+
+    List<Future<UpdateResponse>> futures = new ArrayList<>(batches.size());
+    for (List<String> batch : batches) {
+      Callable<UpdateResponse> task = () -> updateBatch(batch, bulkUpdateRequest, subject);
+      futures.add(bulkUpdateExecutor.submit(subject == null ? task : subject.associateWith(task)));
+    }
+
+    long selectedCount = 0;
+    long updatedCount = 0;
+    long failedCount = 0;
+    Set<ProcessingDetails> errors = new HashSet<>();
+    for (int i = 0; i < futures.size(); i++) {
+      selectedCount += batches.get(i).size();
+      try {
+        UpdateResponse batchResponse = futures.get(i).get();
+        updatedCount += batchResponse.getUpdatedMetacards().size();
+        errors.addAll(batchResponse.getProcessingErrors());
+      } catch (ExecutionException e) {
+        LOGGER.debug("Unable to update a batch of {} metacards.", batches.get(i).size(), e);
+        failedCount += batches.get(i).size();
+        errors.add(
+            new ProcessingDetailsImpl(
+                sourceOperations.getCatalog().getId(),
+                e.getCause() instanceof Exception ? (Exception) e.getCause() : e));
+      } catch (InterruptedException e) {
+        futures.forEach(future -> future.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new IngestException("Interrupted while updating metacards.", e);
+      }
+    }
+
+    INGEST_LOGGER.debug(
+        "Bulk update of {} metacards: {} updated, {} failed.",
+        selectedCount,
+        updatedCount,
+        failedCount);
+
+    return new BulkUpdateResponseImpl(
+        bulkUpdateRequest,
+        new HashMap<>(),
+        updatedCount,
+        selectedCount - updatedCount - failedCount,
+        failedCount,
+        errors);
+  }
+
   //
   // Private helper methods
   //
   private UpdateResponse doUpdate(UpdateRequest updateRequest)
       throws IngestException, SourceUnavailableException {
+    return doUpdate(updateRequest, null);
+  }
+
+  /**
+   * @param deltas the changes to apply to the current version of each metacard of the request, or
+   *     {@code null} to replace them with the metacards of the request
+   */
+  private UpdateResponse doUpdate(
+      UpdateRequest updateRequest, @Nullable List<AttributeDelta> deltas)
+      throws IngestException, SourceUnavailableException {
     updateRequest = queryOperations.setFlagsOnRequest(updateRequest);
     updateRequest = validateUpdateRequest(updateRequest);
     updateRequest = validateLocalSource(updateRequest);
 
     try {
+      if (deltas != null) {
+        // The metacards to update are derived from their current versions, so the current
+        // versions are needed first
+        updateRequest = populateMetacards(updateRequest, true);
+        updateRequest = applyDeltas(updateRequest, deltas);
+        if (updateRequest.getUpdates().isEmpty()) {
+          return new UpdateResponseImpl(updateRequest, new HashMap<>(), new ArrayList<>());
+        }
+      }
+
       updateRequest = injectAttributes(updateRequest);
       updateRequest = setDefaultValues(updateRequest);
 
-      updateRequest = populateMetacards(updateRequest);
+      if (deltas == null) {
+        updateRequest = populateMetacards(updateRequest, false);
+      }
       updateRequest = processPreAuthorizationPlugins(updateRequest);
 
       updateRequest = populateUpdateRequestPolicyMap(updateRequest);
@@ -277,6 +393,15 @@ private UpdateResponse doUpdate(UpdateRequest updateRequest)
   }
 
   private UpdateResponse doPostIngest(UpdateResponse currentUpdateResponse) {
+    if (queryResponseCache != null) {
+      queryResponseCache.invalidate(
+          currentUpdateResponse
+              .getUpdatedMetacards()
+              .stream()
+              .flatMap(update -> Stream.of(update.getOldMetacard(), update.getNewMetacard()))
+              .collect(Collectors.toList()));
+    }
+
     UpdateResponse updateResponse = currentUpdateResponse;
     try {
       updateResponse = processPostIngestPlugins(currentUpdateResponse);
@@ -571,7 +696,12 @@ private UpdateRequest populateUpdateRequestPolicyMap(UpdateRequest updateRequest
     return updateRequest;
   }
 
-  private UpdateRequest populateMetacards(UpdateRequest updateRequest) throws IngestException {
+  /**
+   * @param allowMissing whether metacards of the request that aren't found are left out of the
+   *     current versions instead of failing the request
+   */
+  private UpdateRequest populateMetacards(UpdateRequest updateRequest, boolean allowMissing)
+      throws IngestException {
     QueryRequestImpl queryRequest = createQueryRequest(updateRequest);
     QueryResponse queryResponse;
     try {
@@ -582,7 +712,7 @@ private UpdateRequest populateMetacards(UpdateRequest updateRequest) throws Inge
       throw new IngestException("Exception during runtime while performing update");
     }
 
-    if (!foundAllUpdateRequestMetacards(updateRequest, queryResponse)) {
+    if (!allowMissing && !foundAllUpdateRequestMetacards(updateRequest, queryResponse)) {
       logFailedQueryInfo(updateRequest, queryResponse);
       throw new IngestException("Could not find all metacards specified in request");
     }
@@ -721,6 +851,114 @@ private void logFailedQueryInfo(UpdateRequest updateRequest, QueryResponse query
     }
   }
 
+  private void validateBulkUpdateRequest(BulkUpdateRequest bulkUpdateRequest)
+      throws IngestException {
+    if (bulkUpdateRequest == null
+        || bulkUpdateRequest.getFilter() == null
+        || CollectionUtils.isEmpty(bulkUpdateRequest.getDeltas())) {
+      throw new IngestException("Cannot perform bulk update without a filter and attribute deltas");
+    }
+  }
+
+  /** Pages through the metacards selected by the request and returns their ids. */
+  private List<String> queryBulkUpdateIds(
+      BulkUpdateRequest bulkUpdateRequest, @Nullable Subject subject) throws IngestException {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.QUERY_CURSOR_MARK_KEY, Constants.QUERY_CURSOR_MARK_START);
+    if (subject != null) {
+      properties.put(SecurityConstants.SECURITY_SUBJECT, subject);
+    }
+
+    QueryRequest queryRequest =
+        new QueryRequestImpl(
+            new QueryImpl(
+                bulkUpdateRequest.getFilter(),
+                1, /* start index */
+                bulkUpdateBatchSize, /* page size */
+                null,
+                false, /* total result count */
+                0 /* timeout */),
+            false,
+            null,
+            properties);
+
+    try {
+      return ResultIterable.resultIterable(
+              request -> queryOperations.query(request, null, false), queryRequest)
+          .stream()
+          .map(Result::getMetacard)
+          .filter(Objects::nonNull)
+          .map(Metacard::getId)
+          .filter(Objects::nonNull)
+          .distinct()
+          .collect(Collectors.toList());
+    } catch (CatalogQueryException e) {
+      throw new IngestException("Unable to query the metacards to update", e);
+    }
+  }
+
+  private UpdateResponse updateBatch(
+      List<String> ids, BulkUpdateRequest bulkUpdateRequest, @Nullable Subject subject)
+      throws IngestException, SourceUnavailableException {
+    // The metacards of the request are replaced by the current versions of the metacards with the
+    // deltas applied, so they only need to carry the ids
+    List<Metacard> metacards = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId(id);
+      metacards.add(metacard);
+    }
+
+    UpdateRequestImpl updateRequest =
+        new UpdateRequestImpl(ids.toArray(new String[ids.size()]), metacards);
+    Map<String, Serializable> properties = new HashMap<>(bulkUpdateRequest.getProperties());
+    if (subject != null) {
+      properties.put(SecurityConstants.SECURITY_SUBJECT, subject);
+    }
+    updateRequest.setProperties(properties);
+
+    UpdateResponse updateResponse = doUpdate(updateRequest, bulkUpdateRequest.getDeltas());
+    if (updateResponse.getUpdatedMetacards().isEmpty()) {
+      return updateResponse;
+    }
+    return doPostIngest(updateResponse);
+  }
+
+  /**
+   * Replaces the metacards of the request with their current versions with the deltas applied.
+   * Metacards the deltas don't change, or that no longer exist, are left out of the request.
+   */
+  private UpdateRequest applyDeltas(UpdateRequest updateRequest, List<AttributeDelta> deltas) {
+    Map<String, Metacard> currentMetacards = getUpdateMap(updateRequest);
+    HashMap<String, Metacard> changedMetacards = new HashMap<>();
+    List<Map.Entry<Serializable, Metacard>> updates = new ArrayList<>();
+
+    for (Map.Entry<Serializable, Metacard> update : updateRequest.getUpdates()) {
+      String id = update.getKey().toString();
+      Metacard current = currentMetacards.get(id);
+      if (current == null) {
+        LOGGER.debug("Metacard [{}] no longer exists and won't be updated.", id);
+        continue;
+      }
+
+      Metacard metacard = new MetacardImpl(current, current.getMetacardType());
+      if (AttributeDeltaSupport.applyDeltas(metacard, deltas)) {
+        updates.add(new AbstractMap.SimpleEntry<>(id, metacard));
+        changedMetacards.put(id, current);
+      }
+    }
+
+    Map<String, Serializable> properties = updateRequest.getProperties();
+    properties.put(Constants.ATTRIBUTE_UPDATE_MAP_KEY, changedMetacards);
+    properties.put(
+        Constants.OPERATION_TRANSACTION_KEY,
+        new OperationTransactionImpl(
+            OperationTransaction.OperationType.UPDATE, changedMetacards.values()));
+
+    return new UpdateRequestImpl(
+        updates, updateRequest.getAttributeName(), properties, updateRequest.getStoreIds());
+  }
+
   private UpdateStorageRequest applyAttributeOverrides(
       UpdateStorageRequest updateStorageRequest, Map<String, Metacard> metacardMap) {
     Map<String, Serializable> attributeOverrideHeaders =
@@ -20,6 +20,10 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import javax.activation.MimeType;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -101,6 +105,28 @@ public InputStream getInputStream() {
     }
   }
 
+  /**
+   * Opens the product starting {@code position} bytes in. The file is positioned directly, so the
+   * skipped bytes are never read.
+   *
+   * @param position the number of bytes to skip from the start of the product
+   * @return InputStream of the product starting at {@code position}
+   * @throws IOException if the product can't be read
+   */
+  public InputStream getInputStream(long position) throws IOException {
+    if (filePath == null) {
+      throw new IOException("Cannot read null Product");
+    }
+    FileChannel product = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+    try {
+      product.position(position);
+    } catch (IOException | IllegalArgumentException e) {
+      product.close();
+      throw new IOException("Cannot skip " + position + " bytes of product " + filePath, e);
+    }
+    return Channels.newInputStream(product);
+  }
+
   private InputStream getProduct() throws IOException {
     if (filePath == null) {
       return null;
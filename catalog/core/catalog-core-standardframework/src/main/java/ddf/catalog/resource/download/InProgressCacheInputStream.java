@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.resource.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the cache file of a product that a {@link ReliableResourceDownloader} is still writing.
+ *
+ * <p>Only the bytes the download has already written are read. When the reader catches up with the
+ * download it waits for more bytes, until the product has been completely cached. If the download
+ * stops caching the product before then, an {@link IOException} is thrown.
+ */
+class InProgressCacheInputStream extends InputStream {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InProgressCacheInputStream.class);
+
+  private static final int WAIT_MS = 100;
+
+  private final FileChannel cacheFile;
+
+  private final ReliableResourceDownloader downloader;
+
+  private boolean streamClosed = false;
+
+  /**
+   * @param cacheFile the cache file being written by the download, positioned at the first byte to
+   *     read
+   * @param downloader the download writing the cache file
+   */
+  InProgressCacheInputStream(FileChannel cacheFile, ReliableResourceDownloader downloader) {
+    this.cacheFile = cacheFile;
+    this.downloader = downloader;
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    int n;
+    do {
+      n = read(b, 0, 1);
+    } while (n == 0);
+    return n == -1 ? -1 : b[0] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (b == null) {
+      throw new NullPointerException();
+    } else if (off < 0 || len < 0 || len > b.length - off) {
+      throw new IndexOutOfBoundsException();
+    } else if (len == 0) {
+      return 0;
+    } else if (streamClosed) {
+      throw new IOException("Stream closed");
+    }
+
+    while (true) {
+      // Checked before the byte count so that once the product is cached the count is final
+      boolean cached = downloader.isCached();
+      long available = downloader.getBytesCached() - cacheFile.position();
+
+      if (available > 0) {
+        int n = cacheFile.read(ByteBuffer.wrap(b, off, (int) Math.min(len, available)));
+        if (n > 0) {
+          return n;
+        }
+      } else if (cached) {
+        return -1;
+      }
+
+      if (downloader.isCachingAbandoned()) {
+        LOGGER.debug("Download stopped caching the product at {} bytes", cacheFile.position());
+        throw new IOException("Download failed or cancelled - cannot retrieve product");
+      }
+
+      try {
+        Thread.sleep(WAIT_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for product to be cached");
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!streamClosed) {
+      streamClosed = true;
+      downloader.detach();
+      cacheFile.close();
+    }
+  }
+}
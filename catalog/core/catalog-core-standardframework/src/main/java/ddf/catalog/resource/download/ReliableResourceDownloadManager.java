@@ -23,13 +23,17 @@
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.ResourceNotFoundException;
 import ddf.catalog.resource.ResourceNotSupportedException;
+import ddf.catalog.resource.data.ReliableResource;
 import ddf.catalog.resource.download.DownloadManagerState.DownloadState;
+import ddf.catalog.resource.impl.ResourceImpl;
 import ddf.catalog.resourceretriever.ResourceRetriever;
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -42,6 +46,11 @@
 /**
  * The manager for downloading a resource, including retrying the download if problems are
  * encountered, and optionally caching the resource as it is streamed to the client.
+ *
+ * <p>When the request asks to skip the start of the resource, e.g., for an HTTP Range request, a
+ * cached resource is read starting at that offset, and a resource still being cached is read from
+ * its cache file if that offset has already been written. Otherwise the rest of the resource is
+ * retrieved from the source, and is not cached.
  */
 public class ReliableResourceDownloadManager implements DownloadManager {
 
@@ -58,6 +67,10 @@ public class ReliableResourceDownloadManager implements DownloadManager {
 
   private ExecutorService executor;
 
+  /** Downloads currently caching a resource, by cache key */
+  private final Map<String, ReliableResourceDownloader> cachingDownloads =
+      new ConcurrentHashMap<>();
+
   /** @param downloaderConfig reference to the {@link ReliableResourceDownloaderConfig} */
   public ReliableResourceDownloadManager(
       ReliableResourceDownloaderConfig downloaderConfig,
@@ -108,16 +121,21 @@ public ResourceResponse download(
     }
 
     if (downloaderConfig.isCacheEnabled()) {
+      long bytesToSkip = getBytesToSkip(resourceRequest);
+      String key = new CacheKey(metacard, resourceRequest).generateKey();
       Resource cachedResource =
-          downloaderConfig
-              .getResourceCache()
-              .getValid(new CacheKey(metacard, resourceRequest).generateKey(), metacard);
+          skip(downloaderConfig.getResourceCache().getValid(key, metacard), bytesToSkip);
+      if (cachedResource != null) {
+        LOGGER.debug(
+            "Successfully retrieved product from cache for metacard ID = {}", metacard.getId());
+      } else {
+        cachedResource = attach(key, bytesToSkip);
+      }
+
       if (cachedResource != null) {
         resourceResponse =
             new ResourceResponseImpl(
                 resourceRequest, resourceRequest.getProperties(), cachedResource);
-        LOGGER.debug(
-            "Successfully retrieved product from cache for metacard ID = {}", metacard.getId());
       } else {
         LOGGER.debug("Unable to get resource from cache. Have to retrieve it from source");
       }
@@ -196,6 +214,73 @@ public List<DownloadInfo> getDownloadsInProgress() {
     return downloadsInProgress;
   }
 
+  /**
+   * @return the number of bytes the request asks to skip from the start of the resource, 0 if none
+   */
+  static long getBytesToSkip(ResourceRequest resourceRequest) {
+    Serializable bytesToSkip =
+        resourceRequest == null || resourceRequest.getProperties() == null
+            ? null
+            : resourceRequest.getProperties().get(ResourceRetriever.BYTES_TO_SKIP);
+    if (bytesToSkip instanceof Number) {
+      return Math.max(((Number) bytesToSkip).longValue(), 0);
+    } else if (bytesToSkip != null) {
+      try {
+        return Math.max(Long.parseLong(bytesToSkip.toString()), 0);
+      } catch (NumberFormatException e) {
+        LOGGER.debug("Ignoring invalid number of bytes to skip: {}", bytesToSkip);
+      }
+    }
+    return 0;
+  }
+
+  /** @return the cached resource starting {@code bytesToSkip} bytes in, or {@code null} */
+  private Resource skip(Resource cachedResource, long bytesToSkip) {
+    if (cachedResource == null || bytesToSkip == 0) {
+      return cachedResource;
+    } else if (!(cachedResource instanceof ReliableResource)) {
+      return null;
+    }
+
+    ReliableResource reliableResource = (ReliableResource) cachedResource;
+    try {
+      ResourceImpl resource =
+          new ResourceImpl(
+              reliableResource.getInputStream(bytesToSkip),
+              reliableResource.getMimeType(),
+              reliableResource.getName());
+      if (reliableResource.getSize() >= 0) {
+        resource.setSize(Math.max(reliableResource.getSize() - bytesToSkip, 0));
+      }
+      return resource;
+    } catch (IOException e) {
+      LOGGER.debug("Unable to skip {} bytes of cached product", bytesToSkip, e);
+      return null;
+    }
+  }
+
+  /**
+   * @return the resource read from the cache file of the download caching it, or {@code null} if it
+   *     isn't being cached or {@code bytesToSkip} bytes of it haven't been cached yet
+   */
+  private Resource attach(String key, long bytesToSkip) {
+    ReliableResourceDownloader downloader = cachingDownloads.get(key);
+    if (downloader == null) {
+      return null;
+    }
+
+    try {
+      Resource resource = downloader.openCachedResource(bytesToSkip);
+      if (resource != null) {
+        LOGGER.debug("Reading product {} from cache as it is downloaded", key);
+      }
+      return resource;
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read product {} while it is being cached", key, e);
+      return null;
+    }
+  }
+
   private ResourceResponse startDownload(
       String downloadIdentifier,
       ResourceResponse resourceResponse,
@@ -211,7 +296,20 @@ private ResourceResponse startDownload(
 
     // Start download in separate thread so can return ResourceResponse with
     // ReliableResourceInputStream available for client to start reading from
-    executor.submit(downloader);
+    String cacheKey = downloader.getCacheKey();
+    if (cacheKey == null) {
+      executor.submit(downloader);
+    } else {
+      cachingDownloads.put(cacheKey, downloader);
+      executor.submit(
+          () -> {
+            try {
+              downloader.run();
+            } finally {
+              cachingDownloads.remove(cacheKey, downloader);
+            }
+          });
+    }
 
     // Wait for download to get started before returning control to client
     Stopwatch stopwatch = Stopwatch.createStarted();
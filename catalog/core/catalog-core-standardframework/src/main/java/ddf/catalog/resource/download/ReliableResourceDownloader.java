@@ -16,8 +16,8 @@
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.io.CountingOutputStream;
 import com.google.common.io.FileBackedOutputStream;
+import ddf.catalog.cache.ResourceCacheInterface;
 import ddf.catalog.cache.impl.CacheKey;
-import ddf.catalog.cache.impl.ResourceCacheImpl;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.event.retrievestatus.DownloadStatusInfo;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventListener;
@@ -37,6 +37,9 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Timer;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -44,6 +47,7 @@
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.activation.MimeType;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -63,7 +67,8 @@ public class ReliableResourceDownloader implements Runnable {
 
   private final Object lock = new Object();
 
-  private ReliableResourceCallable reliableResourceCallable;
+  // Read by clients attached to the cache file to find out how much of it has been written
+  private volatile ReliableResourceCallable reliableResourceCallable;
 
   private Future<ReliableResourceStatus> downloadFuture;
 
@@ -95,7 +100,7 @@ public class ReliableResourceDownloader implements Runnable {
 
   private DownloadsStatusEventListener eventListener;
 
-  private ResourceCacheImpl resourceCache;
+  private ResourceCacheInterface resourceCache;
 
   private DownloadsStatusEventPublisher eventPublisher;
 
@@ -103,11 +108,23 @@ public class ReliableResourceDownloader implements Runnable {
 
   private ResourceRetriever retriever;
 
+  /** Number of bytes of the product the client asked to skip. */
+  private long bytesToSkip;
+
   /**
    * Only set to true if cacheEnabled is true *AND* product being downloaded is not already pending
    * caching, e.g., another client has already started downloading and caching it.
    */
-  private boolean doCaching;
+  private volatile boolean doCaching;
+
+  /** Set to true once the product has been completely cached. */
+  private volatile boolean cached;
+
+  /** Set to true once this download has finished, whether it succeeded or not. */
+  private volatile boolean downloadFinished;
+
+  /** Number of clients reading the cache file while it is being written. */
+  private final AtomicInteger attachedReaders = new AtomicInteger();
 
   public ReliableResourceDownloader(
       ReliableResourceDownloaderConfig downloaderConfig,
@@ -146,6 +163,8 @@ public ResourceResponse setupDownload(Metacard metacard, DownloadStatusInfo down
             fbos, countingFbos, downloadState, downloadIdentifier, resourceResponse);
 
     this.metacard = metacard;
+    this.bytesToSkip =
+        ReliableResourceDownloadManager.getBytesToSkip(resourceResponse.getRequest());
 
     // Create new ResourceResponse to return that will encapsulate the
     // ReliableResourceInputStream that will be read by the client simultaneously as the product
@@ -161,7 +180,13 @@ public ResourceResponse setupDownload(Metacard metacard, DownloadStatusInfo down
     eventListener.setDownloadMap(downloadIdentifier, resourceResponse);
     downloadStatusInfo.addDownloadInfo(downloadIdentifier, this, resourceResponse);
 
-    if (downloaderConfig.isCacheEnabled()) {
+    if (downloaderConfig.isCacheEnabled() && bytesToSkip > 0) {
+      // Only the end of the product is being retrieved, which must not be cached as the product
+      LOGGER.debug(
+          "Not caching product for metacard ID = {} since {} bytes of it are being skipped",
+          metacard.getId(),
+          bytesToSkip);
+    } else if (downloaderConfig.isCacheEnabled()) {
 
       CacheKey keyMaker = null;
       String key = null;
@@ -327,6 +352,7 @@ public void run() {
             reliableResource.setSize(reliableResourceStatus.getBytesRead());
             LOGGER.debug("Adding caching key = {} to cache map", reliableResource.getKey());
             resourceCache.put(reliableResource);
+            cached = true;
           }
           break;
         } else {
@@ -438,7 +464,8 @@ public void run() {
                 "",
                 reliableResourceStatus.getBytesRead(),
                 downloadIdentifier);
-            if (doCaching && downloaderConfig.isCacheWhenCanceled()) {
+            if (doCaching
+                && (downloaderConfig.isCacheWhenCanceled() || attachedReaders.get() > 0)) {
               LOGGER.debug("Continuing to cache product");
               reliableResourceCallable =
                   constructReliableResourceCallable(
@@ -521,7 +548,7 @@ private ReliableResourceCallable retrieveResource(long bytesRead) {
       // PipedOutputStream that the client is still reading from and in the file being cached
       // to. It also allows for range headers to be used in the request so that already read
       // bytes do not need to be re-retrieved.
-      ResourceResponse resourceResponse = retriever.retrieveResource(bytesRead);
+      ResourceResponse resourceResponse = retriever.retrieveResource(bytesToSkip + bytesRead);
       LOGGER.debug("Name of re-retrieved resource = {}", resourceResponse.getResource().getName());
       resourceInputStream = resourceResponse.getResource().getInputStream();
 
@@ -591,6 +618,7 @@ private void cleanupAfterDownload(ReliableResourceStatus reliableResourceStatus)
     LOGGER.debug("Closing source InputStream");
     IOUtils.closeQuietly(resourceInputStream);
     LOGGER.debug("Closed source InputStream");
+    downloadFinished = true;
   }
 
   private void delay() throws InterruptedException {
@@ -612,6 +640,52 @@ private void closeFileBackedOutputStream() {
     }
   }
 
+  /**
+   * Returns the product being cached by this download starting {@code offset} bytes in, read from
+   * the cache file as it is written. This lets another client read the product without retrieving
+   * it from the source again.
+   *
+   * @param offset the number of bytes to skip from the start of the product
+   * @return the product, or {@code null} if this download isn't caching it or hasn't written {@code
+   *     offset} bytes of it yet
+   */
+  Resource openCachedResource(long offset) throws IOException {
+    if (!doCaching || downloadFinished || offset < 0 || offset > getBytesCached()) {
+      return null;
+    }
+
+    FileChannel cacheFile = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+    cacheFile.position(offset);
+    attachedReaders.incrementAndGet();
+    LOGGER.debug("Attached reader to {} at offset {}", filePath, offset);
+    return new ResourceImpl(
+        new InProgressCacheInputStream(cacheFile, this),
+        reliableResource.getMimeType(),
+        reliableResource.getName());
+  }
+
+  /** @return the key of the product this download is caching, {@code null} if not caching it */
+  String getCacheKey() {
+    return doCaching ? reliableResource.getKey() : null;
+  }
+
+  long getBytesCached() {
+    ReliableResourceCallable callable = reliableResourceCallable;
+    return callable == null ? 0 : callable.getBytesRead();
+  }
+
+  boolean isCached() {
+    return cached;
+  }
+
+  boolean isCachingAbandoned() {
+    return !doCaching || (downloadFinished && !cached);
+  }
+
+  void detach() {
+    attachedReaders.decrementAndGet();
+  }
+
   public Long getReliableResourceInputStreamBytesCached() {
     return streamReadByClient.getBytesCached();
   }
@@ -13,7 +13,7 @@
  */
 package ddf.catalog.resource.download;
 
-import ddf.catalog.cache.impl.ResourceCacheImpl;
+import ddf.catalog.cache.ResourceCacheInterface;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventListener;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventPublisher;
 
@@ -37,7 +37,7 @@ public class ReliableResourceDownloaderConfig {
 
   private boolean cacheWhenCanceled = false;
 
-  private ResourceCacheImpl resourceCache;
+  private ResourceCacheInterface resourceCache;
 
   private DownloadsStatusEventPublisher eventPublisher;
 
@@ -77,11 +77,11 @@ public void setEventPublisher(DownloadsStatusEventPublisher eventPublisher) {
     this.eventPublisher = eventPublisher;
   }
 
-  public ResourceCacheImpl getResourceCache() {
+  public ResourceCacheInterface getResourceCache() {
     return resourceCache;
   }
 
-  public void setResourceCache(ResourceCacheImpl resourceCache) {
+  public void setResourceCache(ResourceCacheInterface resourceCache) {
     this.resourceCache = resourceCache;
   }
 
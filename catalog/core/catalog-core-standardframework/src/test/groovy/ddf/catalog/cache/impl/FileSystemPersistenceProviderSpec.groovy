@@ -1,10 +1,13 @@
 package ddf.catalog.cache.impl
 
+import ddf.catalog.data.impl.MetacardImpl
+import ddf.catalog.resource.data.ReliableResource
 import org.junit.Rule
 import org.junit.rules.TemporaryFolder
 import spock.lang.Ignore
 import spock.lang.Specification
 
+import javax.activation.MimeType
 import java.nio.file.Path
 
 class FileSystemPersistenceProviderSpec extends Specification {
@@ -201,6 +204,49 @@ class FileSystemPersistenceProviderSpec extends Specification {
         fake.exists()
     }
 
+    def "test storing and loading a reliable resource"() {
+        setup:
+        MetacardImpl metacard = new MetacardImpl()
+        metacard.setId("123")
+        metacard.setTitle("title")
+        metacard.setSourceId("source")
+        ReliableResource resource = new ReliableResource("foo", "/cache/foo", new MimeType("text/plain"), "foo.txt", metacard)
+        resource.setSize(42L)
+        resource.setLastTouchedMillis(1000L)
+        provider.store("foo", resource)
+        ReliableResource loaded
+
+        when:
+        loaded = provider.loadAll(["foo"]).get("foo") as ReliableResource
+
+        then:
+        loaded.key == "foo"
+        loaded.filePath == "/cache/foo"
+        loaded.mimeTypeValue == "text/plain"
+        loaded.name == "foo.txt"
+        loaded.size == 42L
+        loaded.lastTouchedMillis == 1000L
+        loaded.metacard.id == "123"
+        loaded.metacard.title == "title"
+        loaded.metacard.sourceId == "source"
+    }
+
+    def "test loading a reliable resource stored with java serialization"() {
+        setup:
+        MetacardImpl metacard = new MetacardImpl()
+        metacard.setId("123")
+        ReliableResource resource = new ReliableResource("foo", "/cache/foo", null, "foo.txt", metacard)
+        getCachedFilePath("foo.ser").withObjectOutputStream { it.writeObject(resource) }
+
+        when:
+        ReliableResource loaded = provider.loadAll(["foo"]).get("foo") as ReliableResource
+
+        then:
+        loaded.key == "foo"
+        loaded.mimeType == null
+        loaded.metacard.id == "123"
+    }
+
     private File getCachedFilePath(String name) {
         return cachePath.resolve(name).toFile()
     }
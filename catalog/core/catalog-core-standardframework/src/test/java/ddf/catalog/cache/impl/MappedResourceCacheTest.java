@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.cache.impl.MappedResourceCache.EvictionPolicy;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.resource.Resource;
+import ddf.catalog.resource.data.ReliableResource;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import javax.activation.MimeType;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedResourceCacheTest {
+
+  private static final String SOURCE_ID = "ddf-1";
+
+  private static final long ONE_MB = FileUtils.ONE_MB;
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private File productCacheDirectory;
+
+  private MappedResourceCache resourceCache;
+
+  @Before
+  public void setUp() throws IOException {
+    productCacheDirectory = testFolder.newFolder("Product_Cache");
+    resourceCache = new MappedResourceCache(productCacheDirectory.toString());
+  }
+
+  @After
+  public void tearDown() {
+    resourceCache.teardownCache();
+  }
+
+  @Test
+  public void testPutThenGet() throws Exception {
+    Metacard metacard = createMetacard("abc123");
+    ReliableResource reliableResource = createCachedResource(metacard, 10);
+
+    resourceCache.addPendingCacheEntry(reliableResource);
+    assertThat(resourceCache.isPending(reliableResource.getKey()), is(true));
+    resourceCache.put(reliableResource);
+
+    Resource cached = resourceCache.getValid(reliableResource.getKey(), metacard);
+    assertThat(cached, notNullValue());
+    assertThat(cached.getName(), is(reliableResource.getName()));
+    assertThat(cached.getSize(), is(10L));
+    assertThat(cached.getMimeTypeValue(), is("text/plain"));
+    assertThat(resourceCache.isPending(reliableResource.getKey()), is(false));
+    assertThat(resourceCache.containsValid(reliableResource.getKey(), metacard), is(true));
+  }
+
+  @Test
+  public void testIndexSurvivesRestart() throws Exception {
+    Metacard metacard = createMetacard("abc123");
+    ReliableResource reliableResource = createCachedResource(metacard, 10);
+    resourceCache.put(reliableResource);
+
+    resourceCache.initCache();
+
+    assertThat(resourceCache.getValid(reliableResource.getKey(), metacard), notNullValue());
+    assertThat(resourceCache.getCacheDirSize(), is(10L));
+  }
+
+  @Test
+  public void testChangedMetacardInvalidatesEntry() throws Exception {
+    Metacard metacard = createMetacard("abc123");
+    ReliableResource reliableResource = createCachedResource(metacard, 10);
+    resourceCache.put(reliableResource);
+
+    MetacardImpl updated = createMetacard("abc123");
+    updated.setModifiedDate(new Date(metacard.getModifiedDate().getTime() + 1000));
+
+    assertThat(resourceCache.getValid(reliableResource.getKey(), updated), nullValue());
+    assertThat(new File(reliableResource.getFilePath()).exists(), is(false));
+    assertThat(resourceCache.getCacheDirSize(), is(0L));
+
+    resourceCache.initCache();
+    assertThat(resourceCache.containsValid(reliableResource.getKey(), metacard), is(false));
+  }
+
+  @Test
+  public void testMissingProductRemovesEntry() throws Exception {
+    Metacard metacard = createMetacard("abc123");
+    ReliableResource reliableResource = createCachedResource(metacard, 10);
+    resourceCache.put(reliableResource);
+    FileUtils.deleteQuietly(new File(reliableResource.getFilePath()));
+
+    assertThat(resourceCache.getValid(reliableResource.getKey(), metacard), nullValue());
+    assertThat(resourceCache.containsValid(reliableResource.getKey(), metacard), is(false));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() throws Exception {
+    resourceCache.setCacheDirMaxSizeMegabytes(2);
+    Metacard first = createMetacard("first");
+    Metacard second = createMetacard("second");
+    ReliableResource firstResource = createCachedResource(first, ONE_MB);
+    ReliableResource secondResource = createCachedResource(second, ONE_MB);
+    resourceCache.put(firstResource);
+    Thread.sleep(5);
+    resourceCache.put(secondResource);
+    Thread.sleep(5);
+    resourceCache.getValid(firstResource.getKey(), first);
+
+    ReliableResource thirdResource = createCachedResource(createMetacard("third"), ONE_MB);
+    resourceCache.put(thirdResource);
+
+    assertThat(resourceCache.containsValid(firstResource.getKey(), first), is(true));
+    assertThat(resourceCache.containsValid(secondResource.getKey(), second), is(false));
+    assertThat(new File(secondResource.getFilePath()).exists(), is(false));
+    assertThat(resourceCache.getCacheDirSize(), is(2 * ONE_MB));
+  }
+
+  @Test
+  public void testLeastFrequentlyUsedIsEvicted() throws Exception {
+    resourceCache.setCacheDirMaxSizeMegabytes(2);
+    resourceCache.setEvictionPolicy(EvictionPolicy.LFU);
+    Metacard first = createMetacard("first");
+    Metacard second = createMetacard("second");
+    ReliableResource firstResource = createCachedResource(first, ONE_MB);
+    ReliableResource secondResource = createCachedResource(second, ONE_MB);
+    resourceCache.put(firstResource);
+    resourceCache.put(secondResource);
+    resourceCache.getValid(firstResource.getKey(), first);
+    resourceCache.getValid(firstResource.getKey(), first);
+    resourceCache.getValid(secondResource.getKey(), second);
+
+    ReliableResource thirdResource = createCachedResource(createMetacard("third"), ONE_MB);
+    resourceCache.put(thirdResource);
+
+    assertThat(resourceCache.containsValid(firstResource.getKey(), first), is(true));
+    assertThat(resourceCache.containsValid(secondResource.getKey(), second), is(false));
+    assertThat(
+        resourceCache.containsValid(thirdResource.getKey(), createMetacard("third")), is(true));
+  }
+
+  @Test
+  public void testIndexIsCompacted() throws Exception {
+    Metacard metacard = createMetacard("abc123");
+    ReliableResource reliableResource = createCachedResource(metacard, 10);
+    File index = new File(productCacheDirectory, MappedResourceCache.INDEX_FILE_NAME);
+
+    for (int i = 0; i < 20000; i++) {
+      resourceCache.put(reliableResource);
+    }
+    resourceCache.initCache();
+
+    assertThat(index.length() <= 2 * ONE_MB, is(true));
+    assertThat(resourceCache.getValid(reliableResource.getKey(), metacard), notNullValue());
+    assertThat(resourceCache.getCacheDirSize(), is(10L));
+  }
+
+  private ReliableResource createCachedResource(Metacard metacard, long size) throws Exception {
+    String key = new CacheKey(metacard).generateKey();
+    File product = new File(productCacheDirectory, key);
+    byte[] content = new byte[(int) size];
+    byte[] text = key.getBytes(StandardCharsets.UTF_8);
+    System.arraycopy(text, 0, content, 0, (int) Math.min(text.length, size));
+    FileUtils.writeByteArrayToFile(product, content);
+
+    ReliableResource reliableResource =
+        new ReliableResource(
+            key,
+            product.getAbsolutePath(),
+            new MimeType("text/plain"),
+            metacard.getId() + ".txt",
+            metacard);
+    reliableResource.setSize(size);
+    return reliableResource;
+  }
+
+  private static MetacardImpl createMetacard(String id) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setSourceId(SOURCE_ID);
+    metacard.setModifiedDate(new Date(1000));
+    metacard.setCreatedDate(new Date(1000));
+    return metacard;
+  }
+}
@@ -117,7 +117,7 @@ public void createWithANullMetacard() throws Exception {
     solrCache.create(metacards);
 
     ArgumentCaptor<List> updatedMetacardsCaptor = ArgumentCaptor.forClass(List.class);
-    verify(mockCacheSolrMetacardClient).add(updatedMetacardsCaptor.capture(), eq(false));
+    verify(mockCacheSolrMetacardClient).update(updatedMetacardsCaptor.capture(), eq(false));
     assertThat(updatedMetacardsCaptor.getValue().isEmpty(), is(true));
   }
 
@@ -132,14 +132,14 @@ public void createWithMetacard() throws Exception {
     solrCache.create(metacards);
 
     ArgumentCaptor<List> updatedMetacardsCaptor = ArgumentCaptor.forClass(List.class);
-    verify(mockCacheSolrMetacardClient).add(updatedMetacardsCaptor.capture(), eq(false));
+    verify(mockCacheSolrMetacardClient).update(updatedMetacardsCaptor.capture(), eq(false));
     assertThat(updatedMetacardsCaptor.getValue().size(), is(1));
     assertThat(updatedMetacardsCaptor.getValue().get(0), is(metacard));
   }
 
   @Test
   public void createAbsorbsException() throws Exception {
-    doThrow(new IOException()).when(mockCacheSolrMetacardClient).add(any(List.class), eq(false));
+    doThrow(new IOException()).when(mockCacheSolrMetacardClient).update(any(List.class), eq(false));
 
     solrCache.create(Collections.emptyList());
   }
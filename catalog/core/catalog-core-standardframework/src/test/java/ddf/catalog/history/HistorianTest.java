@@ -71,16 +71,20 @@
 import java.security.PrivilegedAction;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import org.apache.shiro.subject.ExecutionException;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.codice.ddf.security.common.Security;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 
 public class HistorianTest {
@@ -103,6 +107,8 @@ public class HistorianTest {
 
   private UuidGenerator uuidGenerator;
 
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Before
   public void setup() {
     historian = new Historian();
@@ -178,6 +184,130 @@ public void testUpdateResponse() throws Exception {
         equalTo(METACARD_ID));
   }
 
+  @Test
+  public void testUpdateResponseDeltaVersion() throws Exception {
+    historian.setDeltaVersions(true);
+    UpdateResponse updateResponse = createUpdateResponse(null);
+    List<Update> updateList = createUpdatedMetacardList();
+    when(updateResponse.getUpdatedMetacards()).thenReturn(updateList);
+
+    historian.version(updateResponse);
+    ArgumentCaptor<CreateRequest> createRequest = ArgumentCaptor.forClass(CreateRequest.class);
+    verify(catalogProvider).create(createRequest.capture());
+
+    Metacard versionedMetacard = createRequest.getValue().getMetacards().get(0);
+    assertThat(MetacardVersionImpl.isDelta(versionedMetacard), equalTo(true));
+    assertThat(versionedMetacard.getAttribute(Metacard.RESOURCE_URI), nullValue());
+    assertThat(
+        versionedMetacard.getAttribute(MetacardVersion.VERSION_DELTA_ABSENT).getValues(),
+        equalTo(Collections.singletonList(Metacard.DESCRIPTION)));
+
+    Metacard newMetacard = updateList.get(0).getNewMetacard();
+    Metacard oldMetacard =
+        MetacardVersionImpl.toMetacard(
+            versionedMetacard, Collections.singletonList(versionedMetacard), newMetacard);
+    assertThat(oldMetacard.getId(), equalTo(METACARD_ID));
+    assertThat(oldMetacard.getResourceURI().toString(), equalTo(RESOURCE_URI));
+    assertThat(oldMetacard.getAttribute(Metacard.DESCRIPTION), nullValue());
+  }
+
+  @Test
+  public void testDeltaVersionsRebuiltFromLaterVersions() throws Exception {
+    MetacardImpl first = new MetacardImpl();
+    first.setId(METACARD_ID);
+    first.setTitle("first");
+    first.setDescription("unchanged");
+    MetacardImpl second = new MetacardImpl();
+    second.setId(METACARD_ID);
+    second.setTitle("second");
+    second.setDescription("unchanged");
+    MetacardImpl current = new MetacardImpl();
+    current.setId(METACARD_ID);
+    current.setTitle("current");
+
+    Metacard firstVersion =
+        new MetacardVersionImpl(
+            "v1",
+            first,
+            second,
+            MetacardVersion.Action.VERSIONED,
+            null,
+            Collections.singletonList(MetacardImpl.BASIC_METACARD));
+    firstVersion.setAttribute(
+        new AttributeImpl(MetacardVersion.VERSIONED_ON, new Date(System.currentTimeMillis() - 1)));
+    Metacard secondVersion =
+        new MetacardVersionImpl(
+            "v2",
+            second,
+            current,
+            MetacardVersion.Action.VERSIONED,
+            null,
+            Collections.singletonList(MetacardImpl.BASIC_METACARD));
+
+    Metacard rebuilt =
+        MetacardVersionImpl.toMetacard(
+            firstVersion, Arrays.asList(secondVersion, firstVersion), current);
+
+    assertThat(rebuilt.getTitle(), equalTo("first"));
+    assertThat(rebuilt.getAttribute(Metacard.DESCRIPTION).getValue(), equalTo("unchanged"));
+    assertThat(firstVersion.getAttribute(Metacard.DESCRIPTION), nullValue());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDeltaVersionNeedsLaterVersion() {
+    Metacard version =
+        new MetacardVersionImpl(
+            "v1",
+            getMetacardUpdatePair().get(0),
+            getMetacardUpdatePair().get(1),
+            MetacardVersion.Action.VERSIONED,
+            null,
+            Collections.singletonList(MetacardImpl.BASIC_METACARD));
+
+    MetacardVersionImpl.toMetacard(version);
+  }
+
+  @Test
+  public void testUpdateResponseAsynchronousWrites() throws Exception {
+    historian.setJournalDirectory(temporaryFolder.newFolder("history").getAbsolutePath());
+    historian.setFlushIntervalMillis(TimeUnit.HOURS.toMillis(1));
+    historian.setAsynchronousWrites(true);
+    UpdateResponse updateResponse = createUpdateResponse(null);
+    List<Update> updateList = createUpdatedMetacardList();
+    when(updateResponse.getUpdatedMetacards()).thenReturn(updateList);
+
+    historian.version(updateResponse);
+    verifyZeroInteractions(catalogProvider);
+
+    historian.destroy();
+    ArgumentCaptor<CreateRequest> createRequest = ArgumentCaptor.forClass(CreateRequest.class);
+    verify(catalogProvider).create(createRequest.capture());
+    Metacard versionedMetacard = createRequest.getValue().getMetacards().get(0);
+    assertThat(
+        versionedMetacard.getAttribute(MetacardVersion.VERSION_OF_ID).getValue(),
+        equalTo(METACARD_ID));
+  }
+
+  @Test
+  public void testDeltaVersionsAreStoredWhenTheirHistoryIsFlushed() throws Exception {
+    historian.setJournalDirectory(temporaryFolder.newFolder("history").getAbsolutePath());
+    historian.setFlushIntervalMillis(TimeUnit.HOURS.toMillis(1));
+    historian.setAsynchronousWrites(true);
+    historian.setDeltaVersions(true);
+    UpdateResponse updateResponse = createUpdateResponse(null);
+    List<Update> updateList = createUpdatedMetacardList();
+    when(updateResponse.getUpdatedMetacards()).thenReturn(updateList);
+
+    historian.version(updateResponse);
+    verifyZeroInteractions(catalogProvider);
+
+    historian.flushHistory(METACARD_ID);
+    ArgumentCaptor<CreateRequest> createRequest = ArgumentCaptor.forClass(CreateRequest.class);
+    verify(catalogProvider).create(createRequest.capture());
+    assertThat(
+        MetacardVersionImpl.isDelta(createRequest.getValue().getMetacards().get(0)), equalTo(true));
+  }
+
   @Test
   public void testUpdateStorageResponseHistorianDisabled()
       throws SourceUnavailableException, IngestException, UnsupportedQueryException {
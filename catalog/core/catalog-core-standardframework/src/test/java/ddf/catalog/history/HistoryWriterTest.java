@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.history;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import ddf.catalog.core.versioning.MetacardVersion;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HistoryWriterTest {
+
+  private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+  private static final int MAX_ATTEMPTS = 3;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File journalDirectory;
+
+  private List<Metacard> stored;
+
+  private AtomicBoolean failing;
+
+  private HistoryWriter writer;
+
+  @Before
+  public void setUp() throws IOException {
+    journalDirectory = temporaryFolder.newFolder("history");
+    stored = new CopyOnWriteArrayList<>();
+    failing = new AtomicBoolean(false);
+  }
+
+  @After
+  public void tearDown() {
+    if (writer != null) {
+      writer.close();
+    }
+  }
+
+  @Test
+  public void testWriteIsStoredOnFlush() throws Exception {
+    writer = createWriter(100, NEVER);
+
+    writer.write(Arrays.asList(createMetacard("a"), createMetacard("b")));
+    assertThat(stored, is(empty()));
+    assertThat(journalSegments(), hasSize(2));
+
+    writer.flush();
+    assertThat(getIds(stored), containsInAnyOrder("a", "b"));
+    assertThat(journalSegments(), is(empty()));
+  }
+
+  @Test
+  public void testBatchSizeTriggersFlush() throws Exception {
+    writer = createWriter(2, NEVER);
+
+    writer.write(Arrays.asList(createMetacard("a"), createMetacard("a")));
+
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (stored.size() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(getIds(stored), containsInAnyOrder("a", "a"));
+  }
+
+  @Test
+  public void testFlushOfAMetacardStoresAllOfItsVersions() throws Exception {
+    writer = createWriter(100, NEVER);
+
+    List<Metacard> versions = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      Metacard version = createMetacard("version" + i);
+      version.setAttribute(new AttributeImpl(MetacardVersion.VERSION_OF_ID, "a"));
+      versions.add(version);
+    }
+    writer.write(versions);
+    assertThat(journalSegments(), hasSize(1));
+
+    writer.flush("a");
+    assertThat(stored, hasSize(10));
+    assertThat(journalSegments(), is(empty()));
+  }
+
+  @Test
+  public void testFailedBatchIsRetried() throws Exception {
+    writer = createWriter(100, NEVER);
+    failing.set(true);
+
+    writer.write(Collections.singletonList(createMetacard("a")));
+    writer.flush();
+    assertThat(stored, is(empty()));
+    assertThat(journalSegments(), hasSize(1));
+
+    failing.set(false);
+    writer.flush();
+    assertThat(getIds(stored), containsInAnyOrder("a"));
+    assertThat(journalSegments(), is(empty()));
+  }
+
+  @Test
+  public void testSegmentIsMovedToTheDeadLetterDirectoryAfterTheLastAttempt() throws Exception {
+    writer = createWriter(100, NEVER);
+    failing.set(true);
+
+    writer.write(Collections.singletonList(createMetacard("a")));
+    writer.flush();
+    writer.flush();
+    assertThat(writer.getBacklog(), is(1));
+    assertThat(journalSegments(), hasSize(1));
+
+    writer.flush();
+    assertThat(writer.getBacklog(), is(0));
+    assertThat(journalSegments(), is(empty()));
+    String[] deadLetters = new File(journalDirectory, HistoryWriter.DEAD_LETTER_DIRECTORY).list();
+    assertThat(deadLetters.length, is(1));
+
+    failing.set(false);
+    writer.write(Collections.singletonList(createMetacard("a")));
+    writer.flush();
+    assertThat(getIds(stored), containsInAnyOrder("a"));
+  }
+
+  @Test
+  public void testWriteAfterCloseIsStored() throws Exception {
+    writer = createWriter(100, NEVER);
+    writer.close();
+
+    writer.write(Collections.singletonList(createMetacard("a")));
+    assertThat(getIds(stored), containsInAnyOrder("a"));
+    assertThat(journalSegments(), is(empty()));
+  }
+
+  @Test
+  public void testJournalIsReplayedAfterRestart() throws Exception {
+    writer = createWriter(100, NEVER);
+    failing.set(true);
+    writer.write(Arrays.asList(createMetacard("a"), createMetacard("b")));
+    writer.close();
+    assertThat(journalSegments(), hasSize(2));
+
+    failing.set(false);
+    writer = createWriter(100, NEVER);
+    writer.flush();
+
+    assertThat(getIds(stored), containsInAnyOrder("a", "b"));
+    assertThat(stored.get(0).getTitle(), is("title"));
+    assertThat(journalSegments(), is(empty()));
+  }
+
+  private HistoryWriter createWriter(int batchSize, long flushIntervalMillis) throws IOException {
+    return new HistoryWriter(
+        journalDirectory.toPath(),
+        2,
+        batchSize,
+        flushIntervalMillis,
+        MAX_ATTEMPTS,
+        metacards -> {
+          if (failing.get()) {
+            throw new IOException("Catalog provider unavailable");
+          }
+          stored.addAll(metacards);
+        });
+  }
+
+  private List<String> journalSegments() {
+    String[] names =
+        journalDirectory.list((dir, name) -> name.endsWith(HistoryWriter.SEGMENT_SUFFIX));
+    return names == null ? new ArrayList<>() : Arrays.asList(names);
+  }
+
+  private static List<String> getIds(List<Metacard> metacards) {
+    return metacards.stream().map(Metacard::getId).collect(Collectors.toList());
+  }
+
+  private static Metacard createMetacard(String id) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setTitle("title");
+    return metacard;
+  }
+}
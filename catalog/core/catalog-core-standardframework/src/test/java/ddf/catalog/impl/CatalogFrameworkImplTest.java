@@ -42,6 +42,7 @@
 
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteSource;
+import com.google.common.util.concurrent.MoreExecutors;
 import ddf.action.ActionRegistry;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.Constants;
@@ -91,6 +92,9 @@
 import ddf.catalog.impl.operations.SourceOperations;
 import ddf.catalog.impl.operations.TransformOperations;
 import ddf.catalog.impl.operations.UpdateOperations;
+import ddf.catalog.operation.AttributeDelta;
+import ddf.catalog.operation.BulkUpdateRequest;
+import ddf.catalog.operation.BulkUpdateResponse;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.DeleteRequest;
@@ -106,6 +110,8 @@
 import ddf.catalog.operation.Update;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.operation.impl.AttributeDeltaImpl;
+import ddf.catalog.operation.impl.BulkUpdateRequestImpl;
 import ddf.catalog.operation.impl.CreateRequestImpl;
 import ddf.catalog.operation.impl.DeleteRequestImpl;
 import ddf.catalog.operation.impl.QueryImpl;
@@ -164,6 +170,7 @@
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.activation.MimeType;
@@ -458,6 +465,7 @@ protected ResourceInfo getResourceInfo(
         };
 
     updateOperations.setHistorian(historian);
+    updateOperations.setBulkUpdateExecutor(MoreExecutors.newDirectExecutorService());
     deleteOperations.setHistorian(historian);
 
     framework =
@@ -871,6 +879,46 @@ public void testUpdate() throws Exception {
         returnedCards.get(returnedCards.size() - 1).getOldMetacard().getId());
   }
 
+  /** Tests that a bulk update writes only the matching metacards the deltas change. */
+  @Test
+  public void testBulkUpdate() throws Exception {
+    List<Metacard> metacards = new ArrayList<>();
+    for (String title : Arrays.asList("first", "second", "updated")) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setTitle(title);
+      metacards.add(metacard);
+    }
+    List<Metacard> insertedCards =
+        provider.create(new CreateRequestImpl(metacards, null)).getCreatedMetacards();
+
+    List<Result> federationResults =
+        insertedCards.stream().map(ResultImpl::new).collect(Collectors.toList());
+    when(mockFederationStrategy.federate(anyList(), anyObject()))
+        .thenReturn(
+            new QueryResponseImpl(
+                mock(QueryRequest.class), federationResults, federationResults.size()));
+
+    Subject subject = mock(Subject.class);
+    when(subject.associateWith(any(Callable.class)))
+        .thenAnswer(invocation -> invocation.getArguments()[0]);
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(SecurityConstants.SECURITY_SUBJECT, subject);
+
+    BulkUpdateRequest request =
+        new BulkUpdateRequestImpl(
+            new GeotoolsFilterBuilder().attribute(Metacard.ANY_TEXT).is().like().text("*"),
+            Collections.singletonList(
+                new AttributeDeltaImpl(Metacard.TITLE, AttributeDelta.Type.SET, "updated")),
+            properties);
+    BulkUpdateResponse response = framework.update(request);
+
+    assertThat(response.getUpdatedCount(), is(2L));
+    assertThat(response.getUnchangedCount(), is(1L));
+    assertThat(response.getFailedCount(), is(0L));
+    assertThat(response.getProcessingErrors(), is(Collections.emptySet()));
+    assertTrue(eventAdmin.wasEventPosted());
+  }
+
   @Test
   public void testUpdateWithDefaults() throws Exception {
     final String title = "some title";
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.security.Subject;
+import ddf.security.assertion.Attribute;
+import ddf.security.assertion.AttributeStatement;
+import ddf.security.assertion.SecurityAssertion;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+
+public class QueryResponseCacheTest {
+
+  private final FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private final Subject subject = subject("admin");
+
+  private QueryResponseCache cache;
+
+  @Before
+  public void setup() {
+    cache = new QueryResponseCache(100, 60);
+  }
+
+  @Test
+  public void testCachedResponseIsCopied() {
+    QueryRequest request = request(nitfFilter());
+    QueryResponseCache.Key key = cache.createKey(request, subject, null, false, false);
+    assertThat(cache.get(key, request), is(nullValue()));
+
+    QueryResponse response = response(request, "1", "2");
+    cache.put(key, response, cache.getGeneration());
+
+    QueryResponse cached =
+        cache.get(cache.createKey(request(nitfFilter()), subject, null, false, false), request);
+    assertThat(cached, is(notNullValue()));
+    assertThat(cached.getHits(), is(2L));
+    assertThat(ids(cached), contains("1", "2"));
+    assertThat(
+        cached.getResults().get(0).getMetacard(),
+        is(not(sameInstance(response.getResults().get(0).getMetacard()))));
+  }
+
+  @Test
+  public void testKeyDependsOnSubjectAttributes() {
+    QueryRequest request = request(nitfFilter());
+
+    assertThat(
+        cache.createKey(request, subject, null, false, false),
+        is(cache.createKey(request, subject("admin"), null, false, false)));
+    assertThat(
+        cache.createKey(request, subject, null, false, false),
+        is(not(cache.createKey(request, subject("guest"), null, false, false))));
+  }
+
+  @Test
+  public void testUncacheableQueries() {
+    QueryRequest request = request(nitfFilter());
+    assertThat(cache.createKey(request, subject(), null, false, false), is(nullValue()));
+
+    request.getProperties().put("unknown", new StringBuilder("value"));
+    assertThat(cache.createKey(request, subject, null, false, false), is(nullValue()));
+
+    assertThat(
+        new QueryResponseCache(100, 0)
+            .createKey(request(nitfFilter()), subject, null, false, false),
+        is(nullValue()));
+  }
+
+  @Test
+  public void testChangedResultInvalidatesResponse() {
+    QueryRequest request = request(nitfFilter());
+    QueryResponseCache.Key key = cache.createKey(request, subject, null, false, false);
+    cache.put(key, response(request, "1", "2"), cache.getGeneration());
+
+    cache.invalidate(Collections.singletonList(metacard("3", "pdf")));
+    assertThat(cache.get(key, request), is(notNullValue()));
+
+    cache.invalidate(Collections.singletonList(metacard("2", "pdf")));
+    assertThat(cache.get(key, request), is(nullValue()));
+  }
+
+  @Test
+  public void testMatchingMetacardInvalidatesResponse() {
+    QueryRequest request = request(nitfFilter());
+    QueryResponseCache.Key key = cache.createKey(request, subject, null, false, false);
+    cache.put(key, response(request, "1"), cache.getGeneration());
+
+    cache.invalidate(Collections.singletonList(metacard("2", "nitf")));
+    assertThat(cache.get(key, request), is(nullValue()));
+  }
+
+  @Test
+  public void testResponseOfQueryDuringChangeIsNotCached() {
+    QueryRequest request = request(nitfFilter());
+    QueryResponseCache.Key key = cache.createKey(request, subject, null, false, false);
+
+    long generation = cache.getGeneration();
+    cache.invalidate(Collections.singletonList(metacard("3", "pdf")));
+    cache.put(key, response(request, "1"), generation);
+
+    assertThat(cache.get(key, request), is(nullValue()));
+  }
+
+  private Filter nitfFilter() {
+    return filterBuilder.attribute(Metacard.CONTENT_TYPE).is().equalTo().text("nitf");
+  }
+
+  private static QueryRequest request(Filter filter) {
+    return new QueryRequestImpl(new QueryImpl(filter));
+  }
+
+  private static QueryResponse response(QueryRequest request, String... ids) {
+    List<Result> results =
+        Arrays.stream(ids)
+            .map(id -> new ResultImpl(metacard(id, "nitf")))
+            .collect(Collectors.toList());
+    return new QueryResponseImpl(request, results, results.size());
+  }
+
+  private static Metacard metacard(String id, String contentType) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setContentTypeName(contentType);
+    return metacard;
+  }
+
+  private static List<String> ids(QueryResponse response) {
+    return response
+        .getResults()
+        .stream()
+        .map(result -> result.getMetacard().getId())
+        .collect(Collectors.toList());
+  }
+
+  private static Subject subject(String... roles) {
+    Subject subject = mock(Subject.class);
+    PrincipalCollection principals = mock(PrincipalCollection.class);
+    SecurityAssertion assertion = mock(SecurityAssertion.class);
+    AttributeStatement statement = mock(AttributeStatement.class);
+    Attribute attribute = mock(Attribute.class);
+
+    doReturn(principals).when(subject).getPrincipals();
+    doReturn(Collections.singletonList(assertion)).when(principals).byType(SecurityAssertion.class);
+    doReturn(Collections.singletonList(statement)).when(assertion).getAttributeStatements();
+    doReturn(roles.length == 0 ? Collections.emptyList() : Collections.singletonList(attribute))
+        .when(statement)
+        .getAttributes();
+    doReturn("role").when(attribute).getName();
+    doReturn(Arrays.asList(roles)).when(attribute).getValues();
+    return subject;
+  }
+}
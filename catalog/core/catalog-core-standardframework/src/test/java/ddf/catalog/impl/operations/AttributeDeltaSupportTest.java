@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.operation.AttributeDelta;
+import ddf.catalog.operation.AttributeDelta.Type;
+import ddf.catalog.operation.impl.AttributeDeltaImpl;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AttributeDeltaSupportTest {
+
+  private static final String TAGS = Metacard.TAGS;
+
+  private Metacard metacard;
+
+  @Before
+  public void setup() {
+    metacard = new MetacardImpl();
+    metacard.setAttribute(new AttributeImpl(TAGS, Arrays.<Serializable>asList("a", "b")));
+  }
+
+  @Test
+  public void testSet() {
+    assertThat(apply(new AttributeDeltaImpl(TAGS, Type.SET, "c")), is(true));
+    assertThat(metacard.getAttribute(TAGS).getValues(), contains("c"));
+  }
+
+  @Test
+  public void testSetSameValues() {
+    assertThat(apply(new AttributeDeltaImpl(TAGS, Type.SET, "a", "b")), is(false));
+  }
+
+  @Test
+  public void testSetNoValuesRemovesAttribute() {
+    assertThat(apply(new AttributeDeltaImpl(TAGS, Type.SET)), is(true));
+    assertThat(metacard.getAttribute(TAGS), nullValue());
+  }
+
+  @Test
+  public void testAddOnlyAddsMissingValues() {
+    assertThat(apply(new AttributeDeltaImpl(TAGS, Type.ADD, "b", "c")), is(true));
+    assertThat(metacard.getAttribute(TAGS).getValues(), contains("a", "b", "c"));
+  }
+
+  @Test
+  public void testAddExistingValues() {
+    assertThat(apply(new AttributeDeltaImpl(TAGS, Type.ADD, "a")), is(false));
+  }
+
+  @Test
+  public void testAddToMissingAttribute() {
+    assertThat(apply(new AttributeDeltaImpl(Metacard.TITLE, Type.ADD, "title")), is(true));
+    assertThat(metacard.getAttribute(Metacard.TITLE).getValue(), is("title"));
+  }
+
+  @Test
+  public void testRemove() {
+    assertThat(apply(new AttributeDeltaImpl(TAGS, Type.REMOVE, "a", "c")), is(true));
+    assertThat(metacard.getAttribute(TAGS).getValues(), contains("b"));
+  }
+
+  @Test
+  public void testRemoveLastValueRemovesAttribute() {
+    apply(new AttributeDeltaImpl(TAGS, Type.REMOVE, "a", "b"));
+    assertThat(metacard.getAttribute(TAGS), nullValue());
+  }
+
+  @Test
+  public void testRemoveNoValuesRemovesAttribute() {
+    assertThat(apply(new AttributeDeltaImpl(TAGS, Type.REMOVE)), is(true));
+    assertThat(metacard.getAttribute(TAGS), nullValue());
+  }
+
+  @Test
+  public void testRemoveMissingAttribute() {
+    assertThat(apply(new AttributeDeltaImpl(Metacard.TITLE, Type.REMOVE)), is(false));
+  }
+
+  @Test
+  public void testDeltasAreAppliedInOrder() {
+    boolean changed =
+        AttributeDeltaSupport.applyDeltas(
+            metacard,
+            Arrays.asList(
+                new AttributeDeltaImpl(TAGS, Type.REMOVE),
+                new AttributeDeltaImpl(TAGS, Type.ADD, "c")));
+
+    assertThat(changed, is(true));
+    assertThat(metacard.getAttribute(TAGS).getValues(), contains("c"));
+  }
+
+  private boolean apply(AttributeDelta delta) {
+    return AttributeDeltaSupport.applyDeltas(metacard, Collections.singletonList(delta));
+  }
+}
@@ -20,8 +20,10 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
@@ -48,6 +50,8 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -670,6 +674,87 @@ public void testStreamToClientExceptionDuringProductDownloadCachingEnabled() thr
     cleanup();
   }
 
+  @Test
+  public void testDownloadRangeFromCache() throws Exception {
+    Metacard metacard = getMockMetacard(EXPECTED_METACARD_ID, EXPECTED_METACARD_SOURCE_ID);
+    File product = new File(productCacheDirectory, EXPECTED_CACHE_KEY);
+    FileUtils.copyFile(new File(productInputFilename), product);
+    ReliableResource cachedResource =
+        new ReliableResource(
+            EXPECTED_CACHE_KEY,
+            product.getAbsolutePath(),
+            new MimeType("text/plain"),
+            "test-resource",
+            new MetacardImpl());
+    cachedResource.setSize(expectedFileSize);
+    when(resourceCache.getValid(EXPECTED_CACHE_KEY, metacard)).thenReturn(cachedResource);
+    ResourceRetriever retriever = mock(ResourceRetriever.class);
+    downloadMgr.setCacheEnabled(true);
+
+    ResourceResponse newResourceResponse =
+        downloadMgr.download(getMockRangeRequest(10L), metacard, retriever);
+
+    try (InputStream is = newResourceResponse.getResource().getInputStream()) {
+      assertEquals(expectedFileContents.substring(10), IOUtils.toString(is));
+    }
+    assertThat(newResourceResponse.getResource().getSize(), is(expectedFileSize - 10));
+    verify(retriever, never()).retrieveResource();
+    FileUtils.deleteDirectory(new File(productCacheDirectory));
+  }
+
+  @Test
+  public void testDownloadRangeIsNotCached() throws Exception {
+    mis = new MockInputStream(productInputFilename);
+    Metacard metacard = getMockMetacard(EXPECTED_METACARD_ID, EXPECTED_METACARD_SOURCE_ID);
+    resourceResponse = getMockResourceResponse();
+    resourceRequest = getMockRangeRequest(10L);
+    when(resourceResponse.getRequest()).thenReturn(resourceRequest);
+    ResourceRetriever retriever = mock(ResourceRetriever.class);
+    when(retriever.retrieveResource()).thenReturn(resourceResponse);
+
+    startDownload(true, 50, false, metacard, retriever);
+    clientRead(50, productInputStream);
+
+    verify(resourceCache, never()).addPendingCacheEntry(any(ReliableResource.class));
+    verify(resourceCache, never()).put(any(ReliableResource.class));
+    cleanup();
+  }
+
+  @Test
+  public void testDownloadRangeAttachesToDownloadInProgress() throws Exception {
+    PipedOutputStream source = new PipedOutputStream();
+    Metacard metacard = getMockMetacard(EXPECTED_METACARD_ID, EXPECTED_METACARD_SOURCE_ID);
+    resourceResponse = getMockResourceResponse();
+    when(resource.getInputStream()).thenReturn(new PipedInputStream(source));
+    ResourceRetriever retriever = mock(ResourceRetriever.class);
+    when(retriever.retrieveResource()).thenReturn(resourceResponse);
+    byte[] contents = expectedFileContents.getBytes();
+
+    startDownload(true, 50, false, metacard, retriever);
+    source.write(contents, 0, 20);
+    source.flush();
+    while (((ReliableResourceInputStream) productInputStream).getBytesCached() < 20) {
+      Thread.sleep(10);
+    }
+
+    ResourceRetriever rangeRetriever = mock(ResourceRetriever.class);
+    ResourceResponse rangeResponse =
+        downloadMgr.download(getMockRangeRequest(10L), metacard, rangeRetriever);
+    InputStream attached = rangeResponse.getResource().getInputStream();
+    assertThat(attached, is(instanceOf(InProgressCacheInputStream.class)));
+
+    source.write(contents, 20, contents.length - 20);
+    source.close();
+
+    verifyClientBytesRead(clientRead(50, productInputStream));
+    try (InputStream is = attached) {
+      assertEquals(expectedFileContents.substring(10), IOUtils.toString(is));
+    }
+    verify(resourceCache, timeout(5000)).put(any(ReliableResource.class));
+    verify(rangeRetriever, never()).retrieveResource();
+    cleanup();
+  }
+
   @Test
   public void testGetDownloadsInProgress() {
     List<String> downloadIds = new ArrayList<>();
@@ -849,6 +934,15 @@ private ResourceResponse getMockResourceResponse() throws Exception {
     return resourceResponse;
   }
 
+  private ResourceRequest getMockRangeRequest(long bytesToSkip) {
+    ResourceRequest request = mock(ResourceRequest.class);
+    Map<String, Serializable> requestProperties = new HashMap<>();
+    requestProperties.put(ResourceRetriever.BYTES_TO_SKIP, bytesToSkip);
+    when(request.getProperties()).thenReturn(requestProperties);
+    when(request.getPropertyNames()).thenReturn(requestProperties.keySet());
+    return request;
+  }
+
   private ResourceRetriever getMockResourceRetrieverWithRetryCapability(final RetryType retryType)
       throws Exception {
     return getMockResourceRetrieverWithRetryCapability(retryType, false);
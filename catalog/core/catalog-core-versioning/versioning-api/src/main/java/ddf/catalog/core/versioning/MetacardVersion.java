@@ -111,6 +111,19 @@ public interface MetacardVersion extends Metacard {
    */
   String VERSIONED_RESOURCE_URI = PREFIXER.apply("resource-uri");
 
+  /**
+   * {@link ddf.catalog.data.Attribute} name for whether this {@link Metacard} revision is a delta.
+   * A delta only holds the attributes that differ from the revision that replaced it (or the
+   * current metacard), so it is rebuilt from that revision when it is read.
+   */
+  String VERSION_DELTA = PREFIXER.apply("delta");
+
+  /**
+   * {@link ddf.catalog.data.Attribute} name for the attributes a delta {@link Metacard} revision
+   * didn't have but the revision that replaced it does.
+   */
+  String VERSION_DELTA_ABSENT = PREFIXER.apply("delta-absent");
+
   enum Action {
     // @formatter:off
     DELETED("Deleted"),
@@ -39,10 +39,13 @@
 import java.net.URISyntaxException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -91,6 +94,12 @@ public class MetacardVersionImpl extends MetacardImpl implements MetacardVersion
     VERSION_DESCRIPTORS.add(
         new AttributeDescriptorImpl(
             VERSIONED_RESOURCE_URI, true, true, true, false, BasicTypes.STRING_TYPE));
+    VERSION_DESCRIPTORS.add(
+        new AttributeDescriptorImpl(
+            VERSION_DELTA, true, true, false, false, BasicTypes.BOOLEAN_TYPE));
+    VERSION_DESCRIPTORS.add(
+        new AttributeDescriptorImpl(
+            VERSION_DELTA_ABSENT, false, true, false, true, BasicTypes.STRING_TYPE));
     METACARD_VERSION = new MetacardTypeImpl(PREFIX, VERSION_DESCRIPTORS);
   }
 
@@ -154,6 +163,49 @@ public MetacardVersionImpl(
     this.setTags(Collections.singleton(VERSION_TAG));
   }
 
+  /**
+   * Will convert the given {@link Metacard} to a delta {@link MetacardVersionImpl} that only holds
+   * the attributes that differ from {@code nextMetacard}, the metacard that replaced it. The full
+   * version is rebuilt from {@code nextMetacard} with {@link #toMetacard(Metacard, Metacard)}.
+   *
+   * @param sourceMetacard Metacard to create a history item from
+   * @param nextMetacard The metacard that replaced {@code sourceMetacard}
+   * @param action Which action was done to modify the metacard
+   * @param types A list of currently defined types in the system
+   * @throws IllegalArgumentException
+   */
+  public MetacardVersionImpl(
+      String id,
+      Metacard sourceMetacard,
+      Metacard nextMetacard,
+      Action action,
+      Subject subject,
+      List<MetacardType> types) {
+    this(id, sourceMetacard, action, subject, types);
+
+    Set<String> names = new HashSet<>(getAttributeNames(sourceMetacard));
+    names.addAll(getAttributeNames(nextMetacard));
+    names.removeAll(getVersionAttributeNames());
+    names.remove(Metacard.ID);
+    names.remove(Metacard.TAGS);
+
+    List<String> absent = new ArrayList<>();
+    for (String name : names) {
+      Attribute source = sourceMetacard.getAttribute(name);
+      Attribute next = nextMetacard.getAttribute(name);
+      if (hasValue(source) ? sameValues(source, next) : !hasValue(next)) {
+        setAttribute(new AttributeImpl(name, (Serializable) null));
+      } else if (!hasValue(source)) {
+        absent.add(name);
+      }
+    }
+
+    setAttribute(VERSION_DELTA, true);
+    if (!absent.isEmpty()) {
+      setAttribute(VERSION_DELTA_ABSENT, new ArrayList<>(absent));
+    }
+  }
+
   // @formatter:off
   private byte[] getVersionType(Metacard sourceMetacard) {
     try {
@@ -215,6 +267,11 @@ public static Metacard toMetacard(Metacard source, List<MetacardType> types) {
    * @return The original metacard this version represents
    */
   public static Metacard toMetacard(Metacard source) {
+    if (isDelta(source)) {
+      throw new IllegalStateException(
+          "Cannot convert delta history metacard without the metacard that replaced it");
+    }
+
     String id = (String) source.getAttribute(MetacardVersion.VERSION_OF_ID).getValue();
     if (isNullOrEmpty(id)) {
       throw new IllegalStateException(
@@ -237,6 +294,145 @@ public static Metacard toMetacard(Metacard source) {
     return result;
   }
 
+  /**
+   * Reverts the passed in delta {@link Metacard} version to the original {@link Metacard}, using
+   * the metacard that replaced it for the attributes the delta doesn't hold.
+   *
+   * @param source The metacard to revert
+   * @param nextMetacard The original metacard of the version that replaced {@code source}, or the
+   *     current metacard if {@code source} is the latest version
+   * @return The original metacard this version represents
+   */
+  public static Metacard toMetacard(Metacard source, Metacard nextMetacard) {
+    if (!isDelta(source)) {
+      return toMetacard(source);
+    }
+
+    MetacardImpl full =
+        new MetacardImpl(
+            nextMetacard, getMetacardTypeBinary(source).orElseThrow(cannotDeserializeException));
+    Set<String> versionAttributeNames = getVersionAttributeNames();
+    for (String name : getAttributeNames(source)) {
+      Attribute attribute = source.getAttribute(name);
+      if (hasValue(attribute)
+          && !versionAttributeNames.contains(name)
+          && !Metacard.TAGS.equals(name)) {
+        full.setAttribute(attribute);
+      }
+    }
+    Attribute absent = source.getAttribute(VERSION_DELTA_ABSENT);
+    if (hasValue(absent)) {
+      absent
+          .getValues()
+          .forEach(
+              name -> full.setAttribute(new AttributeImpl((String) name, (Serializable) null)));
+    }
+    full.setAttribute(VERSION_TYPE_BINARY, source.getAttribute(VERSION_TYPE_BINARY).getValue());
+    full.setAttribute(VERSION_OF_ID, source.getAttribute(VERSION_OF_ID).getValue());
+    full.setAttribute(VERSION_TAGS, new ArrayList<>(getVersionTags(source)));
+    Attribute resourceUri = source.getAttribute(VERSIONED_RESOURCE_URI);
+    full.setAttribute(VERSIONED_RESOURCE_URI, resourceUri == null ? null : resourceUri.getValue());
+    full.setAttribute(VERSION_DELTA, false);
+
+    return toMetacard(full);
+  }
+
+  /**
+   * Reverts the passed in {@link Metacard} version to the original {@link Metacard}, rebuilding it
+   * from the later versions in {@code history} if it is a delta.
+   *
+   * @param source The metacard to revert
+   * @param history The versions of the same metacard, in any order
+   * @param currentMetacard The current metacard, or {@code null} if it was deleted
+   * @return The original metacard this version represents
+   */
+  public static Metacard toMetacard(
+      Metacard source, Collection<Metacard> history, @Nullable Metacard currentMetacard) {
+    if (!isDelta(source)) {
+      return toMetacard(source);
+    }
+
+    Date versionedOn = getVersionedOn(source);
+    List<Metacard> newer =
+        history
+            .stream()
+            .filter(version -> !source.getId().equals(version.getId()))
+            .filter(version -> getVersionedOn(version).compareTo(versionedOn) >= 0)
+            .sorted(Comparator.comparing((Metacard version) -> getVersionedOn(version)).reversed())
+            .collect(Collectors.toList());
+
+    Metacard next = currentMetacard;
+    for (Metacard version : newer) {
+      next = isDelta(version) ? toNextMetacard(version, next) : toMetacard(version);
+    }
+    return toNextMetacard(source, next);
+  }
+
+  private static Metacard toNextMetacard(Metacard version, @Nullable Metacard next) {
+    if (next == null) {
+      throw new IllegalStateException(
+          "Cannot convert delta history metacard "
+              + version.getId()
+              + " without the metacard that replaced it");
+    }
+    return toMetacard(version, next);
+  }
+
+  /** @return true if the metacard is a delta version, which needs the version that replaced it */
+  public static boolean isDelta(@Nullable Metacard metacard) {
+    return Optional.ofNullable(metacard)
+        .map(m -> m.getAttribute(VERSION_DELTA))
+        .map(Attribute::getValue)
+        .map(Boolean.TRUE::equals)
+        .orElse(false);
+  }
+
+  private static Date getVersionedOn(Metacard version) {
+    return Optional.ofNullable(version.getAttribute(VERSIONED_ON))
+        .map(Attribute::getValue)
+        .filter(Date.class::isInstance)
+        .map(Date.class::cast)
+        .orElse(new Date(0));
+  }
+
+  private static Set<String> getAttributeNames(Metacard metacard) {
+    return metacard
+        .getMetacardType()
+        .getAttributeDescriptors()
+        .stream()
+        .map(AttributeDescriptor::getName)
+        .collect(Collectors.toSet());
+  }
+
+  private static Set<String> getVersionAttributeNames() {
+    return Sets.difference(
+            VERSION_DESCRIPTORS, MetacardImpl.BASIC_METACARD.getAttributeDescriptors())
+        .stream()
+        .map(AttributeDescriptor::getName)
+        .collect(Collectors.toSet());
+  }
+
+  private static boolean hasValue(@Nullable Attribute attribute) {
+    return attribute != null && attribute.getValue() != null;
+  }
+
+  private static boolean sameValues(Attribute attribute, @Nullable Attribute other) {
+    if (other == null || other.getValues() == null) {
+      return false;
+    }
+    List<Serializable> values = attribute.getValues();
+    List<Serializable> otherValues = other.getValues();
+    if (values.size() != otherValues.size()) {
+      return false;
+    }
+    for (int i = 0; i < values.size(); i++) {
+      if (!Objects.deepEquals(values.get(i), otherValues.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static void sanitizeVersionAttributes(/*Mutable*/ Metacard source) {
     Consumer<String> nullifySourceAttribute =
         (s) -> source.setAttribute(new AttributeImpl(s, (Serializable) null));
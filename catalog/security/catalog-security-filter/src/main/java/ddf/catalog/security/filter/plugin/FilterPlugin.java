@@ -42,11 +42,13 @@
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.TreeMap;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.subject.Subject;
 import org.codice.ddf.security.common.Security;
 import org.osgi.framework.Bundle;
@@ -191,12 +193,11 @@ public DeleteResponse processPostDelete(DeleteResponse input) throws StopProcess
 
     List<Metacard> results = input.getDeletedMetacards();
     List<Metacard> newResults = new ArrayList<>(results.size());
-    KeyValueCollectionPermission securityPermission =
-        new KeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    boolean[] permitted = checkPermissions(results, subject, CollectionPermission.READ_ACTION);
     int filteredMetacards = 0;
-    for (Metacard metacard : results) {
-      Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+    for (int i = 0; i < results.size(); i++) {
+      Metacard metacard = results.get(i);
+      if (!permitted[i]) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -239,14 +240,16 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
 
     List<Result> results = input.getResults();
     List<Result> newResults = new ArrayList<>(results.size());
-    Metacard metacard;
-    KeyValueCollectionPermission securityPermission =
-        new KeyValueCollectionPermission(CollectionPermission.READ_ACTION);
-    int filteredMetacards = 0;
+    List<Metacard> metacards = new ArrayList<>(results.size());
     for (Result result : results) {
-      metacard = result.getMetacard();
-      Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+      metacards.add(result.getMetacard());
+    }
+    boolean[] permitted = checkPermissions(metacards, subject, CollectionPermission.READ_ACTION);
+    int filteredMetacards = 0;
+    for (int i = 0; i < results.size(); i++) {
+      Result result = results.get(i);
+      Metacard metacard = metacards.get(i);
+      if (!permitted[i]) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -333,6 +336,44 @@ private Subject getSubject(Request input) throws StopProcessingException {
     return subject;
   }
 
+  /**
+   * Checks whether the subject is permitted to perform the action on each of the metacards with a
+   * single bulk permission check. Metacards with the same security markings share one permission,
+   * so each distinct marking is only evaluated once per request.
+   *
+   * @return whether the action is permitted, for each metacard in order
+   */
+  private boolean[] checkPermissions(List<Metacard> metacards, Subject subject, String action) {
+    Map<Map<String, Set<String>>, Integer> permissionIndexes = new HashMap<>();
+    List<Permission> permissions = new ArrayList<>();
+    int[] metacardPermissions = new int[metacards.size()];
+    for (int i = 0; i < metacards.size(); i++) {
+      Attribute attr = metacards.get(i).getAttribute(Metacard.SECURITY);
+      Map<String, Set<String>> map = null;
+      if (attr != null) {
+        map = (Map<String, Set<String>>) attr.getValue();
+      }
+
+      Integer index = permissionIndexes.get(map);
+      if (index == null) {
+        index = permissions.size();
+        permissionIndexes.put(map, index);
+        permissions.add(
+            map == null
+                ? new KeyValueCollectionPermission(action)
+                : new KeyValueCollectionPermission(action, map));
+      }
+      metacardPermissions[i] = index;
+    }
+
+    boolean[] permitted = permissions.isEmpty() ? new boolean[0] : subject.isPermitted(permissions);
+    boolean[] results = new boolean[metacards.size()];
+    for (int i = 0; i < metacards.size(); i++) {
+      results[i] = permitted[metacardPermissions[i]];
+    }
+    return results;
+  }
+
   private boolean checkPermissions(
       Attribute attr,
       KeyValueCollectionPermission securityPermission,
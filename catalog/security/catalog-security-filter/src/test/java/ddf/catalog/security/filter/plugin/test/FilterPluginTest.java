@@ -19,6 +19,8 @@
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.Metacard;
@@ -94,9 +96,11 @@ public class FilterPluginTest {
 
   DeleteResponse badDeleteResponse;
 
+  AuthorizingRealm realm;
+
   @Before
   public void setup() {
-    AuthorizingRealm realm = mock(AuthorizingRealm.class);
+    realm = mock(AuthorizingRealm.class);
 
     when(realm.getName()).thenReturn("mockRealm");
     when(realm.isPermitted(any(PrincipalCollection.class), any(Permission.class)))
@@ -201,6 +205,19 @@ public void testPluginFilter() {
     }
   }
 
+  @Test
+  public void testPluginFilterEvaluatesEachMarkingOnce() throws StopProcessingException {
+    for (int i = 0; i < 10; i++) {
+      incomingResponse.addResult(new ResultImpl(getMoreRolesMetacard()), false);
+      incomingResponse.addResult(new ResultImpl(getExactRolesMetacard()), false);
+    }
+
+    QueryResponse response = plugin.processPostQuery(incomingResponse);
+
+    assertThat(response.getResults().size(), is(14));
+    verify(realm, times(5)).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+  }
+
   @Test
   public void testPluginFilterNoStrategies() {
     plugin = new FilterPlugin();
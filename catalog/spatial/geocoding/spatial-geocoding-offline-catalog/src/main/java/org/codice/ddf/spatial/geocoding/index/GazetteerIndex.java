@@ -0,0 +1,487 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+
+/**
+ * An immutable, read-optimized index of GeoNames entries that is queried directly instead of
+ * through the catalog.
+ *
+ * <p>Names are matched by word prefix, like the catalog's place suggester: every word start of an
+ * entry's normalized title ({@code "name, country code"}) is a key, and the keys are kept in one
+ * sorted array, which is a flattened trie. A prefix lookup is a binary search for the range of keys
+ * starting with the prefix. Ranges that are too long to scan on every keystroke, which only happens
+ * for short prefixes, have their most populous entries computed when the index is built.
+ *
+ * <p>Entries with a location are also bucketed into a one degree grid for nearest city lookups.
+ *
+ * <p>Alternate names are not kept, since none of the queries return them.
+ */
+public final class GazetteerIndex {
+
+  /** The longest range of keys a suggestion scans, longer ranges use the precomputed results */
+  static final int SCAN_LIMIT = 1024;
+
+  /** The number of suggestions precomputed for each prefix with a range longer than the limit */
+  static final int CACHED_SUGGESTIONS = 32;
+
+  private static final int MAGIC = 0x47415a31;
+
+  private static final int LATITUDE_CELLS = 180;
+
+  private static final int LONGITUDE_CELLS = 360;
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  public static final GazetteerIndex EMPTY = build(Collections.emptyList());
+
+  private final GeoEntry[] entries;
+
+  private final String[] ids;
+
+  private final String[] sortedIds;
+
+  private final int[] sortedIdOrdinals;
+
+  private final String[] keys;
+
+  private final int[] keyOrdinals;
+
+  private final Map<String, int[]> cachedSuggestions = new HashMap<>();
+
+  private final int[] cellStarts;
+
+  private final int[] cellOrdinals;
+
+  /** Orders ordinals by descending population, then by ordinal so results are deterministic */
+  private final Comparator<Integer> byPopulation;
+
+  private GazetteerIndex(GeoEntry[] entries) {
+    this.entries = entries;
+    byPopulation =
+        Comparator.comparingLong((Integer ordinal) -> -entries[ordinal].getPopulation())
+            .thenComparing(Comparator.naturalOrder());
+
+    ids = new String[entries.length];
+    Integer[] idOrder = new Integer[entries.length];
+    for (int i = 0; i < entries.length; i++) {
+      ids[i] = createId(entries[i]);
+      idOrder[i] = i;
+    }
+    Arrays.sort(idOrder, Comparator.comparing(ordinal -> ids[ordinal]));
+    sortedIds = new String[entries.length];
+    sortedIdOrdinals = new int[entries.length];
+    for (int i = 0; i < idOrder.length; i++) {
+      sortedIds[i] = ids[idOrder[i]];
+      sortedIdOrdinals[i] = idOrder[i];
+    }
+
+    List<Key> keyList = new ArrayList<>();
+    for (int i = 0; i < entries.length; i++) {
+      String title = normalize(title(entries[i]));
+      for (int start = 0; start < title.length(); start++) {
+        if (start == 0 || title.charAt(start - 1) == ' ') {
+          keyList.add(new Key(title.substring(start), i));
+        }
+      }
+    }
+    Collections.sort(keyList);
+    keys = new String[keyList.size()];
+    keyOrdinals = new int[keyList.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = keyList.get(i).text;
+      keyOrdinals[i] = keyList.get(i).ordinal;
+    }
+    cacheSuggestions();
+
+    cellStarts = new int[LATITUDE_CELLS * LONGITUDE_CELLS + 1];
+    for (GeoEntry entry : entries) {
+      if (hasLocation(entry)) {
+        cellStarts[cellOf(entry.getLatitude(), entry.getLongitude()) + 1]++;
+      }
+    }
+    for (int i = 1; i < cellStarts.length; i++) {
+      cellStarts[i] += cellStarts[i - 1];
+    }
+    cellOrdinals = new int[cellStarts[cellStarts.length - 1]];
+    int[] next = Arrays.copyOf(cellStarts, cellStarts.length - 1);
+    for (int i = 0; i < entries.length; i++) {
+      if (hasLocation(entries[i])) {
+        cellOrdinals[next[cellOf(entries[i].getLatitude(), entries[i].getLongitude())]++] = i;
+      }
+    }
+  }
+
+  /**
+   * Builds an index of the entries.
+   *
+   * @param entries the entries to index
+   * @return the index
+   */
+  public static GazetteerIndex build(Collection<GeoEntry> entries) {
+    return new GazetteerIndex(entries.toArray(new GeoEntry[0]));
+  }
+
+  /**
+   * Reads an index written by {@link #write(Path)}.
+   *
+   * @param path the index file
+   * @return the index
+   * @throws IOException if the file can't be read or isn't an index
+   */
+  public static GazetteerIndex read(Path path) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(path + " is not a gazetteer index");
+      }
+      GeoEntry[] entries = new GeoEntry[in.readInt()];
+      for (int i = 0; i < entries.length; i++) {
+        GeoEntry.Builder builder =
+            new GeoEntry.Builder()
+                .name(readString(in))
+                .countryCode(readString(in))
+                .featureClass(readString(in))
+                .featureCode(readString(in))
+                .importLocation(readString(in))
+                .population(in.readLong());
+        if (in.readBoolean()) {
+          builder.latitude(in.readDouble()).longitude(in.readDouble());
+        }
+        entries[i] = builder.build();
+      }
+      return new GazetteerIndex(entries);
+    }
+  }
+
+  /**
+   * Writes the entries of the index. The file is replaced atomically, so a reader never sees a
+   * partially written index.
+   *
+   * @param path the index file
+   * @throws IOException if the file can't be written
+   */
+  public void write(Path path) throws IOException {
+    Path directory = path.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(entries.length);
+        for (GeoEntry entry : entries) {
+          writeString(out, entry.getName());
+          writeString(out, entry.getCountryCode());
+          writeString(out, entry.getFeatureClass());
+          writeString(out, entry.getFeatureCode());
+          writeString(out, entry.getImportLocation());
+          out.writeLong(entry.getPopulation());
+          out.writeBoolean(hasLocation(entry));
+          if (hasLocation(entry)) {
+            out.writeDouble(entry.getLatitude());
+            out.writeDouble(entry.getLongitude());
+          }
+        }
+      }
+      Files.move(
+          temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /** @return the number of entries in the index */
+  public int size() {
+    return entries.length;
+  }
+
+  /** @return the entries of the index, in ordinal order */
+  public List<GeoEntry> getEntries() {
+    return Collections.unmodifiableList(Arrays.asList(entries));
+  }
+
+  public GeoEntry getEntry(int ordinal) {
+    return entries[ordinal];
+  }
+
+  /**
+   * @return the id of an entry, which is derived from the entry so it stays the same when the index
+   *     is rebuilt
+   */
+  public String getId(int ordinal) {
+    return ids[ordinal];
+  }
+
+  /** @return the ordinal of the entry with the id, or -1 if there is none */
+  public int find(String id) {
+    int index = Arrays.binarySearch(sortedIds, id);
+    return index < 0 ? -1 : sortedIdOrdinals[index];
+  }
+
+  /**
+   * Finds the most populous entries with a word of their title starting with the text.
+   *
+   * @param text a partial or full name
+   * @param maxResults the maximum number of results
+   * @return the ordinals of the entries, most populous first
+   */
+  public int[] suggest(String text, int maxResults) {
+    String prefix = normalize(text);
+    if (prefix.isEmpty() || maxResults < 1) {
+      return new int[0];
+    }
+    int[] range = range(prefix);
+    if (range[1] - range[0] > SCAN_LIMIT && maxResults <= CACHED_SUGGESTIONS) {
+      int[] cached = cachedSuggestions.get(prefix);
+      if (cached != null) {
+        return Arrays.copyOf(cached, Math.min(maxResults, cached.length));
+      }
+    }
+    return top(range[0], range[1], maxResults, byPopulation);
+  }
+
+  /**
+   * Finds the entries with a word of their title starting with the text, in the given order.
+   *
+   * @param text a partial or full name
+   * @param maxResults the maximum number of results
+   * @param order the order of the results
+   * @return the ordinals of the first entries in the order
+   */
+  public int[] search(String text, int maxResults, Comparator<GeoEntry> order) {
+    String prefix = normalize(text);
+    if (prefix.isEmpty() || maxResults < 1) {
+      return new int[0];
+    }
+    int[] range = range(prefix);
+    Comparator<Integer> ordinalOrder =
+        Comparator.comparing((Integer ordinal) -> entries[ordinal], order)
+            .thenComparing(Comparator.naturalOrder());
+    return top(range[0], range[1], maxResults, ordinalOrder);
+  }
+
+  /**
+   * Passes the ordinals of the entries in the grid cells overlapping a bounding box to the
+   * consumer. The cells are one degree wide, so the consumer has to check the locations of the
+   * entries itself.
+   *
+   * @param minLatitude the southern edge of the box
+   * @param minLongitude the western edge of the box, may be less than -180 to wrap around
+   * @param maxLatitude the northern edge of the box
+   * @param maxLongitude the eastern edge of the box, may be more than 180 to wrap around
+   * @param consumer receives the ordinals
+   */
+  public void forEachNear(
+      double minLatitude,
+      double minLongitude,
+      double maxLatitude,
+      double maxLongitude,
+      IntConsumer consumer) {
+    int fromLatitude = latitudeCell(minLatitude);
+    int toLatitude = latitudeCell(maxLatitude);
+    int fromLongitude = (int) Math.floor(minLongitude + 180);
+    int toLongitude = (int) Math.floor(maxLongitude + 180);
+    if (toLongitude - fromLongitude >= LONGITUDE_CELLS - 1) {
+      fromLongitude = 0;
+      toLongitude = LONGITUDE_CELLS - 1;
+    }
+
+    for (int latitude = fromLatitude; latitude <= toLatitude; latitude++) {
+      for (int longitude = fromLongitude; longitude <= toLongitude; longitude++) {
+        int cell = latitude * LONGITUDE_CELLS + Math.floorMod(longitude, LONGITUDE_CELLS);
+        for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+          consumer.accept(cellOrdinals[i]);
+        }
+      }
+    }
+  }
+
+  /** @return the title of an entry, the name the catalog and the suggestions use for it */
+  public static String title(GeoEntry entry) {
+    return entry.getCountryCode() == null
+        ? entry.getName()
+        : String.format("%s, %s", entry.getName(), entry.getCountryCode());
+  }
+
+  static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    String stripped =
+        DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    return SEPARATORS.matcher(stripped).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+  }
+
+  private void cacheSuggestions() {
+    boolean longRange = true;
+    for (int depth = 1; longRange; depth++) {
+      longRange = false;
+      int start = 0;
+      while (start < keys.length) {
+        if (keys[start].length() < depth) {
+          start++;
+          continue;
+        }
+        String prefix = keys[start].substring(0, depth);
+        int end = start + 1;
+        while (end < keys.length && keys[end].startsWith(prefix)) {
+          end++;
+        }
+        if (end - start > SCAN_LIMIT) {
+          cachedSuggestions.put(prefix, top(start, end, CACHED_SUGGESTIONS, byPopulation));
+          longRange = true;
+        }
+        start = end;
+      }
+    }
+  }
+
+  /** @return the first {@code count} distinct ordinals of the keys in the range, in order */
+  private int[] top(int from, int to, int count, Comparator<Integer> order) {
+    PriorityQueue<Integer> worstFirst = new PriorityQueue<>(count + 1, order.reversed());
+    Set<Integer> selected = new HashSet<>();
+    for (int i = from; i < to; i++) {
+      Integer ordinal = keyOrdinals[i];
+      if (selected.contains(ordinal)) {
+        continue;
+      }
+      if (worstFirst.size() < count) {
+        worstFirst.add(ordinal);
+        selected.add(ordinal);
+      } else if (order.compare(ordinal, worstFirst.peek()) < 0) {
+        selected.remove(worstFirst.poll());
+        worstFirst.add(ordinal);
+        selected.add(ordinal);
+      }
+    }
+
+    int[] ordinals = new int[worstFirst.size()];
+    for (int i = ordinals.length - 1; i >= 0; i--) {
+      ordinals[i] = worstFirst.poll();
+    }
+    return ordinals;
+  }
+
+  /** @return the range of keys starting with the prefix */
+  private int[] range(String prefix) {
+    return new int[] {lowerBound(prefix), lowerBound(prefix + Character.MAX_VALUE)};
+  }
+
+  private int lowerBound(String key) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle].compareTo(key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static boolean hasLocation(GeoEntry entry) {
+    return entry.getLatitude() != null && entry.getLongitude() != null;
+  }
+
+  private static int cellOf(double latitude, double longitude) {
+    return latitudeCell(latitude) * LONGITUDE_CELLS
+        + Math.min(Math.max((int) Math.floor(longitude + 180), 0), LONGITUDE_CELLS - 1);
+  }
+
+  private static int latitudeCell(double latitude) {
+    return Math.min(Math.max((int) Math.floor(latitude + 90), 0), LATITUDE_CELLS - 1);
+  }
+
+  private static String createId(GeoEntry entry) {
+    String identity =
+        String.join(
+            "|",
+            String.valueOf(entry.getName()),
+            String.valueOf(entry.getCountryCode()),
+            String.valueOf(entry.getFeatureCode()),
+            String.valueOf(entry.getLatitude()),
+            String.valueOf(entry.getLongitude()));
+    return UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8))
+        .toString()
+        .replace("-", "");
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Key implements Comparable<Key> {
+    private final String text;
+
+    private final int ordinal;
+
+    private Key(String text, int ordinal) {
+      this.text = text;
+      this.ordinal = ordinal;
+    }
+
+    @Override
+    public int compareTo(Key other) {
+      int comparison = text.compareTo(other.text);
+      return comparison != 0 ? comparison : Integer.compare(ordinal, other.ordinal);
+    }
+  }
+}
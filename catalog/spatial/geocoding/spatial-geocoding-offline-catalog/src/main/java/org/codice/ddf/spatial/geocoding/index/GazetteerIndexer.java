@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.index;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractionException;
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractor;
+import org.codice.ddf.spatial.geocoding.GeoEntryIndexer;
+import org.codice.ddf.spatial.geocoding.GeoEntryIndexingException;
+import org.codice.ddf.spatial.geocoding.GeoNamesRemoteDownloadException;
+import org.codice.ddf.spatial.geocoding.ProgressCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Indexes GeoNames entries into a {@link GazetteerIndex} file instead of the catalog.
+ *
+ * <p>Like {@link GeoNamesCatalogIndexer}, only cities are indexed, and creating an index for a
+ * resource replaces the entries previously imported from that resource. The index is rebuilt and
+ * written after every update, then swapped in for the queries.
+ */
+public class GazetteerIndexer implements GeoEntryIndexer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GazetteerIndexer.class);
+
+  private final Path indexPath;
+
+  private volatile GazetteerIndex index = GazetteerIndex.EMPTY;
+
+  /** @param indexLocation the path of the index file */
+  public GazetteerIndexer(String indexLocation) {
+    this.indexPath = Paths.get(indexLocation);
+  }
+
+  /** Loads the index written by a previous update, if there is one. */
+  public void init() {
+    if (!indexPath.toFile().exists()) {
+      LOGGER.debug("No gazetteer index at {}, it will be created on the next update.", indexPath);
+      return;
+    }
+    try {
+      index = GazetteerIndex.read(indexPath);
+      LOGGER.debug("Loaded {} gazetteer entries from {}.", index.size(), indexPath);
+    } catch (IOException e) {
+      LOGGER.warn(
+          "Could not read the gazetteer index at {}. Update the gazetteer to recreate it.",
+          indexPath,
+          e);
+    }
+  }
+
+  /** @return the current index, empty until entries have been indexed */
+  public GazetteerIndex getIndex() {
+    return index;
+  }
+
+  @Override
+  public void updateIndex(
+      List<GeoEntry> newEntries, boolean create, ProgressCallback progressCallback, String resource)
+      throws GeoEntryIndexingException {
+    List<GeoEntry> cities = new ArrayList<>(newEntries.size());
+    for (GeoEntry entry : newEntries) {
+      if (isCity(entry)) {
+        cities.add(entry);
+      }
+    }
+    update(resource, cities, create);
+    if (progressCallback != null) {
+      progressCallback.updateProgress(100);
+    }
+  }
+
+  @Override
+  public void updateIndex(
+      String resource,
+      GeoEntryExtractor geoEntryExtractor,
+      boolean create,
+      ProgressCallback progressCallback)
+      throws GeoEntryIndexingException, GeoEntryExtractionException,
+          GeoNamesRemoteDownloadException {
+    if (StringUtils.isBlank(resource)) {
+      LOGGER.debug("The resource was null or empty.");
+      return;
+    }
+
+    List<GeoEntry> cities = new ArrayList<>();
+    geoEntryExtractor.pushGeoEntriesToExtractionCallback(
+        resource,
+        new GeoEntryExtractor.ExtractionCallback() {
+          @Override
+          public void extracted(GeoEntry newEntry) {
+            if (isCity(newEntry)) {
+              cities.add(newEntry);
+            }
+          }
+
+          @Override
+          public void updateProgress(int progress) {
+            // Leave the last tenth of the progress for building the index
+            if (progressCallback != null) {
+              progressCallback.updateProgress(progress * 9 / 10);
+            }
+          }
+        });
+
+    update(resource, cities, create);
+    if (progressCallback != null) {
+      progressCallback.updateProgress(100);
+    }
+    LOGGER.trace("All data indexed for: {}", resource);
+  }
+
+  private synchronized void update(String resource, List<GeoEntry> cities, boolean create)
+      throws GeoEntryIndexingException {
+    List<GeoEntry> entries = new ArrayList<>(index.size() + cities.size());
+    for (GeoEntry entry : index.getEntries()) {
+      if (!create || !Objects.equals(entry.getImportLocation(), resource)) {
+        entries.add(entry);
+      }
+    }
+    for (GeoEntry city : cities) {
+      entries.add(withImportLocation(city, resource));
+    }
+
+    GazetteerIndex updated = GazetteerIndex.build(entries);
+    try {
+      updated.write(indexPath);
+    } catch (IOException e) {
+      throw new GeoEntryIndexingException("Unable to write the gazetteer index to " + indexPath, e);
+    }
+    index = updated;
+    LOGGER.debug(
+        "Indexed {} gazetteer entries, {} from {}.", entries.size(), cities.size(), resource);
+  }
+
+  private static boolean isCity(GeoEntry entry) {
+    return GeoCodingConstants.CITY_FEATURE_CODES.contains(entry.getFeatureCode());
+  }
+
+  private static GeoEntry withImportLocation(GeoEntry entry, String resource) {
+    if (entry.getImportLocation() != null || resource == null) {
+      return entry;
+    }
+    GeoEntry.Builder builder =
+        new GeoEntry.Builder()
+            .name(entry.getName())
+            .countryCode(entry.getCountryCode())
+            .featureClass(entry.getFeatureClass())
+            .featureCode(entry.getFeatureCode())
+            .population(entry.getPopulation())
+            .importLocation(resource);
+    if (entry.getLatitude() != null && entry.getLongitude() != null) {
+      builder.latitude(entry.getLatitude()).longitude(entry.getLongitude());
+    }
+    return builder.build();
+  }
+}
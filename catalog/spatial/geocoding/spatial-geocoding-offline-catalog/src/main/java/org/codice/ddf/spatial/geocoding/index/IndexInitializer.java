@@ -33,7 +33,8 @@ public class IndexInitializer {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(IndexInitializer.class);
 
-  private static final String PROCESSED = ".processed";
+  // Differs from the ".processed" marker of catalog ingests, so the default data gets indexed too
+  private static final String PROCESSED = ".indexed";
 
   private String defaultGeoNamesDataPath;
 
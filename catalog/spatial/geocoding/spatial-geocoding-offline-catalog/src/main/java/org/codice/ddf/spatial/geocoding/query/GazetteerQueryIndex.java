@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.io.WKTReader;
+import com.vividsolutions.jts.operation.distance.DistanceOp;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+import org.codice.ddf.spatial.geocoding.GeoEntryQueryException;
+import org.codice.ddf.spatial.geocoding.GeoEntryQueryable;
+import org.codice.ddf.spatial.geocoding.Suggestion;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.context.impl.NearbyLocationImpl;
+import org.codice.ddf.spatial.geocoding.context.impl.SuggestionImpl;
+import org.codice.ddf.spatial.geocoding.index.GazetteerIndex;
+import org.codice.ddf.spatial.geocoding.index.GazetteerIndexer;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.impl.PointImpl;
+
+/**
+ * Answers gazetteer queries from the {@link GazetteerIndex} instead of querying the catalog, so a
+ * keystroke in the location search doesn't go through the catalog framework's plugins and
+ * federation.
+ *
+ * <p>Until entries have been indexed, queries are passed to the given {@link GeoEntryQueryable},
+ * which queries the gazetteer metacards in the catalog. Ids that aren't in the index, which can be
+ * ids of suggestions the catalog made, are also looked up there.
+ */
+public class GazetteerQueryIndex implements GeoEntryQueryable {
+
+  private static final SpatialContext SPATIAL_CONTEXT = SpatialContext.GEO;
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private static final ThreadLocal<WKTReader> WKT_READER_THREAD_LOCAL =
+      ThreadLocal.withInitial(WKTReader::new);
+
+  private static final double EARTH_RADIUS_IN_KM = 6371.0088;
+
+  private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_IN_KM / 180;
+
+  /** The order of the catalog's gazetteer query, by feature code and then population */
+  private static final Comparator<GeoEntry> QUERY_ORDER =
+      Comparator.comparing(
+              GeoEntry::getFeatureCode, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+          .thenComparing(Comparator.comparingLong(GeoEntry::getPopulation).reversed());
+
+  private final GazetteerIndexer indexer;
+
+  private final GeoEntryQueryable catalogQueryable;
+
+  public GazetteerQueryIndex(GazetteerIndexer indexer, GeoEntryQueryable catalogQueryable) {
+    this.indexer = indexer;
+    this.catalogQueryable = catalogQueryable;
+  }
+
+  @Override
+  public List<GeoEntry> query(String queryString, int maxResults) throws GeoEntryQueryException {
+    GazetteerIndex index = indexer.getIndex();
+    if (index.size() == 0) {
+      return catalogQueryable.query(queryString, maxResults);
+    }
+
+    List<GeoEntry> geoEntries = new ArrayList<>();
+    for (int ordinal : index.search(queryString, maxResults, QUERY_ORDER)) {
+      geoEntries.add(toTitledGeoEntry(index.getEntry(ordinal)));
+    }
+    return geoEntries;
+  }
+
+  @Override
+  public GeoEntry queryById(String id) throws GeoEntryQueryException {
+    if (StringUtils.isBlank(id)) {
+      throw new IllegalArgumentException("id cannot be blank or null");
+    }
+
+    int ordinal = indexer.getIndex().find(id);
+    if (ordinal < 0) {
+      return catalogQueryable.queryById(id);
+    }
+    return toTitledGeoEntry(indexer.getIndex().getEntry(ordinal));
+  }
+
+  @Override
+  public List<Suggestion> getSuggestedNames(String queryString, int maxResults)
+      throws GeoEntryQueryException {
+    GazetteerIndex index = indexer.getIndex();
+    if (index.size() == 0) {
+      return catalogQueryable.getSuggestedNames(queryString, maxResults);
+    }
+
+    List<Suggestion> suggestions = new ArrayList<>();
+    for (int ordinal : index.suggest(queryString, maxResults)) {
+      suggestions.add(
+          new SuggestionImpl(index.getId(ordinal), GazetteerIndex.title(index.getEntry(ordinal))));
+    }
+    return suggestions;
+  }
+
+  @Override
+  public List<NearbyLocation> getNearestCities(String location, int radiusInKm, int maxResults)
+      throws ParseException, GeoEntryQueryException {
+    GazetteerIndex index = indexer.getIndex();
+    if (index.size() == 0) {
+      return catalogQueryable.getNearestCities(location, radiusInKm, maxResults);
+    }
+
+    Geometry geometry;
+    try {
+      geometry = WKT_READER_THREAD_LOCAL.get().read(location);
+    } catch (com.vividsolutions.jts.io.ParseException e) {
+      throw new ParseException("Unable to parse location " + location, 0);
+    }
+
+    List<GeoEntry> cities = within(index, geometry, radiusInKm);
+    cities.sort(Comparator.comparingLong(GeoEntry::getPopulation).reversed());
+
+    Point center = geometry.getCentroid();
+    PointImpl centerPoint = new PointImpl(center.getY(), center.getX(), SPATIAL_CONTEXT);
+    List<NearbyLocation> nearbyLocations = new ArrayList<>();
+    for (GeoEntry city : cities.subList(0, Math.min(maxResults, cities.size()))) {
+      nearbyLocations.add(
+          new NearbyLocationImpl(
+              centerPoint,
+              new PointImpl(city.getLatitude(), city.getLongitude(), SPATIAL_CONTEXT),
+              GazetteerIndex.title(city)));
+    }
+    return nearbyLocations;
+  }
+
+  @Override
+  public Optional<String> getCountryCode(String wktLocation, int radius)
+      throws GeoEntryQueryException, ParseException {
+    GazetteerIndex index = indexer.getIndex();
+    if (index.size() == 0) {
+      return catalogQueryable.getCountryCode(wktLocation, radius);
+    }
+
+    Point center;
+    try {
+      center = WKT_READER_THREAD_LOCAL.get().read(wktLocation).getCentroid();
+    } catch (com.vividsolutions.jts.io.ParseException e) {
+      return Optional.empty();
+    }
+
+    return within(index, center, radius)
+        .stream()
+        .min(
+            Comparator.comparingDouble(
+                city ->
+                    distanceInKm(
+                        center.getY(), center.getX(), city.getLatitude(), city.getLongitude())))
+        .map(GeoEntry::getCountryCode);
+  }
+
+  /** @return the indexed entries within {@code radiusInKm} of the geometry */
+  private List<GeoEntry> within(GazetteerIndex index, Geometry geometry, int radiusInKm) {
+    Envelope envelope = geometry.getEnvelopeInternal();
+    double latitudeDelta = radiusInKm / KM_PER_DEGREE;
+    double maxAbsoluteLatitude =
+        Math.min(
+            90,
+            Math.max(Math.abs(envelope.getMinY()), Math.abs(envelope.getMaxY())) + latitudeDelta);
+    double longitudeDelta =
+        maxAbsoluteLatitude >= 89
+            ? 180
+            : latitudeDelta / Math.cos(Math.toRadians(maxAbsoluteLatitude));
+
+    List<GeoEntry> entries = new ArrayList<>();
+    index.forEachNear(
+        envelope.getMinY() - latitudeDelta,
+        envelope.getMinX() - longitudeDelta,
+        envelope.getMaxY() + latitudeDelta,
+        envelope.getMaxX() + longitudeDelta,
+        ordinal -> {
+          GeoEntry entry = index.getEntry(ordinal);
+          if (distanceInKm(geometry, entry) <= radiusInKm) {
+            entries.add(entry);
+          }
+        });
+    return entries;
+  }
+
+  private static double distanceInKm(Geometry geometry, GeoEntry entry) {
+    Coordinate coordinate = new Coordinate(entry.getLongitude(), entry.getLatitude());
+    Coordinate nearest;
+    if (geometry instanceof Point) {
+      nearest = geometry.getCoordinate();
+    } else {
+      nearest = DistanceOp.nearestPoints(geometry, GEOMETRY_FACTORY.createPoint(coordinate))[0];
+    }
+    return distanceInKm(nearest.y, nearest.x, coordinate.y, coordinate.x);
+  }
+
+  /** @return the great circle distance between two points */
+  private static double distanceInKm(
+      double latitude1, double longitude1, double latitude2, double longitude2) {
+    double latitudeSine = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+    double longitudeSine = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+    double a =
+        latitudeSine * latitudeSine
+            + Math.cos(Math.toRadians(latitude1))
+                * Math.cos(Math.toRadians(latitude2))
+                * longitudeSine
+                * longitudeSine;
+    return 2 * EARTH_RADIUS_IN_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  /** @return the entry named by its title, which is what the catalog returns as the name */
+  private static GeoEntry toTitledGeoEntry(GeoEntry entry) {
+    GeoEntry.Builder builder =
+        new GeoEntry.Builder()
+            .name(GazetteerIndex.title(entry))
+            .countryCode(entry.getCountryCode())
+            .featureClass(entry.getFeatureClass())
+            .featureCode(entry.getFeatureCode())
+            .population(entry.getPopulation())
+            .importLocation(entry.getImportLocation());
+    if (entry.getLatitude() != null && entry.getLongitude() != null) {
+      builder.latitude(entry.getLatitude()).longitude(entry.getLongitude());
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GazetteerIndexTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static final List<GeoEntry> ENTRIES =
+      Arrays.asList(
+          city("Boston", "US", 42.35843, -71.05977, 617594),
+          city("Boston", "GB", 52.97633, -0.02664, 35124),
+          city("Bostonia", "US", 32.80755, -116.93642, 15379),
+          city("New Boston", "US", 33.45984, -94.41547, 4550),
+          city("São Paulo", "BR", -23.5475, -46.63611, 10021295),
+          city("Cambridge", "US", 42.3751, -71.10561, 105162));
+
+  @Test
+  public void testSuggestMatchesWordPrefixesByPopulation() {
+    GazetteerIndex index = GazetteerIndex.build(ENTRIES);
+
+    assertThat(
+        titles(index, index.suggest("bost", 10)),
+        contains("Boston, US", "Boston, GB", "Bostonia, US", "New Boston, US"));
+    assertThat(titles(index, index.suggest("Boston, G", 10)), contains("Boston, GB"));
+    assertThat(titles(index, index.suggest("bost", 2)), contains("Boston, US", "Boston, GB"));
+  }
+
+  @Test
+  public void testSuggestIgnoresCaseAndDiacritics() {
+    GazetteerIndex index = GazetteerIndex.build(ENTRIES);
+
+    assertThat(titles(index, index.suggest("SAO PAU", 10)), contains("São Paulo, BR"));
+    assertThat(titles(index, index.suggest("paulo", 10)), contains("São Paulo, BR"));
+    assertThat(index.suggest("", 10).length, is(0));
+    assertThat(index.suggest("nowhere", 10).length, is(0));
+  }
+
+  @Test
+  public void testSuggestLongRangeUsesPrecomputedSuggestions() {
+    List<GeoEntry> entries = new ArrayList<>();
+    for (int i = 0; i < GazetteerIndex.SCAN_LIMIT * 2; i++) {
+      entries.add(city("Springfield " + i, "US", 39.8, -89.6, i));
+    }
+    GazetteerIndex index = GazetteerIndex.build(entries);
+
+    int largest = GazetteerIndex.SCAN_LIMIT * 2 - 1;
+    assertThat(
+        titles(index, index.suggest("spr", 3)),
+        contains(
+            "Springfield " + largest + ", US",
+            "Springfield " + (largest - 1) + ", US",
+            "Springfield " + (largest - 2) + ", US"));
+    assertThat(
+        index.suggest("s", GazetteerIndex.CACHED_SUGGESTIONS + 10).length,
+        is(GazetteerIndex.CACHED_SUGGESTIONS + 10));
+  }
+
+  @Test
+  public void testSearchOrder() {
+    GazetteerIndex index = GazetteerIndex.build(ENTRIES);
+
+    int[] ordinals = index.search("boston", 10, Comparator.comparingLong(GeoEntry::getPopulation));
+    assertThat(
+        titles(index, ordinals),
+        contains("New Boston, US", "Bostonia, US", "Boston, GB", "Boston, US"));
+  }
+
+  @Test
+  public void testFindById() {
+    GazetteerIndex index = GazetteerIndex.build(ENTRIES);
+
+    for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+      assertThat(index.find(index.getId(ordinal)), is(ordinal));
+    }
+    assertThat(index.find("unknown"), is(-1));
+    assertThat(GazetteerIndex.build(ENTRIES).getId(0), is(index.getId(0)));
+  }
+
+  @Test
+  public void testForEachNear() {
+    GazetteerIndex index = GazetteerIndex.build(ENTRIES);
+
+    List<String> near = new ArrayList<>();
+    index.forEachNear(42, -72, 43, -71, ordinal -> near.add(title(index, ordinal)));
+    assertThat(near, containsInAnyOrder("Boston, US", "Cambridge, US"));
+
+    near.clear();
+    index.forEachNear(52, -1, 53, 0.5, ordinal -> near.add(title(index, ordinal)));
+    assertThat(near, contains("Boston, GB"));
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    Path path = temporaryFolder.getRoot().toPath().resolve("gazetteer.index");
+    GazetteerIndex index = GazetteerIndex.build(ENTRIES);
+    index.write(path);
+
+    GazetteerIndex read = GazetteerIndex.read(path);
+    assertThat(read.size(), is(ENTRIES.size()));
+    assertThat(
+        titles(read, read.suggest("bost", 10)), is(titles(index, index.suggest("bost", 10))));
+    assertThat(read.getEntry(4).getLatitude(), is(-23.5475));
+    assertThat(read.getEntry(4).getPopulation(), is(10021295L));
+    assertThat(read.getId(4), is(index.getId(4)));
+  }
+
+  private static List<String> titles(GazetteerIndex index, int[] ordinals) {
+    return IntStream.of(ordinals)
+        .mapToObj(ordinal -> title(index, ordinal))
+        .collect(Collectors.toList());
+  }
+
+  private static String title(GazetteerIndex index, int ordinal) {
+    return GazetteerIndex.title(index.getEntry(ordinal));
+  }
+
+  private static GeoEntry city(
+      String name, String countryCode, double latitude, double longitude, long population) {
+    return new GeoEntry.Builder()
+        .name(name)
+        .countryCode(countryCode)
+        .featureCode("PPL")
+        .latitude(latitude)
+        .longitude(longitude)
+        .population(population)
+        .build();
+  }
+}
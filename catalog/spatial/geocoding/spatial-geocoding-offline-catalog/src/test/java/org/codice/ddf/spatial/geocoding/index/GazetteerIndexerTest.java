@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.index;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+import org.codice.ddf.spatial.geocoding.extract.GeoNamesFileExtractor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GazetteerIndexerTest {
+
+  private static final String GOOD_FILE_PATH =
+      GazetteerIndexerTest.class.getClassLoader().getResource("goodGeoNamesFile.txt").getPath();
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private String indexLocation;
+
+  private GazetteerIndexer indexer;
+
+  @Before
+  public void setUp() {
+    indexLocation = new File(temporaryFolder.getRoot(), "gazetteer/gazetteer.index").getPath();
+    indexer = new GazetteerIndexer(indexLocation);
+    indexer.init();
+  }
+
+  @Test
+  public void testUpdateIndexFromExtractor() throws Exception {
+    GeoNamesFileExtractor extractor = new GeoNamesFileExtractor();
+    extractor.setGeoEntryCreator(
+        (line, resource) -> {
+          String[] fields = line.split("\t");
+          return new GeoEntry.Builder()
+              .name(fields[1])
+              .latitude(Double.valueOf(fields[4]))
+              .longitude(Double.valueOf(fields[5]))
+              .featureClass(fields[6])
+              .featureCode(fields[7])
+              .countryCode(fields[8])
+              .population(Long.parseLong(fields[14]))
+              .build();
+        });
+
+    AtomicInteger progress = new AtomicInteger();
+    indexer.updateIndex(GOOD_FILE_PATH, extractor, true, progress::set);
+
+    assertThat(names(indexer), containsInAnyOrder("Auburn", "Barnstable", "Belmont"));
+    assertThat(progress.get(), is(100));
+  }
+
+  @Test
+  public void testOnlyCitiesAreIndexed() throws Exception {
+    indexer.updateIndex(
+        Arrays.asList(entry("Boston", "PPLA"), entry("Massachusetts Bay", "BAY")),
+        true,
+        null,
+        "a.txt");
+
+    assertThat(names(indexer), containsInAnyOrder("Boston"));
+  }
+
+  @Test
+  public void testCreateReplacesEntriesOfTheSameResource() throws Exception {
+    indexer.updateIndex(Collections.singletonList(entry("Boston", "PPL")), true, null, "a.txt");
+    indexer.updateIndex(Collections.singletonList(entry("Quincy", "PPL")), true, null, "b.txt");
+    indexer.updateIndex(Collections.singletonList(entry("Salem", "PPL")), false, null, "b.txt");
+    assertThat(names(indexer), containsInAnyOrder("Boston", "Quincy", "Salem"));
+
+    indexer.updateIndex(Collections.singletonList(entry("Lowell", "PPL")), true, null, "b.txt");
+    assertThat(names(indexer), containsInAnyOrder("Boston", "Lowell"));
+  }
+
+  @Test
+  public void testIndexIsLoadedOnInit() throws Exception {
+    indexer.updateIndex(Collections.singletonList(entry("Boston", "PPL")), true, null, "a.txt");
+
+    GazetteerIndexer restarted = new GazetteerIndexer(indexLocation);
+    assertThat(restarted.getIndex().size(), is(0));
+    restarted.init();
+    assertThat(names(restarted), containsInAnyOrder("Boston"));
+  }
+
+  private static List<String> names(GazetteerIndexer indexer) {
+    return indexer
+        .getIndex()
+        .getEntries()
+        .stream()
+        .map(GeoEntry::getName)
+        .collect(Collectors.toList());
+  }
+
+  private static GeoEntry entry(String name, String featureCode) {
+    return new GeoEntry.Builder()
+        .name(name)
+        .countryCode("US")
+        .featureCode(featureCode)
+        .latitude(42.0)
+        .longitude(-71.0)
+        .build();
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+import org.codice.ddf.spatial.geocoding.GeoEntryQueryable;
+import org.codice.ddf.spatial.geocoding.Suggestion;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.index.GazetteerIndexer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GazetteerQueryIndexTest {
+
+  private static final String BOSTON_WKT = "POINT (-71.0595703125 42.35771940022451)";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private GazetteerIndexer indexer;
+
+  private GeoEntryQueryable catalogQueryable;
+
+  private GazetteerQueryIndex queryIndex;
+
+  @Before
+  public void setUp() {
+    indexer =
+        new GazetteerIndexer(new File(temporaryFolder.getRoot(), "gazetteer.index").getPath());
+    catalogQueryable = mock(GeoEntryQueryable.class);
+    queryIndex = new GazetteerQueryIndex(indexer, catalogQueryable);
+  }
+
+  @Test
+  public void testCatalogIsQueriedUntilIndexed() throws Exception {
+    List<Suggestion> catalogSuggestions = Collections.singletonList(mock(Suggestion.class));
+    when(catalogQueryable.getSuggestedNames("bos", 5)).thenReturn(catalogSuggestions);
+
+    assertThat(queryIndex.getSuggestedNames("bos", 5), is(catalogSuggestions));
+    queryIndex.query("boston", 5);
+    verify(catalogQueryable).query("boston", 5);
+  }
+
+  @Test
+  public void testGetSuggestedNames() throws Exception {
+    index();
+
+    List<Suggestion> suggestions = queryIndex.getSuggestedNames("bos", 5);
+    assertThat(
+        suggestions.stream().map(Suggestion::getName).collect(Collectors.toList()),
+        contains("Boston, US", "Boston, GB"));
+
+    GeoEntry geoEntry = queryIndex.queryById(suggestions.get(1).getId());
+    assertThat(geoEntry.getName(), is("Boston, GB"));
+    assertThat(geoEntry.getCountryCode(), is("GB"));
+    assertThat(geoEntry.getLatitude(), is(52.97633));
+  }
+
+  @Test
+  public void testQueryByIdNotInIndex() throws Exception {
+    index();
+    GeoEntry catalogEntry = new GeoEntry.Builder().name("Boston").build();
+    when(catalogQueryable.queryById("catalogId")).thenReturn(catalogEntry);
+
+    assertThat(queryIndex.queryById("catalogId"), is(catalogEntry));
+  }
+
+  @Test
+  public void testQuery() throws Exception {
+    index();
+
+    List<GeoEntry> geoEntries = queryIndex.query("boston", 5);
+    assertThat(
+        geoEntries.stream().map(GeoEntry::getName).collect(Collectors.toList()),
+        contains("Boston, GB", "Boston, US"));
+  }
+
+  @Test
+  public void testGetNearestCities() throws Exception {
+    index();
+
+    List<NearbyLocation> nearbyLocations = queryIndex.getNearestCities(BOSTON_WKT, 10, 5);
+    assertThat(
+        nearbyLocations.stream().map(NearbyLocation::getName).collect(Collectors.toList()),
+        contains("Boston, US", "Cambridge, US"));
+    assertThat(queryIndex.getNearestCities(BOSTON_WKT, 10, 1).size(), is(1));
+  }
+
+  @Test(expected = ParseException.class)
+  public void testGetNearestCitiesBadWkt() throws Exception {
+    index();
+
+    queryIndex.getNearestCities("badWkt", 10, 5);
+  }
+
+  @Test
+  public void testGetCountryCode() throws Exception {
+    index();
+
+    assertThat(queryIndex.getCountryCode(BOSTON_WKT, 10), is(Optional.of("US")));
+    assertThat(queryIndex.getCountryCode("POINT (-40 40)", 10), is(Optional.empty()));
+  }
+
+  private void index() throws Exception {
+    indexer.updateIndex(
+        Arrays.asList(
+            city("Boston", "US", "PPLA", 42.35843, -71.05977, 617594),
+            city("Boston", "GB", "PPL", 52.97633, -0.02664, 35124),
+            city("Cambridge", "US", "PPL", 42.3751, -71.10561, 105162)),
+        true,
+        null,
+        "test.txt");
+  }
+
+  private static GeoEntry city(
+      String name,
+      String countryCode,
+      String featureCode,
+      double latitude,
+      double longitude,
+      long population) {
+    return new GeoEntry.Builder()
+        .name(name)
+        .countryCode(countryCode)
+        .featureCode(featureCode)
+        .latitude(latitude)
+        .longitude(longitude)
+        .population(population)
+        .build();
+  }
+}
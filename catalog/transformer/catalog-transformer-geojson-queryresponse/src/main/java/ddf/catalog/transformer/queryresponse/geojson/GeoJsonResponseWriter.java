@@ -0,0 +1,330 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transformer.queryresponse.geojson;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.geo.formatter.CompositeGeometry;
+import ddf.geo.formatter.GeometryCollection;
+import ddf.geo.formatter.MultiLineString;
+import ddf.geo.formatter.MultiPolygon;
+import ddf.geo.formatter.Point;
+import ddf.geo.formatter.Polygon;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Base64;
+import java.util.Date;
+import java.util.TimeZone;
+import net.minidev.json.JSONValue;
+
+/**
+ * Writes the GeoJSON of a {@link SourceResponse} in a single pass. Each metacard is written as a
+ * feature directly from its attributes, and each geometry directly from its JTS representation, so
+ * no intermediate JSON objects are created.
+ *
+ * <p>The features are the same as the ones created by the GeoJSON metacard transformer.
+ */
+class GeoJsonResponseWriter {
+
+  private static final String ISO_8601_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+
+  private static final String METACARD_TYPE_PROPERTY_KEY = "metacard-type";
+
+  private static final String SOURCE_ID_PROPERTY = "source-id";
+
+  private final Writer writer;
+
+  private final WKTReader wktReader = new WKTReader();
+
+  private final SimpleDateFormat dateFormat = new SimpleDateFormat(ISO_8601_DATE_FORMAT);
+
+  /** Whether a member has been written in each of the objects or arrays being written */
+  private boolean hasMember;
+
+  GeoJsonResponseWriter(Writer writer) {
+    this.writer = writer;
+    dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+  }
+
+  void write(SourceResponse response) throws IOException, CatalogTransformerException {
+    beginObject();
+    writeName("hits");
+    writer.write(Long.toString(response.getHits()));
+
+    writeName("results");
+    beginArray();
+    if (response.getResults() != null) {
+      for (Result result : response.getResults()) {
+        if (result == null) {
+          throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
+        }
+        writeSeparator();
+        writeResult(result);
+      }
+    }
+    endArray();
+    endObject();
+  }
+
+  private void writeResult(Result result) throws IOException, CatalogTransformerException {
+    beginObject();
+    if (result.getDistanceInMeters() != null) {
+      writeName("distance");
+      JSONValue.writeJSONString(result.getDistanceInMeters(), writer);
+    }
+    if (result.getRelevanceScore() != null) {
+      writeName("relevance");
+      JSONValue.writeJSONString(result.getRelevanceScore(), writer);
+    }
+    writeName("metacard");
+    writeFeature(result.getMetacard());
+    endObject();
+  }
+
+  private void writeFeature(Metacard metacard) throws IOException, CatalogTransformerException {
+    if (metacard == null) {
+      throw new CatalogTransformerException("Cannot transform null metacard.");
+    }
+
+    beginObject();
+    writeName(CompositeGeometry.TYPE_KEY);
+    writeString("Feature");
+
+    writeName(CompositeGeometry.PROPERTIES_KEY);
+    beginObject();
+    Attribute location = null;
+    AttributeDescriptor locationDescriptor = null;
+    for (AttributeDescriptor descriptor : metacard.getMetacardType().getAttributeDescriptors()) {
+      Attribute attribute = metacard.getAttribute(descriptor.getName());
+      if (attribute == null || !hasValue(attribute, descriptor)) {
+        continue;
+      }
+
+      if (Metacard.GEOGRAPHY.equals(attribute.getName())) {
+        location = attribute;
+        locationDescriptor = descriptor;
+      } else {
+        writeName(attribute.getName());
+        writeAttribute(attribute, descriptor);
+      }
+    }
+
+    writeName(METACARD_TYPE_PROPERTY_KEY);
+    writeString(metacard.getMetacardType().getName());
+    if (metacard.getSourceId() != null && !"".equals(metacard.getSourceId())) {
+      writeName(SOURCE_ID_PROPERTY);
+      writeString(metacard.getSourceId());
+    }
+    endObject();
+
+    writeName(CompositeGeometry.GEOMETRY_KEY);
+    if (location != null) {
+      writeAttribute(location, locationDescriptor);
+    } else {
+      writer.write("null");
+    }
+    endObject();
+  }
+
+  /** @return {@code false} if the attribute is left out of the feature */
+  private static boolean hasValue(Attribute attribute, AttributeDescriptor descriptor) {
+    if (descriptor.isMultiValued()) {
+      return true;
+    }
+
+    switch (descriptor.getType().getAttributeFormat()) {
+      case OBJECT:
+        return false;
+      default:
+        return attribute.getValue() != null;
+    }
+  }
+
+  private void writeAttribute(Attribute attribute, AttributeDescriptor descriptor)
+      throws IOException, CatalogTransformerException {
+    AttributeType.AttributeFormat format = descriptor.getType().getAttributeFormat();
+    if (descriptor.isMultiValued()) {
+      beginArray();
+      for (Serializable value : attribute.getValues()) {
+        writeSeparator();
+        writeValue(value, format);
+      }
+      endArray();
+    } else {
+      writeValue(attribute.getValue(), format);
+    }
+  }
+
+  private void writeValue(Serializable value, AttributeType.AttributeFormat format)
+      throws IOException, CatalogTransformerException {
+    // Numbers are written as strings, the same as the GeoJSON metacard transformer does
+    if (value == null || format == AttributeType.AttributeFormat.OBJECT) {
+      writer.write("null");
+    } else if (format == AttributeType.AttributeFormat.BOOLEAN) {
+      JSONValue.writeJSONString(value, writer);
+    } else if (format == AttributeType.AttributeFormat.DATE) {
+      writeString(dateFormat.format((Date) value));
+    } else if (format == AttributeType.AttributeFormat.BINARY) {
+      writeString(Base64.getEncoder().encodeToString((byte[]) value));
+    } else if (format == AttributeType.AttributeFormat.GEOMETRY) {
+      writeGeometry(value.toString());
+    } else {
+      writeString(value.toString());
+    }
+  }
+
+  private void writeGeometry(String wkt) throws IOException, CatalogTransformerException {
+    Geometry geometry;
+    try {
+      geometry = wktReader.read(wkt);
+    } catch (ParseException e) {
+      throw new CatalogTransformerException(
+          "Could not perform transform: could not parse geometry [" + wkt + "]", e);
+    }
+
+    if (!isSupported(geometry)) {
+      throw new CatalogTransformerException(
+          "Could not perform transform: unsupported geometry [" + wkt + "]");
+    }
+    writeGeometry(geometry);
+  }
+
+  private static boolean isSupported(Geometry geometry) {
+    return CompositeGeometry.getCompositeGeometry(geometry) != null;
+  }
+
+  private void writeGeometry(Geometry geometry) throws IOException {
+    beginObject();
+    writeName(CompositeGeometry.TYPE_KEY);
+    writeString(geometry.getGeometryType());
+
+    if (GeometryCollection.TYPE.equals(geometry.getGeometryType())) {
+      writeName(CompositeGeometry.GEOMETRIES_KEY);
+      beginArray();
+      for (int i = 0; i < geometry.getNumGeometries(); i++) {
+        Geometry member = geometry.getGeometryN(i);
+        if (isSupported(member)) {
+          writeSeparator();
+          writeGeometry(member);
+        }
+      }
+      endArray();
+    } else {
+      writeName(CompositeGeometry.COORDINATES_KEY);
+      writeCoordinates(geometry);
+    }
+    endObject();
+  }
+
+  private void writeCoordinates(Geometry geometry) throws IOException {
+    switch (geometry.getGeometryType()) {
+      case Point.TYPE:
+        writeCoordinate(geometry.getCoordinate());
+        break;
+      case Polygon.TYPE:
+        writePolygon((com.vividsolutions.jts.geom.Polygon) geometry);
+        break;
+      case MultiLineString.TYPE:
+      case MultiPolygon.TYPE:
+        beginArray();
+        for (int i = 0; i < geometry.getNumGeometries(); i++) {
+          writeSeparator();
+          writeCoordinates(geometry.getGeometryN(i));
+        }
+        endArray();
+        break;
+      default:
+        // LineString and MultiPoint, the only other types that are supported
+        writeCoordinates(geometry.getCoordinates());
+    }
+  }
+
+  private void writePolygon(com.vividsolutions.jts.geom.Polygon polygon) throws IOException {
+    beginArray();
+    writeSeparator();
+    writeCoordinates(polygon.getExteriorRing().getCoordinates());
+    for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+      writeSeparator();
+      writeCoordinates(polygon.getInteriorRingN(i).getCoordinates());
+    }
+    endArray();
+  }
+
+  private void writeCoordinates(Coordinate[] coordinates) throws IOException {
+    beginArray();
+    for (Coordinate coordinate : coordinates) {
+      writeSeparator();
+      writeCoordinate(coordinate);
+    }
+    endArray();
+  }
+
+  private void writeCoordinate(Coordinate coordinate) throws IOException {
+    writer.write('[');
+    if (coordinate != null) {
+      writer.write(Double.toString(coordinate.x));
+      writer.write(',');
+      writer.write(Double.toString(coordinate.y));
+    }
+    writer.write(']');
+  }
+
+  private void writeString(String value) throws IOException {
+    JSONValue.writeJSONString(value, writer);
+  }
+
+  private void writeName(String name) throws IOException {
+    writeSeparator();
+    writeString(name);
+    writer.write(':');
+  }
+
+  private void writeSeparator() throws IOException {
+    if (hasMember) {
+      writer.write(',');
+    }
+    hasMember = true;
+  }
+
+  private void beginObject() throws IOException {
+    writer.write('{');
+    hasMember = false;
+  }
+
+  private void endObject() throws IOException {
+    writer.write('}');
+    hasMember = true;
+  }
+
+  private void beginArray() throws IOException {
+    writer.write('[');
+    hasMember = false;
+  }
+
+  private void endArray() throws IOException {
+    writer.write(']');
+    hasMember = true;
+  }
+}
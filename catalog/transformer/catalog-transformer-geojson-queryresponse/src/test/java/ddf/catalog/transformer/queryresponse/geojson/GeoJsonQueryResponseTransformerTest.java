@@ -22,19 +22,18 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
-import ddf.catalog.data.impl.BinaryContentImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.transform.CatalogTransformerException;
-import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
@@ -44,7 +43,6 @@
 import net.minidev.json.JSONObject;
 import net.minidev.json.parser.JSONParser;
 import net.minidev.json.parser.ParseException;
-import org.apache.commons.io.IOUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -80,16 +78,7 @@ public class GeoJsonQueryResponseTransformerTest {
 
   @BeforeClass
   public static void setup() {
-    geoJsonQueryResponseTransformer =
-        new GeoJsonQueryResponseTransformer(new GeoJsonMetacardTransformer());
-  }
-
-  @Test(expected = CatalogTransformerException.class)
-  public void testNullMetacardTransformer() throws CatalogTransformerException {
-    GeoJsonQueryResponseTransformer geoJsonQueryResponseTransformer =
-        new GeoJsonQueryResponseTransformer(null);
-    SourceResponse sourceResponse = setupResponse(2, 2L);
-    geoJsonQueryResponseTransformer.transform(sourceResponse, null);
+    geoJsonQueryResponseTransformer = new GeoJsonQueryResponseTransformer();
   }
 
   @Test(expected = CatalogTransformerException.class)
@@ -139,37 +128,46 @@ public void testGoodResponse() throws CatalogTransformerException, IOException,
   }
 
   @Test
-  public void testCustomTransformerWithJsonArray()
-      throws ParseException, IOException, CatalogTransformerException {
-    GeoJsonQueryResponseTransformer geoJsonQRT =
-        new GeoJsonQueryResponseTransformer(
-            createCustomMetacardTransformer("[{\"id\":\"0\"},{\"id\":\"1\"}]"));
-
-    SourceResponse response = setupResponse(1, 1L);
-    JSONObject json = transform(response, geoJsonQRT);
-
-    JSONArray results = (JSONArray) json.get("results");
-    JSONObject firstResult = (JSONObject) results.get(0);
-    JSONArray metacard = (JSONArray) firstResult.get("metacard");
-    assertThat(((JSONObject) metacard.get(0)).get("id"), is("0"));
-    assertThat(((JSONObject) metacard.get(1)).get("id"), is("1"));
+  public void testFeaturesMatchMetacardTransformer()
+      throws CatalogTransformerException, IOException, ParseException {
+    GeoJsonMetacardTransformer metacardTransformer = new GeoJsonMetacardTransformer();
+    List<String> locations =
+        Arrays.asList(
+            DEFAULT_LOCATION,
+            "LINESTRING (1 0, 2 1)",
+            "POLYGON ((0 0, 10 0, 10 10, 0 0), (1 1, 2 1, 2 2, 1 1))",
+            "MULTIPOINT ((1 0), (2 1))",
+            "MULTILINESTRING ((1 0, 2 1), (3 2, 4 3))",
+            "MULTIPOLYGON (((0 0, 10 0, 10 10, 0 0)), ((20 20, 30 20, 30 30, 20 20)))",
+            "GEOMETRYCOLLECTION (POINT (1 0), LINESTRING (1 0, 2 1))");
+
+    for (String location : locations) {
+      Result result = setupResult();
+      ((MetacardImpl) result.getMetacard()).setLocation(location);
+      SourceResponse sourceResponse =
+          new SourceResponseImpl(null, Collections.singletonList(result), 1L);
+
+      JSONArray results = (JSONArray) transform(sourceResponse).get("results");
+      Object expected =
+          PARSER.parse(
+              new String(metacardTransformer.transform(result.getMetacard(), null).getByteArray()));
+      assertThat(((JSONObject) results.get(0)).get("metacard"), is(expected));
+    }
   }
 
-  private MetacardTransformer createCustomMetacardTransformer(String binContent) {
-    return (metacard, arguments) ->
-        new BinaryContentImpl(IOUtils.toInputStream(binContent, StandardCharsets.UTF_8));
+  @Test(expected = CatalogTransformerException.class)
+  public void testInvalidLocation() throws CatalogTransformerException {
+    Result result = setupResult();
+    ((MetacardImpl) result.getMetacard()).setLocation("POINT (1");
+    SourceResponse sourceResponse =
+        new SourceResponseImpl(null, Collections.singletonList(result), 1L);
+    geoJsonQueryResponseTransformer.transform(sourceResponse, null);
   }
 
   private JSONObject transform(SourceResponse sourceResponse)
-      throws ParseException, IOException, CatalogTransformerException {
-    return transform(sourceResponse, geoJsonQueryResponseTransformer);
-  }
-
-  private JSONObject transform(
-      SourceResponse sourceResponse, GeoJsonQueryResponseTransformer geoJsonQRT)
       throws CatalogTransformerException, IOException, ParseException {
 
-    BinaryContent content = geoJsonQRT.transform(sourceResponse, null);
+    BinaryContent content = geoJsonQueryResponseTransformer.transform(sourceResponse, null);
 
     assertEquals(
         content.getMimeTypeValue(),
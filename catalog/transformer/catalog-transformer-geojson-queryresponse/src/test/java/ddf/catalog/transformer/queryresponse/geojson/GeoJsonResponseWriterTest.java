@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transformer.queryresponse.geojson;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.transform.CatalogTransformerException;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.parser.JSONParser;
+import net.minidev.json.parser.ParseException;
+import org.junit.Test;
+
+/** Tests the {@link GeoJsonResponseWriter} */
+public class GeoJsonResponseWriterTest {
+
+  private static final String TYPE_NAME = "test-type";
+
+  private static final String BOOLEAN = "boolean";
+
+  private static final String DATE = "date";
+
+  private static final String BINARY = "binary";
+
+  private static final String LONG = "long";
+
+  private static final String STRING = "string";
+
+  private static final String OBJECT = "object";
+
+  private static final String OTHER_LOCATION = "other-location";
+
+  private static final String MULTI_STRING = "multi-string";
+
+  private static final String MULTI_OBJECT = "multi-object";
+
+  private static final MetacardType METACARD_TYPE =
+      new MetacardTypeImpl(
+          TYPE_NAME,
+          descriptors(
+              descriptor(BOOLEAN, false, BasicTypes.BOOLEAN_TYPE),
+              descriptor(DATE, false, BasicTypes.DATE_TYPE),
+              descriptor(BINARY, false, BasicTypes.BINARY_TYPE),
+              descriptor(LONG, false, BasicTypes.LONG_TYPE),
+              descriptor(STRING, false, BasicTypes.STRING_TYPE),
+              descriptor(OBJECT, false, BasicTypes.OBJECT_TYPE),
+              descriptor(Metacard.GEOGRAPHY, false, BasicTypes.GEO_TYPE),
+              descriptor(OTHER_LOCATION, false, BasicTypes.GEO_TYPE),
+              descriptor(MULTI_STRING, true, BasicTypes.STRING_TYPE),
+              descriptor(MULTI_OBJECT, true, BasicTypes.OBJECT_TYPE)));
+
+  @Test
+  public void testEmptyResults() throws IOException, CatalogTransformerException {
+    String json = write(new SourceResponseImpl(null, Collections.emptyList(), 0L));
+
+    assertThat(json, is("{\"hits\":0,\"results\":[]}"));
+  }
+
+  @Test
+  public void testAttributeValues()
+      throws IOException, CatalogTransformerException, ParseException {
+    MetacardImpl metacard = new MetacardImpl(METACARD_TYPE);
+    metacard.setAttribute(BOOLEAN, true);
+    metacard.setAttribute(DATE, new Date(0));
+    metacard.setAttribute(BINARY, new byte[] {1, 2, 3});
+    metacard.setAttribute(LONG, 5L);
+    metacard.setAttribute(STRING, "a \"quoted\" value");
+    metacard.setAttribute(OBJECT, "not written");
+    metacard.setAttribute(OTHER_LOCATION, "POINT (3 4)");
+    metacard.setAttribute(new AttributeImpl(MULTI_STRING, Arrays.asList("a", null)));
+    metacard.setAttribute(new AttributeImpl(MULTI_OBJECT, Collections.singletonList("b")));
+    metacard.setSourceId("source");
+
+    JSONObject properties = properties(writeFeature(metacard));
+
+    assertThat(properties.get(BOOLEAN), is(true));
+    assertThat(properties.get(DATE), is("1970-01-01T00:00:00.000+0000"));
+    assertThat(properties.get(BINARY), is("AQID"));
+    assertThat(properties.get(LONG), is("5"));
+    assertThat(properties.get(STRING), is("a \"quoted\" value"));
+    assertThat(properties.containsKey(OBJECT), is(false));
+    assertThat(geometry(properties.get(OTHER_LOCATION)), is("{type=Point, coordinates=[3.0,4.0]}"));
+    assertThat(properties.get(MULTI_STRING), is(Arrays.asList("a", null)));
+    assertThat(properties.get(MULTI_OBJECT), is(Collections.singletonList(null)));
+    assertThat(properties.get("metacard-type"), is(TYPE_NAME));
+    assertThat(properties.get("source-id"), is("source"));
+  }
+
+  @Test
+  public void testNullValuesAreLeftOut()
+      throws IOException, CatalogTransformerException, ParseException {
+    MetacardImpl metacard = new MetacardImpl(METACARD_TYPE);
+    metacard.setAttribute(new AttributeImpl(STRING, (Serializable) null));
+    metacard.setSourceId("");
+
+    JSONObject feature = writeFeature(metacard);
+
+    assertThat(properties(feature).keySet(), is(Collections.singleton("metacard-type")));
+    assertThat(feature.get("geometry"), nullValue());
+  }
+
+  @Test
+  public void testLocationIsTheFeatureGeometry()
+      throws IOException, CatalogTransformerException, ParseException {
+    MetacardImpl metacard = new MetacardImpl(METACARD_TYPE);
+    metacard.setLocation("POLYGON ((0 0, 10 0, 10 10, 0 0), (1 1, 2 1, 2 2, 1 1))");
+
+    JSONObject feature = writeFeature(metacard);
+
+    assertThat(properties(feature).containsKey(Metacard.GEOGRAPHY), is(false));
+    assertThat(
+        geometry(feature.get("geometry")),
+        is(
+            "{type=Polygon, coordinates=[[[0.0,0.0],[10.0,0.0],[10.0,10.0],[0.0,0.0]],"
+                + "[[1.0,1.0],[2.0,1.0],[2.0,2.0],[1.0,1.0]]]}"));
+  }
+
+  @Test
+  public void testEmptyPoint() throws IOException, CatalogTransformerException, ParseException {
+    MetacardImpl metacard = new MetacardImpl(METACARD_TYPE);
+    metacard.setLocation("POINT EMPTY");
+
+    JSONObject feature = writeFeature(metacard);
+
+    assertThat(geometry(feature.get("geometry")), is("{type=Point, coordinates=[]}"));
+  }
+
+  @Test
+  public void testUnsupportedMembersAreLeftOutOfGeometryCollections()
+      throws IOException, CatalogTransformerException, ParseException {
+    MetacardImpl metacard = new MetacardImpl(METACARD_TYPE);
+    metacard.setLocation("GEOMETRYCOLLECTION (POINT (1 0), LINEARRING (0 0, 1 0, 1 1, 0 0))");
+
+    JSONObject feature = writeFeature(metacard);
+
+    JSONArray geometries = (JSONArray) ((JSONObject) feature.get("geometry")).get("geometries");
+    assertThat(geometries.size(), is(1));
+    assertThat(geometry(geometries.get(0)), is("{type=Point, coordinates=[1.0,0.0]}"));
+  }
+
+  @Test
+  public void testUnsupportedGeometry() throws IOException {
+    MetacardImpl metacard = new MetacardImpl(METACARD_TYPE);
+    metacard.setLocation("LINEARRING (0 0, 1 0, 1 1, 0 0)");
+
+    try {
+      write(response(metacard));
+      fail("Expected a CatalogTransformerException");
+    } catch (CatalogTransformerException e) {
+      assertThat(
+          e.getMessage(),
+          is(
+              "Could not perform transform: unsupported geometry "
+                  + "[LINEARRING (0 0, 1 0, 1 1, 0 0)]"));
+    }
+  }
+
+  @Test
+  public void testDistanceAndRelevance()
+      throws IOException, CatalogTransformerException, ParseException {
+    ResultImpl result = new ResultImpl(new MetacardImpl(METACARD_TYPE));
+    result.setDistanceInMeters(12.5);
+    result.setRelevanceScore(0.5);
+
+    JSONObject response = parse(write(new SourceResponseImpl(null, Arrays.asList(result), 3L)));
+
+    assertThat(response.get("hits"), is(3));
+    JSONObject written = (JSONObject) ((JSONArray) response.get("results")).get(0);
+    assertThat(written.keySet(), hasItem("metacard"));
+    assertThat(written.get("distance"), is(12.5));
+    assertThat(written.get("relevance"), is(0.5));
+  }
+
+  private static String write(SourceResponseImpl response)
+      throws IOException, CatalogTransformerException {
+    StringWriter writer = new StringWriter();
+    new GeoJsonResponseWriter(writer).write(response);
+    return writer.toString();
+  }
+
+  private static JSONObject writeFeature(Metacard metacard)
+      throws IOException, CatalogTransformerException, ParseException {
+    JSONObject response = parse(write(response(metacard)));
+    JSONObject result = (JSONObject) ((JSONArray) response.get("results")).get(0);
+    JSONObject feature = (JSONObject) result.get("metacard");
+    assertThat(feature.get("type"), is("Feature"));
+    return feature;
+  }
+
+  private static SourceResponseImpl response(Metacard metacard) {
+    List<Result> results = Collections.singletonList(new ResultImpl(metacard));
+    return new SourceResponseImpl(null, results, 1L);
+  }
+
+  private static JSONObject parse(String json) throws ParseException {
+    return (JSONObject) new JSONParser(JSONParser.MODE_PERMISSIVE).parse(json);
+  }
+
+  private static JSONObject properties(JSONObject feature) {
+    return (JSONObject) feature.get("properties");
+  }
+
+  /** @return the geometry with its coordinates in a comparable form */
+  private static String geometry(Object geometry) {
+    JSONObject object = (JSONObject) geometry;
+    return "{type="
+        + object.get("type")
+        + ", coordinates="
+        + ((JSONArray) object.get("coordinates")).toJSONString()
+        + "}";
+  }
+
+  private static AttributeDescriptor descriptor(
+      String name, boolean multiValued, AttributeType<?> type) {
+    return new AttributeDescriptorImpl(name, true, true, false, multiValued, type);
+  }
+
+  private static Set<AttributeDescriptor> descriptors(AttributeDescriptor... descriptors) {
+    return new HashSet<>(Arrays.asList(descriptors));
+  }
+}
@@ -37,9 +37,12 @@
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -51,6 +54,14 @@
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.imageio.ImageIO;
@@ -59,6 +70,7 @@
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.stream.StreamSource;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.ProxyInputStream;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
 import org.apache.tika.exception.TikaException;
@@ -66,7 +78,9 @@
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.mime.MediaTypeRegistry;
+import org.apache.tika.mime.MimeTypes;
 import org.codice.ddf.configuration.DictionaryMap;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.codice.ddf.platform.util.XMLUtils;
 import org.imgscalr.Scalr;
@@ -84,6 +98,24 @@ public class TikaInputTransformer implements InputTransformer {
 
   private int metadataMaxLength = 30000;
 
+  private static final int DEFAULT_PROCESSING_THREADS = 8;
+
+  private static final int DEFAULT_PROCESSING_TIMEOUT_SECONDS = 300;
+
+  private static final int DEFAULT_QUEUE_TIMEOUT_SECONDS = 3600;
+
+  private int processingTimeoutSeconds = DEFAULT_PROCESSING_TIMEOUT_SECONDS;
+
+  private int queueTimeoutSeconds = DEFAULT_QUEUE_TIMEOUT_SECONDS;
+
+  private int processingThreads = DEFAULT_PROCESSING_THREADS;
+
+  /**
+   * The number of threads added in place of threads still running an abandoned task, because the
+   * parser or image reader doesn't stop when interrupted. At most {@code processingThreads}.
+   */
+  private int replacementThreads = 0;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(TikaInputTransformer.class);
 
   private static final Map<com.google.common.net.MediaType, String>
@@ -94,6 +126,12 @@ public class TikaInputTransformer implements InputTransformer {
 
   private static final String OVERALL_FALLBACK_DATA_TYPE = DataType.DATASET.toString();
 
+  private static final String PROCESSING_TIMEOUT_MSG_FORMAT =
+      "Document %s could not be extracted within %d seconds.";
+
+  private static final String QUEUE_TIMEOUT_MSG_FORMAT =
+      "Document %s could not be extracted, no processing thread was free within %d seconds.";
+
   static {
     SPECIFIC_MIME_TYPE_DATA_TYPE_MAP = new HashMap<>();
     SPECIFIC_MIME_TYPE_DATA_TYPE_MAP.put(
@@ -172,11 +210,31 @@ public class TikaInputTransformer implements InputTransformer {
 
   private boolean useResourceTitleAsTitle;
 
+  /**
+   * Parses the documents and creates the thumbnails, so that the number of documents processed at
+   * once is bounded and a document that takes too long to process can be abandoned
+   */
+  private final ThreadPoolExecutor processingExecutor =
+      new ThreadPoolExecutor(
+          DEFAULT_PROCESSING_THREADS,
+          DEFAULT_PROCESSING_THREADS,
+          60L,
+          TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(),
+          StandardThreadFactoryBuilder.newThreadFactory("tikaInputTransformerThread"));
+
+  private final MimeTypes mimeTypes = MimeTypes.getDefaultMimeTypes();
+
   public TikaInputTransformer(BundleContext bundleContext, MetacardType metacardType) {
     this.commonTikaMetacardType = metacardType;
+    processingExecutor.allowCoreThreadTimeOut(true);
     classLoaderAndBundleContextSetup(bundleContext);
   }
 
+  public void destroy() {
+    processingExecutor.shutdownNow();
+  }
+
   public int getPreviewMaxLength() {
     return previewMaxLength;
   }
@@ -189,6 +247,58 @@ public void setMetadataMaxLength(int metadataMaxLength) {
     this.metadataMaxLength = metadataMaxLength;
   }
 
+  /**
+   * @param processingThreads the maximum number of documents processed at once, must be positive
+   */
+  public synchronized void setProcessingThreads(int processingThreads) {
+    Validate.isTrue(processingThreads > 0, "processingThreads must be positive");
+    this.processingThreads = processingThreads;
+    resizeProcessingExecutor();
+  }
+
+  private synchronized boolean addReplacementThread() {
+    if (replacementThreads >= processingThreads) {
+      return false;
+    }
+    replacementThreads++;
+    resizeProcessingExecutor();
+    return true;
+  }
+
+  private synchronized void removeReplacementThread() {
+    replacementThreads--;
+    resizeProcessingExecutor();
+  }
+
+  private void resizeProcessingExecutor() {
+    int poolSize = processingThreads + replacementThreads;
+    if (poolSize > processingExecutor.getMaximumPoolSize()) {
+      processingExecutor.setMaximumPoolSize(poolSize);
+      processingExecutor.setCorePoolSize(poolSize);
+    } else {
+      processingExecutor.setCorePoolSize(poolSize);
+      processingExecutor.setMaximumPoolSize(poolSize);
+    }
+  }
+
+  /**
+   * @param processingTimeoutSeconds the number of seconds a document can be parsed, or its
+   *     thumbnail created, before it is abandoned, or 0 to never abandon documents being processed
+   */
+  public void setProcessingTimeoutSeconds(int processingTimeoutSeconds) {
+    Validate.isTrue(processingTimeoutSeconds >= 0, "processingTimeoutSeconds must not be negative");
+    this.processingTimeoutSeconds = processingTimeoutSeconds;
+  }
+
+  /**
+   * @param queueTimeoutSeconds the number of seconds a document can wait for a processing thread
+   *     before it is abandoned, or 0 to wait until a thread is free
+   */
+  public void setQueueTimeoutSeconds(int queueTimeoutSeconds) {
+    Validate.isTrue(queueTimeoutSeconds >= 0, "queueTimeoutSeconds must not be negative");
+    this.queueTimeoutSeconds = queueTimeoutSeconds;
+  }
+
   @SuppressWarnings("unused")
   public void setCommonTikaMetacardType(MetacardType metacardType) {
     this.commonTikaMetacardType = metacardType;
@@ -362,53 +472,86 @@ public Metacard transform(InputStream input, String id)
         throw new CatalogTransformerException("Could not copy bytes of content message.", e);
       }
 
-      Metadata metadata;
-      String bodyText = null;
-      String metadataText;
-      Metacard metacard = new MetacardImpl(commonTikaMetacardType);
-      String contentType = DataType.DATASET.name();
-      TikaMetadataExtractor extractor = null;
-      try (InputStream inputStreamCopy = fileBackedOutputStream.asByteSource().openStream()) {
-        extractor = new TikaMetadataExtractor(inputStreamCopy, previewMaxLength, metadataMaxLength);
-
-      } catch (TikaException | RuntimeException t) {
-        LOGGER.debug("Unable to extract tika metadata", t);
+      // The thumbnail of an image is created while its metadata is extracted
+      ProcessingTask<byte[]> thumbnailTask = null;
+      if (StringUtils.startsWith(detectContentType(fileBackedOutputStream), "image")) {
+        thumbnailTask = new ProcessingTask<>(() -> createThumbnail(fileBackedOutputStream));
       }
 
-      if (extractor != null) {
-        metadataText = extractor.getMetadataXml();
-        Attribute validationAttribute = null;
-        if (metadataText.equals(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG)) {
-          validationAttribute =
-              new AttributeImpl(
-                  Validation.VALIDATION_WARNINGS, Collections.singletonList(metadataText));
-          metadataText = "";
-        }
-        bodyText = extractor.getBodyText();
-        metadata = extractor.getMetadata();
-        contentType = metadata.get(Metadata.CONTENT_TYPE);
-        MetacardType metacardType = mergeAttributes(getMetacardType(contentType));
-        metacard =
-            MetacardCreator.createMetacard(
-                metadata, id, metadataText, metacardType, useResourceTitleAsTitle);
-        if (StringUtils.isNotBlank(bodyText)) {
-          metacard.setAttribute(new AttributeImpl(Extracted.EXTRACTED_TEXT, bodyText));
-          processContentMetadataExtractors(bodyText, metacard);
+      try {
+        Metadata metadata;
+        String bodyText = null;
+        String metadataText;
+        Metacard metacard = new MetacardImpl(commonTikaMetacardType);
+        String contentType = DataType.DATASET.name();
+        TikaMetadataExtractor extractor = null;
+        ProcessingTask<TikaMetadataExtractor> extractorTask =
+            new ProcessingTask<>(() -> extractMetadata(fileBackedOutputStream));
+        try {
+          extractor = extractorTask.get();
+        } catch (TimeoutException e) {
+          String warning = extractorTask.getTimeoutWarning("metadata");
+          LOGGER.debug("Abandoned extracting tika metadata. {}", warning);
+          addValidationWarning(metacard, warning);
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          } else if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          LOGGER.debug("Unable to extract tika metadata", cause);
         }
 
-        if (StringUtils.isNotBlank(metadataText)) {
-          processMetadataExtractors(metadataText, metacard);
+        if (extractor != null) {
+          metadataText = extractor.getMetadataXml();
+          Attribute validationAttribute = null;
+          if (metadataText.equals(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG)) {
+            validationAttribute =
+                new AttributeImpl(
+                    Validation.VALIDATION_WARNINGS, Collections.singletonList(metadataText));
+            metadataText = "";
+          }
+          bodyText = extractor.getBodyText();
+          metadata = extractor.getMetadata();
+          contentType = metadata.get(Metadata.CONTENT_TYPE);
+          MetacardType metacardType = mergeAttributes(getMetacardType(contentType));
+          metacard =
+              MetacardCreator.createMetacard(
+                  metadata, id, metadataText, metacardType, useResourceTitleAsTitle);
+          if (StringUtils.isNotBlank(bodyText)) {
+            metacard.setAttribute(new AttributeImpl(Extracted.EXTRACTED_TEXT, bodyText));
+            processContentMetadataExtractors(bodyText, metacard);
+          }
+
+          if (StringUtils.isNotBlank(metadataText)) {
+            processMetadataExtractors(metadataText, metacard);
+          }
+
+          if (validationAttribute != null) {
+            metacard.setAttribute(validationAttribute);
+          }
         }
 
-        if (validationAttribute != null) {
-          metacard.setAttribute(validationAttribute);
+        if (StringUtils.startsWith(contentType, "image")) {
+          if (thumbnailTask == null) {
+            thumbnailTask = new ProcessingTask<>(() -> createThumbnail(fileBackedOutputStream));
+          }
+          setThumbnail(thumbnailTask, metacard);
         }
-      }
 
-      enrichMetacard(fileBackedOutputStream, contentType, bytes, metacard);
+        enrichMetacard(fileBackedOutputStream, contentType, bytes, metacard);
 
-      LOGGER.debug("Finished transforming input stream using Tika.");
-      return metacard;
+        LOGGER.debug("Finished transforming input stream using Tika.");
+        return metacard;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CatalogTransformerException("Interrupted while transforming input stream.", e);
+      } finally {
+        if (thumbnailTask != null) {
+          thumbnailTask.cancel();
+        }
+      }
     }
   }
 
@@ -526,12 +669,6 @@ protected void enrichMetacard(
       metacard.setAttribute(new AttributeImpl(Core.DATATYPE, getDatatype(metacardContentType)));
     }
 
-    if (StringUtils.startsWith(metacardContentType, "image")) {
-      try (InputStream inputStreamCopy = fileBackedOutputStream.asByteSource().openStream()) {
-        createThumbnail(inputStreamCopy, metacard);
-      }
-    }
-
     metacard.setAttribute(new AttributeImpl(Core.RESOURCE_SIZE, String.valueOf(bytes)));
   }
 
@@ -620,8 +757,64 @@ private void addMediaTypetoMimeTypes(MediaType mediaType, List<String> mimeTypes
     mimeTypes.add(mimeType);
   }
 
-  private void createThumbnail(InputStream input, Metacard metacard) {
+  /**
+   * Detects the content type of a document from its first bytes, without parsing it.
+   *
+   * @return the detected content type, or {@code null} if it couldn't be detected
+   */
+  @Nullable
+  private String detectContentType(TemporaryFileBackedOutputStream fileBackedOutputStream) {
+    try (InputStream inputStreamCopy =
+        new BufferedInputStream(fileBackedOutputStream.asByteSource().openStream())) {
+      return mimeTypes.detect(inputStreamCopy, new Metadata()).toString();
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Unable to detect content type", e);
+      return null;
+    }
+  }
+
+  private TikaMetadataExtractor extractMetadata(
+      TemporaryFileBackedOutputStream fileBackedOutputStream) throws IOException, TikaException {
+    try (InputStream inputStreamCopy =
+        new InterruptibleInputStream(fileBackedOutputStream.asByteSource().openStream())) {
+      return extractMetadata(inputStreamCopy);
+    }
+  }
+
+  TikaMetadataExtractor extractMetadata(InputStream input) throws TikaException {
+    return new TikaMetadataExtractor(input, previewMaxLength, metadataMaxLength);
+  }
+
+  private void setThumbnail(ProcessingTask<byte[]> thumbnailTask, Metacard metacard)
+      throws InterruptedException {
     try {
+      byte[] thumbnail = thumbnailTask.get();
+      if (thumbnail != null) {
+        metacard.setAttribute(new AttributeImpl(Metacard.THUMBNAIL, thumbnail));
+      }
+    } catch (TimeoutException e) {
+      String warning = thumbnailTask.getTimeoutWarning("thumbnail");
+      LOGGER.debug("Abandoned creating thumbnail. {}", warning);
+      addValidationWarning(metacard, warning);
+    } catch (ExecutionException e) {
+      LOGGER.debug("Unable to create thumbnail.", e.getCause());
+    }
+  }
+
+  private void addValidationWarning(Metacard metacard, String warning) {
+    List<Serializable> warnings = new ArrayList<>();
+    Attribute attribute = metacard.getAttribute(Validation.VALIDATION_WARNINGS);
+    if (attribute != null && attribute.getValues() != null) {
+      warnings.addAll(attribute.getValues());
+    }
+    warnings.add(warning);
+    metacard.setAttribute(new AttributeImpl(Validation.VALIDATION_WARNINGS, warnings));
+  }
+
+  @Nullable
+  private byte[] createThumbnail(TemporaryFileBackedOutputStream fileBackedOutputStream) {
+    try (InputStream input =
+        new InterruptibleInputStream(fileBackedOutputStream.asByteSource().openStream())) {
       Image image = ImageIO.read(new CloseShieldInputStream(input));
 
       if (null != image) {
@@ -637,8 +830,7 @@ private void createThumbnail(InputStream input, Metacard metacard) {
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
           ImageIO.write(thumb, "jpeg", out);
 
-          byte[] thumbBytes = out.toByteArray();
-          metacard.setAttribute(new AttributeImpl(Metacard.THUMBNAIL, thumbBytes));
+          return out.toByteArray();
         }
       } else {
         LOGGER.debug("Unable to read image from input stream to create thumbnail.");
@@ -646,9 +838,109 @@ private void createThumbnail(InputStream input, Metacard metacard) {
     } catch (Exception e) {
       LOGGER.debug("Unable to read image from input stream to create thumbnail.", e);
     }
+    return null;
   }
 
   Bundle getBundle() {
     return FrameworkUtil.getBundle(TikaInputTransformer.class);
   }
+
+  /**
+   * A task run by the processing executor. It is abandoned when no thread runs it within the queue
+   * timeout, or when it runs for longer than the processing timeout. Waiting for a thread doesn't
+   * count towards the processing timeout, so a burst of documents doesn't cause healthy documents
+   * to be abandoned.
+   *
+   * <p>A thread that keeps running an abandoned task, because the parser doesn't stop when
+   * interrupted, is replaced until the task ends, so that stuck parsers don't hold every thread.
+   */
+  private class ProcessingTask<T> {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final int timeoutSeconds = processingTimeoutSeconds;
+
+    private final int queueTimeoutSeconds = TikaInputTransformer.this.queueTimeoutSeconds;
+
+    private final Future<T> future;
+
+    private boolean finished = false;
+
+    private boolean replaced = false;
+
+    private ProcessingTask(Callable<T> callable) {
+      future =
+          processingExecutor.submit(
+              () -> {
+                started.countDown();
+                try {
+                  return callable.call();
+                } finally {
+                  finish();
+                }
+              });
+    }
+
+    private T get() throws InterruptedException, ExecutionException, TimeoutException {
+      try {
+        if (queueTimeoutSeconds == 0) {
+          started.await();
+        } else if (!started.await(queueTimeoutSeconds, TimeUnit.SECONDS)) {
+          LOGGER.debug("No processing thread was free within {} seconds.", queueTimeoutSeconds);
+          throw new TimeoutException();
+        }
+
+        if (timeoutSeconds == 0) {
+          return future.get();
+        }
+        return future.get(timeoutSeconds, TimeUnit.SECONDS);
+      } catch (InterruptedException | TimeoutException e) {
+        abandon();
+        throw e;
+      }
+    }
+
+    /** @return the validation warning of a document whose task was abandoned */
+    private String getTimeoutWarning(String extracted) {
+      return started.getCount() == 0
+          ? String.format(PROCESSING_TIMEOUT_MSG_FORMAT, extracted, timeoutSeconds)
+          : String.format(QUEUE_TIMEOUT_MSG_FORMAT, extracted, queueTimeoutSeconds);
+    }
+
+    private synchronized void abandon() {
+      future.cancel(true);
+      if (started.getCount() == 0 && !finished) {
+        replaced = addReplacementThread();
+        if (replaced) {
+          LOGGER.debug("Added a processing thread while an abandoned task is still running.");
+        } else {
+          LOGGER.warn(
+              "Too many processing threads are stuck on abandoned documents. Documents may be "
+                  + "abandoned until those threads stop.");
+        }
+      }
+    }
+
+    private synchronized void finish() {
+      finished = true;
+      if (replaced) {
+        removeReplacementThread();
+      }
+    }
+  }
+
+  /** Stops the parsers and image readers reading the document once their task is cancelled. */
+  private static class InterruptibleInputStream extends ProxyInputStream {
+
+    private InterruptibleInputStream(InputStream input) {
+      super(input);
+    }
+
+    @Override
+    protected void beforeRead(int n) throws IOException {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new InterruptedIOException("Processing of the document was cancelled.");
+      }
+    }
+  }
 }
@@ -36,6 +36,7 @@
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Uninterruptibles;
 import ddf.catalog.content.operation.ContentMetadataExtractor;
 import ddf.catalog.content.operation.MetadataExtractor;
 import ddf.catalog.data.AttributeDescriptor;
@@ -65,6 +66,11 @@
 import java.util.Hashtable;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.tika.exception.TikaException;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -173,6 +179,11 @@ Bundle getBundle() {
     tikaInputTransformer.setUseResourceTitleAsTitle(true);
   }
 
+  @After
+  public void tearDown() {
+    tikaInputTransformer.destroy();
+  }
+
   @Test
   public void testRegisterService() {
     BundleContext mockBundleContext = mock(BundleContext.class);
@@ -462,6 +473,7 @@ public void testPng() throws Exception {
         containsString("<meta name=\"Compression Lossless\" content=\"true\" />"));
     assertThat(metacard.getContentTypeName(), is("image/png"));
     assertThat(metacard.getAttribute(Core.DATATYPE).getValue(), is(IMAGE));
+    assertThat(metacard.getThumbnail(), is(notNullValue()));
   }
 
   @Test
@@ -738,6 +750,155 @@ public void testMaxPreviewLength() throws Exception {
     assertThat(metacard.getAttribute(Core.DATATYPE).getValue(), is(TEXT));
   }
 
+  @Test
+  public void testProcessingTimeout() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    TikaInputTransformer slowTransformer =
+        new TikaInputTransformer(bundleCtx, getMetacardType(COMMON_METACARDTYPE_NAME)) {
+          @Override
+          TikaMetadataExtractor extractMetadata(InputStream input) {
+            try {
+              Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+              interrupted.countDown();
+            }
+            return null;
+          }
+        };
+    slowTransformer.setProcessingTimeoutSeconds(1);
+
+    try {
+      Metacard metacard =
+          slowTransformer.transform(
+              Thread.currentThread().getContextClassLoader().getResourceAsStream("testPDF.pdf"));
+      assertNotNull(metacard);
+      assertThat(
+          metacard.getAttribute(Validation.VALIDATION_WARNINGS).getValue().toString(),
+          containsString("within 1 seconds"));
+      assertThat(metacard.getAttribute(Core.DATATYPE).getValue(), is(DATASET));
+      assertThat(interrupted.await(10, TimeUnit.SECONDS), is(true));
+    } finally {
+      slowTransformer.destroy();
+    }
+  }
+
+  @Test
+  public void testStuckProcessingThreadIsReplaced() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    TikaInputTransformer stuckTransformer =
+        new TikaInputTransformer(bundleCtx, getMetacardType(COMMON_METACARDTYPE_NAME)) {
+          @Override
+          TikaMetadataExtractor extractMetadata(InputStream input) throws TikaException {
+            if (calls.incrementAndGet() == 1) {
+              // A parser that ignores interrupts
+              Uninterruptibles.awaitUninterruptibly(release);
+            }
+            return super.extractMetadata(input);
+          }
+        };
+    stuckTransformer.setProcessingThreads(1);
+    stuckTransformer.setProcessingTimeoutSeconds(1);
+
+    try {
+      Metacard abandoned =
+          stuckTransformer.transform(
+              Thread.currentThread().getContextClassLoader().getResourceAsStream("testPDF.pdf"));
+      assertThat(
+          abandoned.getAttribute(Validation.VALIDATION_WARNINGS).getValue().toString(),
+          containsString("within 1 seconds"));
+
+      Metacard processed =
+          stuckTransformer.transform(
+              Thread.currentThread().getContextClassLoader().getResourceAsStream("testPDF.pdf"));
+      assertThat(processed.getTitle(), is("Apache Tika - Apache Tika"));
+      assertThat(processed.getAttribute(Core.DATATYPE).getValue(), is(TEXT));
+    } finally {
+      release.countDown();
+      stuckTransformer.destroy();
+    }
+  }
+
+  @Test
+  public void testDocumentIsAbandonedWhenNoThreadIsFree() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    TikaInputTransformer stuckTransformer =
+        new TikaInputTransformer(bundleCtx, getMetacardType(COMMON_METACARDTYPE_NAME)) {
+          @Override
+          TikaMetadataExtractor extractMetadata(InputStream input) {
+            calls.incrementAndGet();
+            Uninterruptibles.awaitUninterruptibly(release);
+            return null;
+          }
+        };
+    stuckTransformer.setProcessingThreads(1);
+    stuckTransformer.setProcessingTimeoutSeconds(1);
+    stuckTransformer.setQueueTimeoutSeconds(1);
+
+    try {
+      for (int i = 0; i < 3; i++) {
+        Metacard metacard =
+            stuckTransformer.transform(
+                Thread.currentThread().getContextClassLoader().getResourceAsStream("testPDF.pdf"));
+        assertThat(
+            metacard.getAttribute(Validation.VALIDATION_WARNINGS).getValue().toString(),
+            containsString("within 1 seconds"));
+      }
+      // The processing thread and its single replacement are both stuck
+      assertThat(calls.get(), is(2));
+    } finally {
+      release.countDown();
+      stuckTransformer.destroy();
+    }
+  }
+
+  @Test
+  public void testWaitingForAThreadDoesNotCountTowardsTheProcessingTimeout() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    TikaInputTransformer stuckTransformer =
+        new TikaInputTransformer(bundleCtx, getMetacardType(COMMON_METACARDTYPE_NAME)) {
+          @Override
+          TikaMetadataExtractor extractMetadata(InputStream input) throws TikaException {
+            if (calls.incrementAndGet() <= 2) {
+              Uninterruptibles.awaitUninterruptibly(release);
+            }
+            return super.extractMetadata(input);
+          }
+        };
+    stuckTransformer.setProcessingThreads(1);
+    stuckTransformer.setProcessingTimeoutSeconds(1);
+    stuckTransformer.setQueueTimeoutSeconds(0);
+
+    try {
+      // Leaves the processing thread and its single replacement stuck
+      for (int i = 0; i < 2; i++) {
+        stuckTransformer.transform(
+            Thread.currentThread().getContextClassLoader().getResourceAsStream("testPDF.pdf"));
+      }
+      new Thread(
+              () -> {
+                Uninterruptibles.sleepUninterruptibly(2, TimeUnit.SECONDS);
+                release.countDown();
+              })
+          .start();
+
+      Metacard processed =
+          stuckTransformer.transform(
+              Thread.currentThread().getContextClassLoader().getResourceAsStream("testPDF.pdf"));
+      assertThat(processed.getTitle(), is("Apache Tika - Apache Tika"));
+    } finally {
+      release.countDown();
+      stuckTransformer.destroy();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidProcessingThreads() {
+    tikaInputTransformer.setProcessingThreads(0);
+  }
+
   @Test
   public void testMaxMetadataLength() throws Exception {
     this.tikaInputTransformer.setMetadataMaxLength(1);
@@ -15,6 +15,8 @@
 
 import static ddf.catalog.util.impl.ResultIterable.resultIterable;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static org.apache.commons.lang.StringUtils.isEmpty;
@@ -38,6 +40,7 @@
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.configuration.HistorianConfiguration;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.content.operation.impl.CreateStorageRequestImpl;
@@ -134,6 +137,7 @@
 import org.codice.ddf.catalog.ui.security.accesscontrol.AccessControlSecurityConfiguration;
 import org.codice.ddf.catalog.ui.subscription.SubscriptionsPersistentStore;
 import org.codice.ddf.catalog.ui.util.EndpointUtil;
+import org.codice.ddf.catalog.ui.util.MetacardTypeCatalog;
 import org.codice.ddf.security.common.Security;
 import org.codice.gsonsupport.GsonTypeAdapters.DateLongFormatTypeAdapter;
 import org.codice.gsonsupport.GsonTypeAdapters.LongDoubleTypeAdapter;
@@ -205,6 +209,8 @@ public class MetacardApplication implements SparkApplication {
 
   private final AssociatedQueryMetacardsHandler queryMetacardsHandler;
 
+  private final HistorianConfiguration historianConfiguration;
+
   public MetacardApplication(
       CatalogFramework catalogFramework,
       FilterBuilder filterBuilder,
@@ -222,7 +228,8 @@ public MetacardApplication(
       SubjectIdentity subjectIdentity,
       AccessControlSecurityConfiguration accessControlSecurityConfiguration,
       WorkspaceService workspaceService,
-      AssociatedQueryMetacardsHandler queryMetacardsHandler) {
+      AssociatedQueryMetacardsHandler queryMetacardsHandler,
+      HistorianConfiguration historianConfiguration) {
     this.catalogFramework = catalogFramework;
     this.filterBuilder = filterBuilder;
     this.util = endpointUtil;
@@ -240,6 +247,7 @@ public MetacardApplication(
     this.accessControlSecurityConfiguration = accessControlSecurityConfiguration;
     this.workspaceService = workspaceService;
     this.queryMetacardsHandler = queryMetacardsHandler;
+    this.historianConfiguration = historianConfiguration;
   }
 
   private String getSubjectEmail() {
@@ -256,7 +264,17 @@ private String getSubjectIdentifier() {
 
   @Override
   public void init() {
-    get("/metacardtype", (req, res) -> util.getJson(util.getMetacardTypeMap()));
+    get(
+        "/metacardtype",
+        (req, res) -> {
+          MetacardTypeCatalog metacardTypes = util.getMetacardTypeCatalog();
+          res.header(ETAG, metacardTypes.getEtag());
+          if (metacardTypes.matches(req.headers(IF_NONE_MATCH))) {
+            res.status(304);
+            return "";
+          }
+          return metacardTypes.getJson();
+        });
 
     get(
         "/metacard/:id",
@@ -409,13 +427,14 @@ public void init() {
                                   mc.getAttribute(MetacardVersion.VERSIONED_ON).getValue())))
                   .findFirst();
 
+          Metacard revertMetacard = toRevertMetacard(versionMetacard, id, queryResponse);
           if (!contentVersion.isPresent()) {
             /* no content versions, just restore metacard */
-            revertMetacard(versionMetacard, id, false);
+            revertMetacard(versionMetacard, revertMetacard, id, false);
           } else {
-            revertContentandMetacard(contentVersion.get(), versionMetacard, id);
+            revertContentandMetacard(contentVersion.get(), versionMetacard, revertMetacard, id);
           }
-          return util.metacardToJson(MetacardVersionImpl.toMetacard(versionMetacard, types));
+          return util.metacardToJson(revertMetacard);
         });
 
     get(
@@ -918,11 +937,34 @@ private Set<String> getHiddenFields(List<Result> metacards) {
     return matchedHiddenFields;
   }
 
-  private void revertMetacard(Metacard versionMetacard, String id, boolean alreadyCreated)
+  /**
+   * Rebuilds the metacard a version represents. Delta versions are rebuilt from the later versions
+   * in {@code history} and the current metacard.
+   */
+  private Metacard toRevertMetacard(Metacard versionMetacard, String id, List<Result> history)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    if (!MetacardVersionImpl.isDelta(versionMetacard)) {
+      return MetacardVersionImpl.toMetacard(versionMetacard, types);
+    }
+
+    Metacard currentMetacard;
+    try {
+      currentMetacard = util.getMetacardById(id);
+    } catch (NotFoundException e) {
+      LOGGER.trace("Metacard [{}] was deleted, rebuilding version from history only", id);
+      currentMetacard = null;
+    }
+    return MetacardVersionImpl.toMetacard(
+        versionMetacard,
+        history.stream().map(Result::getMetacard).collect(Collectors.toList()),
+        currentMetacard);
+  }
+
+  private void revertMetacard(
+      Metacard versionMetacard, Metacard revertMetacard, String id, boolean alreadyCreated)
       throws SourceUnavailableException, IngestException, FederationException,
           UnsupportedQueryException {
     LOGGER.trace("Reverting metacard [{}] to version [{}]", id, versionMetacard.getId());
-    Metacard revertMetacard = MetacardVersionImpl.toMetacard(versionMetacard, types);
     Action action =
         Action.fromKey((String) versionMetacard.getAttribute(MetacardVersion.ACTION).getValue());
 
@@ -941,7 +983,8 @@ private void revertMetacard(Metacard versionMetacard, String id, boolean already
     }
   }
 
-  private void revertContentandMetacard(Metacard latestContent, Metacard versionMetacard, String id)
+  private void revertContentandMetacard(
+      Metacard latestContent, Metacard versionMetacard, Metacard revertMetacard, String id)
       throws SourceUnavailableException, IngestException, ResourceNotFoundException, IOException,
           ResourceNotSupportedException, FederationException, UnsupportedQueryException {
     LOGGER.trace(
@@ -962,7 +1005,7 @@ private void revertContentandMetacard(Metacard latestContent, Metacard versionMe
             latestResource.getResource().getMimeTypeValue(),
             latestResource.getResource().getName(),
             latestResource.getResource().getSize(),
-            MetacardVersionImpl.toMetacard(versionMetacard, types));
+            revertMetacard);
 
     // Try to delete the "deleted metacard" marker first.
     boolean alreadyCreated = false;
@@ -987,7 +1030,7 @@ private void revertContentandMetacard(Metacard latestContent, Metacard versionMe
           });
     }
     LOGGER.trace("Successfully reverted metacard content for [{}]", id);
-    revertMetacard(versionMetacard, id, alreadyCreated);
+    revertMetacard(versionMetacard, revertMetacard, id, alreadyCreated);
   }
 
   private void trySleep(long millis) {
@@ -1127,6 +1170,13 @@ private boolean isChangeTypeDate(AttributeChange attributeChange, Metacard resul
   }
 
   private List<Result> getMetacardHistory(String id) {
+    // Versions journaled by the historian are only returned by queries once they are stored
+    try {
+      historianConfiguration.flushHistory(id);
+    } catch (RuntimeException e) {
+      LOGGER.debug("Could not store the journaled history of metacard [{}]", id, e);
+    }
+
     Filter historyFilter =
         filterBuilder.attribute(Metacard.TAGS).is().equalTo().text(MetacardVersion.VERSION_TAG);
     Filter idFilter =
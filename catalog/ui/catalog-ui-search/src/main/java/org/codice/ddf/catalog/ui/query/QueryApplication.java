@@ -24,6 +24,9 @@
 import com.google.gson.GsonBuilder;
 import ddf.catalog.source.UnsupportedQueryException;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
@@ -106,6 +109,17 @@ public void init() {
           return GSON.toJson(cqlQueryResponse);
         });
 
+    post(
+        "/cql/stream",
+        APPLICATION_JSON,
+        (req, res) -> {
+          CqlRequest cqlRequest = GSON.fromJson(util.safeGetBody(req), CqlRequest.class);
+          Writer writer =
+              new OutputStreamWriter(res.raw().getOutputStream(), StandardCharsets.UTF_8);
+          util.streamCqlQuery(cqlRequest, GSON, writer);
+          return "";
+        });
+
     post("/cql/transform/:transformerId", cqlTransformHandler, GSON::toJson);
 
     get(
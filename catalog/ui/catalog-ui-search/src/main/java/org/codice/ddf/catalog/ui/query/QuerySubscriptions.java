@@ -0,0 +1,407 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query;
+
+import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.util.impl.CollectionResultComparator;
+import ddf.catalog.util.impl.DistanceResultComparator;
+import ddf.catalog.util.impl.RelevanceResultComparator;
+import ddf.catalog.util.impl.TemporalResultComparator;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.catalog.ui.query.cql.CqlQueryResponse;
+import org.codice.ddf.catalog.ui.query.cql.CqlRequest;
+import org.codice.ddf.catalog.ui.query.cql.Status;
+import org.codice.ddf.catalog.ui.util.EndpointUtil;
+import org.codice.ddf.catalog.ui.ws.JsonRpc;
+import org.codice.ddf.catalog.ui.ws.JsonRpcSession;
+import org.codice.ddf.catalog.ui.ws.SessionMethod;
+import org.codice.gsonsupport.GsonTypeAdapters.DateLongFormatTypeAdapter;
+import org.codice.gsonsupport.GsonTypeAdapters.LongDoubleTypeAdapter;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes queries for JSON-RPC clients, querying each source of a query separately so that the
+ * client is notified of the results of each source as soon as that source responds, instead of once
+ * the slowest source responds.
+ *
+ * <p>The {@code query/subscribe} method takes the same {@link CqlRequest} as the {@code query}
+ * method and returns once the query of each source is started. Then, the client is sent:
+ *
+ * <ul>
+ *   <li>a {@value #SOURCE_NOTIFICATION} notification with the {@link CqlQueryResponse} or the error
+ *       of each source, as each source responds
+ *   <li>a {@value #COMPLETE_NOTIFICATION} notification once every source responded, with the ID and
+ *       source of every result, merged in the sort order of the query, and the status of every
+ *       source that responded successfully
+ * </ul>
+ *
+ * <p>Subscriptions are identified by the ID of their {@link CqlRequest}. The {@code query/cancel}
+ * method, a new subscription with the same ID, or closing the session cancels a subscription,
+ * interrupting the queries of the sources that haven't responded yet. No notifications are sent for
+ * a cancelled subscription.
+ */
+public class QuerySubscriptions {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QuerySubscriptions.class);
+
+  public static final String SOURCE_NOTIFICATION = "query/source";
+
+  public static final String COMPLETE_NOTIFICATION = "query/complete";
+
+  private static final String ID = "id";
+
+  private static final String SOURCE = "source";
+
+  private static final Gson GSON =
+      new GsonBuilder()
+          .disableHtmlEscaping()
+          .serializeNulls()
+          .registerTypeAdapterFactory(LongDoubleTypeAdapter.FACTORY)
+          .registerTypeAdapter(Date.class, new DateLongFormatTypeAdapter())
+          .create();
+
+  private final CatalogFramework catalogFramework;
+
+  private final FilterBuilder filterBuilder;
+
+  private final EndpointUtil util;
+
+  private final ExecutorService executor;
+
+  private final Map<JsonRpcSession, Map<String, Subscription>> subscriptions =
+      new ConcurrentHashMap<>();
+
+  public QuerySubscriptions(
+      CatalogFramework catalogFramework,
+      FilterBuilder filterBuilder,
+      EndpointUtil util,
+      ExecutorService executor) {
+    this.catalogFramework = catalogFramework;
+    this.filterBuilder = filterBuilder;
+    this.util = util;
+    this.executor = executor;
+  }
+
+  public void destroy() {
+    subscriptions.values().forEach(this::cancelAll);
+    subscriptions.clear();
+    executor.shutdownNow();
+  }
+
+  /** @return the {@code query/subscribe} method */
+  public SessionMethod getSubscribeMethod() {
+    return this::subscribe;
+  }
+
+  /** @return the {@code query/cancel} method */
+  public SessionMethod getCancelMethod() {
+    return this::cancel;
+  }
+
+  private Object subscribe(Object params, JsonRpcSession session) {
+    Object error = validateParams(params);
+    if (error != null) {
+      return error;
+    }
+
+    Object param = ((List) params).get(0);
+    CqlRequest cqlRequest;
+    try {
+      cqlRequest = GSON.fromJson((String) param, CqlRequest.class);
+    } catch (RuntimeException e) {
+      return JsonRpc.invalidParams("parameter not valid json", param);
+    }
+
+    if (cqlRequest == null || cqlRequest.getId() == null) {
+      return JsonRpc.invalidParams("query id is required", param);
+    }
+
+    Map<String, QueryRequest> requests;
+    try {
+      requests = cqlRequest.createSourceQueryRequests(catalogFramework.getId(), filterBuilder);
+    } catch (RuntimeException e) {
+      LOGGER.debug("Unable to create the query requests of query {}", cqlRequest.getId(), e);
+      return JsonRpc.error(400, "Unsupported query request.");
+    }
+
+    Subscription subscription =
+        new Subscription(
+            cqlRequest,
+            session,
+            requests.size(),
+            createComparator(requests.values().iterator().next()));
+    Subscription previous = getSubscriptions(session).put(cqlRequest.getId(), subscription);
+    if (previous != null) {
+      previous.cancel();
+    }
+
+    Subject subject = ThreadContext.getSubject();
+    try {
+      for (Map.Entry<String, QueryRequest> request : requests.entrySet()) {
+        Callable<Void> task =
+            () -> {
+              subscription.query(request.getKey(), request.getValue());
+              return null;
+            };
+        subscription.futures.add(
+            executor.submit(subject == null ? task : subject.associateWith(task)));
+      }
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to query the sources of query {}", cqlRequest.getId(), e);
+      remove(subscription);
+      subscription.cancel();
+      return JsonRpc.error(500, "Error while processing query request.");
+    }
+
+    return ImmutableMap.of(ID, cqlRequest.getId(), "sources", new ArrayList<>(requests.keySet()));
+  }
+
+  private Object cancel(Object params, JsonRpcSession session) {
+    Object error = validateParams(params);
+    if (error != null) {
+      return error;
+    }
+
+    Map<String, Subscription> sessionSubscriptions = subscriptions.get(session);
+    Subscription subscription =
+        sessionSubscriptions == null ? null : sessionSubscriptions.remove(((List) params).get(0));
+    if (subscription == null) {
+      return false;
+    }
+
+    subscription.cancel();
+    return true;
+  }
+
+  /** @return the error of the parameters, or {@code null} if they are a single string */
+  private static Object validateParams(Object params) {
+    if (!(params instanceof List)) {
+      return JsonRpc.invalidParams("parameters not a list", params);
+    }
+
+    List list = (List) params;
+    if (list.size() != 1) {
+      return JsonRpc.invalidParams("must pass exactly 1 parameter", list);
+    }
+
+    if (!(list.get(0) instanceof String)) {
+      return JsonRpc.invalidParams("parameter not a string", list.get(0));
+    }
+
+    return null;
+  }
+
+  private Map<String, Subscription> getSubscriptions(JsonRpcSession session) {
+    return subscriptions.computeIfAbsent(
+        session,
+        s -> {
+          s.onClose(
+              () -> {
+                Map<String, Subscription> closed = subscriptions.remove(s);
+                if (closed != null) {
+                  cancelAll(closed);
+                }
+              });
+          return new ConcurrentHashMap<>();
+        });
+  }
+
+  private void cancelAll(Map<String, Subscription> sessionSubscriptions) {
+    sessionSubscriptions.values().forEach(Subscription::cancel);
+  }
+
+  private void remove(Subscription subscription) {
+    Map<String, Subscription> sessionSubscriptions = subscriptions.get(subscription.session);
+    if (sessionSubscriptions != null) {
+      sessionSubscriptions.remove(subscription.cqlRequest.getId(), subscription);
+    }
+  }
+
+  /**
+   * Creates the comparator of the sort order of a query, like the caching federation strategy sorts
+   * the results of its sources.
+   */
+  static Comparator<Result> createComparator(QueryRequest request) {
+    List<SortBy> sortBys = new ArrayList<>();
+    SortBy sortBy = request.getQuery().getSortBy();
+    if (sortBy != null && sortBy.getPropertyName() != null) {
+      sortBys.add(sortBy);
+    }
+    Serializable additionalSortBys = request.getPropertyValue(ADDITIONAL_SORT_BYS);
+    if (additionalSortBys instanceof SortBy[]) {
+      sortBys.addAll(Arrays.asList((SortBy[]) additionalSortBys));
+    }
+
+    CollectionResultComparator resultComparator = new CollectionResultComparator();
+    for (SortBy sort : sortBys) {
+      String sortType = sort.getPropertyName().getPropertyName();
+      SortOrder sortOrder =
+          sort.getSortOrder() == null ? SortOrder.DESCENDING : sort.getSortOrder();
+
+      if (Metacard.EFFECTIVE.equals(sortType) || Result.TEMPORAL.equals(sortType)) {
+        resultComparator.addComparator(new TemporalResultComparator(sortOrder));
+      } else if (Result.DISTANCE.equals(sortType)) {
+        resultComparator.addComparator(new DistanceResultComparator(sortOrder));
+      } else if (Result.RELEVANCE.equals(sortType)) {
+        resultComparator.addComparator(new RelevanceResultComparator(sortOrder));
+      } else {
+        resultComparator.addComparator(
+            Comparator.comparing(
+                (Result result) -> getAttributeValue(result, sortType),
+                sortOrder == SortOrder.ASCENDING
+                    ? Comparator.nullsFirst(Comparator.<Comparable>naturalOrder())
+                    : Comparator.nullsLast(Comparator.<Comparable>reverseOrder())));
+      }
+    }
+    return resultComparator;
+  }
+
+  private static Comparable getAttributeValue(Result result, String attributeName) {
+    Attribute attribute =
+        result.getMetacard() == null ? null : result.getMetacard().getAttribute(attributeName);
+    return attribute != null && attribute.getValue() instanceof Comparable
+        ? (Comparable) attribute.getValue()
+        : null;
+  }
+
+  private class Subscription {
+
+    private final CqlRequest cqlRequest;
+
+    private final JsonRpcSession session;
+
+    private final List<Future<?>> futures = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<CqlQueryResponse> responses =
+        Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger remaining;
+
+    private final Comparator<Result> comparator;
+
+    private volatile boolean cancelled = false;
+
+    private Subscription(
+        CqlRequest cqlRequest, JsonRpcSession session, int sources, Comparator<Result> comparator) {
+      this.cqlRequest = cqlRequest;
+      this.session = session;
+      this.remaining = new AtomicInteger(sources);
+      this.comparator = comparator;
+    }
+
+    private void query(String source, QueryRequest request) {
+      Map<String, Object> notification = new HashMap<>();
+      notification.put(ID, cqlRequest.getId());
+      notification.put(SOURCE, source);
+      try {
+        CqlQueryResponse response = util.executeCqlQuery(cqlRequest, request, source);
+        responses.add(response);
+        notification.put("response", response);
+      } catch (UnsupportedQueryException e) {
+        LOGGER.debug("Unable to query source {} for query {}", source, cqlRequest.getId(), e);
+        notification.put("error", JsonRpc.error(400, "Unsupported query request."));
+      } catch (Exception e) {
+        LOGGER.debug("Unable to query source {} for query {}", source, cqlRequest.getId(), e);
+        notification.put("error", JsonRpc.error(500, "Error while processing query request."));
+      }
+
+      if (cancelled) {
+        return;
+      }
+
+      session.notify(SOURCE_NOTIFICATION, notification);
+
+      if (remaining.decrementAndGet() == 0) {
+        complete();
+      }
+    }
+
+    private void complete() {
+      remove(this);
+      if (cancelled) {
+        return;
+      }
+
+      List<CqlQueryResponse> completed;
+      synchronized (responses) {
+        completed = new ArrayList<>(responses);
+      }
+
+      List<Map<String, String>> results =
+          completed
+              .stream()
+              .flatMap(response -> response.getQueryResponse().getResults().stream())
+              .filter(result -> result.getMetacard() != null)
+              .sorted(comparator)
+              .map(Result::getMetacard)
+              .map(
+                  metacard -> {
+                    Map<String, String> result = new HashMap<>();
+                    result.put(ID, metacard.getId());
+                    result.put(SOURCE, metacard.getSourceId());
+                    return result;
+                  })
+              .collect(Collectors.toList());
+      List<Status> statuses =
+          completed
+              .stream()
+              .map(CqlQueryResponse::getStatus)
+              .filter(Objects::nonNull)
+              .collect(Collectors.toList());
+
+      session.notify(
+          COMPLETE_NOTIFICATION,
+          ImmutableMap.of(ID, cqlRequest.getId(), "results", results, "status", statuses));
+    }
+
+    private void cancel() {
+      cancelled = true;
+      synchronized (futures) {
+        futures.forEach(future -> future.cancel(true));
+      }
+    }
+  }
+}
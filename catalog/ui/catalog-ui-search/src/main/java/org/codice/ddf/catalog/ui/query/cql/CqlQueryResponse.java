@@ -29,6 +29,7 @@
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.source.solr.SolrMetacardClientImpl;
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -82,48 +83,16 @@ public CqlQueryResponse(
 
     status = new Status(queryResponse, source, elapsedTime);
 
-    AtomicBoolean logOnceState = new AtomicBoolean(false);
-    Consumer<String> logOnce =
-        (str) -> {
-          if (logOnceState.compareAndSet(false, true)) {
-            LOGGER.debug(str);
-          }
-        };
-
     types =
-        queryResponse
-            .getResults()
-            .stream()
-            .map(Result::getMetacard)
-            .filter(Objects::nonNull)
-            .map(Metacard::getMetacardType)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toSet())
-            .stream()
-            .collect(
-                Collectors.toMap(
-                    MetacardType::getName,
-                    mt ->
-                        mt.getAttributeDescriptors()
-                            .stream()
-                            .collect(
-                                Collectors.toMap(
-                                    AttributeDescriptor::getName,
-                                    MetacardAttribute::new,
-                                    (ad1, ad2) -> {
-                                      logOnce.accept(
-                                          "Removed duplicate attribute descriptor(s). For more information:\n"
-                                              + "(log:set trace org.codice.ddf.catalog.ui.query.cql)");
-                                      if (LOGGER.isTraceEnabled()) {
-                                        LOGGER.trace(
-                                            "Removed duplicate attribute descriptor.({})", ad1);
-                                      }
-                                      return ad1;
-                                    })),
-                    (mt1, mt2) -> {
-                      LOGGER.debug("Removed duplicate metacard type.");
-                      return mt1;
-                    }));
+        getTypes(
+            queryResponse
+                .getResults()
+                .stream()
+                .map(Result::getMetacard)
+                .filter(Objects::nonNull)
+                .map(Metacard::getMetacardType)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
 
     final Set<SearchTerm> searchTerms = extractSearchTerms(request.getQuery(), filterAdapter);
     results =
@@ -152,7 +121,45 @@ public CqlQueryResponse(
         (Boolean) queryResponse.getProperties().get(SolrMetacardClientImpl.SPELLCHECK_KEY);
   }
 
-  private Map<String, List<FacetValueCount>> getFacetResults(Serializable facetResults) {
+  static Map<String, Map<String, MetacardAttribute>> getTypes(
+      Collection<MetacardType> metacardTypes) {
+    AtomicBoolean logOnceState = new AtomicBoolean(false);
+    Consumer<String> logOnce =
+        (str) -> {
+          if (logOnceState.compareAndSet(false, true)) {
+            LOGGER.debug(str);
+          }
+        };
+
+    return metacardTypes
+        .stream()
+        .collect(
+            Collectors.toMap(
+                MetacardType::getName,
+                mt ->
+                    mt.getAttributeDescriptors()
+                        .stream()
+                        .collect(
+                            Collectors.toMap(
+                                AttributeDescriptor::getName,
+                                MetacardAttribute::new,
+                                (ad1, ad2) -> {
+                                  logOnce.accept(
+                                      "Removed duplicate attribute descriptor(s). For more information:\n"
+                                          + "(log:set trace org.codice.ddf.catalog.ui.query.cql)");
+                                  if (LOGGER.isTraceEnabled()) {
+                                    LOGGER.trace(
+                                        "Removed duplicate attribute descriptor.({})", ad1);
+                                  }
+                                  return ad1;
+                                })),
+                (mt1, mt2) -> {
+                  LOGGER.debug("Removed duplicate metacard type.");
+                  return mt1;
+                }));
+  }
+
+  static Map<String, List<FacetValueCount>> getFacetResults(Serializable facetResults) {
     if (!(facetResults instanceof List)) return Collections.emptyMap();
     List<Object> list = (List<Object>) facetResults;
     return list.stream()
@@ -165,7 +172,7 @@ private Map<String, List<FacetValueCount>> getFacetResults(Serializable facetRes
                 (a, b) -> b));
   }
 
-  private Set<SearchTerm> extractSearchTerms(Query query, FilterAdapter filterAdapter) {
+  static Set<SearchTerm> extractSearchTerms(Query query, FilterAdapter filterAdapter) {
     Set<SearchTerm> searchTerms = Collections.emptySet();
     try {
       searchTerms = filterAdapter.adapt(query, SEARCH_TERMS_DELEGATE);
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+
+import com.google.common.base.Stopwatch;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import ddf.action.ActionRegistry;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.source.solr.SolrMetacardClientImpl;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
+import org.codice.ddf.catalog.ui.transformer.TransformerDescriptors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the same JSON as a serialized {@link CqlQueryResponse}, but writes each result as soon as
+ * it is retrieved instead of once every result is retrieved. Only the page of results being written
+ * is held in memory, so the memory used doesn't depend on the number of results.
+ *
+ * <p>The pages of results must be passed to {@link #addPage(QueryResponse)} as they are retrieved,
+ * so that the hits, facets and spellcheck fields that follow the results can be written.
+ */
+public class CqlQueryResponseWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CqlQueryResponseWriter.class);
+
+  private final String id;
+
+  private final QueryRequest request;
+
+  private final String source;
+
+  private final boolean normalize;
+
+  private final FilterAdapter filterAdapter;
+
+  private final ActionRegistry actionRegistry;
+
+  private final TransformerDescriptors descriptors;
+
+  private final Gson gson;
+
+  private final Stopwatch stopwatch = Stopwatch.createStarted();
+
+  private final Map<String, MetacardType> metacardTypes = new HashMap<>();
+
+  private long hits = -1L;
+
+  private Map<String, Serializable> properties;
+
+  public CqlQueryResponseWriter(
+      String id,
+      QueryRequest request,
+      String source,
+      boolean normalize,
+      FilterAdapter filterAdapter,
+      ActionRegistry actionRegistry,
+      TransformerDescriptors descriptors,
+      Gson gson) {
+    this.id = id;
+    this.request = request;
+    this.source = source;
+    this.normalize = normalize;
+    this.filterAdapter = filterAdapter;
+    this.actionRegistry = actionRegistry;
+    this.descriptors = descriptors;
+    this.gson = gson;
+  }
+
+  /**
+   * Records a page of results retrieved for the query. Like {@link CqlQueryResponse}, the hits and
+   * properties of the first page are written.
+   *
+   * @param page the page of results
+   */
+  public void addPage(QueryResponse page) {
+    if (page != null && properties == null) {
+      hits = page.getHits();
+      properties =
+          page.getProperties() == null
+              ? Collections.emptyMap()
+              : new HashMap<>(page.getProperties());
+    }
+  }
+
+  /**
+   * Writes the response, flushing the writer after each result.
+   *
+   * <p>The first page of results is retrieved before anything is written, so that a query that
+   * fails can still be answered with an error. If retrieving a later page fails, the results
+   * written so far are followed by an unsuccessful status.
+   *
+   * @param results the results of the query, retrieved as they are iterated
+   * @param writer the writer to write the response to
+   * @throws IOException if the response can't be written
+   */
+  public void write(Iterator<Result> results, Writer writer) throws IOException {
+    boolean hasNext = results.hasNext();
+
+    JsonWriter jsonWriter = gson.newJsonWriter(writer);
+    jsonWriter.beginObject();
+    jsonWriter.name("results");
+    jsonWriter.beginArray();
+
+    Set<SearchTerm> searchTerms =
+        CqlQueryResponse.extractSearchTerms(request.getQuery(), filterAdapter);
+    long count = 0;
+    boolean successful = true;
+    while (hasNext) {
+      writeResult(results.next(), searchTerms, jsonWriter);
+      count++;
+      jsonWriter.flush();
+
+      try {
+        hasNext = results.hasNext();
+      } catch (RuntimeException e) {
+        LOGGER.debug("Unable to retrieve every result of query {}.", id, e);
+        successful = false;
+        hasNext = false;
+      }
+    }
+
+    jsonWriter.endArray();
+    stopwatch.stop();
+
+    Map<String, Serializable> responseProperties =
+        properties == null ? Collections.emptyMap() : properties;
+    writeField(jsonWriter, "id", id);
+    writeField(jsonWriter, "types", CqlQueryResponse.getTypes(metacardTypes.values()));
+    writeField(
+        jsonWriter,
+        "status",
+        new Status(hits, count, successful, source, stopwatch.elapsed(TimeUnit.MILLISECONDS)));
+    writeField(
+        jsonWriter,
+        "facets",
+        CqlQueryResponse.getFacetResults(responseProperties.get(EXPERIMENTAL_FACET_RESULTS_KEY)));
+    writeField(
+        jsonWriter,
+        "showingResultsForFields",
+        responseProperties.get(SolrMetacardClientImpl.SHOWING_RESULTS_FOR_KEY));
+    writeField(
+        jsonWriter,
+        "didYouMeanFields",
+        responseProperties.get(SolrMetacardClientImpl.DID_YOU_MEAN_KEY));
+    writeField(
+        jsonWriter,
+        "userSpellcheckIsOn",
+        responseProperties.get(SolrMetacardClientImpl.SPELLCHECK_KEY));
+    jsonWriter.endObject();
+    jsonWriter.flush();
+  }
+
+  private void writeResult(Result result, Set<SearchTerm> searchTerms, JsonWriter jsonWriter) {
+    Metacard metacard = result.getMetacard();
+    if (metacard != null && metacard.getMetacardType() != null) {
+      metacardTypes.putIfAbsent(metacard.getMetacardType().getName(), metacard.getMetacardType());
+    }
+
+    CqlResult cqlResult =
+        new CqlResult(
+            new CqlResult(result, searchTerms, request, normalize, filterAdapter, actionRegistry),
+            descriptors);
+    gson.toJson(cqlResult, CqlResult.class, jsonWriter);
+  }
+
+  private void writeField(JsonWriter jsonWriter, String name, Object value) throws IOException {
+    jsonWriter.name(name);
+    gson.toJson(gson.toJsonTree(value), jsonWriter);
+  }
+}
@@ -29,8 +29,12 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.TermFacetPropertiesImpl;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.collections4.CollectionUtils;
@@ -83,6 +87,9 @@ public class CqlRequest {
 
   private Set<String> facets = Collections.emptySet();
 
+  /** The only attributes returned by sources that support it, or empty for all of them */
+  private Set<String> includeAttributes = Collections.emptySet();
+
   public Set<String> getFacets() {
     return facets;
   }
@@ -91,6 +98,14 @@ public void setFacets(Set<String> facets) {
     this.facets = facets;
   }
 
+  public Set<String> getIncludeAttributes() {
+    return includeAttributes;
+  }
+
+  public void setIncludeAttributes(Set<String> includeAttributes) {
+    this.includeAttributes = includeAttributes;
+  }
+
   private boolean normalize = false;
 
   private boolean excludeUnnecessaryAttributes = true;
@@ -244,6 +259,10 @@ public QueryRequest createQueryRequest(String localSource, FilterBuilder filterB
           .put("excludeAttributes", Sets.newHashSet(Metacard.METADATA, "lux"));
     }
 
+    if (CollectionUtils.isNotEmpty(includeAttributes)) {
+      queryRequest.getProperties().put("includeAttributes", new HashSet<>(includeAttributes));
+    }
+
     if (sortBys.size() > 1) {
       queryRequest
           .getProperties()
@@ -271,6 +290,35 @@ public QueryRequest createQueryRequest(String localSource, FilterBuilder filterB
     return queryRequest;
   }
 
+  /**
+   * Creates a query request for each source of this request, so that the results of each source can
+   * be returned as soon as that source responds, instead of once every source responds.
+   *
+   * @param localSource the ID of the local source
+   * @param filterBuilder the filter builder used to create the filter of the requests
+   * @return the query requests, by source ID
+   */
+  public Map<String, QueryRequest> createSourceQueryRequests(
+      String localSource, FilterBuilder filterBuilder) {
+    QueryRequest queryRequest = createQueryRequest(localSource, filterBuilder);
+    if (CollectionUtils.isEmpty(srcs)) {
+      return Collections.singletonMap(src, queryRequest);
+    }
+
+    Map<String, QueryRequest> queryRequests = new LinkedHashMap<>();
+    for (String source : srcs) {
+      queryRequests.computeIfAbsent(
+          source,
+          s ->
+              new QueryRequestImpl(
+                  queryRequest.getQuery(),
+                  false,
+                  Collections.singleton(s),
+                  new HashMap<>(queryRequest.getProperties())));
+    }
+    return queryRequests;
+  }
+
   private String parseSrc(String localSource) {
     if (StringUtils.equalsIgnoreCase(src, LOCAL_SOURCE) || StringUtils.isBlank(src)) {
       src = localSource;
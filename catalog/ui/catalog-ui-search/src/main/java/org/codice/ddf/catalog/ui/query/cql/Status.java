@@ -30,15 +30,23 @@ public class Status {
   private final boolean successful;
 
   public Status(QueryResponse response, String source, long elapsedTime) {
-    elapsed = elapsedTime;
-    id = source;
+    this(
+        response.getHits(),
+        response.getResults().size(),
+        isSuccessful(response.getProcessingDetails()),
+        source,
+        elapsedTime);
+  }
 
-    count = response.getResults().size();
-    hits = response.getHits();
-    successful = isSuccessful(response.getProcessingDetails());
+  public Status(long hits, long count, boolean successful, String source, long elapsedTime) {
+    this.elapsed = elapsedTime;
+    this.id = source;
+    this.count = count;
+    this.hits = hits;
+    this.successful = successful;
   }
 
-  private boolean isSuccessful(final Set<ProcessingDetails> details) {
+  private static boolean isSuccessful(final Set<ProcessingDetails> details) {
     for (ProcessingDetails detail : details) {
       if (detail.hasException()) {
         return false;
@@ -13,13 +13,11 @@
  */
 package org.codice.ddf.catalog.ui.query.monitor.impl;
 
-import static org.apache.commons.lang3.Validate.notEmpty;
 import static org.apache.commons.lang3.Validate.notNull;
 import static org.quartz.CronScheduleBuilder.cronSchedule;
 import static org.quartz.JobBuilder.newJob;
 import static org.quartz.TriggerBuilder.newTrigger;
 
-import com.google.common.collect.Lists;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
@@ -34,22 +32,23 @@
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.function.BiFunction;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.codice.ddf.catalog.ui.metacard.query.data.metacard.QueryMetacardImpl;
@@ -59,7 +58,7 @@
 import org.codice.ddf.catalog.ui.query.monitor.api.SecurityService;
 import org.codice.ddf.catalog.ui.query.monitor.api.WorkspaceQueryService;
 import org.codice.ddf.catalog.ui.query.monitor.api.WorkspaceService;
-import org.codice.ddf.platform.util.ForkJoinPoolFactory;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.security.common.Security;
 import org.geotools.filter.text.cql2.CQLException;
 import org.geotools.filter.text.ecql.ECQL;
@@ -78,12 +77,17 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(WorkspaceQueryServiceImpl.class);
 
-  private static final String UNKNOWN_SOURCE = "unknown";
-
   private static final String TRIGGER_NAME = "WorkspaceQueryTrigger";
 
   private static final Security SECURITY = Security.getInstance();
 
+  private static final int DEFAULT_QUERY_THREADS = 8;
+
+  private static final long DEFAULT_EXPENSIVE_QUERY_SECONDS = 60;
+
+  /** Maximum number of consecutive runs an expensive query is skipped for */
+  private static final long MAX_SKIPPED_RUNS = 7;
+
   private final QueryUpdateSubscriber queryUpdateSubscriber;
 
   private final WorkspaceService workspaceService;
@@ -107,6 +111,20 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
 
   private Subject subject;
 
+  private long expensiveQueryMillis = TimeUnit.SECONDS.toMillis(DEFAULT_EXPENSIVE_QUERY_SECONDS);
+
+  /** The distinct queries of the workspaces, by the normalized CQL of their saved queries */
+  private final Map<Set<String>, MonitoredQuery> monitoredQueries = new ConcurrentHashMap<>();
+
+  private final ThreadPoolExecutor queryExecutor =
+      new ThreadPoolExecutor(
+          DEFAULT_QUERY_THREADS,
+          DEFAULT_QUERY_THREADS,
+          60L,
+          TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(),
+          StandardThreadFactoryBuilder.newThreadFactory("workspaceQueryServiceThread"));
+
   /**
    * @param queryUpdateSubscriber must be non-null
    * @param workspaceService must be non-null
@@ -141,6 +159,8 @@ public WorkspaceQueryServiceImpl(
     this.securityService = securityService;
     this.filterService = filterService;
 
+    queryExecutor.allowCoreThreadTimeOut(true);
+
     Optional<Scheduler> schedulerOptional = schedulerSupplier.get();
 
     if (schedulerOptional.isPresent()) {
@@ -198,6 +218,41 @@ public void setQueryTimeoutMinutes(Long queryTimeoutMinutes) {
     this.queryTimeoutMinutes = queryTimeoutMinutes;
   }
 
+  /** @param queryThreads maximum number of queries executed at the same time (must be non-null) */
+  @SuppressWarnings("unused")
+  public void setQueryThreads(Integer queryThreads) {
+    notNull(queryThreads, "queryThreads must be non-null");
+    if (queryThreads <= 0) {
+      LOGGER.debug("Ignoring invalid number of query threads : {}", queryThreads);
+      return;
+    }
+
+    LOGGER.debug("Setting query threads : {}", queryThreads);
+    if (queryThreads > queryExecutor.getMaximumPoolSize()) {
+      queryExecutor.setMaximumPoolSize(queryThreads);
+      queryExecutor.setCorePoolSize(queryThreads);
+    } else {
+      queryExecutor.setCorePoolSize(queryThreads);
+      queryExecutor.setMaximumPoolSize(queryThreads);
+    }
+  }
+
+  /**
+   * @param expensiveQuerySeconds seconds a query can take before it is executed less often (must be
+   *     non-null)
+   */
+  @SuppressWarnings("unused")
+  public void setExpensiveQuerySeconds(Long expensiveQuerySeconds) {
+    notNull(expensiveQuerySeconds, "expensiveQuerySeconds must be non-null");
+    if (expensiveQuerySeconds <= 0) {
+      LOGGER.debug("Ignoring invalid expensive query seconds : {}", expensiveQuerySeconds);
+      return;
+    }
+
+    LOGGER.debug("Setting expensive query seconds : {}", expensiveQuerySeconds);
+    this.expensiveQueryMillis = TimeUnit.SECONDS.toMillis(expensiveQuerySeconds);
+  }
+
   public void setSubject(Subject subject) {
     this.subject = subject;
   }
@@ -209,6 +264,7 @@ public void destroy() {
     } catch (SchedulerException e) {
       LOGGER.warn("Unable to shut down scheduler", e);
     }
+    queryExecutor.shutdownNow();
   }
 
   /** Main entry point, should be called by a scheduler. */
@@ -226,12 +282,18 @@ public void run() {
 
                 LOGGER.debug("queryMetacards: size={}", queryMetacards.size());
 
-                List<WorkspaceTask> workspaceTasks = createWorkspaceTasks(queryMetacards);
+                Map<Set<String>, Filter> queries = new HashMap<>();
+                List<Pair<WorkspaceMetacardImpl, Set<String>>> workspaceQueries =
+                    groupByQuery(queryMetacards, queries);
+                monitoredQueries.keySet().retainAll(queries.keySet());
+
+                LOGGER.debug("queries: size={}", queries.size());
 
-                LOGGER.debug("workspaceTasks: size={}", workspaceTasks.size());
+                Map<Set<String>, Long> hits =
+                    executeQueries(queries, queryTimeoutMinutes, TimeUnit.MINUTES);
 
                 Map<String, Pair<WorkspaceMetacardImpl, Long>> results =
-                    executeWorkspaceTasks(workspaceTasks, queryTimeoutMinutes, TimeUnit.MINUTES);
+                    getWorkspaceResults(workspaceQueries, hits);
 
                 LOGGER.debug("results: {}", results);
 
@@ -242,101 +304,120 @@ public void run() {
         });
   }
 
-  private Map<String, Pair<WorkspaceMetacardImpl, Long>> executeWorkspaceTasks(
-      List<WorkspaceTask> workspaceTasks, long timeout, TimeUnit timeoutUnit) {
-    Map<String, Pair<WorkspaceMetacardImpl, Long>> results = new ConcurrentHashMap<>();
-
-    workspaceTasks
-        .stream()
-        .map(ForkJoinPoolFactory.getNewForkJoinPool(null, false)::submit)
-        .map(task -> getTaskResult(task, timeout, timeoutUnit))
-        .filter(Objects::nonNull)
-        .forEach(
-            pair ->
-                results.put(
-                    pair.getLeft().getId(), new ImmutablePair<>(pair.getLeft(), pair.getRight())));
-
-    return results;
-  }
-
-  private Pair<WorkspaceMetacardImpl, Long> getTaskResult(
-      ForkJoinTask<Pair<WorkspaceMetacardImpl, Long>> workspaceTask,
-      long timeout,
-      TimeUnit timeoutUnit) {
-    try {
-      return workspaceTask.get(timeout, timeoutUnit);
-    } catch (TimeoutException e) {
-      LOGGER.warn("Timeout", e);
-    } catch (ExecutionException | InterruptedException e) {
-      LOGGER.warn("ForkJoinPool error", e);
-
-      Thread.currentThread().interrupt();
-    }
-    return null;
-  }
-
-  private List<WorkspaceTask> createWorkspaceTasks(
-      Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards) {
-    List<WorkspaceTask> workspaceTasks = new ArrayList<>();
+  /**
+   * Combines the saved queries of every workspace into a single query, so that a metacard matching
+   * several of them is only counted once. Workspaces with the same saved queries share their query,
+   * so it is only executed once.
+   *
+   * @param queries the filters of the distinct queries, by the normalized CQL of their saved
+   *     queries
+   * @return the normalized CQL of the saved queries of each workspace
+   */
+  private List<Pair<WorkspaceMetacardImpl, Set<String>>> groupByQuery(
+      Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards,
+      Map<Set<String>, Filter> queries) {
+    List<Pair<WorkspaceMetacardImpl, Set<String>>> workspaceQueries = new ArrayList<>();
 
     for (Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>> workspaceQueryPair :
         queryMetacards.values()) {
-      Map<String, List<QueryMetacardImpl>> queryMetacardsGroupedBySource =
-          groupBySource(workspaceQueryPair.getRight());
-      List<QueryRequest> queryRequests =
-          getQueryRequests(queryMetacardsGroupedBySource.values().stream());
-      if (!queryRequests.isEmpty()) {
-        workspaceTasks.add(new WorkspaceTask(workspaceQueryPair.getLeft(), queryRequests));
+      Map<String, Filter> workspaceFilters = new HashMap<>();
+      for (QueryMetacardImpl queryMetacard : workspaceQueryPair.getRight()) {
+        Filter filter = metacardToFilter(queryMetacard);
+        if (filter != null) {
+          workspaceFilters.putIfAbsent(ECQL.toCQL(filter), filter);
+        }
+      }
+
+      if (!workspaceFilters.isEmpty()) {
+        Set<String> workspaceCql = new HashSet<>(workspaceFilters.keySet());
+        queries.computeIfAbsent(workspaceCql, cql -> anyOf(workspaceFilters.values()));
+        workspaceQueries.add(Pair.of(workspaceQueryPair.getLeft(), workspaceCql));
       }
     }
 
-    return workspaceTasks;
+    return workspaceQueries;
   }
 
-  private Map<String, List<QueryMetacardImpl>> groupBySource(
-      List<QueryMetacardImpl> queryMetacards) {
-    final Map<String, List<QueryMetacardImpl>> groupedBySource = new HashMap<>();
-    for (QueryMetacardImpl queryMetacard : queryMetacards) {
-      List<String> sources = queryMetacard.getSources();
-      if (!sources.isEmpty()) {
-        sources.forEach(sourceId -> groupedBySource.compute(sourceId, addToList(queryMetacard)));
+  private Filter anyOf(Collection<Filter> filters) {
+    return filters.size() == 1
+        ? filters.iterator().next()
+        : filterBuilder.anyOf(new ArrayList<>(filters));
+  }
+
+  /**
+   * @return the hits of the queries that were due and completed, by the normalized CQL of their
+   *     saved queries
+   */
+  private Map<Set<String>, Long> executeQueries(
+      Map<Set<String>, Filter> queries, long timeout, TimeUnit timeoutUnit) {
+    final Instant runStart = Instant.now();
+    final Instant intervalStart = calculateQueryTimeInterval().toInstant();
+
+    Map<Set<String>, Future<QueryResult>> futures = new HashMap<>();
+    for (Map.Entry<Set<String>, Filter> query : queries.entrySet()) {
+      MonitoredQuery monitoredQuery =
+          monitoredQueries.computeIfAbsent(query.getKey(), cql -> new MonitoredQuery());
+      if (monitoredQuery.isDue()) {
+        QueryRequest queryRequest =
+            createQueryRequest(query.getValue(), monitoredQuery.getModifiedSince(intervalStart));
+        monitoredQuery.submitted();
+        futures.put(
+            query.getKey(), queryExecutor.submit(new QueryTask(queryRequest, monitoredQuery)));
       } else {
-        groupedBySource.compute(UNKNOWN_SOURCE, addToList(queryMetacard));
+        LOGGER.debug("Skipping expensive query until a later run: {}", query.getKey());
       }
     }
-    return groupedBySource;
-  }
 
-  private BiFunction<String, List<QueryMetacardImpl>, List<QueryMetacardImpl>> addToList(
-      QueryMetacardImpl queryMetacard) {
-    return (id, queries) -> {
-      if (queries == null) {
-        return Lists.newArrayList(queryMetacard);
-      } else {
-        queries.add(queryMetacard);
-        return queries;
+    final long deadline = System.nanoTime() + timeoutUnit.toNanos(timeout);
+    Map<Set<String>, Long> hits = new HashMap<>();
+    for (Map.Entry<Set<String>, Future<QueryResult>> future : futures.entrySet()) {
+      MonitoredQuery monitoredQuery = monitoredQueries.get(future.getKey());
+      try {
+        QueryResult result =
+            future.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        hits.put(future.getKey(), result.hits);
+        monitoredQuery.completed(runStart, result.elapsedMillis);
+      } catch (TimeoutException e) {
+        LOGGER.warn("Timeout", e);
+        future.getValue().cancel(true);
+        monitoredQuery.timedOut();
+      } catch (ExecutionException e) {
+        LOGGER.warn("Query error", e.getCause());
+      } catch (InterruptedException e) {
+        LOGGER.warn("Interrupted while waiting for the workspace queries", e);
+        futures.values().forEach(f -> f.cancel(true));
+        Thread.currentThread().interrupt();
+        break;
       }
-    };
+    }
+
+    return hits;
   }
 
-  private List<QueryRequest> getQueryRequests(
-      Stream<List<QueryMetacardImpl>> queriesGroupedBySource) {
-    final Filter modifiedFilter = filterService.getModifiedDateFilter(calculateQueryTimeInterval());
-    return queriesGroupedBySource
-        .map(this::queryMetacardsToFilters)
-        .map(filterBuilder::anyOf)
-        .map(filter -> filterBuilder.allOf(modifiedFilter, filter))
-        .map(this::filterToQuery)
-        .map(this::queryToQueryRequest)
-        .collect(Collectors.toList());
+  /**
+   * Gets the hits of the query of each workspace. Workspaces whose query did not complete in this
+   * run are left out.
+   */
+  private Map<String, Pair<WorkspaceMetacardImpl, Long>> getWorkspaceResults(
+      List<Pair<WorkspaceMetacardImpl, Set<String>>> workspaceQueries,
+      Map<Set<String>, Long> hits) {
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> results = new HashMap<>();
+
+    for (Pair<WorkspaceMetacardImpl, Set<String>> workspaceQuery : workspaceQueries) {
+      Long workspaceHits = hits.get(workspaceQuery.getRight());
+      if (workspaceHits != null) {
+        WorkspaceMetacardImpl workspaceMetacard = workspaceQuery.getLeft();
+        results.put(
+            workspaceMetacard.getId(), new ImmutablePair<>(workspaceMetacard, workspaceHits));
+      }
+    }
+
+    return results;
   }
 
-  private List<Filter> queryMetacardsToFilters(List<QueryMetacardImpl> queriesForSource) {
-    return queriesForSource
-        .stream()
-        .map(this::metacardToFilter)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+  private QueryRequest createQueryRequest(Filter filter, Date modifiedSince) {
+    final Filter modifiedFilter = filterService.getModifiedDateFilter(modifiedSince);
+    return queryToQueryRequest(filterToQuery(filterBuilder.allOf(modifiedFilter, filter)));
   }
 
   private QueryRequestImpl queryToQueryRequest(QueryImpl query) {
@@ -347,6 +428,8 @@ private QueryRequestImpl queryToQueryRequest(QueryImpl query) {
   private QueryImpl filterToQuery(And filter) {
     final QueryImpl query = new QueryImpl(filter);
     query.setRequestsTotalResultsCount(true);
+    // Only the hits are used
+    query.setPageSize(1);
     return query;
   }
 
@@ -363,50 +446,93 @@ private Date calculateQueryTimeInterval() {
     return Date.from(Instant.now().minus(queryTimeInterval, ChronoUnit.MINUTES));
   }
 
-  private class QueryTask extends RecursiveTask<Long> {
-    private final QueryRequest queryRequest;
+  /**
+   * The state of a distinct query between runs. A query counts the metacards modified since its
+   * last completed run, and a query that takes longer than {@link #expensiveQueryMillis} is skipped
+   * for a number of runs proportional to its cost.
+   */
+  private class MonitoredQuery {
+    private Instant lastRun;
 
-    private QueryTask(QueryRequest queryRequest) {
-      this.queryRequest = queryRequest;
+    /** When the query started executing in this run, or null while it is queued */
+    private volatile Long startNanos;
+
+    private long costMillis;
+
+    private long runsToSkip;
+
+    private boolean isDue() {
+      if (runsToSkip > 0) {
+        runsToSkip--;
+        return false;
+      }
+      return true;
     }
 
-    @Override
-    protected Long compute() {
-      try {
-        final QueryResponse response = catalogFramework.query(queryRequest);
-        return response.getHits();
-      } catch (UnsupportedQueryException | FederationException | SourceUnavailableException e) {
-        LOGGER.warn("Query error", e);
-        return 0L;
+    /**
+     * @param intervalStart the start of the configured notification time interval
+     * @return the later of the start of the last completed run and the start of the interval
+     */
+    private Date getModifiedSince(Instant intervalStart) {
+      return Date.from(lastRun != null && lastRun.isAfter(intervalStart) ? lastRun : intervalStart);
+    }
+
+    private void completed(Instant runStart, long elapsedMillis) {
+      lastRun = runStart;
+      updateCost(elapsedMillis);
+    }
+
+    private void submitted() {
+      startNanos = null;
+    }
+
+    private void started() {
+      startNanos = System.nanoTime();
+    }
+
+    /** Only the time the query was executing counts, not the time it was queued */
+    private void timedOut() {
+      final Long start = startNanos;
+      if (start != null) {
+        updateCost(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
       }
     }
+
+    private void updateCost(long elapsedMillis) {
+      costMillis = costMillis == 0 ? elapsedMillis : (costMillis + elapsedMillis) / 2;
+      runsToSkip = Math.min(costMillis / expensiveQueryMillis, MAX_SKIPPED_RUNS);
+    }
   }
 
-  private class WorkspaceTask extends RecursiveTask<Pair<WorkspaceMetacardImpl, Long>> {
-    private final WorkspaceMetacardImpl workspaceMetacard;
+  private static class QueryResult {
+    private final long hits;
+
+    private final long elapsedMillis;
 
-    private final List<QueryRequest> queryRequests;
+    private QueryResult(long hits, long elapsedMillis) {
+      this.hits = hits;
+      this.elapsedMillis = elapsedMillis;
+    }
+  }
 
-    private WorkspaceTask(
-        WorkspaceMetacardImpl workspaceMetacard, List<QueryRequest> queryRequests) {
-      notNull(workspaceMetacard, "WorkspaceMetacardImpl must be non-null");
-      notNull(queryRequests, "queryRequests must be non-null");
-      notEmpty(queryRequests, "queryRequests must be non-empty");
-      this.workspaceMetacard = workspaceMetacard;
-      this.queryRequests = queryRequests;
+  private class QueryTask implements Callable<QueryResult> {
+    private final QueryRequest queryRequest;
+
+    private final MonitoredQuery monitoredQuery;
+
+    private QueryTask(QueryRequest queryRequest, MonitoredQuery monitoredQuery) {
+      this.queryRequest = queryRequest;
+      this.monitoredQuery = monitoredQuery;
     }
 
     @Override
-    protected Pair<WorkspaceMetacardImpl, Long> compute() {
-      final long result =
-          queryRequests
-              .stream()
-              .map(QueryTask::new)
-              .map(QueryTask::fork)
-              .mapToLong(ForkJoinTask::join)
-              .sum();
-
-      return Pair.of(workspaceMetacard, result);
+    public QueryResult call()
+        throws UnsupportedQueryException, FederationException, SourceUnavailableException {
+      monitoredQuery.started();
+      final long start = System.nanoTime();
+      final QueryResponse response = catalogFramework.query(queryRequest);
+      return new QueryResult(
+          response.getHits(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
     }
   }
 }
@@ -49,6 +49,7 @@
 import ddf.catalog.util.impl.ResultIterable;
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -66,7 +67,6 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.TimeZone;
@@ -82,6 +82,7 @@
 import org.codice.ddf.catalog.ui.config.ConfigurationApplication;
 import org.codice.ddf.catalog.ui.metacard.EntityTooLargeException;
 import org.codice.ddf.catalog.ui.query.cql.CqlQueryResponse;
+import org.codice.ddf.catalog.ui.query.cql.CqlQueryResponseWriter;
 import org.codice.ddf.catalog.ui.query.cql.CqlRequest;
 import org.codice.ddf.catalog.ui.transformer.TransformerDescriptors;
 import org.codice.gsonsupport.GsonTypeAdapters.LongDoubleTypeAdapter;
@@ -146,6 +147,8 @@ public class EndpointUtil {
 
   private TransformerDescriptors descriptors;
 
+  private volatile MetacardTypeCatalog metacardTypeCatalog;
+
   public EndpointUtil(
       List<MetacardType> metacardTypes,
       CatalogFramework catalogFramework,
@@ -395,8 +398,41 @@ private List<MetacardType> getFilteredMetacardTypes() {
   }
 
   public Map<String, Object> getMetacardTypeMap() {
+    return getMetacardTypeCatalog().getTypes();
+  }
+
+  /**
+   * Returns the metacard types, with their JSON and ETag. They are only rebuilt when the metacard
+   * types, the injectable attributes or the descriptors of the injected attributes changed since
+   * they were last built.
+   */
+  public MetacardTypeCatalog getMetacardTypeCatalog() {
+    List<MetacardType> types = new ArrayList<>(getFilteredMetacardTypes());
+    List<InjectableAttribute> injectables = new ArrayList<>(injectableAttributes);
+    List<AttributeDescriptor> injectedDescriptors = new ArrayList<>(injectables.size());
+    for (InjectableAttribute attribute : injectables) {
+      injectedDescriptors.add(attributeRegistry.lookup(attribute.attribute()).orElse(null));
+    }
+
+    List<Object> sources = new ArrayList<>(types);
+    sources.addAll(injectables);
+    sources.addAll(injectedDescriptors);
+
+    MetacardTypeCatalog catalog = metacardTypeCatalog;
+    if (catalog == null || !catalog.isBuiltFrom(sources)) {
+      Map<String, Object> typeMap = getMetacardTypeMap(types, injectables, injectedDescriptors);
+      catalog = new MetacardTypeCatalog(sources, typeMap, getJson(typeMap));
+      metacardTypeCatalog = catalog;
+    }
+    return catalog;
+  }
+
+  private Map<String, Object> getMetacardTypeMap(
+      List<MetacardType> filteredTypes,
+      List<InjectableAttribute> injectables,
+      List<AttributeDescriptor> injectedDescriptors) {
     Map<String, Object> resultTypes = new HashMap<>();
-    for (MetacardType metacardType : getFilteredMetacardTypes()) {
+    for (MetacardType metacardType : filteredTypes) {
       Map<String, Object> attributes = new HashMap<>();
       for (AttributeDescriptor descriptor : metacardType.getAttributeDescriptors()) {
         Map<String, Object> attributeProperties = new HashMap<>();
@@ -408,13 +444,13 @@ public Map<String, Object> getMetacardTypeMap() {
       }
       resultTypes.put(metacardType.getName(), attributes);
     }
-    for (InjectableAttribute attribute : injectableAttributes) {
-      Optional<AttributeDescriptor> lookup = attributeRegistry.lookup(attribute.attribute());
-      if (!lookup.isPresent()) {
+    for (int i = 0; i < injectables.size(); i++) {
+      InjectableAttribute attribute = injectables.get(i);
+      AttributeDescriptor descriptor = injectedDescriptors.get(i);
+      if (descriptor == null) {
         continue;
       }
 
-      AttributeDescriptor descriptor = lookup.get();
       Map<String, Object> attributeProperties = new HashMap<>();
       attributeProperties.put(TYPE_KEY, descriptor.getType().getAttributeFormat().name());
       attributeProperties.put(MULTIVALUED_KEY, descriptor.isMultiValued());
@@ -523,7 +559,23 @@ public String getJson(Object result) {
 
   public CqlQueryResponse executeCqlQuery(CqlRequest cqlRequest)
       throws UnsupportedQueryException, SourceUnavailableException, FederationException {
-    QueryRequest request = cqlRequest.createQueryRequest(catalogFramework.getId(), filterBuilder);
+    return executeCqlQuery(
+        cqlRequest,
+        cqlRequest.createQueryRequest(catalogFramework.getId(), filterBuilder),
+        cqlRequest.getSourceResponseString());
+  }
+
+  /**
+   * Executes a query request created from a {@link CqlRequest}, such as one of the requests created
+   * by {@link CqlRequest#createSourceQueryRequests(String, FilterBuilder)}.
+   *
+   * @param cqlRequest the request the query request was created from
+   * @param request the query request to execute
+   * @param source the sources queried, as reported in the status of the response
+   */
+  public CqlQueryResponse executeCqlQuery(
+      CqlRequest cqlRequest, QueryRequest request, String source)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
     Stopwatch stopwatch = Stopwatch.createStarted();
 
     List<QueryResponse> responses = Collections.synchronizedList(new ArrayList<>());
@@ -559,7 +611,7 @@ public CqlQueryResponse executeCqlQuery(CqlRequest cqlRequest)
         cqlRequest.getId(),
         request,
         response,
-        cqlRequest.getSourceResponseString(),
+        source,
         stopwatch.elapsed(TimeUnit.MILLISECONDS),
         cqlRequest.isNormalize(),
         filterAdapter,
@@ -567,6 +619,47 @@ public CqlQueryResponse executeCqlQuery(CqlRequest cqlRequest)
         descriptors);
   }
 
+  /**
+   * Executes a query and writes its {@link CqlQueryResponse} as its results are retrieved, instead
+   * of once every result is retrieved.
+   *
+   * @see CqlQueryResponseWriter
+   */
+  public void streamCqlQuery(CqlRequest cqlRequest, Gson gson, Writer writer)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException,
+          IOException {
+    QueryRequest request = cqlRequest.createQueryRequest(catalogFramework.getId(), filterBuilder);
+
+    CqlQueryResponseWriter responseWriter =
+        new CqlQueryResponseWriter(
+            cqlRequest.getId(),
+            request,
+            cqlRequest.getSourceResponseString(),
+            cqlRequest.isNormalize(),
+            filterAdapter,
+            actionRegistry,
+            descriptors,
+            gson);
+
+    Iterator<Result> results;
+    if (cqlRequest.getCount() == 0) {
+      QueryResponse queryResponse = catalogFramework.query(request);
+      responseWriter.addPage(queryResponse);
+      results = queryResponse.getResults().iterator();
+    } else {
+      QueryFunction queryFunction =
+          (queryRequest) -> {
+            QueryResponse queryResponse = catalogFramework.query(queryRequest);
+            responseWriter.addPage(queryResponse);
+            return queryResponse;
+          };
+      results =
+          ResultIterable.resultIterable(queryFunction, request, cqlRequest.getCount()).iterator();
+    }
+
+    responseWriter.write(results, writer);
+  }
+
   private List<Result> retrieveHitCount(QueryRequest request, List<QueryResponse> responses)
       throws UnsupportedQueryException, SourceUnavailableException, FederationException {
     QueryResponse queryResponse = catalogFramework.query(request);
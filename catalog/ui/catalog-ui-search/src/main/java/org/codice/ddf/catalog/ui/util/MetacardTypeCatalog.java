@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.util;
+
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * The metacard types returned to the UI, with their JSON and ETag, built once from a snapshot of
+ * the metacard types, injectable attributes and injected attribute descriptors they describe.
+ *
+ * @see EndpointUtil#getMetacardTypeCatalog()
+ */
+public class MetacardTypeCatalog {
+
+  private final List<Object> sources;
+
+  private final Map<String, Object> types;
+
+  private final String json;
+
+  private final String etag;
+
+  MetacardTypeCatalog(List<Object> sources, Map<String, Object> types, String json) {
+    this.sources = sources;
+    this.types = Collections.unmodifiableMap(types);
+    this.json = json;
+    this.etag = '"' + Hashing.sha256().hashString(json, StandardCharsets.UTF_8).toString() + '"';
+  }
+
+  /** @return the attributes of each metacard type, by metacard type name */
+  public Map<String, Object> getTypes() {
+    return types;
+  }
+
+  /** @return the JSON of {@link #getTypes()} */
+  public String getJson() {
+    return json;
+  }
+
+  /** @return the quoted entity tag of {@link #getJson()} */
+  public String getEtag() {
+    return etag;
+  }
+
+  /**
+   * @param ifNoneMatch the value of an If-None-Match header, or {@code null} if there is none
+   * @return {@code true} if the client already has the current JSON of the metacard types
+   */
+  public boolean matches(@Nullable String ifNoneMatch) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+        .anyMatch(tag -> "*".equals(tag) || etag.equals(tag));
+  }
+
+  /**
+   * Services are compared by identity, since a metacard type or attribute that changes is
+   * registered again as a new service.
+   *
+   * @param sources the metacard types, injectable attributes and injected attribute descriptors
+   *     that are currently registered
+   * @return {@code true} if this catalog was built from the same sources
+   */
+  boolean isBuiltFrom(List<Object> sources) {
+    if (this.sources.size() != sources.size()) {
+      return false;
+    }
+
+    for (int i = 0; i < sources.size(); i++) {
+      if (this.sources.get(i) != sources.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
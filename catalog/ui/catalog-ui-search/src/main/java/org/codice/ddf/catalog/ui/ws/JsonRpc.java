@@ -17,10 +17,13 @@
 import com.google.gson.GsonBuilder;
 import ddf.security.common.audit.SecurityLogger;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import org.codice.gsonsupport.GsonTypeAdapters.DateLongFormatTypeAdapter;
@@ -53,8 +56,17 @@ public class JsonRpc implements WebSocket {
 
   private final Map<String, Function> methods;
 
+  private final Map<String, SessionMethod> sessionMethods;
+
+  private final Map<Session, ClientSession> sessions = new ConcurrentHashMap<>();
+
   public JsonRpc(Map<String, Function> methods) {
+    this(methods, Collections.emptyMap());
+  }
+
+  public JsonRpc(Map<String, Function> methods, Map<String, SessionMethod> sessionMethods) {
     this.methods = methods;
+    this.sessionMethods = sessionMethods;
   }
 
   public static Error error(int code, String message) {
@@ -81,6 +93,14 @@ private static Map<String, Object> response(Object id, Object value) {
     return response;
   }
 
+  private static Map<String, Object> notification(String method, Object params) {
+    Map<String, Object> notification = new HashMap<>();
+    notification.put(JSON_RPC, VERSION);
+    notification.put(METHOD, method);
+    notification.put("params", params);
+    return notification;
+  }
+
   private static Error invalid(String message) {
     return invalid(message, null);
   }
@@ -96,7 +116,10 @@ public void onOpen(Session session) {
 
   @Override
   public void onClose(Session session, int statusCode, String reason) {
-    // no action required on close
+    ClientSession clientSession = sessions.remove(session);
+    if (clientSession != null) {
+      clientSession.close();
+    }
   }
 
   @Override
@@ -114,7 +137,7 @@ public void onError(Session session, Throwable ex) {
 
   @Override
   public void onMessage(Session session, String message) throws IOException {
-    handleMessage(session, message, this::callMethod);
+    handleMessage(session, message, (messageMap, id) -> callMethod(session, messageMap, id));
   }
 
   private void handleMessage(
@@ -176,7 +199,7 @@ private void validateJsonRpcVersion(Map message, Object id) throws JsonRpcExcept
     }
   }
 
-  private Object callMethod(Map message, Object id) throws JsonRpcException {
+  private Object callMethod(Session session, Map message, Object id) throws JsonRpcException {
     if (!message.containsKey(METHOD)) {
       throw new JsonRpcException(id, invalid(String.format("required key `%s` missing", METHOD)));
     }
@@ -188,7 +211,7 @@ private Object callMethod(Map message, Object id) throws JsonRpcException {
 
     String method = (String) message.get(METHOD);
 
-    if (!methods.containsKey(method)) {
+    if (!methods.containsKey(method) && !sessionMethods.containsKey(method)) {
       throw new JsonRpcException(
           id, error(METHOD_NOT_FOUND, String.format("method `%s` not found", method)));
     }
@@ -201,12 +224,63 @@ private Object callMethod(Map message, Object id) throws JsonRpcException {
     }
 
     try {
-      return methods.get(method).apply(params);
+      if (methods.containsKey(method)) {
+        return methods.get(method).apply(params);
+      }
+      return sessionMethods.get(method).apply(params, getClientSession(session));
     } catch (RuntimeException e) {
       throw new JsonRpcException(id, error(INTERNAL_ERROR, "Internal Error"));
     }
   }
 
+  private ClientSession getClientSession(Session session) {
+    ClientSession clientSession = sessions.computeIfAbsent(session, ClientSession::new);
+
+    // The session may have been closed before it was added
+    if (!session.isOpen() && sessions.remove(session, clientSession)) {
+      clientSession.close();
+    }
+    return clientSession;
+  }
+
+  private static class ClientSession implements JsonRpcSession {
+    private final Session session;
+    private final List<Runnable> closeListeners = new ArrayList<>();
+    private boolean closed = false;
+
+    private ClientSession(Session session) {
+      this.session = session;
+    }
+
+    @Override
+    public void notify(String method, Object params) {
+      if (session.isOpen()) {
+        session.getRemote().sendStringByFuture(GSON.toJson(notification(method, params)));
+      }
+    }
+
+    @Override
+    public void onClose(Runnable listener) {
+      synchronized (closeListeners) {
+        if (!closed) {
+          closeListeners.add(listener);
+          return;
+        }
+      }
+      listener.run();
+    }
+
+    private void close() {
+      List<Runnable> listeners;
+      synchronized (closeListeners) {
+        closed = true;
+        listeners = new ArrayList<>(closeListeners);
+        closeListeners.clear();
+      }
+      listeners.forEach(Runnable::run);
+    }
+  }
+
   private static class JsonRpcException extends RuntimeException {
     private final Object messageId;
     private final Error error;
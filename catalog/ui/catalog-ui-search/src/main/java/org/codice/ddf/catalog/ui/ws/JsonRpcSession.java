@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.ws;
+
+/**
+ * The websocket session of a JSON-RPC client, which can be sent notifications after the method
+ * called by the client returns.
+ */
+public interface JsonRpcSession {
+
+  /**
+   * Sends a JSON-RPC notification to the client, unless the session is closed.
+   *
+   * @param method the name of the notification
+   * @param params the parameters of the notification
+   */
+  void notify(String method, Object params);
+
+  /**
+   * Registers a listener to run once the session is closed. The listener is run immediately if the
+   * session is already closed.
+   *
+   * @param listener the listener to run
+   */
+  void onClose(Runnable listener);
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.Gson;
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.codice.ddf.catalog.ui.query.cql.CqlQueryResponse;
+import org.codice.ddf.catalog.ui.query.cql.CqlRequest;
+import org.codice.ddf.catalog.ui.util.EndpointUtil;
+import org.codice.ddf.catalog.ui.ws.JsonRpcSession;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class QuerySubscriptionsTest {
+
+  private static final Gson GSON = new Gson();
+
+  private static final String SUBSCRIBE =
+      "{\"id\":\"query-id\",\"cql\":\"anyText ILIKE '%'\"," + "\"srcs\":[\"source1\",\"source2\"]}";
+
+  private final EndpointUtil util = mock(EndpointUtil.class);
+
+  private final JsonRpcSession session = mock(JsonRpcSession.class);
+
+  private ExecutorService executor;
+
+  private QuerySubscriptions querySubscriptions;
+
+  @Before
+  public void setUp() {
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+    doReturn("local").when(catalogFramework).getId();
+    executor = Executors.newCachedThreadPool();
+    querySubscriptions =
+        new QuerySubscriptions(catalogFramework, new GeotoolsFilterBuilder(), util, executor);
+  }
+
+  @After
+  public void tearDown() {
+    querySubscriptions.destroy();
+  }
+
+  @Test
+  public void testSourceResultsAreMerged() throws Exception {
+    querySubscriptions.destroy();
+    querySubscriptions =
+        new QuerySubscriptions(
+            mock(CatalogFramework.class),
+            new GeotoolsFilterBuilder(),
+            util,
+            MoreExecutors.newDirectExecutorService());
+    doReturn(response(result("1", "source1", 1000L), result("3", "source1", 3000L)))
+        .when(util)
+        .executeCqlQuery(any(CqlRequest.class), any(QueryRequest.class), eq("source1"));
+    doReturn(response(result("2", "source2", 2000L)))
+        .when(util)
+        .executeCqlQuery(any(CqlRequest.class), any(QueryRequest.class), eq("source2"));
+
+    Object result = querySubscriptions.getSubscribeMethod().apply(params(SUBSCRIBE), session);
+    assertThat(((Map) result).get("sources"), is(ImmutableList.of("source1", "source2")));
+
+    ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+    verify(session, times(2)).notify(eq(QuerySubscriptions.SOURCE_NOTIFICATION), captor.capture());
+    assertThat(
+        captor
+            .getAllValues()
+            .stream()
+            .map(n -> ((Map) n).get("source"))
+            .collect(Collectors.toList()),
+        contains("source1", "source2"));
+
+    verify(session).notify(eq(QuerySubscriptions.COMPLETE_NOTIFICATION), captor.capture());
+    Map complete = (Map) captor.getValue();
+    assertThat(complete.get("id"), is("query-id"));
+    assertThat(
+        ((List<Map>) complete.get("results"))
+            .stream()
+            .map(r -> r.get("id"))
+            .collect(Collectors.toList()),
+        contains("3", "2", "1"));
+  }
+
+  @Test
+  public void testSourceErrorIsNotified() throws Exception {
+    CountDownLatch notified = new CountDownLatch(3);
+    doAnswer(
+            invocation -> {
+              notified.countDown();
+              return null;
+            })
+        .when(session)
+        .notify(anyString(), any());
+    doReturn(response(result("1", "source1", 1000L)))
+        .when(util)
+        .executeCqlQuery(any(CqlRequest.class), any(QueryRequest.class), eq("source1"));
+    doAnswer(
+            invocation -> {
+              throw new UnsupportedQueryException("unsupported");
+            })
+        .when(util)
+        .executeCqlQuery(any(CqlRequest.class), any(QueryRequest.class), eq("source2"));
+
+    querySubscriptions.getSubscribeMethod().apply(params(SUBSCRIBE), session);
+
+    assertThat(notified.await(10, TimeUnit.SECONDS), is(true));
+    ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+    verify(session, times(2)).notify(eq(QuerySubscriptions.SOURCE_NOTIFICATION), captor.capture());
+    Map error =
+        captor
+            .getAllValues()
+            .stream()
+            .map(Map.class::cast)
+            .filter(n -> "source2".equals(n.get("source")))
+            .findFirst()
+            .get();
+    assertThat(error.containsKey("error"), is(true));
+    verify(session).notify(eq(QuerySubscriptions.COMPLETE_NOTIFICATION), any());
+  }
+
+  @Test
+  public void testCancelInterruptsSources() throws Exception {
+    CountDownLatch started = new CountDownLatch(2);
+    CountDownLatch interrupted = new CountDownLatch(2);
+    doAnswer(
+            invocation -> {
+              started.countDown();
+              try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+              }
+              return response();
+            })
+        .when(util)
+        .executeCqlQuery(any(CqlRequest.class), any(QueryRequest.class), anyString());
+
+    querySubscriptions.getSubscribeMethod().apply(params(SUBSCRIBE), session);
+    assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+
+    assertThat(querySubscriptions.getCancelMethod().apply(params("query-id"), session), is(true));
+    assertThat(interrupted.await(10, TimeUnit.SECONDS), is(true));
+    assertThat(querySubscriptions.getCancelMethod().apply(params("query-id"), session), is(false));
+
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    verify(session, never()).notify(anyString(), any());
+  }
+
+  @Test
+  public void testSessionCloseCancelsSubscriptions() throws Exception {
+    CountDownLatch started = new CountDownLatch(2);
+    CountDownLatch interrupted = new CountDownLatch(2);
+    doAnswer(
+            invocation -> {
+              started.countDown();
+              try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+              }
+              return response();
+            })
+        .when(util)
+        .executeCqlQuery(any(CqlRequest.class), any(QueryRequest.class), anyString());
+
+    querySubscriptions.getSubscribeMethod().apply(params(SUBSCRIBE), session);
+    assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+
+    ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+    verify(session).onClose(listener.capture());
+    listener.getValue().run();
+
+    assertThat(interrupted.await(10, TimeUnit.SECONDS), is(true));
+  }
+
+  @Test
+  public void testInvalidParams() {
+    Object result = querySubscriptions.getSubscribeMethod().apply(params("[}"), session);
+    assertThat(GSON.toJsonTree(result).getAsJsonObject().get("code").getAsInt(), is(32602));
+
+    result = querySubscriptions.getCancelMethod().apply(null, session);
+    assertThat(GSON.toJsonTree(result).getAsJsonObject().get("code").getAsInt(), is(32602));
+    verify(session, never()).notify(anyString(), any());
+  }
+
+  private static List<Object> params(String param) {
+    return ImmutableList.of(param);
+  }
+
+  private static CqlQueryResponse response(Result... results) {
+    CqlQueryResponse response = mock(CqlQueryResponse.class);
+    doReturn(new QueryResponseImpl(null, ImmutableList.copyOf(results), results.length))
+        .when(response)
+        .getQueryResponse();
+    return response;
+  }
+
+  private static Result result(String id, String source, long effective) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setSourceId(source);
+    metacard.setEffectiveDate(new Date(effective));
+    return new ResultImpl(metacard);
+  }
+}
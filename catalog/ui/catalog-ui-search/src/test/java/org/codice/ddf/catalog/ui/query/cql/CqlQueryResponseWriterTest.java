@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import ddf.action.ActionRegistry;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.util.impl.CatalogQueryException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.codice.ddf.catalog.ui.transformer.TransformerDescriptors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CqlQueryResponseWriterTest {
+
+  private final Gson gson = new GsonBuilder().serializeNulls().create();
+
+  private final FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private QueryRequest request;
+
+  private CqlQueryResponseWriter responseWriter;
+
+  @Before
+  public void setUp() {
+    ActionRegistry actionRegistry = mock(ActionRegistry.class);
+    when(actionRegistry.list(any())).thenReturn(Collections.emptyList());
+
+    request =
+        new QueryRequestImpl(
+            new QueryImpl(filterBuilder.attribute("test").equalTo().text("value")));
+    responseWriter =
+        new CqlQueryResponseWriter(
+            "query-id",
+            request,
+            "source-id",
+            false,
+            new GeotoolsFilterAdapterImpl(),
+            actionRegistry,
+            new TransformerDescriptors(Collections.emptyList(), Collections.emptyList()),
+            gson);
+  }
+
+  @Test
+  public void testWriteResults() throws Exception {
+    List<Result> results = Arrays.asList(result("1"), result("2"));
+    responseWriter.addPage(new QueryResponseImpl(request, results, 10));
+
+    JsonObject response = write(results.iterator());
+
+    assertThat(response.getAsJsonArray("results").size(), is(2));
+    assertThat(response.get("id").getAsString(), is("query-id"));
+    assertThat(
+        response.getAsJsonObject("types").has(MetacardImpl.BASIC_METACARD.getName()), is(true));
+
+    JsonObject status = response.getAsJsonObject("status");
+    assertThat(status.get("hits").getAsLong(), is(10L));
+    assertThat(status.get("count").getAsLong(), is(2L));
+    assertThat(status.get("id").getAsString(), is("source-id"));
+    assertThat(status.get("successful").getAsBoolean(), is(true));
+  }
+
+  @Test
+  public void testFailedPageEndsResponse() throws Exception {
+    Iterator<Result> results =
+        new Iterator<Result>() {
+          private boolean returned = false;
+
+          @Override
+          public boolean hasNext() {
+            if (returned) {
+              throw new CatalogQueryException(new SourceUnavailableException("Source unavailable"));
+            }
+            return true;
+          }
+
+          @Override
+          public Result next() {
+            returned = true;
+            return result("1");
+          }
+        };
+
+    JsonObject response = write(results);
+
+    assertThat(response.getAsJsonArray("results").size(), is(1));
+    assertThat(response.getAsJsonObject("status").get("count").getAsLong(), is(1L));
+    assertThat(response.getAsJsonObject("status").get("hits").getAsLong(), is(-1L));
+    assertThat(response.getAsJsonObject("status").get("successful").getAsBoolean(), is(false));
+  }
+
+  @Test(expected = CatalogQueryException.class)
+  public void testFailedFirstPageIsThrown() throws Exception {
+    Iterator<Result> results = mock(Iterator.class);
+    when(results.hasNext())
+        .thenThrow(new CatalogQueryException(new SourceUnavailableException("Source unavailable")));
+    StringWriter writer = new StringWriter();
+
+    try {
+      responseWriter.write(results, writer);
+    } finally {
+      assertThat(writer.toString(), is(""));
+    }
+  }
+
+  private JsonObject write(Iterator<Result> results) throws Exception {
+    StringWriter writer = new StringWriter();
+    responseWriter.write(results, writer);
+    return gson.fromJson(writer.toString(), JsonObject.class);
+  }
+
+  private static Result result(String id) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    return new ResultImpl(metacard);
+  }
+}
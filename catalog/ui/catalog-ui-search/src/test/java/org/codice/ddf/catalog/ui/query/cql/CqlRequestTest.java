@@ -23,8 +23,10 @@
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.operation.QueryRequest;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 import org.opengis.filter.sort.SortBy;
@@ -109,6 +111,21 @@ public void testCreateQueryWithLocalSource() {
     assertThat(queryRequest.getPropertyValue(MODE), is(UPDATE));
   }
 
+  @Test
+  public void testIncludeAttributes() {
+    assertThat(
+        cqlRequest
+            .createQueryRequest(LOCAL_SOURCE, filterBuilder)
+            .containsPropertyName("includeAttributes"),
+        is(false));
+
+    cqlRequest.setIncludeAttributes(Collections.singleton("title"));
+    QueryRequest queryRequest = cqlRequest.createQueryRequest(LOCAL_SOURCE, filterBuilder);
+
+    assertThat(
+        queryRequest.getPropertyValue("includeAttributes"), is(Collections.singleton("title")));
+  }
+
   @Test
   public void testCreateQueryWithCacheSource() {
     cqlRequest.setSorts(
@@ -164,6 +181,28 @@ public void testMultipleSources() {
     assertThat(cqlRequest.getSrcs().size(), is(2));
   }
 
+  @Test
+  public void testSourceQueryRequests() {
+    cqlRequest.setSrcs(new ArrayList<>(Arrays.asList("local", "source2", "source2")));
+    Map<String, QueryRequest> queryRequests =
+        cqlRequest.createSourceQueryRequests("SOURCE1", filterBuilder);
+    assertThat(queryRequests.keySet(), contains("SOURCE1", "source2"));
+
+    QueryRequest queryRequest = queryRequests.get("source2");
+    assertThat(queryRequest.getSourceIds(), contains("source2"));
+    assertThat(queryRequest.isEnterprise(), is(false));
+    assertThat(queryRequest.getPropertyValue(MODE), is(UPDATE));
+    assertThat(queryRequest.getPropertyValue("requestId"), is("anId"));
+  }
+
+  @Test
+  public void testSingleSourceQueryRequest() {
+    Map<String, QueryRequest> queryRequests =
+        cqlRequest.createSourceQueryRequests(LOCAL_SOURCE, filterBuilder);
+    assertThat(queryRequests.keySet(), contains("source"));
+    assertThat(queryRequests.get("source").getSourceIds(), contains("source"));
+  }
+
   @Test
   public void testSingleSourceResponseString() {
     cqlRequest.createQueryRequest("", filterBuilder);
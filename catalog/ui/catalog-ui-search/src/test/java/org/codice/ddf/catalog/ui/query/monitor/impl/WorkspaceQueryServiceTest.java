@@ -17,6 +17,7 @@
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,9 +31,12 @@
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.security.Subject;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -53,6 +57,8 @@
 import org.codice.ddf.catalog.ui.query.monitor.api.QueryUpdateSubscriber;
 import org.codice.ddf.catalog.ui.query.monitor.api.SecurityService;
 import org.codice.ddf.catalog.ui.query.monitor.api.WorkspaceService;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
@@ -65,18 +71,27 @@
 
 public class WorkspaceQueryServiceTest {
 
-  @SuppressWarnings("unchecked")
-  @Test
-  public void testRun()
-      throws SchedulerException, UnsupportedQueryException, SourceUnavailableException,
-          FederationException {
+  private static final String ECQL =
+      "area( Polygon((10 10, 20 10, 20 20, 10 10)) ) BETWEEN 10000 AND 30000";
 
-    String workspaceId = "3";
+  private QueryUpdateSubscriber queryUpdateSubscriber;
+
+  private WorkspaceService workspaceService;
+
+  private CatalogFramework catalogFramework;
+
+  private FilterService filterService;
+
+  private FilterBuilder filterBuilder;
+
+  private WorkspaceQueryServiceImpl workspaceQueryServiceImpl;
 
-    QueryUpdateSubscriber queryUpdateSubscriber = mock(QueryUpdateSubscriber.class);
-    WorkspaceService workspaceService = mock(WorkspaceService.class);
-    CatalogFramework catalogFramework = mock(CatalogFramework.class);
-    FilterBuilder filterBuilder = mock(FilterBuilder.class);
+  @Before
+  public void setUp() throws SchedulerException {
+    queryUpdateSubscriber = mock(QueryUpdateSubscriber.class);
+    workspaceService = mock(WorkspaceService.class);
+    catalogFramework = mock(CatalogFramework.class);
+    filterBuilder = mock(FilterBuilder.class);
     Scheduler scheduler = mock(Scheduler.class);
     when(scheduler.getContext()).thenReturn(mock(SchedulerContext.class));
     Supplier<Optional<Scheduler>> schedulerSupplier = () -> Optional.of(scheduler);
@@ -92,13 +107,13 @@ public Map<String, Serializable> addSystemSubject(Map<String, Serializable> prop
             return properties;
           }
         };
-    FilterService filterService = mock(FilterService.class);
+    filterService = mock(FilterService.class);
     when(filterService.getModifiedDateFilter(any())).thenReturn(mock(Filter.class));
 
     when(filterBuilder.anyOf(Mockito.any(Filter.class))).thenReturn(mock(Or.class));
     when(filterBuilder.allOf(Mockito.<Filter>anyVararg())).thenReturn(mock(And.class));
 
-    WorkspaceQueryServiceImpl workspaceQueryServiceImpl =
+    workspaceQueryServiceImpl =
         new WorkspaceQueryServiceImpl(
             queryUpdateSubscriber,
             workspaceService,
@@ -109,14 +124,28 @@ public Map<String, Serializable> addSystemSubject(Map<String, Serializable> prop
             filterService);
 
     workspaceQueryServiceImpl.setQueryTimeInterval(60);
-    String ecql = "area( Polygon((10 10, 20 10, 20 20, 10 10)) ) BETWEEN 10000 AND 30000";
+    workspaceQueryServiceImpl.setSubject(createSubject());
+    workspaceQueryServiceImpl.setCronString("0 0 0 * * ?");
+    workspaceQueryServiceImpl.setQueryTimeoutMinutes(5L);
+  }
+
+  @After
+  public void tearDown() {
+    workspaceQueryServiceImpl.destroy();
+  }
+
+  @Test
+  public void testRun()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+
+    String workspaceId = "3";
 
     WorkspaceMetacardImpl workspaceMetacard = mock(WorkspaceMetacardImpl.class);
     when(workspaceMetacard.getId()).thenReturn(workspaceId);
 
     QueryMetacardImpl queryMetacardWithSource = mock(QueryMetacardImpl.class);
     when(queryMetacardWithSource.getSources()).thenReturn(Collections.singletonList("SomeSource"));
-    when(queryMetacardWithSource.getCql()).thenReturn(ecql);
+    when(queryMetacardWithSource.getCql()).thenReturn(ECQL);
 
     Attribute id1 = mock(Attribute.class);
     when(id1.getValue()).thenReturn("1");
@@ -124,7 +153,7 @@ public Map<String, Serializable> addSystemSubject(Map<String, Serializable> prop
 
     QueryMetacardImpl queryMetacardWithoutSource = mock(QueryMetacardImpl.class);
     when(queryMetacardWithoutSource.getSources()).thenReturn(Collections.emptyList());
-    when(queryMetacardWithoutSource.getCql()).thenReturn(ecql);
+    when(queryMetacardWithoutSource.getCql()).thenReturn(ECQL);
 
     Attribute id2 = mock(Attribute.class);
     when(id2.getValue()).thenReturn("2");
@@ -147,177 +176,292 @@ public Map<String, Serializable> addSystemSubject(Map<String, Serializable> prop
 
     when(catalogFramework.query(any())).thenReturn(queryResponse);
 
-    workspaceQueryServiceImpl.setSubject(
-        new Subject() {
-          @Override
-          public String getName() {
-            return "";
-          }
-
-          @Override
-          public boolean isGuest() {
-            return false;
-          }
-
-          @Override
-          public Object getPrincipal() {
-            return null;
-          }
-
-          @Override
-          public PrincipalCollection getPrincipals() {
-            return null;
-          }
-
-          @Override
-          public boolean isPermitted(String s) {
-            return false;
-          }
-
-          @Override
-          public boolean isPermitted(Permission permission) {
-            return false;
-          }
-
-          @Override
-          public boolean[] isPermitted(String... strings) {
-            return new boolean[0];
-          }
-
-          @Override
-          public boolean[] isPermitted(List<Permission> list) {
-            return new boolean[0];
-          }
-
-          @Override
-          public boolean isPermittedAll(String... strings) {
-            return false;
-          }
-
-          @Override
-          public boolean isPermittedAll(Collection<Permission> collection) {
-            return false;
-          }
-
-          @Override
-          public void checkPermission(String s) throws AuthorizationException {}
-
-          @Override
-          public void checkPermission(Permission permission) throws AuthorizationException {}
-
-          @Override
-          public void checkPermissions(String... strings) throws AuthorizationException {}
-
-          @Override
-          public void checkPermissions(Collection<Permission> collection)
-              throws AuthorizationException {}
-
-          @Override
-          public boolean hasRole(String s) {
-            return false;
-          }
-
-          @Override
-          public boolean[] hasRoles(List<String> list) {
-            return new boolean[0];
-          }
-
-          @Override
-          public boolean hasAllRoles(Collection<String> collection) {
-            return false;
-          }
-
-          @Override
-          public void checkRole(String s) throws AuthorizationException {}
+    workspaceQueryServiceImpl.run();
 
-          @Override
-          public void checkRoles(Collection<String> collection) throws AuthorizationException {}
+    // The queries are identical, so they are only executed once
+    verify(catalogFramework, times(1)).query(any());
+    assertThat(runResults().get(workspaceId).getRight(), is(hitCount1));
+  }
 
-          @Override
-          public void checkRoles(String... strings) throws AuthorizationException {}
+  @Test
+  public void testQueryOfSeveralWorkspacesIsExecutedOnce()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards =
+        new HashMap<>();
+    queryMetacards.put("1", workspaceQueries("workspace1", ECQL));
+    queryMetacards.put(
+        "2",
+        workspaceQueries(
+            "workspace2", "area(Polygon((10 10,20 10,20 20,10 10))) BETWEEN 10000 AND 30000"));
+    when(workspaceService.getQueryMetacards()).thenReturn(queryMetacards);
 
-          @Override
-          public void login(AuthenticationToken authenticationToken)
-              throws AuthenticationException {}
+    QueryResponse queryResponse = mock(QueryResponse.class);
+    when(queryResponse.getHits()).thenReturn(10L);
+    when(catalogFramework.query(any())).thenReturn(queryResponse);
 
-          @Override
-          public boolean isAuthenticated() {
-            return false;
-          }
+    workspaceQueryServiceImpl.run();
 
-          @Override
-          public boolean isRemembered() {
-            return false;
-          }
+    verify(catalogFramework, times(1)).query(any());
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> results = runResults();
+    assertThat(results.get("workspace1").getRight(), is(10L));
+    assertThat(results.get("workspace2").getRight(), is(10L));
+  }
 
-          @Override
-          public Session getSession() {
-            return null;
-          }
+  @Test
+  public void testMetacardMatchingSeveralQueriesOfAWorkspaceIsCountedOnce()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    String titleCql = "title = 'foo'";
+    Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards =
+        new HashMap<>();
+    queryMetacards.put("1", workspaceQueries("workspace1", ECQL, titleCql));
+    queryMetacards.put("2", workspaceQueries("workspace2", titleCql, ECQL));
+    when(workspaceService.getQueryMetacards()).thenReturn(queryMetacards);
 
-          @Override
-          public Session getSession(boolean b) {
-            return null;
-          }
+    // The hits of the union of the queries, not the sum of the hits of each query
+    QueryResponse queryResponse = mock(QueryResponse.class);
+    when(queryResponse.getHits()).thenReturn(15L);
+    when(catalogFramework.query(any())).thenReturn(queryResponse);
 
-          @Override
-          public void logout() {}
+    workspaceQueryServiceImpl.run();
 
-          @Override
-          public <V> V execute(Callable<V> callable) throws ExecutionException {
-            try {
-              return callable.call();
-            } catch (Exception e) {
-              throw new ExecutionException(e);
-            }
-          }
+    ArgumentCaptor<List> union = ArgumentCaptor.forClass(List.class);
+    verify(filterBuilder).anyOf(union.capture());
+    assertThat(union.getValue().size(), is(2));
+    verify(catalogFramework, times(1)).query(any());
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> results = runResults();
+    assertThat(results.get("workspace1").getRight(), is(15L));
+    assertThat(results.get("workspace2").getRight(), is(15L));
+  }
 
-          @Override
-          public void execute(Runnable runnable) {}
+  @Test
+  public void testLaterRunCountsChangesSinceLastRun()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    when(workspaceService.getQueryMetacards())
+        .thenReturn(Collections.singletonMap("1", workspaceQueries("workspace1", ECQL)));
 
-          @Override
-          public <V> Callable<V> associateWith(Callable<V> callable) {
-            return null;
-          }
+    QueryResponse queryResponse = mock(QueryResponse.class);
+    when(queryResponse.getHits()).thenReturn(10L);
+    when(catalogFramework.query(any())).thenReturn(queryResponse);
 
-          @Override
-          public Runnable associateWith(Runnable runnable) {
-            return null;
-          }
+    Date beforeRun = new Date();
+    workspaceQueryServiceImpl.run();
+    workspaceQueryServiceImpl.run();
 
-          @Override
-          public void runAs(PrincipalCollection principalCollection)
-              throws NullPointerException, IllegalStateException {}
+    ArgumentCaptor<Date> modifiedSince = ArgumentCaptor.forClass(Date.class);
+    verify(filterService, times(2)).getModifiedDateFilter(modifiedSince.capture());
+    assertThat(modifiedSince.getAllValues().get(0).before(beforeRun), is(true));
+    assertThat(modifiedSince.getAllValues().get(1).before(beforeRun), is(false));
+  }
 
-          @Override
-          public boolean isRunAs() {
-            return false;
-          }
+  @Test
+  public void testExpensiveQueryIsSkipped()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    workspaceQueryServiceImpl.setExpensiveQuerySeconds(1L);
+    when(workspaceService.getQueryMetacards())
+        .thenReturn(Collections.singletonMap("1", workspaceQueries("workspace1", ECQL)));
 
-          @Override
-          public PrincipalCollection getPreviousPrincipals() {
-            return null;
-          }
+    QueryResponse queryResponse = mock(QueryResponse.class);
+    when(queryResponse.getHits()).thenReturn(10L);
+    when(catalogFramework.query(any()))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(1100);
+              return queryResponse;
+            })
+        .thenReturn(queryResponse);
 
-          @Override
-          public PrincipalCollection releaseRunAs() {
-            return null;
-          }
-        });
+    workspaceQueryServiceImpl.run();
+    workspaceQueryServiceImpl.run();
+    verify(catalogFramework, times(1)).query(any());
 
-    workspaceQueryServiceImpl.setCronString("0 0 0 * * ?");
-    workspaceQueryServiceImpl.setQueryTimeoutMinutes(5L);
     workspaceQueryServiceImpl.run();
+    verify(catalogFramework, times(2)).query(any());
 
+    ArgumentCaptor<Map> results = ArgumentCaptor.forClass(Map.class);
+    verify(queryUpdateSubscriber, times(3)).notify(results.capture());
+    assertThat(results.getAllValues().get(0).containsKey("workspace1"), is(true));
+    assertThat(results.getAllValues().get(1).isEmpty(), is(true));
+    assertThat(results.getAllValues().get(2).containsKey("workspace1"), is(true));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Pair<WorkspaceMetacardImpl, Long>> runResults() {
     ArgumentCaptor<Map> argumentCaptor = ArgumentCaptor.forClass(Map.class);
     verify(queryUpdateSubscriber).notify(argumentCaptor.capture());
+    return (Map<String, Pair<WorkspaceMetacardImpl, Long>>) argumentCaptor.getValue();
+  }
 
-    Map queryUpdateSubscriberArgumentRaw = argumentCaptor.getValue();
+  private static Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>> workspaceQueries(
+      String workspaceId, String... cql) {
+    WorkspaceMetacardImpl workspaceMetacard = mock(WorkspaceMetacardImpl.class);
+    when(workspaceMetacard.getId()).thenReturn(workspaceId);
 
-    Map<String, Pair<WorkspaceMetacardImpl, Long>> queryUpdateSubscriberArgument =
-        (Map<String, Pair<WorkspaceMetacardImpl, Long>>) queryUpdateSubscriberArgumentRaw;
+    List<QueryMetacardImpl> queryMetacards = new ArrayList<>();
+    for (String queryCql : cql) {
+      QueryMetacardImpl queryMetacard = mock(QueryMetacardImpl.class);
+      when(queryMetacard.getSources()).thenReturn(Collections.emptyList());
+      when(queryMetacard.getCql()).thenReturn(queryCql);
+      queryMetacards.add(queryMetacard);
+    }
+
+    return new ImmutablePair<>(workspaceMetacard, queryMetacards);
+  }
 
-    assertThat(
-        queryUpdateSubscriberArgument.get(workspaceId).getRight(), is(hitCount1 + hitCount2));
+  private static Subject createSubject() {
+    return new Subject() {
+      @Override
+      public String getName() {
+        return "";
+      }
+
+      @Override
+      public boolean isGuest() {
+        return false;
+      }
+
+      @Override
+      public Object getPrincipal() {
+        return null;
+      }
+
+      @Override
+      public PrincipalCollection getPrincipals() {
+        return null;
+      }
+
+      @Override
+      public boolean isPermitted(String s) {
+        return false;
+      }
+
+      @Override
+      public boolean isPermitted(Permission permission) {
+        return false;
+      }
+
+      @Override
+      public boolean[] isPermitted(String... strings) {
+        return new boolean[0];
+      }
+
+      @Override
+      public boolean[] isPermitted(List<Permission> list) {
+        return new boolean[0];
+      }
+
+      @Override
+      public boolean isPermittedAll(String... strings) {
+        return false;
+      }
+
+      @Override
+      public boolean isPermittedAll(Collection<Permission> collection) {
+        return false;
+      }
+
+      @Override
+      public void checkPermission(String s) throws AuthorizationException {}
+
+      @Override
+      public void checkPermission(Permission permission) throws AuthorizationException {}
+
+      @Override
+      public void checkPermissions(String... strings) throws AuthorizationException {}
+
+      @Override
+      public void checkPermissions(Collection<Permission> collection)
+          throws AuthorizationException {}
+
+      @Override
+      public boolean hasRole(String s) {
+        return false;
+      }
+
+      @Override
+      public boolean[] hasRoles(List<String> list) {
+        return new boolean[0];
+      }
+
+      @Override
+      public boolean hasAllRoles(Collection<String> collection) {
+        return false;
+      }
+
+      @Override
+      public void checkRole(String s) throws AuthorizationException {}
+
+      @Override
+      public void checkRoles(Collection<String> collection) throws AuthorizationException {}
+
+      @Override
+      public void checkRoles(String... strings) throws AuthorizationException {}
+
+      @Override
+      public void login(AuthenticationToken authenticationToken) throws AuthenticationException {}
+
+      @Override
+      public boolean isAuthenticated() {
+        return false;
+      }
+
+      @Override
+      public boolean isRemembered() {
+        return false;
+      }
+
+      @Override
+      public Session getSession() {
+        return null;
+      }
+
+      @Override
+      public Session getSession(boolean b) {
+        return null;
+      }
+
+      @Override
+      public void logout() {}
+
+      @Override
+      public <V> V execute(Callable<V> callable) throws ExecutionException {
+        try {
+          return callable.call();
+        } catch (Exception e) {
+          throw new ExecutionException(e);
+        }
+      }
+
+      @Override
+      public void execute(Runnable runnable) {}
+
+      @Override
+      public <V> Callable<V> associateWith(Callable<V> callable) {
+        return null;
+      }
+
+      @Override
+      public Runnable associateWith(Runnable runnable) {
+        return null;
+      }
+
+      @Override
+      public void runAs(PrincipalCollection principalCollection)
+          throws NullPointerException, IllegalStateException {}
+
+      @Override
+      public boolean isRunAs() {
+        return false;
+      }
+
+      @Override
+      public PrincipalCollection getPreviousPrincipals() {
+        return null;
+      }
+
+      @Override
+      public PrincipalCollection releaseRunAs() {
+        return null;
+      }
+    };
   }
 }
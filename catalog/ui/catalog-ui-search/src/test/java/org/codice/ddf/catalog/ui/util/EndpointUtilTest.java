@@ -24,7 +24,9 @@
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyString;
@@ -221,6 +223,44 @@ public void testGetMetacardTypeMapNonFiltered() {
     assertThat(metacardTypes, hasKey("mockType"));
   }
 
+  @Test
+  public void testMetacardTypeCatalogIsRebuiltWhenAttributesChange() {
+    AttributeDescriptor mockAttrDescriptor = mock(AttributeDescriptor.class);
+    when(mockAttrDescriptor.getName()).thenReturn("first");
+    when(mockAttrDescriptor.getType()).thenReturn(attributeTypeMock);
+    when(metacardTypeMock.getName()).thenReturn("mockType");
+    when(attributeTypeMock.getAttributeFormat()).thenReturn(STRING);
+    when(attributeRegistryMock.lookup(any())).thenReturn(Optional.of(mockAttrDescriptor));
+
+    MetacardTypeCatalog catalog = endpointUtil.getMetacardTypeCatalog();
+    assertThat(endpointUtil.getMetacardTypeCatalog(), is(sameInstance(catalog)));
+    assertThat(catalog.getJson(), is(endpointUtil.getJson(catalog.getTypes())));
+
+    AttributeDescriptor changedDescriptor = mock(AttributeDescriptor.class);
+    when(changedDescriptor.getName()).thenReturn("first");
+    when(changedDescriptor.getType()).thenReturn(attributeTypeMock);
+    when(changedDescriptor.isMultiValued()).thenReturn(true);
+    when(attributeRegistryMock.lookup(any())).thenReturn(Optional.of(changedDescriptor));
+
+    MetacardTypeCatalog changed = endpointUtil.getMetacardTypeCatalog();
+    assertThat(changed, is(not(sameInstance(catalog))));
+    assertThat(changed.getEtag(), is(not(catalog.getEtag())));
+  }
+
+  @Test
+  public void testMetacardTypeCatalogEtag() {
+    when(metacardTypeMock.getName()).thenReturn("mockType");
+    when(attributeRegistryMock.lookup(any())).thenReturn(Optional.empty());
+
+    MetacardTypeCatalog catalog = endpointUtil.getMetacardTypeCatalog();
+    assertThat(catalog.getEtag().startsWith("\""), is(true));
+    assertThat(catalog.matches(catalog.getEtag()), is(true));
+    assertThat(catalog.matches("\"other\", W/" + catalog.getEtag()), is(true));
+    assertThat(catalog.matches("*"), is(true));
+    assertThat(catalog.matches("\"other\""), is(false));
+    assertThat(catalog.matches(null), is(false));
+  }
+
   @Test
   public void testGetMetacardsByIdListExpectAll() throws Exception {
 
@@ -19,6 +19,7 @@
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import com.google.common.collect.ImmutableList;
@@ -28,6 +29,7 @@
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import org.codice.gsonsupport.GsonTypeAdapters.LongDoubleTypeAdapter;
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
@@ -95,4 +97,60 @@ public void testSucessfulCall() throws Exception {
     assertThat(resp.get("id"), is(6L));
     assertThat(resp.get("result"), is(value));
   }
+
+  @Test
+  public void testSessionMethodNotifications() throws Exception {
+    JsonRpc sessionRpc =
+        new JsonRpc(
+            methods,
+            ImmutableMap.of(
+                "notify",
+                (params, session) -> {
+                  session.notify("notification", params);
+                  return "done";
+                }));
+    Session session = mock(Session.class);
+    RemoteEndpoint endpoint = mock(RemoteEndpoint.class);
+    doReturn(endpoint).when(session).getRemote();
+    doReturn(true).when(session).isOpen();
+
+    sessionRpc.onMessage(
+        session, "{\"method\":\"notify\",\"id\":1,\"jsonrpc\":\"2.0\",\"params\":[0]}");
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(endpoint, times(2)).sendStringByFuture(captor.capture());
+    Map<String, Object> notification =
+        GSON.fromJson(captor.getAllValues().get(0), MAP_STRING_TO_OBJECT_TYPE);
+    assertThat(notification.get("jsonrpc"), is(JsonRpc.VERSION));
+    assertThat(notification.get("method"), is("notification"));
+    assertThat(notification.get("params"), is(ImmutableList.of(0L)));
+    assertThat(notification.containsKey("id"), is(false));
+    Map<String, Object> response =
+        GSON.fromJson(captor.getAllValues().get(1), MAP_STRING_TO_OBJECT_TYPE);
+    assertThat(response.get("result"), is("done"));
+  }
+
+  @Test
+  public void testSessionCloseListener() throws Exception {
+    AtomicBoolean closed = new AtomicBoolean(false);
+    JsonRpc sessionRpc =
+        new JsonRpc(
+            methods,
+            ImmutableMap.of(
+                "listen",
+                (params, session) -> {
+                  session.onClose(() -> closed.set(true));
+                  return null;
+                }));
+    Session session = mock(Session.class);
+    doReturn(mock(RemoteEndpoint.class)).when(session).getRemote();
+    doReturn(true).when(session).isOpen();
+
+    sessionRpc.onMessage(
+        session, "{\"method\":\"listen\",\"id\":1,\"jsonrpc\":\"2.0\",\"params\":null}");
+    assertThat(closed.get(), is(false));
+
+    sessionRpc.onClose(session, 1000, "closed");
+    assertThat(closed.get(), is(true));
+  }
 }
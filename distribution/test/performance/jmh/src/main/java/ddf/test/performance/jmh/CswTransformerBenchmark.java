@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.test.performance.jmh;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.impl.types.AssociationsAttributes;
+import ddf.catalog.data.impl.types.ContactAttributes;
+import ddf.catalog.data.impl.types.LocationAttributes;
+import ddf.catalog.data.impl.types.MediaAttributes;
+import ddf.catalog.data.impl.types.TopicAttributes;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
+import java.io.ByteArrayInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.opengis.cat.csw.v_2_0_2.ResultType;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
+import org.codice.ddf.spatial.ogc.csw.catalog.converter.CswRecordConverter;
+import org.codice.ddf.spatial.ogc.csw.catalog.transformer.CswQueryResponseTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The CSW record converter and the CSW GetRecords response transformer. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CswTransformerBenchmark {
+
+  private static final MetacardType CSW_METACARD_TYPE =
+      new MetacardTypeImpl(
+          CswConstants.CSW_METACARD_TYPE_NAME,
+          Arrays.asList(
+              new ContactAttributes(),
+              new LocationAttributes(),
+              new MediaAttributes(),
+              new TopicAttributes(),
+              new AssociationsAttributes()));
+
+  @Param({"10", "250"})
+  private int results;
+
+  private CswRecordConverter recordConverter;
+
+  private CswQueryResponseTransformer responseTransformer;
+
+  private Metacard metacard;
+
+  private byte[] recordXml;
+
+  private SourceResponseImpl sourceResponse;
+
+  private Map<String, Serializable> responseArguments;
+
+  @Setup
+  public void setUp() throws Exception {
+    recordConverter = new CswRecordConverter(CSW_METACARD_TYPE);
+    TransformerManager transformerManager =
+        new TransformerManager(Collections.emptyList()) {
+          @Override
+          @SuppressWarnings("unchecked")
+          public <T> T getTransformerBySchema(String schema) {
+            return (T) recordConverter;
+          }
+        };
+    responseTransformer =
+        new CswQueryResponseTransformer(transformerManager, new PrintWriterProviderImpl());
+    responseTransformer.init();
+
+    MetacardGenerator generator = new MetacardGenerator(42, CSW_METACARD_TYPE);
+    metacard = generator.next();
+    recordXml = recordConverter.transform(metacard, Collections.emptyMap()).getByteArray();
+
+    sourceResponse =
+        new SourceResponseImpl(
+            new QueryRequestImpl(
+                new QueryImpl(
+                    new GeotoolsFilterBuilder()
+                        .attribute(Metacard.ANY_TEXT)
+                        .is()
+                        .like()
+                        .text("*"))),
+            generator.nextResults(results));
+    responseArguments = new HashMap<>();
+    responseArguments.put(CswConstants.RESULT_TYPE_PARAMETER, ResultType.RESULTS);
+  }
+
+  @TearDown
+  public void tearDown() {
+    responseTransformer.destroy();
+  }
+
+  @Benchmark
+  public Metacard transformRecord() throws Exception {
+    return recordConverter.transform(new ByteArrayInputStream(recordXml));
+  }
+
+  @Benchmark
+  public byte[] transformMetacard() throws Exception {
+    return recordConverter.transform(metacard, Collections.emptyMap()).getByteArray();
+  }
+
+  @Benchmark
+  public byte[] transformResponse() throws Exception {
+    return responseTransformer.transform(sourceResponse, responseArguments).getByteArray();
+  }
+}
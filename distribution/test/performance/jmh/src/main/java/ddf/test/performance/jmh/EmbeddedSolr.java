@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.test.performance.jmh;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.source.solr.ConfigurationStore;
+import ddf.catalog.source.solr.SolrCatalogProvider;
+import ddf.catalog.source.solr.SolrFilterDelegateFactoryImpl;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.embedded.JettyConfig;
+import org.apache.solr.cloud.MiniSolrCloudCluster;
+import org.codice.solr.client.solrj.SolrClient;
+import org.codice.solr.factory.impl.SolrCloudClientFactory;
+
+/**
+ * A single node Solr cloud cluster running in the benchmark JVM, with the catalog collection and a
+ * {@link SolrCatalogProvider} in front of it.
+ */
+public class EmbeddedSolr implements Closeable {
+
+  private static final String[] PROPERTIES = {
+    "solr.data.dir",
+    "solr.cloud.shardCount",
+    "solr.cloud.replicationFactor",
+    "solr.cloud.maxShardPerNode",
+    "solr.cloud.zookeeper.chroot",
+    "solr.cloud.zookeeper"
+  };
+
+  private final MiniSolrCloudCluster cluster;
+
+  private final SolrClient client;
+
+  private final SolrCatalogProvider provider;
+
+  public EmbeddedSolr() throws Exception {
+    Path baseDir = Files.createTempDirectory("jmh-solr");
+    String dataDirectory = baseDir.resolve("data").toString();
+
+    ConfigurationStore store = ConfigurationStore.getInstance();
+    store.setForceAutoCommit(true);
+    store.setDataDirectoryPath(dataDirectory);
+    System.setProperty("solr.data.dir", dataDirectory);
+
+    cluster =
+        new MiniSolrCloudCluster(
+            1, baseDir.resolve("cluster"), JettyConfig.builder().setContext("/solr").build());
+
+    System.setProperty("solr.cloud.shardCount", "1");
+    System.setProperty("solr.cloud.replicationFactor", "1");
+    System.setProperty("solr.cloud.maxShardPerNode", "1");
+    System.setProperty("solr.cloud.zookeeper.chroot", "/solr");
+    System.setProperty("solr.cloud.zookeeper", cluster.getZkServer().getZkHost());
+
+    client = new SolrCloudClientFactory().newClient("catalog");
+    if (!client.isAvailable(60L, TimeUnit.SECONDS)) {
+      close();
+      throw new IllegalStateException("The embedded Solr catalog collection is not available");
+    }
+
+    provider =
+        new SolrCatalogProvider(
+            client, new GeotoolsFilterAdapterImpl(), new SolrFilterDelegateFactoryImpl());
+  }
+
+  public SolrClient getClient() {
+    return client;
+  }
+
+  public SolrCatalogProvider getProvider() {
+    return provider;
+  }
+
+  /** Ingests the metacards in batches of 500. */
+  public void ingest(List<Metacard> metacards) throws Exception {
+    for (int i = 0; i < metacards.size(); i += 500) {
+      provider.create(
+          new CreateRequestImpl(metacards.subList(i, Math.min(i + 500, metacards.size()))));
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (client != null) {
+        client.close();
+      }
+      cluster.shutdown();
+    } catch (Exception e) {
+      throw new IOException("Could not shut down the embedded Solr cluster", e);
+    } finally {
+      for (String property : PROPERTIES) {
+        System.clearProperty(property);
+      }
+    }
+  }
+}
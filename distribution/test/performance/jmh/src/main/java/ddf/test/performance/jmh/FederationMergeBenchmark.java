@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.test.performance.jmh;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.util.impl.SortedResultMerger;
+import ddf.catalog.util.impl.TemporalResultComparator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opengis.filter.sort.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The merge step of a federated query: each source returns a page of results that is already
+ * sorted, and the federation strategy combines them into a single page. Compares sorting the
+ * concatenated results, which is what the strategies used to do, with the k-way merge of {@link
+ * SortedResultMerger}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FederationMergeBenchmark {
+
+  @Param({"10", "25", "50", "100"})
+  private int sources;
+
+  @Param({"20", "250"})
+  private int pageSize;
+
+  private final Comparator<Result> comparator = new TemporalResultComparator(SortOrder.DESCENDING);
+
+  private List<List<Result>> sourceResults;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    sourceResults = new ArrayList<>(sources);
+    for (int source = 0; source < sources; source++) {
+      List<Result> results = new ArrayList<>(pageSize);
+      for (int i = 0; i < pageSize; i++) {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(source + "-" + i);
+        metacard.setSourceId("source" + source);
+        metacard.setEffectiveDate(new Date(Math.abs(random.nextLong() % 1_000_000_000_000L)));
+        results.add(new ResultImpl(metacard));
+      }
+      results.sort(comparator);
+      sourceResults.add(results);
+    }
+  }
+
+  @Benchmark
+  public List<Result> fullSort() {
+    List<Result> results = new ArrayList<>(sources * pageSize);
+    for (List<Result> page : sourceResults) {
+      results.addAll(page);
+    }
+    results.sort(comparator);
+    return new ArrayList<>(results.subList(0, Math.min(pageSize, results.size())));
+  }
+
+  @Benchmark
+  public List<Result> sortedMerge() {
+    SortedResultMerger merger = new SortedResultMerger(comparator, pageSize);
+    for (List<Result> page : sourceResults) {
+      merger.add(page);
+    }
+    return merger.merge();
+  }
+}
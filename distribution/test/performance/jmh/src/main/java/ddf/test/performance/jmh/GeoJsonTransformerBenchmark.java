@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.test.performance.jmh;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeRegistryImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.transformer.input.geojson.GeoJsonInputTransformer;
+import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
+import ddf.catalog.transformer.queryresponse.geojson.GeoJsonQueryResponseTransformer;
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The GeoJSON input, metacard and query response transformers. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeoJsonTransformerBenchmark {
+
+  @Param({"10", "250"})
+  private int results;
+
+  private GeoJsonInputTransformer inputTransformer;
+
+  private GeoJsonMetacardTransformer metacardTransformer;
+
+  private GeoJsonQueryResponseTransformer responseTransformer;
+
+  private Metacard metacard;
+
+  private byte[] metacardJson;
+
+  private SourceResponseImpl sourceResponse;
+
+  @Setup
+  public void setUp() throws Exception {
+    AttributeRegistryImpl attributeRegistry = new AttributeRegistryImpl();
+    attributeRegistry.registerMetacardType(MetacardGenerator.METACARD_TYPE);
+    inputTransformer = new GeoJsonInputTransformer();
+    inputTransformer.setMetacardTypes(Collections.singletonList(MetacardGenerator.METACARD_TYPE));
+    inputTransformer.setAttributeRegistry(attributeRegistry);
+
+    metacardTransformer = new GeoJsonMetacardTransformer();
+    responseTransformer = new GeoJsonQueryResponseTransformer();
+
+    MetacardGenerator generator = new MetacardGenerator(42);
+    metacard = generator.next();
+    metacardJson = metacardTransformer.transform(metacard, Collections.emptyMap()).getByteArray();
+
+    sourceResponse =
+        new SourceResponseImpl(
+            new QueryRequestImpl(
+                new QueryImpl(
+                    new GeotoolsFilterBuilder()
+                        .attribute(Metacard.ANY_TEXT)
+                        .is()
+                        .like()
+                        .text("*"))),
+            generator.nextResults(results));
+  }
+
+  @Benchmark
+  public Metacard transformInput() throws Exception {
+    return inputTransformer.transform(new ByteArrayInputStream(metacardJson));
+  }
+
+  @Benchmark
+  public byte[] transformMetacard() throws Exception {
+    return metacardTransformer.transform(metacard, Collections.emptyMap()).getByteArray();
+  }
+
+  @Benchmark
+  public byte[] transformResponse() throws Exception {
+    return responseTransformer.transform(sourceResponse, Collections.emptyMap()).getByteArray();
+  }
+}
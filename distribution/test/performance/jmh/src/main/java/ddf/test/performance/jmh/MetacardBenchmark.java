@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.test.performance.jmh;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Core;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Attribute access on {@link MetacardImpl}, which every plugin and transformer goes through. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MetacardBenchmark {
+
+  private MetacardImpl metacard;
+
+  private Attribute title;
+
+  @Setup
+  public void setUp() {
+    metacard = (MetacardImpl) new MetacardGenerator(42).next();
+    title = new AttributeImpl(Core.TITLE, "benchmark title");
+  }
+
+  @Benchmark
+  public Attribute getAttribute() {
+    return metacard.getAttribute(Core.TITLE);
+  }
+
+  @Benchmark
+  public String getTitle() {
+    return metacard.getTitle();
+  }
+
+  @Benchmark
+  public Metacard setAttribute() {
+    metacard.setAttribute(title);
+    return metacard;
+  }
+
+  @Benchmark
+  public Metacard copy() {
+    return new MetacardImpl(metacard, metacard.getMetacardType());
+  }
+}
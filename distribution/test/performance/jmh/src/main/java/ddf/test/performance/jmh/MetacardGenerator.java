@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.test.performance.jmh;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.impl.types.ContactAttributes;
+import ddf.catalog.data.impl.types.LocationAttributes;
+import ddf.catalog.data.impl.types.MediaAttributes;
+import ddf.catalog.data.impl.types.TopicAttributes;
+import ddf.catalog.data.types.Contact;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Media;
+import ddf.catalog.data.types.Topic;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates synthetic metacards for the benchmarks. The same seed always generates the same
+ * metacards, so runs are comparable.
+ */
+public class MetacardGenerator {
+
+  /** The core attributes plus the topic, contact, media and location attributes */
+  public static final MetacardType METACARD_TYPE =
+      new MetacardTypeImpl(
+          "ddf.benchmark",
+          Arrays.asList(
+              new TopicAttributes(),
+              new ContactAttributes(),
+              new MediaAttributes(),
+              new LocationAttributes()));
+
+  private static final long START = 1262304000000L;
+
+  private static final long TEN_YEARS = 315360000000L;
+
+  private static final String[] WORDS = {
+    "airfield", "bridge", "coast", "delta", "estuary", "forest", "glacier", "harbor", "island",
+    "junction", "karst", "lake", "mountain", "night", "orbit", "plateau", "quarry", "river",
+    "summit", "tundra", "urban", "valley", "wetland", "yard", "zone"
+  };
+
+  private final Random random;
+
+  private final MetacardType metacardType;
+
+  private int sequence = 0;
+
+  public MetacardGenerator(long seed) {
+    this(seed, METACARD_TYPE);
+  }
+
+  public MetacardGenerator(long seed, MetacardType metacardType) {
+    this.random = new Random(seed);
+    this.metacardType = metacardType;
+  }
+
+  /** @return a metacard with the core attributes, a polygon location and a few KB of metadata */
+  public Metacard next() {
+    int id = sequence++;
+    MetacardImpl metacard = new MetacardImpl(metacardType);
+    metacard.setId(String.format(Locale.ROOT, "%032x", id));
+    metacard.setSourceId("ddf.distribution");
+    metacard.setTitle(words(4));
+    metacard.setDescription(words(40));
+    metacard.setContentTypeName("image");
+    metacard.setContentTypeVersion("1.0");
+    metacard.setCreatedDate(nextDate());
+    metacard.setModifiedDate(nextDate());
+    metacard.setEffectiveDate(nextDate());
+    metacard.setExpirationDate(new Date(START + 2 * TEN_YEARS));
+    metacard.setLocation(nextPolygon());
+    metacard.setMetadata(nextMetadata(id));
+    metacard.setResourceURI(URI.create("content:" + metacard.getId()));
+    metacard.setResourceSize(Integer.toString(random.nextInt(10_000_000)));
+    metacard.setTags(Collections.singleton("resource"));
+    setIfPresent(metacard, Topic.KEYWORD, new ArrayList<>(Arrays.asList(words(3).split(" "))));
+    setIfPresent(metacard, Contact.CREATOR_NAME, "Creator " + random.nextInt(100));
+    setIfPresent(metacard, Media.FORMAT, "JPEG");
+    setIfPresent(metacard, Core.CHECKSUM, Long.toHexString(random.nextLong()));
+    return metacard;
+  }
+
+  /** @return {@code count} generated metacards */
+  public List<Metacard> next(int count) {
+    List<Metacard> metacards = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      metacards.add(next());
+    }
+    return metacards;
+  }
+
+  /** @return {@code count} results of generated metacards, with a relevance score and distance */
+  public List<Result> nextResults(int count) {
+    List<Result> results = new ArrayList<>(count);
+    for (Metacard metacard : next(count)) {
+      ResultImpl result = new ResultImpl(metacard);
+      result.setRelevanceScore(random.nextDouble());
+      result.setDistanceInMeters(random.nextDouble() * 1_000_000);
+      results.add(result);
+    }
+    return results;
+  }
+
+  private void setIfPresent(MetacardImpl metacard, String name, Serializable value) {
+    if (metacardType.getAttributeDescriptor(name) != null) {
+      metacard.setAttribute(new AttributeImpl(name, value));
+    }
+  }
+
+  private Date nextDate() {
+    return new Date(START + (long) (random.nextDouble() * TEN_YEARS));
+  }
+
+  private String nextPolygon() {
+    double lon = random.nextDouble() * 340 - 170;
+    double lat = random.nextDouble() * 160 - 80;
+    double size = random.nextDouble() * 5 + 0.01;
+    return String.format(
+        Locale.ROOT,
+        "POLYGON ((%1$f %2$f, %3$f %2$f, %3$f %4$f, %1$f %4$f, %1$f %2$f))",
+        lon,
+        lat,
+        lon + size,
+        lat + size);
+  }
+
+  private String nextMetadata(int id) {
+    StringBuilder metadata = new StringBuilder(4096);
+    metadata.append("<metadata xmlns=\"urn:example:metadata\"><id>").append(id).append("</id>");
+    for (int i = 0; i < 20; i++) {
+      metadata.append("<paragraph>").append(words(20)).append("</paragraph>");
+    }
+    return metadata.append("</metadata>").toString();
+  }
+
+  private String words(int count) {
+    StringBuilder words = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        words.append(' ');
+      }
+      words.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return words.toString();
+  }
+}
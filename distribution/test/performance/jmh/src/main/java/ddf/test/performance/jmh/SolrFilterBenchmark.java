@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.test.performance.jmh;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.source.solr.DynamicSchemaResolver;
+import ddf.catalog.source.solr.SolrFilterDelegate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrInputDocument;
+import org.opengis.filter.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Translation of catalog filters into Solr queries, which happens on every query to the catalog.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolrFilterBenchmark {
+
+  @Param({"contextual", "temporal", "spatial", "combined"})
+  private String shape;
+
+  private final GeotoolsFilterAdapterImpl filterAdapter = new GeotoolsFilterAdapterImpl();
+
+  private DynamicSchemaResolver resolver;
+
+  private Filter filter;
+
+  @Setup
+  public void setUp() throws Exception {
+    // Let the resolver learn the fields of the generated metacards, as it would from the index
+    resolver = new DynamicSchemaResolver();
+    for (Metacard metacard : new MetacardGenerator(42).next(10)) {
+      resolver.addFields(metacard, new SolrInputDocument());
+    }
+
+    FilterBuilder builder = new GeotoolsFilterBuilder();
+    Filter contextual = builder.attribute(Metacard.ANY_TEXT).is().like().text("river*");
+    Filter temporal =
+        builder
+            .attribute(Core.MODIFIED)
+            .is()
+            .during()
+            .dates(new Date(1262304000000L), new Date(1420070400000L));
+    Filter spatial =
+        builder
+            .attribute(Metacard.ANY_GEO)
+            .is()
+            .intersecting()
+            .wkt("POLYGON ((-10 -10, 10 -10, 10 10, -10 10, -10 -10))");
+    switch (shape) {
+      case "contextual":
+        filter = contextual;
+        break;
+      case "temporal":
+        filter = temporal;
+        break;
+      case "spatial":
+        filter = spatial;
+        break;
+      default:
+        filter =
+            builder.allOf(
+                builder.anyOf(contextual, builder.attribute(Core.TITLE).is().like().text("harbor")),
+                temporal,
+                spatial,
+                builder.attribute(Metacard.TAGS).is().equalTo().text("resource"));
+    }
+  }
+
+  @Benchmark
+  public SolrQuery adapt() throws UnsupportedQueryException {
+    return filterAdapter.adapt(filter, new SolrFilterDelegate(resolver, Collections.emptyMap()));
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.test.performance.jmh;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.source.solr.DynamicSchemaResolver;
+import ddf.catalog.source.solr.SolrFilterDelegateFactoryImpl;
+import ddf.catalog.source.solr.SolrMetacardClientImpl;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrInputDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversion between metacards and Solr documents: {@link DynamicSchemaResolver#addFields} on
+ * ingest and {@link SolrMetacardClientImpl#createMetacard} on every query result. The documents are
+ * read back from an embedded Solr cluster, so they have the same fields as in a running system.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolrSchemaBenchmark {
+
+  private static final int METACARDS = 100;
+
+  private EmbeddedSolr solr;
+
+  private DynamicSchemaResolver resolver;
+
+  private SolrMetacardClientImpl metacardClient;
+
+  private List<Metacard> metacards;
+
+  private SolrDocumentList documents;
+
+  private int next = 0;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    solr = new EmbeddedSolr();
+    metacards = new MetacardGenerator(42).next(METACARDS);
+    solr.ingest(metacards);
+
+    resolver = new DynamicSchemaResolver();
+    resolver.addFieldsFromClient(solr.getClient());
+    metacardClient =
+        new SolrMetacardClientImpl(
+            solr.getClient(),
+            new GeotoolsFilterAdapterImpl(),
+            new SolrFilterDelegateFactoryImpl(),
+            resolver);
+
+    documents = solr.getClient().query(new SolrQuery("*:*").setRows(METACARDS)).getResults();
+    if (documents.size() != METACARDS) {
+      throw new IllegalStateException(
+          "Expected " + METACARDS + " documents in Solr but found " + documents.size());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    if (solr != null) {
+      solr.close();
+    }
+  }
+
+  @Benchmark
+  public SolrInputDocument addFields() throws MetacardCreationException {
+    SolrInputDocument document = new SolrInputDocument();
+    resolver.addFields(metacards.get(nextIndex()), document);
+    return document;
+  }
+
+  @Benchmark
+  public Metacard createMetacard() throws MetacardCreationException {
+    SolrDocument document = documents.get(nextIndex());
+    return metacardClient.createMetacard(document);
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % METACARDS;
+    return next;
+  }
+}
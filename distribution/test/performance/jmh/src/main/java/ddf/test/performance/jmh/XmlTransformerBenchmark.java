@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.test.performance.jmh;
+
+import ddf.catalog.data.BinaryContent;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
+import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
+import ddf.catalog.transformer.xml.XmlInputTransformer;
+import ddf.catalog.transformer.xml.XmlResponseQueueTransformer;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javax.activation.MimeType;
+import org.codice.ddf.parser.xml.XmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The DDF XML metacard input transformer and the XML query response transformer. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlTransformerBenchmark {
+
+  @Param({"10", "250"})
+  private int results;
+
+  private XmlInputTransformer inputTransformer;
+
+  private XmlResponseQueueTransformer responseTransformer;
+
+  private byte[] metacardXml;
+
+  private SourceResponseImpl sourceResponse;
+
+  @Setup
+  public void setUp() throws Exception {
+    XmlParser parser = new XmlParser();
+    PrintWriterProviderImpl printWriterProvider = new PrintWriterProviderImpl();
+    MetacardMarshallerImpl marshaller = new MetacardMarshallerImpl(parser, printWriterProvider);
+
+    inputTransformer = new XmlInputTransformer(parser);
+    responseTransformer =
+        new XmlResponseQueueTransformer(
+            parser, printWriterProvider, marshaller, new MimeType("text/xml"));
+
+    MetacardGenerator generator = new MetacardGenerator(42);
+    Metacard metacard = generator.next();
+    metacardXml = marshaller.marshal(metacard).getBytes(StandardCharsets.UTF_8);
+
+    sourceResponse =
+        new SourceResponseImpl(
+            new QueryRequestImpl(
+                new QueryImpl(
+                    new GeotoolsFilterBuilder()
+                        .attribute(Metacard.ANY_TEXT)
+                        .is()
+                        .like()
+                        .text("*"))),
+            generator.nextResults(results));
+  }
+
+  @Benchmark
+  public Metacard transformMetacard() throws Exception {
+    return inputTransformer.transform(new ByteArrayInputStream(metacardXml));
+  }
+
+  @Benchmark
+  public byte[] transformResponse() throws Exception {
+    BinaryContent content = responseTransformer.transform(sourceResponse, Collections.emptyMap());
+    return content.getByteArray();
+  }
+}
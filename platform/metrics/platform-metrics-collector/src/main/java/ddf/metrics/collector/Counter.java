@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metric that counts occurrences, e.g., the number of queries. Incrementing it doesn't allocate
+ * or contend with other threads, so it can be called on every request.
+ *
+ * <p>The {@link MetricsRegistry} periodically stores the number of occurrences since the previous
+ * sample.
+ */
+public final class Counter {
+
+  private final LongAdder count = new LongAdder();
+
+  /** Increments the count by one. */
+  public void increment() {
+    count.increment();
+  }
+
+  /**
+   * Increments the count.
+   *
+   * @param amount the number of occurrences to add
+   */
+  public void increment(long amount) {
+    count.add(amount);
+  }
+
+  /** @return the number of occurrences since the counter was created */
+  public long getCount() {
+    return count.sum();
+  }
+}
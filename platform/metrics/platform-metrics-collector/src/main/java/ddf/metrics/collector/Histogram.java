@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Recorder;
+
+/**
+ * A metric that records the distribution of values, e.g., the latency of requests or the number of
+ * results per query. Values are recorded into an HDR histogram, which doesn't allocate or lock when
+ * a value is recorded, and which the {@link MetricsRegistry} periodically swaps out to store the
+ * mean of the values recorded since the previous sample.
+ *
+ * <p>Negative values are recorded as zero.
+ */
+public final class Histogram {
+
+  /** Keeps values accurate to 1%, the histogram resizes itself to fit the largest value */
+  private static final int SIGNIFICANT_DIGITS = 2;
+
+  private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+
+  private final LongAdder count = new LongAdder();
+
+  private final LongAdder sum = new LongAdder();
+
+  private org.HdrHistogram.Histogram intervalHistogram;
+
+  /**
+   * Records a value.
+   *
+   * @param value the value to record
+   */
+  public void update(long value) {
+    long recordedValue = Math.max(0, value);
+    recorder.recordValue(recordedValue);
+    count.increment();
+    sum.add(recordedValue);
+  }
+
+  /** @return the number of values recorded since the histogram was created */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return the mean of the values recorded since the histogram was created, 0 if there are none
+   */
+  public double getMean() {
+    long total = count.sum();
+    return total == 0 ? 0 : (double) sum.sum() / total;
+  }
+
+  /**
+   * Returns the values recorded since the previous call and starts a new interval. The returned
+   * histogram is reused by the next call, so it must not be kept.
+   *
+   * @return the values recorded during the interval
+   */
+  synchronized org.HdrHistogram.Histogram getIntervalHistogram() {
+    intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+    return intervalHistogram;
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector;
+
+/**
+ * Registry of the metrics that are sampled and stored for the Metrics tab of the Admin console.
+ *
+ * <p>Metrics are identified by the name of their stored series, e.g., {@code catalogQueries}, which
+ * is also the name the metric's data is retrieved by. Getting a metric that already exists returns
+ * the existing metric, so every component recording a metric with the same name records into the
+ * same series.
+ *
+ * <p>All metrics are sampled by one scheduler, at the same step, instead of polling a JMX MBean per
+ * metric.
+ */
+public interface MetricsRegistry {
+
+  /**
+   * @param metricName name of the metric's series, only letters and digits are allowed
+   * @return the counter with the given name, created if it doesn't exist
+   * @throws IllegalArgumentException if the name is blank or already used by a histogram
+   */
+  Counter counter(String metricName);
+
+  /**
+   * @param metricName name of the metric's series, only letters and digits are allowed
+   * @return the histogram with the given name, created if it doesn't exist
+   * @throws IllegalArgumentException if the name is blank or already used by a counter
+   */
+  Histogram histogram(String metricName);
+
+  /**
+   * Stops sampling a metric. The data stored for the metric remains available.
+   *
+   * @param metricName name of the metric to remove
+   */
+  void remove(String metricName);
+}
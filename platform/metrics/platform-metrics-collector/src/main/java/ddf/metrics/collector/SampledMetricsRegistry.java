@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector;
+
+import ddf.metrics.collector.series.SeriesType;
+import ddf.metrics.collector.series.TimeSeriesStore;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang.StringUtils;
+import org.codice.ddf.configuration.AbsolutePathResolver;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MetricsRegistry} that samples all of its metrics on one scheduled thread and stores the
+ * samples in a {@link TimeSeriesStore}.
+ *
+ * <p>Every step, the number of occurrences since the previous sample is stored for each {@link
+ * Counter}, and the mean of the values recorded since the previous sample is stored for each {@link
+ * Histogram}. Histograms that recorded no values have no sample for the step.
+ */
+public class SampledMetricsRegistry implements MetricsRegistry {
+
+  public static final String DEFAULT_METRICS_DIR =
+      new AbsolutePathResolver("data" + File.separator + "metrics" + File.separator).getPath();
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SampledMetricsRegistry.class);
+
+  private static final long DEFAULT_STEP_IN_SECONDS = 60;
+
+  private final Map<String, SampledMetric> metrics = new ConcurrentHashMap<>();
+
+  private final TimeSeriesStore store;
+
+  private final long step;
+
+  private ScheduledExecutorService scheduler;
+
+  public SampledMetricsRegistry() {
+    this(new TimeSeriesStore(DEFAULT_METRICS_DIR), DEFAULT_STEP_IN_SECONDS);
+  }
+
+  SampledMetricsRegistry(TimeSeriesStore store, long step) {
+    this.store = store;
+    this.step = step;
+  }
+
+  /** Starts sampling the metrics at the start of every step. Called by blueprint. */
+  public void init() {
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("metricsSamplerThread"));
+    long stepMillis = TimeUnit.SECONDS.toMillis(step);
+    long initialDelay = stepMillis - System.currentTimeMillis() % stepMillis;
+    scheduler.scheduleAtFixedRate(this::sample, initialDelay, stepMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** Takes a last sample and releases the series files. Called by blueprint. */
+  public void destroy() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    sample();
+    store.close();
+  }
+
+  @Override
+  public Counter counter(String metricName) {
+    return metric(metricName, SeriesType.COUNTER).counter;
+  }
+
+  @Override
+  public Histogram histogram(String metricName) {
+    return metric(metricName, SeriesType.GAUGE).histogram;
+  }
+
+  @Override
+  public void remove(String metricName) {
+    SampledMetric metric = metrics.remove(metricName);
+    if (metric != null) {
+      // Keep what was recorded since the previous sample
+      sample(metricName, metric, now());
+    }
+  }
+
+  /** Stores a sample of every metric. */
+  void sample() {
+    long timestamp = now();
+    metrics.forEach((metricName, metric) -> sample(metricName, metric, timestamp));
+  }
+
+  private SampledMetric metric(String metricName, SeriesType type) {
+    if (StringUtils.isBlank(metricName) || !StringUtils.isAlphanumeric(metricName)) {
+      throw new IllegalArgumentException(
+          "Metric name [" + metricName + "] must only contain letters and digits.");
+    }
+
+    SampledMetric metric = metrics.computeIfAbsent(metricName, name -> new SampledMetric(type));
+    if (metric.type != type) {
+      throw new IllegalArgumentException(
+          "Metric " + metricName + " already exists and is not a " + type + " metric.");
+    }
+    return metric;
+  }
+
+  private void sample(String metricName, SampledMetric metric, long timestamp) {
+    try {
+      synchronized (metric) {
+        if (metric.type == SeriesType.COUNTER) {
+          long count = metric.counter.getCount();
+          store.update(metricName, metric.type, timestamp, count - metric.sampledCount, 1);
+          metric.sampledCount = count;
+        } else {
+          org.HdrHistogram.Histogram interval = metric.histogram.getIntervalHistogram();
+          if (interval.getTotalCount() > 0) {
+            store.update(
+                metricName,
+                metric.type,
+                timestamp,
+                interval.getMean(),
+                (int) Math.min(Integer.MAX_VALUE, interval.getTotalCount()));
+          }
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Unable to store the sample of metric {}.", metricName, e);
+    }
+  }
+
+  private static long now() {
+    return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+  }
+
+  private static class SampledMetric {
+
+    private final SeriesType type;
+
+    private final Counter counter;
+
+    private final Histogram histogram;
+
+    private long sampledCount;
+
+    SampledMetric(SeriesType type) {
+      this.type = type;
+      this.counter = type == SeriesType.COUNTER ? new Counter() : null;
+      this.histogram = type == SeriesType.GAUGE ? new Histogram() : null;
+    }
+  }
+}
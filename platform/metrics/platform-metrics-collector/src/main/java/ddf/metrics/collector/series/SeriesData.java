@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.series;
+
+/**
+ * The samples of a series over a time range, as read from the archive with the finest resolution
+ * that covers the range. Slots without samples are left out.
+ */
+public class SeriesData {
+
+  private final SeriesType type;
+
+  private final long step;
+
+  private final long[] timestamps;
+
+  private final double[] values;
+
+  public SeriesData(SeriesType type, long step, long[] timestamps, double[] values) {
+    this.type = type;
+    this.step = step;
+    this.timestamps = timestamps;
+    this.values = values;
+  }
+
+  public SeriesType getType() {
+    return type;
+  }
+
+  /** @return the resolution of the samples, in seconds */
+  public long getStep() {
+    return step;
+  }
+
+  /** @return the start of each sample's slot, in seconds since Unix epoch, in ascending order */
+  public long[] getTimestamps() {
+    return timestamps;
+  }
+
+  /**
+   * @return the value of each sample, the total for the slot for {@link SeriesType#COUNTER}s and
+   *     the mean for {@link SeriesType#GAUGE}s
+   */
+  public double[] getValues() {
+    return values;
+  }
+
+  /** @return the number of samples */
+  public int size() {
+    return timestamps.length;
+  }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.series;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A memory-mapped file holding the samples of one series in fixed-size, round-robin archives.
+ *
+ * <p>Each archive stores its slots as three columns: the slot's number (its start time divided by
+ * the archive's step, 0 if it was never written), the slot's value as a float and the number of
+ * samples that were consolidated into the value. Timestamps are implied by the slot numbers, so a
+ * slot takes 12 bytes.
+ *
+ * <pre>
+ * int magic, int version, int type, int archiveCount
+ * archiveCount * (int step, int slots)
+ * archiveCount * (int[slots] slotNumbers, float[slots] values, int[slots] samples)
+ * </pre>
+ */
+class SeriesFile {
+
+  /** 1 minute slots for the last day, then 15 minute slots for the last year */
+  static final int[][] ARCHIVES = {{60, 24 * 60}, {15 * 60, 4 * 24 * 365}};
+
+  private static final int MAGIC = 0x44534552;
+
+  private static final int VERSION = 1;
+
+  private static final int HEADER_SIZE = 16 + 8 * ARCHIVES.length;
+
+  private static final int SLOT_SIZE = 12;
+
+  private final MappedByteBuffer buffer;
+
+  private final int[] archiveOffsets = new int[ARCHIVES.length];
+
+  private SeriesFile(MappedByteBuffer buffer) {
+    this.buffer = buffer;
+    int offset = HEADER_SIZE;
+    for (int i = 0; i < ARCHIVES.length; i++) {
+      archiveOffsets[i] = offset;
+      offset += ARCHIVES[i][1] * SLOT_SIZE;
+    }
+  }
+
+  /**
+   * Opens a series file for updates, creating it if it doesn't exist.
+   *
+   * @param file the series file
+   * @param type the type of the series, used if the file is created
+   * @return the series file
+   * @throws IOException if the file can't be created or isn't a series file
+   */
+  static SeriesFile open(File file, SeriesType type) throws IOException {
+    File parent = file.getParentFile();
+    if (parent != null && !parent.exists() && !parent.mkdirs()) {
+      throw new IOException("Unable to create directory " + parent);
+    }
+
+    try (FileChannel channel =
+        FileChannel.open(
+            file.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      SeriesFile seriesFile = new SeriesFile(channel.map(MapMode.READ_WRITE, 0, fileSize()));
+      // Mapping past the end of the file fills it with zeros
+      if (seriesFile.buffer.getInt(0) == 0) {
+        seriesFile.writeHeader(type);
+      } else {
+        seriesFile.verifyHeader(file);
+      }
+      return seriesFile;
+    }
+  }
+
+  /**
+   * Opens a series file for reading.
+   *
+   * @param file the series file
+   * @return the series file
+   * @throws IOException if the file doesn't exist or isn't a series file
+   */
+  static SeriesFile read(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() < fileSize()) {
+        throw new IOException(file + " is not a series file.");
+      }
+      SeriesFile seriesFile = new SeriesFile(channel.map(MapMode.READ_ONLY, 0, fileSize()));
+      seriesFile.verifyHeader(file);
+      return seriesFile;
+    }
+  }
+
+  SeriesType getType() {
+    return SeriesType.values()[buffer.getInt(8)];
+  }
+
+  /**
+   * Adds a sample to the slot of every archive that contains the timestamp. A slot that still holds
+   * a sample from a previous round of the archive is overwritten.
+   *
+   * @param timestamp time of the sample, in seconds since Unix epoch
+   * @param value the sample's value
+   * @param samples the number of samples, or values, that the value consolidates
+   */
+  void update(long timestamp, double value, int samples) {
+    boolean counter = getType() == SeriesType.COUNTER;
+    for (int i = 0; i < ARCHIVES.length; i++) {
+      int slots = ARCHIVES[i][1];
+      int slotNumber = (int) (timestamp / ARCHIVES[i][0]);
+      int index = slotNumber % slots;
+
+      int slotNumberPosition = archiveOffsets[i] + 4 * index;
+      int valuePosition = slotNumberPosition + 4 * slots;
+      int samplesPosition = valuePosition + 4 * slots;
+
+      if (buffer.getInt(slotNumberPosition) != slotNumber) {
+        buffer.putFloat(valuePosition, (float) value);
+        buffer.putInt(samplesPosition, samples);
+        buffer.putInt(slotNumberPosition, slotNumber);
+        continue;
+      }
+
+      double previousValue = buffer.getFloat(valuePosition);
+      int previousSamples = buffer.getInt(samplesPosition);
+      int totalSamples = previousSamples + samples;
+      if (counter) {
+        buffer.putFloat(valuePosition, (float) (previousValue + value));
+      } else if (totalSamples > 0) {
+        buffer.putFloat(
+            valuePosition,
+            (float) ((previousValue * previousSamples + value * samples) / totalSamples));
+      }
+      buffer.putInt(samplesPosition, totalSamples);
+    }
+  }
+
+  /**
+   * Reads the samples in a time range from the finest archive that still covers the start of the
+   * range.
+   *
+   * @param startTime start time, in seconds since Unix epoch
+   * @param endTime end time, in seconds since Unix epoch
+   * @param now the current time, in seconds since Unix epoch
+   * @return the samples in the time range
+   */
+  SeriesData fetch(long startTime, long endTime, long now) {
+    int archive = ARCHIVES.length - 1;
+    for (int i = 0; i < ARCHIVES.length; i++) {
+      if (startTime >= now - (long) ARCHIVES[i][0] * ARCHIVES[i][1]) {
+        archive = i;
+        break;
+      }
+    }
+
+    int step = ARCHIVES[archive][0];
+    int slots = ARCHIVES[archive][1];
+    long firstSlot = Math.max((startTime + step - 1) / step, endTime / step - slots + 1);
+    long lastSlot = endTime / step;
+
+    int capacity = (int) Math.max(0, Math.min(slots, lastSlot - firstSlot + 1));
+    long[] timestamps = new long[capacity];
+    double[] values = new double[capacity];
+    int size = 0;
+    for (long slotNumber = firstSlot; slotNumber <= lastSlot; slotNumber++) {
+      int index = (int) (slotNumber % slots);
+      int slotNumberPosition = archiveOffsets[archive] + 4 * index;
+      if (buffer.getInt(slotNumberPosition) == slotNumber) {
+        timestamps[size] = slotNumber * step;
+        values[size] = buffer.getFloat(slotNumberPosition + 4 * slots);
+        size++;
+      }
+    }
+
+    return new SeriesData(
+        getType(), step, Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+  }
+
+  /** Writes the changes to the file, they are otherwise written when the OS pages them out. */
+  void force() {
+    buffer.force();
+  }
+
+  private void writeHeader(SeriesType type) {
+    buffer.putInt(4, VERSION);
+    buffer.putInt(8, type.ordinal());
+    buffer.putInt(12, ARCHIVES.length);
+    for (int i = 0; i < ARCHIVES.length; i++) {
+      buffer.putInt(16 + 8 * i, ARCHIVES[i][0]);
+      buffer.putInt(20 + 8 * i, ARCHIVES[i][1]);
+    }
+    // Written last, so a file that was created but not initialized is initialized again
+    buffer.putInt(0, MAGIC);
+  }
+
+  private void verifyHeader(File file) throws IOException {
+    boolean valid =
+        buffer.getInt(0) == MAGIC
+            && buffer.getInt(4) == VERSION
+            && buffer.getInt(8) >= 0
+            && buffer.getInt(8) < SeriesType.values().length
+            && buffer.getInt(12) == ARCHIVES.length;
+    for (int i = 0; valid && i < ARCHIVES.length; i++) {
+      valid =
+          buffer.getInt(16 + 8 * i) == ARCHIVES[i][0]
+              && buffer.getInt(20 + 8 * i) == ARCHIVES[i][1];
+    }
+    if (!valid) {
+      throw new IOException(file + " is not a series file.");
+    }
+  }
+
+  private static long fileSize() {
+    long size = HEADER_SIZE;
+    for (int[] archive : ARCHIVES) {
+      size += (long) archive[1] * SLOT_SIZE;
+    }
+    return size;
+  }
+}
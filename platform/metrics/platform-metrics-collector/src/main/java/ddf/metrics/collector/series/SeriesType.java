@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.series;
+
+/** How the samples of a series are consolidated when several fall into the same archive slot. */
+public enum SeriesType {
+
+  /**
+   * Samples are the number of occurrences since the previous sample, e.g., the number of queries,
+   * and are added up.
+   */
+  COUNTER,
+
+  /**
+   * Samples are the mean of the values recorded since the previous sample, e.g., the mean latency,
+   * and are averaged, weighted by the number of values in each sample.
+   */
+  GAUGE
+}
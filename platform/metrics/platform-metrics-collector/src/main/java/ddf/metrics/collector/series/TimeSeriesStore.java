@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.series;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores the samples of every metric in the metrics directory, one {@code .series} file per metric.
+ *
+ * <p>Each file holds fixed-size, round-robin archives of 1 minute slots for the last day and 15
+ * minute slots for the last year, stored as columns of slot numbers, values and sample counts.
+ * Files are memory-mapped when they are first updated, so no file handle is kept open per metric,
+ * and a sample is written without any I/O call.
+ */
+public class TimeSeriesStore {
+
+  public static final String SERIES_FILE_EXTENSION = ".series";
+
+  private final String metricsDir;
+
+  private final Map<String, SeriesFile> seriesFiles = new ConcurrentHashMap<>();
+
+  /** @param metricsDir directory of the series files, ending with a separator */
+  public TimeSeriesStore(String metricsDir) {
+    this.metricsDir = metricsDir;
+  }
+
+  /**
+   * Reads the samples of a series file over a time range.
+   *
+   * @param seriesFile the series file
+   * @param startTime start time, in seconds since Unix epoch
+   * @param endTime end time, in seconds since Unix epoch
+   * @return the samples, from the archive with the finest resolution that covers the start time
+   * @throws IOException if the file can't be read or isn't a series file
+   */
+  public static SeriesData read(File seriesFile, long startTime, long endTime) throws IOException {
+    return SeriesFile.read(seriesFile)
+        .fetch(startTime, endTime, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+  }
+
+  /**
+   * Adds a sample to a metric's series, creating the series file if it doesn't exist.
+   *
+   * @param metricName name of the metric
+   * @param type type of the metric's series
+   * @param timestamp time of the sample, in seconds since Unix epoch
+   * @param value the sample's value
+   * @param samples the number of values the sample's value consolidates
+   * @throws IOException if the series file can't be created or isn't a series file
+   */
+  public void update(String metricName, SeriesType type, long timestamp, double value, int samples)
+      throws IOException {
+    SeriesFile seriesFile = seriesFiles.get(metricName);
+    if (seriesFile == null) {
+      seriesFile = SeriesFile.open(getSeriesFile(metricName), type);
+      seriesFiles.put(metricName, seriesFile);
+    }
+    seriesFile.update(timestamp, value, samples);
+  }
+
+  /**
+   * @param metricName name of the metric
+   * @return the series file of the metric
+   */
+  public File getSeriesFile(String metricName) {
+    return new File(metricsDir + metricName + SERIES_FILE_EXTENSION);
+  }
+
+  /** Writes the samples of all series to disk and releases the series files. */
+  public void close() {
+    seriesFiles.values().forEach(SeriesFile::force);
+    seriesFiles.clear();
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import ddf.metrics.collector.series.SeriesData;
+import ddf.metrics.collector.series.TimeSeriesStore;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SampledMetricsRegistryTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private TimeSeriesStore store;
+
+  private SampledMetricsRegistry registry;
+
+  @Before
+  public void setUp() {
+    store = new TimeSeriesStore(temporaryFolder.getRoot().getPath() + File.separator);
+    registry = new SampledMetricsRegistry(store, 60);
+  }
+
+  @Test
+  public void testSameNameReturnsSameMetric() {
+    assertThat(registry.counter("queries"), sameInstance(registry.counter("queries")));
+    assertThat(registry.histogram("latency"), sameInstance(registry.histogram("latency")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNameUsedByOtherType() {
+    registry.counter("queries");
+    registry.histogram("queries");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNameWithSeparators() {
+    registry.counter("catalog.queries");
+  }
+
+  @Test
+  public void testCounterSamplesAreIncrements() throws Exception {
+    Counter counter = registry.counter("queries");
+    counter.increment();
+    counter.increment(4);
+    registry.sample();
+
+    assertThat(counter.getCount(), is(5L));
+    assertThat(read("queries").getValues(), is(new double[] {5}));
+  }
+
+  @Test
+  public void testHistogramSamplesAreMeans() throws Exception {
+    Histogram histogram = registry.histogram("latency");
+    histogram.update(10);
+    histogram.update(30);
+    registry.sample();
+
+    assertThat(histogram.getCount(), is(2L));
+    assertThat(read("latency").getValues(), is(new double[] {20}));
+  }
+
+  @Test
+  public void testHistogramWithoutValuesHasNoSample() throws Exception {
+    registry.histogram("latency");
+    registry.counter("queries");
+    registry.sample();
+
+    assertThat(store.getSeriesFile("latency").exists(), is(false));
+    assertThat(read("queries").getValues(), is(new double[] {0}));
+  }
+
+  @Test
+  public void testRemoveKeepsUnsampledCount() throws Exception {
+    registry.counter("queries").increment(2);
+    registry.remove("queries");
+    registry.sample();
+
+    assertThat(read("queries").getValues(), is(new double[] {2}));
+  }
+
+  private SeriesData read(String metricName) throws Exception {
+    long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    return TimeSeriesStore.read(store.getSeriesFile(metricName), now - 60, now);
+  }
+}
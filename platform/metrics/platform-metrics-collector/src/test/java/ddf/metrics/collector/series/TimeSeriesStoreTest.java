@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.series;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TimeSeriesStoreTest {
+
+  private static final long NOW = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+  /** The start of the current 15 minute slot, so samples a minute apart share a 15 minute slot */
+  private static final long QUARTER_HOUR = NOW / 900 * 900;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private TimeSeriesStore store;
+
+  @Before
+  public void setUp() {
+    store = new TimeSeriesStore(temporaryFolder.getRoot().getPath() + File.separator);
+  }
+
+  @Test
+  public void testCounterSamples() throws Exception {
+    store.update("queries", SeriesType.COUNTER, QUARTER_HOUR, 3, 1);
+    store.update("queries", SeriesType.COUNTER, QUARTER_HOUR + 60, 4, 1);
+
+    SeriesData data = read("queries", QUARTER_HOUR, QUARTER_HOUR + 120);
+
+    assertThat(data.getType(), is(SeriesType.COUNTER));
+    assertThat(data.getStep(), is(60L));
+    assertThat(data.getTimestamps(), is(new long[] {QUARTER_HOUR, QUARTER_HOUR + 60}));
+    assertThat(data.getValues(), is(new double[] {3, 4}));
+  }
+
+  @Test
+  public void testCounterSamplesAreAddedUpInLongerSlots() throws Exception {
+    long dayAgo = QUARTER_HOUR - TimeUnit.DAYS.toSeconds(2);
+    store.update("queries", SeriesType.COUNTER, dayAgo, 3, 1);
+    store.update("queries", SeriesType.COUNTER, dayAgo + 60, 4, 1);
+
+    SeriesData data = read("queries", dayAgo, dayAgo + 900);
+
+    assertThat(data.getStep(), is(900L));
+    assertThat(data.getTimestamps(), is(new long[] {dayAgo}));
+    assertThat(data.getValues(), is(new double[] {7}));
+  }
+
+  @Test
+  public void testGaugeSamplesAreAveragedByWeight() throws Exception {
+    long dayAgo = QUARTER_HOUR - TimeUnit.DAYS.toSeconds(2);
+    store.update("latency", SeriesType.GAUGE, dayAgo, 10, 1);
+    store.update("latency", SeriesType.GAUGE, dayAgo + 60, 20, 3);
+
+    SeriesData data = read("latency", dayAgo, dayAgo + 900);
+
+    assertThat(data.getType(), is(SeriesType.GAUGE));
+    assertThat(data.getValues(), is(new double[] {17.5}));
+  }
+
+  @Test
+  public void testSlotsWithoutSamplesAreLeftOut() throws Exception {
+    store.update("queries", SeriesType.COUNTER, QUARTER_HOUR, 1, 1);
+    store.update("queries", SeriesType.COUNTER, QUARTER_HOUR + 180, 2, 1);
+
+    SeriesData data = read("queries", QUARTER_HOUR - 600, QUARTER_HOUR + 600);
+
+    assertThat(data.getTimestamps(), is(new long[] {QUARTER_HOUR, QUARTER_HOUR + 180}));
+  }
+
+  @Test
+  public void testSamplesOfAPreviousRoundAreOverwritten() throws Exception {
+    long dayAgo = QUARTER_HOUR - TimeUnit.DAYS.toSeconds(1);
+    store.update("queries", SeriesType.COUNTER, dayAgo, 5, 1);
+    store.update("queries", SeriesType.COUNTER, QUARTER_HOUR, 1, 1);
+
+    SeriesData data = read("queries", QUARTER_HOUR, QUARTER_HOUR);
+
+    assertThat(data.getValues(), is(new double[] {1}));
+  }
+
+  @Test
+  public void testSamplesAreKeptWhenTheStoreIsReopened() throws Exception {
+    store.update("queries", SeriesType.COUNTER, QUARTER_HOUR, 3, 1);
+    store.close();
+
+    store = new TimeSeriesStore(temporaryFolder.getRoot().getPath() + File.separator);
+    store.update("queries", SeriesType.COUNTER, QUARTER_HOUR, 2, 1);
+
+    assertThat(read("queries", QUARTER_HOUR, QUARTER_HOUR).getValues(), is(new double[] {5}));
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadFileThatIsNotASeriesFile() throws Exception {
+    File file = store.getSeriesFile("queries");
+    Files.write(file.toPath(), new byte[] {1, 2, 3});
+
+    TimeSeriesStore.read(file, QUARTER_HOUR, QUARTER_HOUR);
+  }
+
+  private SeriesData read(String metricName, long startTime, long endTime) throws IOException {
+    return TimeSeriesStore.read(store.getSeriesFile(metricName), startTime, endTime);
+  }
+}
@@ -13,11 +13,7 @@
  */
 package ddf.metrics.interceptor;
 
-import com.codahale.metrics.Histogram;
-import com.codahale.metrics.JmxReporter;
-import com.codahale.metrics.MetricRegistry;
-import com.codahale.metrics.SlidingTimeWindowReservoir;
-import java.util.concurrent.TimeUnit;
+import ddf.metrics.collector.Histogram;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
@@ -29,29 +25,18 @@
  */
 public abstract class AbstractMetricsInterceptor extends AbstractPhaseInterceptor<Message> {
 
-  private static final String REGISTRY_NAME = "ddf.METRICS.services";
-
-  private static final String HISTOGRAM_NAME = "Latency";
-
-  private static final MetricRegistry METRICS = new MetricRegistry();
-
-  private static final JmxReporter REPORTER =
-      JmxReporter.forRegistry(METRICS).inDomain(REGISTRY_NAME).build();
-
-  static final Histogram MESSAGE_LATENCY =
-      METRICS.register(
-          MetricRegistry.name(HISTOGRAM_NAME),
-          new Histogram(new SlidingTimeWindowReservoir(1, TimeUnit.MINUTES)));
+  private final Histogram messageLatency;
 
   /**
-   * Constructor to pass the phase to {@code AbstractPhaseInterceptor} and creates a new histogram.
+   * Constructor to pass the phase to {@code AbstractPhaseInterceptor}.
    *
    * @param phase
+   * @param messageLatency histogram the round trip message latencies are recorded in
    */
-  public AbstractMetricsInterceptor(String phase) {
+  public AbstractMetricsInterceptor(String phase, Histogram messageLatency) {
 
     super(phase);
-    REPORTER.start();
+    this.messageLatency = messageLatency;
   }
 
   protected boolean isClient(Message msg) {
@@ -90,6 +75,6 @@ protected void endHandlingMessage(Exchange ex) {
   }
 
   private void increaseCounter(LatencyTimeRecorder ltr) {
-    MESSAGE_LATENCY.update(ltr.getLatencyTime());
+    messageLatency.update(ltr.getLatencyTime());
   }
 }
@@ -13,6 +13,8 @@
  */
 package ddf.metrics.interceptor;
 
+import ddf.metrics.collector.Histogram;
+import ddf.metrics.collector.MetricsRegistry;
 import org.apache.cxf.Bus;
 import org.apache.cxf.feature.AbstractFeature;
 import org.apache.cxf.interceptor.InterceptorProvider;
@@ -26,18 +28,26 @@
  */
 public class MetricsFeature extends AbstractFeature {
 
-  private static final MetricsInInterceptor METRICS_IN = new MetricsInInterceptor();
-
-  private static final MetricsOutInterceptor METRICS_OUT = new MetricsOutInterceptor();
+  static final String LATENCY_METRIC_NAME = "servicesLatency";
 
   private static final String CLASS_NAME = "MetricsFeature";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MetricsFeature.class);
 
+  private final MetricsInInterceptor metricsIn;
+
+  private final MetricsOutInterceptor metricsOut;
+
+  public MetricsFeature(MetricsRegistry metricsRegistry) {
+    Histogram messageLatency = metricsRegistry.histogram(LATENCY_METRIC_NAME);
+    metricsIn = new MetricsInInterceptor(messageLatency);
+    metricsOut = new MetricsOutInterceptor(messageLatency);
+  }
+
   @Override
   protected void initializeProvider(InterceptorProvider provider, Bus bus) {
     LOGGER.debug("ENTERING: {}.initializeProvider", CLASS_NAME);
-    provider.getInInterceptors().add(METRICS_IN);
-    provider.getOutInterceptors().add(METRICS_OUT);
+    provider.getInInterceptors().add(metricsIn);
+    provider.getOutInterceptors().add(metricsOut);
   }
 }
@@ -13,6 +13,7 @@
  */
 package ddf.metrics.interceptor;
 
+import ddf.metrics.collector.Histogram;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
@@ -30,8 +31,8 @@ public class MetricsInInterceptor extends AbstractMetricsInterceptor {
 
   static final String TIME_IN = "TimeIn";
 
-  public MetricsInInterceptor() {
-    super(Phase.RECEIVE);
+  public MetricsInInterceptor(Histogram messageLatency) {
+    super(Phase.RECEIVE, messageLatency);
   }
 
   @Override
@@ -13,6 +13,7 @@
  */
 package ddf.metrics.interceptor;
 
+import ddf.metrics.collector.Histogram;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
@@ -31,8 +32,8 @@ public class MetricsOutInterceptor extends AbstractMetricsInterceptor {
 
   private OneWayMessageEndingInterceptor ending = new OneWayMessageEndingInterceptor();
 
-  public MetricsOutInterceptor() {
-    super(Phase.SEND);
+  public MetricsOutInterceptor(Histogram messageLatency) {
+    super(Phase.SEND, messageLatency);
   }
 
   /**
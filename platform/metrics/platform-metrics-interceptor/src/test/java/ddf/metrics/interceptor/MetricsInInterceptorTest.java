@@ -22,6 +22,7 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ddf.metrics.collector.Histogram;
 import org.apache.cxf.Bus;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.ExchangeImpl;
@@ -33,13 +34,14 @@
 public class MetricsInInterceptorTest {
 
   /**
-   * Test method for {@link ddf.metrics.interceptor.MetricsInInterceptor#MetricsInInterceptor()} .
+   * Test method for {@link
+   * ddf.metrics.interceptor.MetricsInInterceptor#MetricsInInterceptor(Histogram)} .
    */
   @Test
   public void testMetricsInInterceptor() {
 
     // Perform test
-    MetricsInInterceptor inInterceptor = new MetricsInInterceptor();
+    MetricsInInterceptor inInterceptor = new MetricsInInterceptor(new Histogram());
 
     // Validate
     assertEquals(Phase.RECEIVE, inInterceptor.getPhase());
@@ -55,7 +57,7 @@ public void testMetricsInInterceptor() {
   public void testHandleMessageWithTwoWayClientMessageWithLatencyTimeRecorder() {
 
     // Setup
-    MetricsInInterceptor inInterceptor = new MetricsInInterceptor();
+    MetricsInInterceptor inInterceptor = new MetricsInInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -86,7 +88,7 @@ public void testHandleMessageWithTwoWayClientMessageWithLatencyTimeRecorder() {
   public void testHandleMessageWithTwoWayClientMessageWithoutLatencyTimeRecorder() {
 
     // Setup
-    MetricsInInterceptor inInterceptor = new MetricsInInterceptor();
+    MetricsInInterceptor inInterceptor = new MetricsInInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -116,7 +118,7 @@ public void testHandleMessageWithTwoWayClientMessageWithoutLatencyTimeRecorder()
   public void testHandleMessageWithOneWayClientMessage() {
 
     // Setup
-    MetricsInInterceptor inInterceptor = new MetricsInInterceptor();
+    MetricsInInterceptor inInterceptor = new MetricsInInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -147,7 +149,7 @@ public void testHandleMessageWithOneWayClientMessage() {
   public void testHandleMessageWithNonClientMessageWithoutLatencyTimeRecorder() {
 
     // Setup
-    MetricsInInterceptor inInterceptor = new MetricsInInterceptor();
+    MetricsInInterceptor inInterceptor = new MetricsInInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -177,7 +179,7 @@ public void testHandleMessageWithNonClientMessageWithoutLatencyTimeRecorder() {
   public void testHandleMessageWithNonClientMessageWithLatencyTimeRecorder() {
 
     // Setup
-    MetricsInInterceptor inInterceptor = new MetricsInInterceptor();
+    MetricsInInterceptor inInterceptor = new MetricsInInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -209,7 +211,7 @@ public void testHandleMessageWithNonClientMessageWithLatencyTimeRecorder() {
   public void testHandleMessageWithoutExchange() {
 
     // Setup
-    MetricsInInterceptor inInterceptor = new MetricsInInterceptor();
+    MetricsInInterceptor inInterceptor = new MetricsInInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
 
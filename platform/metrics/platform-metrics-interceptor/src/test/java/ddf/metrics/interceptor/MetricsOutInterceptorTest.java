@@ -22,6 +22,7 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ddf.metrics.collector.Histogram;
 import org.apache.cxf.Bus;
 import org.apache.cxf.interceptor.InterceptorChain;
 import org.apache.cxf.message.Exchange;
@@ -34,13 +35,14 @@
 public class MetricsOutInterceptorTest {
 
   /**
-   * Test method for {@link ddf.metrics.interceptor.MetricsOutInterceptor#MetricsOutInterceptor()} .
+   * Test method for {@link
+   * ddf.metrics.interceptor.MetricsOutInterceptor#MetricsOutInterceptor(Histogram)} .
    */
   @Test
   public void testMetricsOutInterceptor() {
 
     // Perform test
-    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor();
+    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor(new Histogram());
 
     // Validate
     assertEquals(Phase.SEND, outInterceptor.getPhase());
@@ -56,7 +58,7 @@ public void testMetricsOutInterceptor() {
   public void testHandleMessageWithPartialResponseMessage() {
 
     // Setup
-    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor();
+    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -82,7 +84,7 @@ public void testHandleMessageWithPartialResponseMessage() {
   public void testHandleMessageWithTwoWayClientMessageWithLatencyTimeRecorder() {
 
     // Setup
-    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor();
+    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -114,7 +116,7 @@ public void testHandleMessageWithTwoWayClientMessageWithLatencyTimeRecorder() {
   public void testHandleMessageWithTwoWayClientMessageWithoutLatencyTimeRecorder() {
 
     // Setup
-    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor();
+    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -145,7 +147,7 @@ public void testHandleMessageWithTwoWayClientMessageWithoutLatencyTimeRecorder()
   public void testHandleMessageWithOneWayClientMessage() {
 
     // Setup
-    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor();
+    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -178,7 +180,7 @@ public void testHandleMessageWithOneWayClientMessage() {
   public void testHandleMessageWithNonClientMessageWithNullExchange() {
 
     // Setup
-    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor();
+    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
 
@@ -204,7 +206,7 @@ public void testHandleMessageWithNonClientMessageWithNullExchange() {
   public void testHandleMessageWithNonClientMessageWithoutLatencyTimeRecorder() {
 
     // Setup
-    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor();
+    MetricsOutInterceptor outInterceptor = new MetricsOutInterceptor(new Histogram());
 
     Message mockMessage = mock(Message.class);
     Exchange ex = new ExchangeImpl();
@@ -13,6 +13,7 @@
  */
 package ddf.metrics.reporting.internal.rest;
 
+import ddf.metrics.collector.series.TimeSeriesStore;
 import ddf.metrics.reporting.internal.MetricsEndpointException;
 import ddf.metrics.reporting.internal.MetricsGraphException;
 import ddf.metrics.reporting.internal.MetricsRetriever;
@@ -27,7 +28,6 @@
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -35,9 +35,11 @@
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TimeZone;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -83,6 +85,8 @@ public class MetricsEndpoint {
 
   private static final String RRD_FILE_EXTENSION = ".rrd";
 
+  private static final String SERIES_FILE_EXTENSION = TimeSeriesStore.SERIES_FILE_EXTENSION;
+
   private static final String JSON_MIME_TYPE = "application/json";
 
   private static final String PNG_MIME_TYPE = "image/png";
@@ -244,9 +248,9 @@ public Response getMetricsData(
           RrdMetricsRetriever.convertCamelCase(metricName) + " for " + startDate + " to " + endDate;
     }
 
-    // Convert metric filename to rrd filename (because RRD file required by MetricRetriever to
-    // generate graph)
-    String rrdFilename = metricsDir + metricName + RRD_FILE_EXTENSION;
+    // Convert metric name to the filename of its data (because the data file is required by
+    // MetricRetriever to generate graph)
+    String rrdFilename = getMetricFilename(metricName);
 
     if (outputFormat.equalsIgnoreCase(PNG_FORMAT)) {
       LOGGER.trace("Retrieving PNG-formatted data for metric {}", metricName);
@@ -592,46 +596,60 @@ protected void generateMetricsUrls(
   }
 
   /**
-   * Returns the list of all of the RRD files in the metrics directory.
+   * Returns the list of all of the metric data files, series and RRD, in the metrics directory.
    *
    * @return
    */
-  private String[] getRrdFiles() {
-    FilenameFilter rrdFilter =
+  private String[] getMetricFiles() {
+    FilenameFilter metricFilter =
         new FilenameFilter() {
           public boolean accept(File dir, String name) {
-            return name.endsWith(RRD_FILE_EXTENSION);
+            return name.endsWith(SERIES_FILE_EXTENSION) || name.endsWith(RRD_FILE_EXTENSION);
           }
         };
 
     File dir = new File(metricsDir);
-    String[] rrdFiles = dir.list(rrdFilter);
+    String[] metricFiles = dir.list(metricFilter);
 
-    return rrdFiles;
+    return metricFiles;
   }
 
   /**
-   * Returns a list of all of the metrics' names based on the list of RRD files found in the metrics
-   * directory.
+   * Returns a list of all of the metrics' names based on the list of metric data files found in the
+   * metrics directory. A metric that has both a series file and an RRD file recorded before it was
+   * moved to the series store is only listed once.
    *
    * @return
    */
   private List<String> getMetricsNames() {
-    String[] rrdFiles = getRrdFiles();
-    List<String> metricNames = new ArrayList<String>();
-    if (rrdFiles != null) {
-      for (String rrdFile : rrdFiles) {
+    String[] metricFiles = getMetricFiles();
+    Set<String> metricNames = new TreeSet<>();
+    if (metricFiles != null) {
+      for (String metricFile : metricFiles) {
         String metricsName =
-            FilenameUtils.getFullPath(rrdFile) + FilenameUtils.getBaseName(rrdFile);
+            FilenameUtils.getFullPath(metricFile) + FilenameUtils.getBaseName(metricFile);
         metricNames.add(metricsName);
       }
     }
 
-    Collections.sort(metricNames);
-
     LOGGER.trace("Returning {} metrics", metricNames.size());
 
-    return metricNames;
+    return new ArrayList<>(metricNames);
+  }
+
+  /**
+   * Returns the file holding a metric's data, its series file if there is one, otherwise its RRD
+   * file.
+   *
+   * @param metricName
+   * @return
+   */
+  private String getMetricFilename(String metricName) {
+    String seriesFilename = metricsDir + metricName + SERIES_FILE_EXTENSION;
+    if (new File(seriesFilename).exists()) {
+      return seriesFilename;
+    }
+    return metricsDir + metricName + RRD_FILE_EXTENSION;
   }
 
   void setMetricsDir(String metricsDir) {
@@ -13,13 +13,18 @@
  */
 package ddf.metrics.reporting.internal.rrd4j;
 
+import ddf.metrics.collector.series.SeriesData;
+import ddf.metrics.collector.series.SeriesType;
+import ddf.metrics.collector.series.TimeSeriesStore;
 import ddf.metrics.reporting.internal.MetricsGraphException;
 import ddf.metrics.reporting.internal.MetricsRetriever;
 import java.awt.Color;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
@@ -51,6 +56,7 @@
 import org.rrd4j.core.FetchData;
 import org.rrd4j.core.FetchRequest;
 import org.rrd4j.core.RrdDb;
+import org.rrd4j.data.Plottable;
 import org.rrd4j.graph.RrdGraph;
 import org.rrd4j.graph.RrdGraphDef;
 import org.slf4j.Logger;
@@ -59,8 +65,8 @@
 import org.w3c.dom.Element;
 
 /**
- * Retrieves metrics historical data from an RRD file and formats that data in a variety of formats
- * over a specified time range.
+ * Retrieves metrics historical data from a series or RRD file and formats that data in a variety of
+ * formats over a specified time range.
  *
  * <p>The supported formats include:
  *
@@ -198,6 +204,11 @@ public byte[] createGraph(
       String verticalAxisLabel,
       String title)
       throws IOException, MetricsGraphException {
+    if (isSeriesFile(rrdFilename)) {
+      return createSeriesGraph(
+          metricName, rrdFilename, startTime, endTime, verticalAxisLabel, title);
+    }
+
     // Create RRD DB in read-only mode for the specified RRD file
     try (RrdDb rrdDb = new RrdDb(rrdFilename, true)) {
 
@@ -213,15 +224,7 @@ public byte[] createGraph(
       }
 
       // Define attributes of the graph to be created for this metric
-      RrdGraphDef graphDef = new RrdGraphDef();
-      graphDef.setTimeSpan(startTime, endTime);
-      graphDef.setImageFormat("PNG");
-      graphDef.setShowSignature(false);
-      graphDef.setStep(RRD_STEP);
-      graphDef.setVerticalLabel(verticalAxisLabel);
-      graphDef.setHeight(500);
-      graphDef.setWidth(1000);
-      graphDef.setTitle(title);
+      RrdGraphDef graphDef = createGraphDef(startTime, endTime, RRD_STEP, verticalAxisLabel, title);
 
       // Since we have verified only one datasource in RRD file/RRDb, then know
       // that we can index by zero safely and get the metric's data
@@ -266,15 +269,8 @@ public byte[] createGraph(
             "constrainedTotal", "realTotal," + metricsMaxThreshold + ",GT,UNKN,realTotal,IF");
         graphDef.line("constrainedTotal", Color.BLUE, convertCamelCase(metricName), 2);
 
-        // Add some spacing between the graph and the summary stats shown beneath the graph
-        graphDef.comment("\\s");
-        graphDef.comment("\\s");
-        graphDef.comment("\\c");
-
         // Average, Min, and Max over all of the TOTAL data - displayed at bottom of the graph
-        graphDef.gprint("constrainedTotal", ConsolFun.AVERAGE, "Average = %.3f%s");
-        graphDef.gprint("constrainedTotal", ConsolFun.MIN, "Min = %.3f%s");
-        graphDef.gprint("constrainedTotal", ConsolFun.MAX, "Max = %.3f%s");
+        addSummary(graphDef, "constrainedTotal");
       } else if (dataSourceType == DsType.GAUGE) {
         if (LOGGER.isTraceEnabled()) {
           dumpData(ConsolFun.AVERAGE, "AVERAGE", rrdDb, dataSourceType.name(), startTime, endTime);
@@ -283,15 +279,8 @@ public byte[] createGraph(
         graphDef.datasource("myAverage", rrdFilename, dataSource.getName(), ConsolFun.AVERAGE);
         graphDef.line("myAverage", Color.RED, convertCamelCase(metricName), 2);
 
-        // Add some spacing between the graph and the summary stats shown beneath the graph
-        graphDef.comment("\\s");
-        graphDef.comment("\\s");
-        graphDef.comment("\\c");
-
         // Average, Min, and Max over all of the AVERAGE data - displayed at bottom of the graph
-        graphDef.gprint("myAverage", ConsolFun.AVERAGE, "Average = %.3f%s");
-        graphDef.gprint("myAverage", ConsolFun.MIN, "Min = %.3f%s");
-        graphDef.gprint("myAverage", ConsolFun.MAX, "Max = %.3f%s");
+        addSummary(graphDef, "myAverage");
       } else {
         rrdDb.close();
         throw new MetricsGraphException(
@@ -313,6 +302,63 @@ public byte[] createGraph(
     }
   }
 
+  private byte[] createSeriesGraph(
+      String metricName,
+      String seriesFilename,
+      long startTime,
+      long endTime,
+      String verticalAxisLabel,
+      String title)
+      throws IOException {
+    SeriesData seriesData = TimeSeriesStore.read(new File(seriesFilename), startTime, endTime);
+
+    RrdGraphDef graphDef =
+        createGraphDef(startTime, endTime, seriesData.getStep(), verticalAxisLabel, title);
+    graphDef.datasource("series", new SeriesPlottable(seriesData));
+
+    if (seriesData.getType() == SeriesType.COUNTER) {
+      // Series counters already hold the total for each step, so unlike RRD counters they don't
+      // need to be multiplied by the step. Spike data is still constrained by the threshold.
+      graphDef.datasource(
+          "constrainedTotal", "series," + metricsMaxThreshold + ",GT,UNKN,series,IF");
+      graphDef.line("constrainedTotal", Color.BLUE, convertCamelCase(metricName), 2);
+      addSummary(graphDef, "constrainedTotal");
+    } else {
+      graphDef.line("series", Color.RED, convertCamelCase(metricName), 2);
+      addSummary(graphDef, "series");
+    }
+
+    graphDef.setFilename("-");
+    RrdGraph graph = new RrdGraph(graphDef);
+
+    return graph.getRrdGraphInfo().getBytes();
+  }
+
+  private RrdGraphDef createGraphDef(
+      long startTime, long endTime, long step, String verticalAxisLabel, String title) {
+    RrdGraphDef graphDef = new RrdGraphDef();
+    graphDef.setTimeSpan(startTime, endTime);
+    graphDef.setImageFormat("PNG");
+    graphDef.setShowSignature(false);
+    graphDef.setStep(step);
+    graphDef.setVerticalLabel(verticalAxisLabel);
+    graphDef.setHeight(500);
+    graphDef.setWidth(1000);
+    graphDef.setTitle(title);
+    return graphDef;
+  }
+
+  private void addSummary(RrdGraphDef graphDef, String sourceName) {
+    // Add some spacing between the graph and the summary stats shown beneath the graph
+    graphDef.comment("\\s");
+    graphDef.comment("\\s");
+    graphDef.comment("\\c");
+
+    graphDef.gprint(sourceName, ConsolFun.AVERAGE, "Average = %.3f%s");
+    graphDef.gprint(sourceName, ConsolFun.MIN, "Min = %.3f%s");
+    graphDef.gprint(sourceName, ConsolFun.MAX, "Max = %.3f%s");
+  }
+
   @Override
   public String createCsvData(String rrdFilename, long startTime, long endTime)
       throws IOException, MetricsGraphException {
@@ -632,9 +678,17 @@ private String getTimestamp(
   }
 
   private String getRrdFilename(String metricsDir, String metricName) {
+    String seriesFilename = metricsDir + metricName + TimeSeriesStore.SERIES_FILE_EXTENSION;
+    if (new File(seriesFilename).exists()) {
+      return seriesFilename;
+    }
     return metricsDir + metricName + ".rrd";
   }
 
+  private boolean isSeriesFile(String filename) {
+    return filename.endsWith(TimeSeriesStore.SERIES_FILE_EXTENSION);
+  }
+
   private void increment(MutableDateTime chunkStart, SUMMARY_INTERVALS summaryInterval) {
     switch (summaryInterval) {
       case minute:
@@ -765,6 +819,10 @@ public MetricData getMetricData(String rrdFilename, long startTime, long endTime
       throws IOException, MetricsGraphException {
     LOGGER.trace("ENTERING: getMetricData");
 
+    if (isSeriesFile(rrdFilename)) {
+      return getSeriesMetricData(rrdFilename, startTime, endTime);
+    }
+
     // Create RRD DB in read-only mode for the specified RRD file
     try (RrdDb rrdDb = new RrdDb(rrdFilename, true)) {
 
@@ -850,6 +908,31 @@ public MetricData getMetricData(String rrdFilename, long startTime, long endTime
     }
   }
 
+  private MetricData getSeriesMetricData(String seriesFilename, long startTime, long endTime)
+      throws IOException {
+    SeriesData seriesData = TimeSeriesStore.read(new File(seriesFilename), startTime, endTime);
+
+    List<Long> timestamps = new ArrayList<>(seriesData.size());
+    List<Double> values = new ArrayList<>(seriesData.size());
+    long totalCount = 0;
+    for (int i = 0; i < seriesData.size(); i++) {
+      timestamps.add(seriesData.getTimestamps()[i]);
+      values.add(seriesData.getValues()[i]);
+      totalCount += (long) seriesData.getValues()[i];
+    }
+
+    // Series counters hold the total for each step, so they can be summed as is
+    MetricData metricData = new MetricData();
+    metricData.setHasTotalCount(seriesData.getType() == SeriesType.COUNTER);
+    metricData.setTimestamps(timestamps);
+    metricData.setValues(values);
+    metricData.setTotalCount(metricData.hasTotalCount() ? totalCount : 0);
+
+    LOGGER.trace("EXITING: getMetricData");
+
+    return metricData;
+  }
+
   private void dumpData(
       ConsolFun consolFun,
       String dataType,
@@ -898,4 +981,27 @@ private void dumpData(
 
     LOGGER.trace("***********  END Dump of RRD file:  [{}]  ***************", rrdFilename);
   }
+
+  /** Graphs the samples of a series, leaving the steps without a sample unknown. */
+  private static class SeriesPlottable extends Plottable {
+
+    private final SeriesData seriesData;
+
+    SeriesPlottable(SeriesData seriesData) {
+      this.seriesData = seriesData;
+    }
+
+    @Override
+    public double getValue(long timestamp) {
+      int index = Arrays.binarySearch(seriesData.getTimestamps(), timestamp);
+      if (index < 0) {
+        // The sample whose step contains the timestamp, if there is one
+        index = -index - 2;
+      }
+      if (index < 0 || timestamp >= seriesData.getTimestamps()[index] + seriesData.getStep()) {
+        return Double.NaN;
+      }
+      return seriesData.getValues()[index];
+    }
+  }
 }
@@ -24,6 +24,8 @@
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 
+import ddf.metrics.collector.series.SeriesType;
+import ddf.metrics.collector.series.TimeSeriesStore;
 import ddf.metrics.reporting.internal.MetricsGraphException;
 import ddf.metrics.reporting.internal.MetricsRetriever;
 import java.io.ByteArrayInputStream;
@@ -81,7 +83,9 @@ public void tearDown() throws Exception {
     FilenameFilter pngFilter =
         new FilenameFilter() {
           public boolean accept(File dir, String name) {
-            if (name.endsWith(".rrd") || name.endsWith(".png")) {
+            if (name.endsWith(".rrd")
+                || name.endsWith(".png")
+                || name.endsWith(TimeSeriesStore.SERIES_FILE_EXTENSION)) {
               return true;
             }
 
@@ -155,6 +159,48 @@ public void testMetricsGraphWithCounter() throws Exception {
     assertThat(metricsGraph.length, is(greaterThan(0)));
   }
 
+  @Test
+  public void testMetricsGraphWithSeries() throws Exception {
+    long endTime = writeSeries("queryCountSeries", SeriesType.COUNTER);
+    String seriesFilename = TEST_DIR + "queryCountSeries" + TimeSeriesStore.SERIES_FILE_EXTENSION;
+
+    MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
+    byte[] metricsGraph =
+        metricsRetriever.createGraph("Query Count", seriesFilename, endTime - 600, endTime);
+
+    assertThat(metricsGraph, not(nullValue()));
+    assertThat(metricsGraph.length, is(greaterThan(0)));
+  }
+
+  @Test
+  public void testMetricDataWithSeriesCounter() throws Exception {
+    long endTime = writeSeries("queryCountSeries", SeriesType.COUNTER);
+    String seriesFilename = TEST_DIR + "queryCountSeries" + TimeSeriesStore.SERIES_FILE_EXTENSION;
+
+    MetricData metricData =
+        new RrdMetricsRetriever().getMetricData(seriesFilename, endTime - 600, endTime);
+
+    // Series counters hold the totals for each step, so they aren't multiplied by the step
+    assertThat(metricData.hasTotalCount(), is(true));
+    assertThat(metricData.getValues().size(), is(5));
+    assertThat(metricData.getValues().get(0), is(1.0));
+    assertThat(metricData.getTotalCount(), is(15L));
+  }
+
+  @Test
+  public void testMetricDataWithSeriesGauge() throws Exception {
+    long endTime = writeSeries("queryResponseTimeSeries", SeriesType.GAUGE);
+    String seriesFilename =
+        TEST_DIR + "queryResponseTimeSeries" + TimeSeriesStore.SERIES_FILE_EXTENSION;
+
+    MetricData metricData =
+        new RrdMetricsRetriever().getMetricData(seriesFilename, endTime - 600, endTime);
+
+    assertThat(metricData.hasTotalCount(), is(false));
+    assertThat(metricData.getValues().size(), is(5));
+    assertThat(metricData.getValues().get(4), is(5.0));
+  }
+
   @Test
   public void testMetricsJsonDataWithCounter() throws Exception {
     String rrdFilename = TEST_DIR + "queryCount_Counter" + RRD_FILE_EXTENSION;
@@ -724,4 +770,24 @@ private void dumpData() throws IOException {
       LOGGER.debug(fetchData.dump());
     }
   }
+
+  /**
+   * Writes a sample of 1 to 5 for each of the last five minutes to a series file in the test
+   * directory.
+   *
+   * @return the time of the last sample, in seconds since Unix epoch
+   */
+  private long writeSeries(String metricName, SeriesType type) throws IOException {
+    TimeSeriesStore store = new TimeSeriesStore(TEST_DIR);
+    long now = System.currentTimeMillis() / 1000;
+    long lastSample = now - now % RRD_STEP - RRD_STEP;
+    try {
+      for (int i = 1; i <= 5; i++) {
+        store.update(metricName, type, lastSample - (5 - i) * RRD_STEP, i, 1);
+      }
+    } finally {
+      store.close();
+    }
+    return lastSample;
+  }
 }
@@ -18,8 +18,10 @@
 import ddf.security.impl.SubjectImpl;
 import ddf.security.service.SecurityManager;
 import ddf.security.service.SecurityServiceException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
@@ -27,6 +29,9 @@
 import org.apache.shiro.authc.UnknownAccountException;
 import org.apache.shiro.authc.pam.AbstractAuthenticationStrategy;
 import org.apache.shiro.authc.pam.ModularRealmAuthenticator;
+import org.apache.shiro.authz.Authorizer;
+import org.apache.shiro.authz.ModularRealmAuthorizer;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.mgt.DefaultSecurityManager;
 import org.apache.shiro.realm.Realm;
 import org.apache.shiro.session.mgt.SimpleSession;
@@ -47,6 +52,7 @@ public SecurityManagerImpl() {
     internalManager = new DefaultSecurityManager();
     ((ModularRealmAuthenticator) internalManager.getAuthenticator())
         .setAuthenticationStrategy(new AllSuccessfulStrategy());
+    internalManager.setAuthorizer(new BulkRealmAuthorizer());
   }
 
   /** @param realms The realms used for the backing authZ and authN operations. */
@@ -113,6 +119,53 @@ private Subject getSubject(AuthenticationToken token) throws SecurityServiceExce
     }
   }
 
+  /**
+   * Passes bulk permission checks to each realm as a whole, instead of one permission at a time
+   * like {@link ModularRealmAuthorizer} does, so a realm can share the work between permissions.
+   * Like {@link ModularRealmAuthorizer}, a permission is permitted if any realm permits it, and
+   * later realms are only asked about the permissions that have not been permitted yet.
+   */
+  static class BulkRealmAuthorizer extends ModularRealmAuthorizer {
+
+    @Override
+    public boolean[] isPermitted(PrincipalCollection principals, List<Permission> permissions) {
+      assertRealmsConfigured();
+      if (permissions == null || permissions.isEmpty()) {
+        return new boolean[0];
+      }
+
+      boolean[] results = new boolean[permissions.size()];
+      List<Integer> pendingIndexes = new ArrayList<>(permissions.size());
+      for (int i = 0; i < permissions.size(); i++) {
+        pendingIndexes.add(i);
+      }
+
+      for (Realm realm : getRealms()) {
+        if (!(realm instanceof Authorizer) || pendingIndexes.isEmpty()) {
+          continue;
+        }
+
+        List<Permission> pendingPermissions = new ArrayList<>(pendingIndexes.size());
+        for (int index : pendingIndexes) {
+          pendingPermissions.add(permissions.get(index));
+        }
+        boolean[] realmResults = ((Authorizer) realm).isPermitted(principals, pendingPermissions);
+
+        List<Integer> stillPendingIndexes = new ArrayList<>(pendingIndexes.size());
+        for (int i = 0; i < pendingIndexes.size(); i++) {
+          if (realmResults[i]) {
+            results[pendingIndexes.get(i)] = true;
+          } else {
+            stillPendingIndexes.add(pendingIndexes.get(i));
+          }
+        }
+        pendingIndexes = stillPendingIndexes;
+      }
+
+      return results;
+    }
+  }
+
   private static class AllSuccessfulStrategy extends AbstractAuthenticationStrategy {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AllSuccessfulStrategy.class);
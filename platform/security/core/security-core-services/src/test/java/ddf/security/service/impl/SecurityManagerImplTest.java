@@ -13,8 +13,12 @@
  */
 package ddf.security.service.impl;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.security.Subject;
@@ -23,7 +27,10 @@
 import org.apache.cxf.ws.security.tokenstore.SecurityToken;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.realm.Realm;
+import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.subject.SimplePrincipalCollection;
 import org.junit.Rule;
 import org.junit.Test;
@@ -94,4 +101,28 @@ public void testAuthToken() throws SecurityServiceException {
     Subject subject = manager.getSubject(authToken);
     assertNotNull(subject);
   }
+
+  /** Tests that bulk permission checks are passed to the realms as a whole. */
+  @Test
+  public void testBulkPermissionCheck() {
+    Permission first = mock(Permission.class);
+    Permission second = mock(Permission.class);
+    Permission third = mock(Permission.class);
+    PrincipalCollection principals = new SimplePrincipalCollection("user", REALM_NAME);
+    AuthorizingRealm firstRealm = mock(AuthorizingRealm.class);
+    when(firstRealm.isPermitted(principals, Arrays.asList(first, second, third)))
+        .thenReturn(new boolean[] {true, false, false});
+    AuthorizingRealm secondRealm = mock(AuthorizingRealm.class);
+    when(secondRealm.isPermitted(principals, Arrays.asList(second, third)))
+        .thenReturn(new boolean[] {false, true});
+    SecurityManagerImpl.BulkRealmAuthorizer authorizer =
+        new SecurityManagerImpl.BulkRealmAuthorizer();
+    authorizer.setRealms(Arrays.asList(firstRealm, secondRealm));
+
+    boolean[] permitted = authorizer.isPermitted(principals, Arrays.asList(first, second, third));
+
+    assertArrayEquals(new boolean[] {true, false, true}, permitted);
+    verify(firstRealm, never()).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+    verify(secondRealm, never()).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+  }
 }
@@ -22,12 +22,15 @@
 import ddf.security.permission.MatchOneCollectionPermission;
 import ddf.security.policy.extension.PolicyExtension;
 import ddf.security.service.impl.AbstractAuthorizingRealm;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
@@ -181,28 +184,65 @@ public boolean isPermitted(PrincipalCollection subjectPrincipal, Permission perm
   public boolean[] isPermitted(PrincipalCollection subjectPrincipal, List<Permission> permissions) {
     boolean[] results = new boolean[permissions.size()];
     AuthorizationInfo authorizationInfo = getAuthorizationInfo(subjectPrincipal);
+    Collection<Permission> perms = getPermissions(authorizationInfo);
     List<Permission> expandedPermissions = expandPermissions(permissions);
+
+    // The subject is the same for all of the permissions, so permissions that are equal, such as
+    // those of metacards with the same security markings, only need to be evaluated once
+    Map<Object, Boolean> decisions = new HashMap<>();
     int i = 0;
     for (Permission permission : expandedPermissions) {
-      results[i++] = isPermitted(subjectPrincipal, permission, authorizationInfo);
+      Object decisionKey = getDecisionKey(permission);
+      Boolean permitted = decisionKey == null ? null : decisions.get(decisionKey);
+      if (permitted == null) {
+        permitted = isPermitted(subjectPrincipal, permission, authorizationInfo, perms);
+        if (decisionKey != null) {
+          decisions.put(decisionKey, permitted);
+        }
+      }
+      results[i++] = permitted;
     }
 
     return results;
   }
 
+  /**
+   * Returns a key that is equal for {@link KeyValueCollectionPermission}s with the same action and
+   * key value permissions, regardless of their order.
+   *
+   * @param permission the permission being checked.
+   * @return the key, or null if the permission can't be compared to others
+   */
+  private Object getDecisionKey(Permission permission) {
+    if (!(permission instanceof KeyValueCollectionPermission)) {
+      return null;
+    }
+
+    KeyValueCollectionPermission kvcp = (KeyValueCollectionPermission) permission;
+    List<KeyValuePermission> keyValuePermissions = kvcp.getKeyValuePermissionList();
+    Set<Map.Entry<String, Set<String>>> keyValues = new HashSet<>(keyValuePermissions.size());
+    for (KeyValuePermission keyValuePermission : keyValuePermissions) {
+      keyValues.add(
+          new AbstractMap.SimpleImmutableEntry<>(
+              keyValuePermission.getKey(), new HashSet<>(keyValuePermission.getValues())));
+    }
+    return Arrays.asList(kvcp.getAction(), keyValues);
+  }
+
   /**
    * Checks if the corresponding Subject/user contained within the AuthorizationInfo object implies
    * the given Permission.
    *
    * @param permission the permission being checked.
    * @param authorizationInfo the application-specific subject/user identifier.
+   * @param perms the permissions asserted by the authorizationInfo.
    * @return true if the user is permitted
    */
   private boolean isPermitted(
       PrincipalCollection subjectPrincipal,
       Permission permission,
-      AuthorizationInfo authorizationInfo) {
-    Collection<Permission> perms = getPermissions(authorizationInfo);
+      AuthorizationInfo authorizationInfo,
+      Collection<Permission> perms) {
     String curUser = "<user>";
     if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
       curUser = subjectPrincipal.getPrimaryPrincipal().toString();
@@ -25,6 +25,7 @@
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import junit.framework.Assert;
 import org.apache.shiro.authz.AuthorizationInfo;
 import org.apache.shiro.authz.Permission;
@@ -231,6 +232,46 @@ public void testIsNotPermitted() {
     }
   }
 
+  @Test
+  public void testEqualPermissionsAreEvaluatedOnce() {
+    AtomicInteger evaluations = new AtomicInteger();
+    testRealm.addPolicyExtension(
+        new PolicyExtension() {
+          @Override
+          public KeyValueCollectionPermission isPermittedMatchAll(
+              CollectionPermission subjectAllCollection,
+              KeyValueCollectionPermission matchAllCollection,
+              KeyValueCollectionPermission allPermissionsCollection) {
+            return matchAllCollection;
+          }
+
+          @Override
+          public KeyValueCollectionPermission isPermittedMatchOne(
+              CollectionPermission subjectAllCollection,
+              KeyValueCollectionPermission matchOneCollection,
+              KeyValueCollectionPermission allPermissionsCollection) {
+            evaluations.incrementAndGet();
+            return matchOneCollection;
+          }
+        });
+
+    HashMap<String, List<String>> reordered = new HashMap<>();
+    reordered.put("rule", Arrays.asList("B", "A"));
+    reordered.put("country", Arrays.asList("GBR", "CAN", "AUS"));
+    HashMap<String, List<String>> notPermitted = new HashMap<>(security);
+    notPermitted.put("rule", Arrays.asList("A", "B", "C"));
+    permissionList.clear();
+    permissionList.add(new KeyValueCollectionPermission("action", security));
+    permissionList.add(new KeyValueCollectionPermission("action", notPermitted));
+    permissionList.add(new KeyValueCollectionPermission("action", security));
+    permissionList.add(new KeyValueCollectionPermission("action", reordered));
+
+    boolean[] permittedArray = testRealm.isPermitted(mockSubjectPrincipal, permissionList);
+
+    Assert.assertTrue(Arrays.equals(new boolean[] {true, false, true, true}, permittedArray));
+    Assert.assertEquals(2, evaluations.get());
+  }
+
   @Test
   public void testBadPolicyExtension() {
     permissionList.clear();